@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2021 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,9 +22,12 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -50,6 +53,7 @@ import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
 import org.eclipse.debug.core.model.IDebugElement;
 import org.eclipse.debug.core.model.IDisconnect;
 import org.eclipse.debug.core.model.IDropToFrame;
@@ -61,15 +65,19 @@ import org.eclipse.debug.core.model.ISuspendResume;
 import org.eclipse.debug.core.model.ITerminate;
 import org.eclipse.debug.core.model.IValue;
 import org.eclipse.debug.core.model.RuntimeProcess;
+import org.eclipse.debug.core.model.StepFilterMatcher;
 import org.eclipse.debug.internal.core.BreakpointManager;
 import org.eclipse.debug.internal.core.DebugCoreMessages;
+import org.eclipse.debug.internal.core.DebugEventCoalescer;
 import org.eclipse.debug.internal.core.DebugOptions;
+import org.eclipse.debug.internal.core.EventDispatchStatistics;
 import org.eclipse.debug.internal.core.ExpressionManager;
 import org.eclipse.debug.internal.core.IConfigurationElementConstants;
 import org.eclipse.debug.internal.core.IInternalDebugCoreConstants;
 import org.eclipse.debug.internal.core.LaunchManager;
 import org.eclipse.debug.internal.core.LogicalStructureManager;
 import org.eclipse.debug.internal.core.MemoryBlockManager;
+import org.eclipse.debug.internal.core.MemoryPageCache;
 import org.eclipse.debug.internal.core.Preferences;
 import org.eclipse.debug.internal.core.StepFilterManager;
 import org.eclipse.debug.internal.core.commands.CommandAdapterFactory;
@@ -445,11 +453,57 @@ public class DebugPlugin extends Plugin {
 
 	/**
 	 * Queue of debug events to fire to listeners and asynchronous runnables to execute
-	 * in the order received.
+	 * in the order received. Elements are {@link QueuedElement}s. The queue is
+	 * non-blocking, so event producers never contend on a monitor; the
+	 * {@link EventDispatchJob} is its only consumer.
 	 *
 	 * @since 3.1
 	 */
-	private List<Object> fEventQueue = new ArrayList<>();
+	private final Queue<QueuedElement> fEventQueue = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Counters describing the event queue.
+	 *
+	 * @since 3.21
+	 */
+	private final EventDispatchStatistics fEventStatistics = EventDispatchStatistics.getDefault();
+
+	/**
+	 * Maximum number of debug events adjacent event sets are coalesced into
+	 * before they are delivered to listeners.
+	 *
+	 * @since 3.21
+	 */
+	private static final int MAX_COALESCED_EVENTS = 1024;
+
+	/**
+	 * Whether redundant change events are folded before delivery, cached from
+	 * {@link IInternalDebugCoreConstants#PREF_COALESCE_CHANGE_EVENTS} as it is
+	 * needed for every event set.
+	 *
+	 * @since 3.21
+	 */
+	private volatile boolean fCoalesceChangeEvents;
+
+	/**
+	 * Whether adjacent event sets of a debug target are merged before
+	 * delivery, cached from
+	 * {@link IInternalDebugCoreConstants#PREF_COALESCE_EVENT_SETS}.
+	 *
+	 * @since 3.21
+	 */
+	private volatile boolean fCoalesceEventSets;
+
+	/**
+	 * Updates the cached event dispatch preferences.
+	 *
+	 * @since 3.21
+	 */
+	private final IPreferenceChangeListener fDispatchPreferenceListener = event -> {
+		if (IInternalDebugCoreConstants.PREF_COALESCE_CHANGE_EVENTS.equals(event.getKey()) || IInternalDebugCoreConstants.PREF_COALESCE_EVENT_SETS.equals(event.getKey())) {
+			updateDispatchPreferences();
+		}
+	};
 
 	/**
 	 * Job to fire events to listeners.
@@ -457,8 +511,29 @@ public class DebugPlugin extends Plugin {
 	 */
 	private EventDispatchJob fEventDispatchJob = new EventDispatchJob();
 
+	/**
+	 * An event set or runnable waiting in the event queue, together with the
+	 * time it was queued.
+	 *
+	 * @since 3.21
+	 */
+	static final class QueuedElement {
+
+		final Object fElement;
+		final long fQueuedAt;
+
+		QueuedElement(Object element) {
+			fElement = element;
+			fQueuedAt = System.nanoTime();
+		}
+	}
+
 	/**
 	 * Event dispatch job. Processes event queue of debug events and runnables.
+	 * If enabled by {@link IInternalDebugCoreConstants#PREF_COALESCE_EVENT_SETS},
+	 * adjacent debug event sets (not separated by a runnable) of the same debug
+	 * target are coalesced into a single event set, so each listener is notified
+	 * once per batch.
 	 *
 	 * @since 3.1
 	 */
@@ -478,23 +553,57 @@ public class DebugPlugin extends Plugin {
 
 		@Override
 		protected IStatus run(IProgressMonitor monitor) {
-
-			while (!fEventQueue.isEmpty()) {
-				Object next = null;
-				synchronized (fEventQueue) {
-					if (!fEventQueue.isEmpty()) {
-						next = fEventQueue.remove(0);
-					}
+			QueuedElement next = poll();
+			while (next != null) {
+				if (next.fElement instanceof Runnable) {
+					fRunner.async((Runnable) next.fElement);
+					next = poll();
+					continue;
 				}
-				if (next instanceof Runnable) {
-					fRunner.async((Runnable) next);
-				} else if (next != null) {
-					fNotifier.dispatch((DebugEvent[]) next);
+				DebugEvent[] events = (DebugEvent[]) next.fElement;
+				Object owner = DebugEventCoalescer.getOwner(events);
+				next = poll();
+				if (fCoalesceEventSets && isRelated(next, owner)) {
+					List<DebugEvent> batch = new ArrayList<>(events.length * 2);
+					Collections.addAll(batch, events);
+					while (isRelated(next, owner) && batch.size() < MAX_COALESCED_EVENTS) {
+						Collections.addAll(batch, (DebugEvent[]) next.fElement);
+						next = poll();
+					}
+					events = batch.toArray(new DebugEvent[batch.size()]);
 				}
+				fNotifier.dispatch(events);
+				fEventStatistics.delivered();
 			}
 			return Status.OK_STATUS;
 		}
 
+		/**
+		 * Returns whether the given queued element is an event set which may be
+		 * coalesced with event sets of the given owner.
+		 *
+		 * @param next queued element or <code>null</code>
+		 * @param owner owner of the preceding event sets or <code>null</code>
+		 * @return whether the event sets may be coalesced
+		 */
+		private boolean isRelated(QueuedElement next, Object owner) {
+			return owner != null && next != null && next.fElement instanceof DebugEvent[] && owner.equals(DebugEventCoalescer.getOwner((DebugEvent[]) next.fElement));
+		}
+
+		/**
+		 * Removes the head of the event queue and updates the queue statistics.
+		 *
+		 * @return the next queued element or <code>null</code> if the queue
+		 *         is empty
+		 */
+		private QueuedElement poll() {
+			QueuedElement next = fEventQueue.poll();
+			if (next != null) {
+				fEventStatistics.dequeued(System.nanoTime() - next.fQueuedAt, next.fElement instanceof DebugEvent[]);
+			}
+			return next;
+		}
+
 		@Override
 		public boolean shouldRun() {
 			return shouldSchedule();
@@ -574,10 +683,7 @@ public class DebugPlugin extends Plugin {
 		if (isShuttingDown() || events == null || fEventListeners.isEmpty()) {
 			return;
 		}
-		synchronized (fEventQueue) {
-			fEventQueue.add(events);
-		}
-		fEventDispatchJob.schedule();
+		enqueue(events);
 	}
 
 	/**
@@ -590,9 +696,18 @@ public class DebugPlugin extends Plugin {
 	 * @since 2.1
 	 */
 	public void asyncExec(Runnable r) {
-		synchronized (fEventQueue) {
-			fEventQueue.add(r);
-		}
+		enqueue(r);
+	}
+
+	/**
+	 * Adds the given event set or runnable to the event queue and schedules
+	 * the event dispatch job.
+	 *
+	 * @param element debug event set or runnable
+	 */
+	private void enqueue(Object element) {
+		fEventStatistics.queued();
+		fEventQueue.add(new QueuedElement(element));
 		fEventDispatchJob.schedule();
 	}
 
@@ -708,12 +823,16 @@ public class DebugPlugin extends Plugin {
 			if (fBreakpointManager != null) {
 				fBreakpointManager.shutdown();
 			}
+			if (fExpressionManager != null) {
+				fExpressionManager.shutdown();
+			}
 			if (fMemoryBlockManager != null)  {
 				fMemoryBlockManager.shutdown();
 			}
 
 			fEventListeners.clear();
 			fEventFilters.clear();
+			Preferences.removePreferenceListener(getUniqueIdentifier(), fDispatchPreferenceListener);
 
 			SourceLookupUtils.shutdown();
 			Preferences.savePreferences(DebugPlugin.getUniqueIdentifier());
@@ -728,6 +847,8 @@ public class DebugPlugin extends Plugin {
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
 		new DebugOptions(context);
+		Preferences.addPreferenceListener(getUniqueIdentifier(), fDispatchPreferenceListener);
+		updateDispatchPreferences();
 		ResourcesPlugin.getWorkspace().addSaveParticipant(getUniqueIdentifier(),
 				new ISaveParticipant() {
 					@Override
@@ -756,6 +877,8 @@ public class DebugPlugin extends Plugin {
 		manager.registerAdapters(actionFactory, ILaunch.class);
 		manager.registerAdapters(actionFactory, IProcess.class);
 		manager.registerAdapters(actionFactory, IDebugElement.class);
+		// listen to debug events before any rendering reads cached memory
+		MemoryPageCache.getDefault();
 	}
 
 	/**
@@ -1238,6 +1361,9 @@ public class DebugPlugin extends Plugin {
 		 */
 		void dispatch(DebugEvent[] events) {
 			fEvents = events;
+			if (fCoalesceChangeEvents) {
+				fEvents = DebugEventCoalescer.coalesce(fEvents);
+			}
 			if (!fEventFilters.isEmpty()) {
 				fMode = NOTIFY_FILTERS;
 				for (IDebugEventFilter iDebugEventFilter : fEventFilters) {
@@ -1266,6 +1392,15 @@ public class DebugPlugin extends Plugin {
 
 	}
 
+	/**
+	 * Reads the preferences controlling how debug event sets are delivered to
+	 * filters and listeners.
+	 */
+	private void updateDispatchPreferences() {
+		fCoalesceChangeEvents = Platform.getPreferencesService().getBoolean(getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_COALESCE_CHANGE_EVENTS, false, null);
+		fCoalesceEventSets = Platform.getPreferencesService().getBoolean(getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_COALESCE_EVENT_SETS, false, null);
+	}
+
 	/**
 	 * Creates and returns a new XML document.
 	 *
@@ -1722,6 +1857,21 @@ public class DebugPlugin extends Plugin {
 		return getStepFilterManager().getStepFilters(modelIdentifier);
 	}
 
+	/**
+	 * Returns a matcher for the given step filter patterns, such as
+	 * <code>java.lang.*</code>. Debug models can use it to match the frames of a
+	 * step against their active step filters. Matchers are compiled once and
+	 * reused for as long as the same patterns are requested.
+	 *
+	 * @param patterns the active step filter patterns
+	 * @return a matcher for the given patterns
+	 * @since 3.21
+	 * @see StepFilterMatcher
+	 */
+	public static StepFilterMatcher getStepFilterMatcher(String[] patterns) {
+		return getStepFilterManager().getStepFilterMatcher(patterns);
+	}
+
 	/**
 	 * Returns the step filter manager.
 	 *
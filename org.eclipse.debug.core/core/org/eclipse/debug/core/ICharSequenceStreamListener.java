@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.core;
+
+import org.eclipse.debug.core.model.IStreamMonitor;
+
+/**
+ * A stream listener which receives appended text as a {@link CharSequence}.
+ * <p>
+ * Stream monitors supporting this interface pass a view of their internal
+ * decoding buffer instead of creating a new <code>String</code> for every
+ * chunk of content. The character sequence is only valid for the duration of
+ * the notification; listeners that need to keep the content must copy it (for
+ * example with <code>toString()</code>).
+ * </p>
+ * <p>
+ * Listeners implementing this interface are registered like any other
+ * {@link IStreamListener}. Stream monitors not aware of this interface notify
+ * through {@link #streamAppended(String, IStreamMonitor)}, which forwards to
+ * {@link #streamAppended(CharSequence, IStreamMonitor)}.
+ * </p>
+ * <p>
+ * Clients may implement this interface.
+ * </p>
+ *
+ * @see IStreamMonitor
+ * @see IStreamListener
+ * @since 3.21
+ */
+public interface ICharSequenceStreamListener extends IStreamListener {
+
+	/**
+	 * Notifies this listener that text has been appended to the given stream
+	 * monitor.
+	 *
+	 * @param text the appended text; not <code>null</code> and only valid
+	 *            until this method returns
+	 * @param monitor the stream monitor to which text was appended
+	 */
+	void streamAppended(CharSequence text, IStreamMonitor monitor);
+
+	@Override
+	default void streamAppended(String text, IStreamMonitor monitor) {
+		streamAppended((CharSequence) text, monitor);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -96,7 +96,12 @@ public abstract class Breakpoint extends PlatformObject implements IBreakpoint,
 		if (enabled != isEnabled()) {
 			setAttribute(ENABLED, enabled);
 			if (isTriggerPoint()) {
-				DebugPlugin.getDefault().getBreakpointManager().refreshTriggerpointDisplay();
+				IBreakpointManager manager = DebugPlugin.getDefault().getBreakpointManager();
+				if (manager instanceof BreakpointManager) {
+					((BreakpointManager) manager).refreshTriggerPointDependents();
+				} else {
+					manager.refreshTriggerpointDisplay();
+				}
 			}
 		}
 	}
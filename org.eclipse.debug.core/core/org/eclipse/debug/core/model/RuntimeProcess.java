@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import org.eclipse.core.runtime.CoreException;
@@ -37,6 +38,7 @@ import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.internal.core.DebugCoreMessages;
 import org.eclipse.debug.internal.core.NullStreamsProxy;
+import org.eclipse.debug.internal.core.ProcessMonitorExecutor;
 import org.eclipse.debug.internal.core.StreamsProxy;
 
 /**
@@ -74,10 +76,17 @@ public class RuntimeProcess extends PlatformObject implements IProcess {
 
 	/**
 	 * The monitor which listens for this runtime process' system process
-	 * to terminate.
+	 * to terminate, or <code>null</code> if termination is detected through
+	 * {@link Process#onExit()}.
 	 */
 	private final ProcessMonitorThread fMonitor;
 
+	/**
+	 * Whether {@link #terminated()} has been called by the exit detection
+	 * used if {@link ProcessMonitorExecutor#isEnabled()}.
+	 */
+	private final AtomicBoolean fExitNotified = new AtomicBoolean();
+
 	/**
 	 * The streams proxy for this process
 	 */
@@ -152,12 +161,51 @@ public class RuntimeProcess extends PlatformObject implements IProcess {
 		fThreadNameSuffix = getPidInfo(process, launch);
 
 		fStreamsProxy = createStreamsProxy();
-		fMonitor = new ProcessMonitorThread(fThreadNameSuffix);
-		fMonitor.start();
+		if (ProcessMonitorExecutor.isEnabled()) {
+			fMonitor = null;
+			if (isSystemProcess(process)) {
+				process.onExit().whenCompleteAsync((p, e) -> {
+					if (e == null) {
+						notifyExit();
+					} else {
+						// exit is unknown, the process may still be alive
+						waitForExit();
+					}
+				}, ProcessMonitorExecutor.getExecutor());
+			} else {
+				// the default Process.onExit() would block a common pool
+				// thread per process, poll instead
+				waitForExit();
+			}
+		} else {
+			fMonitor = new ProcessMonitorThread(fThreadNameSuffix);
+			fMonitor.start();
+		}
 		launch.addProcess(this);
 		fireCreationEvent();
 	}
 
+	/**
+	 * Returns whether the given process is implemented by the JDK and
+	 * {@link Process#onExit()} completes without blocking a thread.
+	 *
+	 * @param process the process to check
+	 * @return whether the process is a JDK process handle
+	 */
+	private static boolean isSystemProcess(Process process) {
+		return process.getClass().getModule() == Process.class.getModule();
+	}
+
+	/**
+	 * Notifies the termination of the system process once it has terminated,
+	 * polled by the shared process monitor executor. Polling stops once the
+	 * exit has been notified otherwise, for example because terminating the
+	 * process failed.
+	 */
+	private void waitForExit() {
+		ProcessMonitorExecutor.awaitExit(fProcess, fExitNotified::get, this::notifyExit);
+	}
+
 	private static String getPidInfo(Process process, ILaunch launch) {
 		String pid;
 		ILaunchConfiguration lc = launch == null ? null : launch.getLaunchConfiguration();
@@ -274,7 +322,11 @@ public class RuntimeProcess extends PlatformObject implements IProcess {
 			}
 
 			// clean-up
-			fMonitor.killThread();
+			if (fMonitor != null) {
+				fMonitor.killThread();
+			} else {
+				ProcessMonitorExecutor.getExecutor().execute(this::notifyExit);
+			}
 			IStatus status = new Status(IStatus.ERROR, DebugPlugin.getUniqueIdentifier(), DebugException.TARGET_REQUEST_FAILED, DebugCoreMessages.RuntimeProcess_terminate_failed, null);
 			throw new DebugException(status);
 		}
@@ -310,6 +362,16 @@ public class RuntimeProcess extends PlatformObject implements IProcess {
 		}
 	}
 
+	/**
+	 * Calls {@link #terminated()} once, if termination is detected through
+	 * {@link Process#onExit()}.
+	 */
+	private void notifyExit() {
+		if (fExitNotified.compareAndSet(false, true)) {
+			terminated();
+		}
+	}
+
 	/**
 	 * Notification that the system process associated with this process
 	 * has terminated.
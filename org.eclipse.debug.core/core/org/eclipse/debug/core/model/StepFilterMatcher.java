@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.core.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * An immutable matcher for a set of step filter patterns, such as
+ * <code>java.lang.*</code>, <code>java.lang.String</code> or
+ * <code>*Test?</code>. In patterns, <code>*</code> matches any sequence of
+ * characters and <code>?</code> matches any single character.
+ * <p>
+ * Patterns are compiled once so that a name is matched against all of them in
+ * a single pass over its characters: names and prefixes (patterns whose only
+ * wildcard is a trailing <code>*</code>) are stored in a trie, other patterns
+ * are simulated together as one automaton. Debug models obtain matchers
+ * through {@link org.eclipse.debug.core.DebugPlugin#getStepFilterMatcher(String[])},
+ * which caches them, and can match every frame of a step against it.
+ * </p>
+ *
+ * @since 3.21
+ */
+public final class StepFilterMatcher {
+
+	/**
+	 * Matcher of no patterns.
+	 */
+	public static final StepFilterMatcher EMPTY = new StepFilterMatcher(new String[0]);
+
+	/**
+	 * Token of the accepting position following each wildcard pattern.
+	 */
+	private static final char ACCEPT = '\0';
+
+	/**
+	 * A node of the trie of names and prefixes.
+	 */
+	private static final class Node {
+		char[] fChars = new char[0];
+		Node[] fChildren = new Node[0];
+		/**
+		 * Whether a name ending at this node matches.
+		 */
+		boolean fName;
+		/**
+		 * Whether all names continuing from this node match.
+		 */
+		boolean fPrefix;
+
+		Node getChild(char c) {
+			int index = Arrays.binarySearch(fChars, c);
+			return index < 0 ? null : fChildren[index];
+		}
+
+		Node addChild(char c) {
+			int index = Arrays.binarySearch(fChars, c);
+			if (index >= 0) {
+				return fChildren[index];
+			}
+			index = -index - 1;
+			char[] chars = new char[fChars.length + 1];
+			Node[] children = new Node[fChildren.length + 1];
+			System.arraycopy(fChars, 0, chars, 0, index);
+			System.arraycopy(fChildren, 0, children, 0, index);
+			System.arraycopy(fChars, index, chars, index + 1, fChars.length - index);
+			System.arraycopy(fChildren, index, children, index + 1, fChildren.length - index);
+			Node child = new Node();
+			chars[index] = c;
+			children[index] = child;
+			fChars = chars;
+			fChildren = children;
+			return child;
+		}
+	}
+
+	private final String[] fPatterns;
+	private final Node fRoot = new Node();
+	private final boolean fHasTrie;
+
+	/**
+	 * Tokens of all wildcard patterns, each followed by {@link #ACCEPT}.
+	 */
+	private final char[] fTokens;
+
+	/**
+	 * Initial states of the wildcard automaton.
+	 */
+	private final BitSet fStart = new BitSet();
+
+	private StepFilterMatcher(String[] patterns) {
+		fPatterns = patterns.clone();
+		boolean hasTrie = false;
+		StringBuilder tokens = new StringBuilder();
+		List<Integer> starts = new ArrayList<>();
+		for (String pattern : fPatterns) {
+			int wildcard = indexOfWildcard(pattern);
+			if (wildcard < 0) {
+				insert(pattern).fName = true;
+				hasTrie = true;
+			} else if (wildcard == pattern.length() - 1 && pattern.charAt(wildcard) == '*') {
+				insert(pattern.substring(0, wildcard)).fPrefix = true;
+				hasTrie = true;
+			} else {
+				starts.add(Integer.valueOf(tokens.length()));
+				tokens.append(pattern).append(ACCEPT);
+			}
+		}
+		fHasTrie = hasTrie;
+		fTokens = tokens.toString().toCharArray();
+		for (Integer start : starts) {
+			addState(fStart, start.intValue());
+		}
+	}
+
+	/**
+	 * Returns a matcher for the given patterns.
+	 *
+	 * @param patterns step filter patterns
+	 * @return a matcher for the given patterns
+	 */
+	public static StepFilterMatcher compile(String[] patterns) {
+		if (patterns.length == 0) {
+			return EMPTY;
+		}
+		return new StepFilterMatcher(patterns);
+	}
+
+	/**
+	 * Returns the patterns of this matcher.
+	 *
+	 * @return the patterns of this matcher
+	 */
+	public String[] getPatterns() {
+		return fPatterns.clone();
+	}
+
+	/**
+	 * Returns whether the given name, typically a qualified type name, matches
+	 * any of the patterns of this matcher.
+	 *
+	 * @param name the name to match
+	 * @return whether the name matches any pattern
+	 */
+	public boolean matches(String name) {
+		if (fHasTrie && matchesTrie(name)) {
+			return true;
+		}
+		return !fStart.isEmpty() && matchesAutomaton(name);
+	}
+
+	private boolean matchesTrie(String name) {
+		Node node = fRoot;
+		for (int i = 0; i < name.length(); i++) {
+			if (node.fPrefix) {
+				return true;
+			}
+			node = node.getChild(name.charAt(i));
+			if (node == null) {
+				return false;
+			}
+		}
+		return node.fName || node.fPrefix;
+	}
+
+	private boolean matchesAutomaton(String name) {
+		BitSet states = (BitSet) fStart.clone();
+		BitSet next = new BitSet(fTokens.length);
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			next.clear();
+			for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+				char token = fTokens[state];
+				if (token == '*') {
+					addState(next, state);
+				} else if (token != ACCEPT && (token == '?' || token == c)) {
+					addState(next, state + 1);
+				}
+			}
+			if (next.isEmpty()) {
+				return false;
+			}
+			BitSet swap = states;
+			states = next;
+			next = swap;
+		}
+		for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+			if (fTokens[state] == ACCEPT) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the given state and the states following it through <code>*</code>
+	 * tokens, which may match nothing.
+	 */
+	private void addState(BitSet states, int state) {
+		int current = state;
+		states.set(current);
+		while (fTokens[current] == '*') {
+			states.set(++current);
+		}
+	}
+
+	private Node insert(String name) {
+		Node node = fRoot;
+		for (int i = 0; i < name.length(); i++) {
+			node = node.addChild(name.charAt(i));
+		}
+		return node;
+	}
+
+	private static int indexOfWildcard(String pattern) {
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if (c == '*' || c == '?') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(fPatterns);
+	}
+}
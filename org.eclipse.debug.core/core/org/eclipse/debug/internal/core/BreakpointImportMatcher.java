@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.core.model.IBreakpointImportParticipant;
+
+/**
+ * Finds the existing breakpoint matching the attributes of an imported
+ * breakpoint without asking the import participants about every existing
+ * breakpoint.
+ * <p>
+ * Existing breakpoints are hashed by marker type, and for the default import
+ * participant additionally by line number. Import participants are only asked
+ * about breakpoints with the marker type of the imported breakpoint, the type
+ * the participants are registered for. Breakpoints are considered in the given
+ * order, the first one matched by any participant wins.
+ * </p>
+ *
+ * @since 3.21
+ */
+public class BreakpointImportMatcher {
+
+	/**
+	 * Attribute holding the marker type of an imported breakpoint.
+	 */
+	private static final String TYPE = "type"; //$NON-NLS-1$
+
+	private final Map<String, List<IBreakpoint>> fByType = new HashMap<>();
+	private final Map<String, Map<Object, List<IBreakpoint>>> fByTypeAndLine = new HashMap<>();
+
+	/**
+	 * Creates a matcher for the given existing breakpoints.
+	 *
+	 * @param breakpoints existing breakpoints, in the order they should be
+	 *            considered
+	 */
+	public BreakpointImportMatcher(IBreakpoint[] breakpoints) {
+		for (IBreakpoint breakpoint : breakpoints) {
+			IMarker marker = breakpoint.getMarker();
+			if (marker == null) {
+				continue;
+			}
+			try {
+				String type = marker.getType();
+				fByType.computeIfAbsent(type, t -> new ArrayList<>()).add(breakpoint);
+				Object line = marker.getAttribute(IMarker.LINE_NUMBER);
+				fByTypeAndLine.computeIfAbsent(type, t -> new HashMap<>()).computeIfAbsent(line, l -> new ArrayList<>()).add(breakpoint);
+			} catch (CoreException e) {
+				// marker no longer exists, cannot match
+			}
+		}
+	}
+
+	/**
+	 * Returns the marker of the first existing breakpoint matched by one of the
+	 * given participants, or <code>null</code> if none.
+	 *
+	 * @param attributes attributes of the imported breakpoint
+	 * @param participants the participants for the imported breakpoint's
+	 *            marker type
+	 * @return marker of the matching breakpoint or <code>null</code>
+	 */
+	public IMarker findExistingMarker(Map<String, Object> attributes, IBreakpointImportParticipant[] participants) {
+		if (participants == null || participants.length == 0) {
+			return null;
+		}
+		Object type = attributes.get(TYPE);
+		List<IBreakpoint> candidates = fByType.get(type);
+		if (candidates == null) {
+			return null;
+		}
+		if (participants.length == 1 && participants[0] instanceof BreakpointManager.DefaultImportParticipant) {
+			// the default participant matches type and line number
+			Object line = attributes.get(IMarker.LINE_NUMBER);
+			if (line != null) {
+				Map<Object, List<IBreakpoint>> byLine = fByTypeAndLine.get(type);
+				candidates = byLine == null ? Collections.emptyList() : byLine.getOrDefault(line, Collections.emptyList());
+			}
+		}
+		for (IBreakpoint breakpoint : candidates) {
+			for (IBreakpointImportParticipant participant : participants) {
+				try {
+					if (participant.matches(attributes, breakpoint)) {
+						return breakpoint.getMarker();
+					}
+				} catch (CoreException e) {
+					// does not match
+				}
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.debug.core.model.IBreakpoint;
+
+/**
+ * Secondary indexes over the breakpoints registered with the
+ * {@link BreakpointManager}: by model identifier, by the resource of the
+ * breakpoint marker and by resource and line number.
+ * <p>
+ * The index is updated by the breakpoint manager when breakpoints are added
+ * or removed and when their markers change. Updates are serialized on the
+ * index, queries do not lock. Query results are in the order breakpoints were
+ * added to the index, like the list of all breakpoints kept by the breakpoint
+ * manager. Queries for a <code>null</code> model identifier or resource find
+ * no breakpoints.
+ * </p>
+ *
+ * @since 3.21
+ */
+class BreakpointIndex {
+
+	/**
+	 * Resource and line number of a breakpoint marker.
+	 */
+	private static final class LineKey {
+		final IResource fResource;
+		final int fLine;
+
+		LineKey(IResource resource, int line) {
+			fResource = resource;
+			fLine = line;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof LineKey)) {
+				return false;
+			}
+			LineKey other = (LineKey) obj;
+			return fLine == other.fLine && Objects.equals(fResource, other.fResource);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(fResource) * 31 + fLine;
+		}
+	}
+
+	/**
+	 * The indexed keys of one breakpoint.
+	 */
+	private static final class Entry {
+		final long fSequence;
+		final String fModelIdentifier;
+		final IResource fResource;
+		final int fLine;
+
+		Entry(long sequence, String modelIdentifier, IResource resource, int line) {
+			fSequence = sequence;
+			fModelIdentifier = modelIdentifier;
+			fResource = resource;
+			fLine = line;
+		}
+	}
+
+	private final Map<IBreakpoint, Entry> fEntries = new ConcurrentHashMap<>();
+	private final Map<String, Set<IBreakpoint>> fByModel = new ConcurrentHashMap<>();
+	private final Map<IResource, Set<IBreakpoint>> fByResource = new ConcurrentHashMap<>();
+	private final Map<LineKey, Set<IBreakpoint>> fByLine = new ConcurrentHashMap<>();
+	private long fNextSequence;
+
+	/**
+	 * @param breakpoint a breakpoint
+	 * @return whether the breakpoint is indexed
+	 */
+	boolean contains(IBreakpoint breakpoint) {
+		return fEntries.containsKey(breakpoint);
+	}
+
+	/**
+	 * Adds the given breakpoint to the index.
+	 *
+	 * @param breakpoint the breakpoint to add
+	 */
+	synchronized void add(IBreakpoint breakpoint) {
+		if (!fEntries.containsKey(breakpoint)) {
+			index(breakpoint, fNextSequence++);
+		}
+	}
+
+	/**
+	 * Re-computes the indexed keys of the given breakpoint, for example after
+	 * its marker changed. Does nothing if the breakpoint is not indexed.
+	 *
+	 * @param breakpoint the changed breakpoint
+	 */
+	synchronized void update(IBreakpoint breakpoint) {
+		Entry old = fEntries.get(breakpoint);
+		if (old == null) {
+			return;
+		}
+		IMarker marker = breakpoint.getMarker();
+		IResource resource = marker == null ? null : marker.getResource();
+		int line = getLine(marker);
+		if (line == old.fLine && (resource == null ? old.fResource == null : resource.equals(old.fResource))) {
+			return;
+		}
+		unindex(breakpoint);
+		index(breakpoint, old.fSequence);
+	}
+
+	/**
+	 * Removes the given breakpoint from the index.
+	 *
+	 * @param breakpoint the breakpoint to remove
+	 */
+	synchronized void remove(IBreakpoint breakpoint) {
+		unindex(breakpoint);
+	}
+
+	/**
+	 * Removes all breakpoints from the index.
+	 */
+	synchronized void clear() {
+		fEntries.clear();
+		fByModel.clear();
+		fByResource.clear();
+		fByLine.clear();
+	}
+
+	/**
+	 * @param modelIdentifier debug model identifier or <code>null</code>
+	 * @return breakpoints of the given debug model
+	 */
+	List<IBreakpoint> getByModel(String modelIdentifier) {
+		return sorted(modelIdentifier == null ? null : fByModel.get(modelIdentifier));
+	}
+
+	/**
+	 * @param resource a resource or <code>null</code>
+	 * @return breakpoints whose marker is on the given resource
+	 */
+	List<IBreakpoint> getByResource(IResource resource) {
+		return sorted(resource == null ? null : fByResource.get(resource));
+	}
+
+	/**
+	 * @param resource a resource or <code>null</code>
+	 * @param line line number, or -1 for breakpoints without line number
+	 * @return breakpoints whose marker is on the given resource and line
+	 */
+	List<IBreakpoint> getByLine(IResource resource, int line) {
+		return sorted(resource == null ? null : fByLine.get(new LineKey(resource, line)));
+	}
+
+	/**
+	 * @param container a project or folder
+	 * @return breakpoints whose marker is on the container or a resource in
+	 *         it
+	 */
+	List<IBreakpoint> getWithin(IResource container) {
+		List<IBreakpoint> result = new ArrayList<>();
+		if (container == null) {
+			return result;
+		}
+		fByResource.forEach((resource, breakpoints) -> {
+			if (container.getFullPath().isPrefixOf(resource.getFullPath())) {
+				result.addAll(breakpoints);
+			}
+		});
+		return sort(result);
+	}
+
+	/**
+	 * Returns the line number attribute of the given marker, or -1 if none.
+	 *
+	 * @param marker a breakpoint marker or <code>null</code>
+	 * @return line number or -1
+	 */
+	static int getLine(IMarker marker) {
+		if (marker == null) {
+			return -1;
+		}
+		return marker.getAttribute(IMarker.LINE_NUMBER, -1);
+	}
+
+	private List<IBreakpoint> sorted(Collection<IBreakpoint> breakpoints) {
+		if (breakpoints == null) {
+			return new ArrayList<>(0);
+		}
+		return sort(new ArrayList<>(breakpoints));
+	}
+
+	private List<IBreakpoint> sort(List<IBreakpoint> breakpoints) {
+		if (breakpoints.size() > 1) {
+			breakpoints.removeIf(breakpoint -> !fEntries.containsKey(breakpoint));
+			breakpoints.sort(Comparator.comparingLong(breakpoint -> {
+				// removed concurrently, sorted last
+				Entry entry = fEntries.get(breakpoint);
+				return entry == null ? Long.MAX_VALUE : entry.fSequence;
+			}));
+		}
+		return breakpoints;
+	}
+
+	private void index(IBreakpoint breakpoint, long sequence) {
+		String modelIdentifier = breakpoint.getModelIdentifier();
+		IMarker marker = breakpoint.getMarker();
+		IResource resource = marker == null ? null : marker.getResource();
+		int line = getLine(marker);
+		fEntries.put(breakpoint, new Entry(sequence, modelIdentifier, resource, line));
+		if (modelIdentifier != null) {
+			put(fByModel, modelIdentifier, breakpoint);
+		}
+		if (resource != null) {
+			put(fByResource, resource, breakpoint);
+			put(fByLine, new LineKey(resource, line), breakpoint);
+		}
+	}
+
+	private void unindex(IBreakpoint breakpoint) {
+		Entry entry = fEntries.remove(breakpoint);
+		if (entry == null) {
+			return;
+		}
+		if (entry.fModelIdentifier != null) {
+			remove(fByModel, entry.fModelIdentifier, breakpoint);
+		}
+		if (entry.fResource != null) {
+			remove(fByResource, entry.fResource, breakpoint);
+			remove(fByLine, new LineKey(entry.fResource, entry.fLine), breakpoint);
+		}
+	}
+
+	private static <K> void put(Map<K, Set<IBreakpoint>> map, K key, IBreakpoint breakpoint) {
+		map.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(breakpoint);
+	}
+
+	private static <K> void remove(Map<K, Set<IBreakpoint>> map, K key, IBreakpoint breakpoint) {
+		Set<IBreakpoint> breakpoints = map.get(key);
+		if (breakpoints != null) {
+			breakpoints.remove(breakpoint);
+			if (breakpoints.isEmpty()) {
+				map.remove(key);
+			}
+		}
+	}
+}
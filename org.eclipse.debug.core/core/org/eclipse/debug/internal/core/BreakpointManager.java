@@ -16,6 +16,7 @@ package org.eclipse.debug.internal.core;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -132,6 +133,12 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 */
 	private final HashMap<IMarker, IBreakpoint> fMarkersToBreakpoints;
 
+	/**
+	 * Index of the registered breakpoints by model identifier, resource and
+	 * line number, maintained along with {@link #fBreakpoints}.
+	 */
+	private final BreakpointIndex fBreakpointIndex = new BreakpointIndex();
+
 	/**
 	 * Collection of breakpoint listeners.
 	 */
@@ -165,6 +172,22 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 */
 	private final Set<IBreakpoint> fTriggerPointDisabledList = new LinkedHashSet<>();
 
+	/**
+	 * Whether trigger points were active when the display of the breakpoints
+	 * depending on them was last refreshed, or <code>null</code> if it has not
+	 * been refreshed since trigger points were added or removed.
+	 */
+	private volatile Boolean fTriggerPointsActiveShown;
+
+	/**
+	 * Per thread state of a batched trigger point update: <code>null</code>
+	 * if the thread does not run one, otherwise whether a display refresh was
+	 * requested during the update. The display is refreshed once when the
+	 * outermost update of the thread completes, refreshes requested by other
+	 * threads are not delayed.
+	 */
+	private final ThreadLocal<Boolean> fTriggerPointRefreshPending = new ThreadLocal<>();
+
 
 	/**
 	 * Listens to POST_CHANGE notifications of breakpoint markers to detect when
@@ -244,6 +267,11 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 									fPostChangMarkersChanged.add(marker);
 								}
 							}
+							// keep the line index current without waiting for the build
+							IBreakpoint breakpoint = fMarkersToBreakpoints.get(marker);
+							if (breakpoint != null) {
+								fBreakpointIndex.update(breakpoint);
+							}
 							break;
 						default:
 							break;
@@ -359,6 +387,7 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 			fBreakpoints.clear();
 			fBreakpoints = null;
 		}
+		fBreakpointIndex.clear();
 		if(fMarkersToBreakpoints != null) {
 			fMarkersToBreakpoints.clear();
 		}
@@ -441,17 +470,40 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 
 	@Override
 	public IBreakpoint[] getBreakpoints(String modelIdentifier) {
-		Vector<IBreakpoint> allBreakpoints = getBreakpoints0();
-		synchronized (allBreakpoints) {
-			ArrayList<IBreakpoint> temp = new ArrayList<>(allBreakpoints.size());
-			for (IBreakpoint breakpoint : allBreakpoints) {
-				String id= breakpoint.getModelIdentifier();
-				if (id != null && id.equals(modelIdentifier)) {
-					temp.add(breakpoint);
-				}
-			}
-			return temp.toArray(new IBreakpoint[temp.size()]);
-		}
+		getBreakpoints0();
+		List<IBreakpoint> breakpoints = fBreakpointIndex.getByModel(modelIdentifier);
+		return breakpoints.toArray(new IBreakpoint[breakpoints.size()]);
+	}
+
+	/**
+	 * Returns the registered breakpoints whose marker is on the given
+	 * resource, in the order they were registered.
+	 *
+	 * @param resource a resource
+	 * @return breakpoints on the resource, possibly empty
+	 * @since 3.21
+	 */
+	public IBreakpoint[] getBreakpoints(IResource resource) {
+		getBreakpoints0();
+		List<IBreakpoint> breakpoints = fBreakpointIndex.getByResource(resource);
+		return breakpoints.toArray(new IBreakpoint[breakpoints.size()]);
+	}
+
+	/**
+	 * Returns the registered breakpoints whose marker is on the given
+	 * resource and has the given line number, in the order they were
+	 * registered.
+	 *
+	 * @param resource a resource
+	 * @param lineNumber line number, or -1 for breakpoints without a line
+	 *            number
+	 * @return breakpoints on the line, possibly empty
+	 * @since 3.21
+	 */
+	public IBreakpoint[] getBreakpoints(IResource resource, int lineNumber) {
+		getBreakpoints0();
+		List<IBreakpoint> breakpoints = fBreakpointIndex.getByLine(resource, lineNumber);
+		return breakpoints.toArray(new IBreakpoint[breakpoints.size()]);
 	}
 
 	/**
@@ -475,7 +527,8 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 */
 	@Override
 	public boolean isRegistered(IBreakpoint breakpoint) {
-		return getBreakpoints0().contains(breakpoint);
+		getBreakpoints0();
+		return fBreakpointIndex.contains(breakpoint);
 	}
 
 
@@ -495,19 +548,21 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		final List<IBreakpoint> remove = new ArrayList<>(breakpoints.length);
 		List<IBreakpoint> bps = getBreakpoints0();
 		for (IBreakpoint breakpoint : breakpoints) {
-			if (bps.contains(breakpoint)) {
+			if (fBreakpointIndex.contains(breakpoint)) {
 				remove.add(breakpoint);
 			}
 		}
 		if (!remove.isEmpty()) {
+			// single pass over all breakpoints
+			bps.removeAll(new HashSet<>(remove));
 			for (IBreakpoint breakpoint : remove) {
-				bps.remove(breakpoint);
+				fBreakpointIndex.remove(breakpoint);
 				fMarkersToBreakpoints.remove(breakpoint.getMarker());
 				// If the breakpoint is a trigger point, remove else do nothing.
 				removeTriggerPoint(breakpoint);
 			}
 			fireUpdate(remove, null, REMOVED);
-			refreshTriggerpointDisplay();
+			refreshTriggerPointDependents();
 			IWorkspaceRunnable r = monitor -> {
 				for (IBreakpoint breakpoint : remove) {
 					if (delete) {
@@ -597,12 +652,13 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		List<IBreakpoint> added = new ArrayList<>(breakpoints.length);
 		final List<IBreakpoint> update = new ArrayList<>();
 		for (IBreakpoint breakpoint : breakpoints) {
-			if (!getBreakpoints0().contains(breakpoint)) {
+			if (!isRegistered(breakpoint)) {
 				verifyBreakpoint(breakpoint);
 				if (breakpoint.isRegistered()) {
 					// If notify == false, the breakpoints are just being added at startup
 					added.add(breakpoint);
 					getBreakpoints0().add(breakpoint);
+					fBreakpointIndex.add(breakpoint);
 					fMarkersToBreakpoints.put(breakpoint.getMarker(), breakpoint);
 					if (breakpoint instanceof ITriggerPoint && ((ITriggerPoint) breakpoint).isTriggerPoint()) {
 						addTriggerPoint(breakpoint);
@@ -622,6 +678,7 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 				List<IBreakpoint> bps = getBreakpoints0();
 				for (IBreakpoint breakpoint : update) {
 					bps.add(breakpoint);
+					fBreakpointIndex.add(breakpoint);
 					breakpoint.setRegistered(true);
 					fMarkersToBreakpoints.put(breakpoint.getMarker(), breakpoint);
 				}
@@ -653,7 +710,7 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 */
 	@Override
 	public void fireBreakpointChanged(IBreakpoint breakpoint) {
-		if (getBreakpoints0().contains(breakpoint)) {
+		if (isRegistered(breakpoint)) {
 			List<IBreakpoint> changed = new ArrayList<>();
 			changed.add(breakpoint);
 			fireUpdate(changed, null, CHANGED);
@@ -862,18 +919,38 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		private IBreakpoint findMatchingBreakpoint(IMarker marker) {
 			try {
 				Integer line = (Integer) marker.getAttribute(IMarker.LINE_NUMBER);
-				for (IBreakpoint breakpoint : getBreakpoints0()) {
-					IMarker bpMarker = breakpoint.getMarker();
-					if (bpMarker != null && marker.getResource().equals(bpMarker.getResource()) && bpMarker.getAttribute(IMarker.LINE_NUMBER, -1) == (line == null ? -1 : line.intValue())) {
-						return breakpoint;
-					}
+				int lineNumber = line == null ? -1 : line.intValue();
+				IResource resource = marker.getResource();
+				getBreakpoints0();
+				IBreakpoint breakpoint = findBreakpointOnLine(fBreakpointIndex.getByLine(resource, lineNumber), lineNumber);
+				if (breakpoint == null) {
+					// the line of a marker changed in this delta may not be indexed yet
+					breakpoint = findBreakpointOnLine(fBreakpointIndex.getByResource(resource), lineNumber);
 				}
+				return breakpoint;
 			} catch (CoreException e) {
 				// ignore
 			}
 			return null;
 		}
 
+		/**
+		 * Returns the first of the given breakpoints whose marker currently
+		 * has the given line number.
+		 *
+		 * @param candidates breakpoints to check
+		 * @param lineNumber line number or -1
+		 * @return matching breakpoint or <code>null</code>
+		 */
+		private IBreakpoint findBreakpointOnLine(List<IBreakpoint> candidates, int lineNumber) {
+			for (IBreakpoint breakpoint : candidates) {
+				if (BreakpointIndex.getLine(breakpoint.getMarker()) == lineNumber) {
+					return breakpoint;
+				}
+			}
+			return null;
+		}
+
 		/**
 		 * Wrapper for handling removes
 		 * @param marker the {@link IMarker}
@@ -896,6 +973,10 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		 */
 		protected void handleChangeBreakpoint(IMarker marker, IMarkerDelta delta) {
 			IBreakpoint breakpoint= getBreakpoint(marker);
+			if (breakpoint != null) {
+				// the line number may have changed
+				fBreakpointIndex.update(breakpoint);
+			}
 			if (breakpoint != null && isRegistered(breakpoint) && !isChangeSuppressed(breakpoint)) {
 				fChanged.add(breakpoint);
 				fChangedDeltas.add(delta);
@@ -910,12 +991,8 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		private void handleProjectResourceOpenStateChange(final IResource project) {
 			if (!project.isAccessible()) {
 				//closed
-				for (@SuppressWarnings("unchecked") IBreakpoint breakpoint : (Vector<IBreakpoint>) getBreakpoints0().clone()) {
-					IResource markerResource= breakpoint.getMarker().getResource();
-					if (project.getFullPath().isPrefixOf(markerResource.getFullPath())) {
-						fRemoved.add(breakpoint);
-					}
-				}
+				getBreakpoints0();
+				fRemoved.addAll(fBreakpointIndex.getWithin(project));
 				return;
 			}
 			try {
@@ -967,6 +1044,12 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 
 	protected void setBreakpoints(Vector<IBreakpoint> breakpoints) {
 		fBreakpoints = breakpoints;
+		fBreakpointIndex.clear();
+		synchronized (breakpoints) {
+			for (IBreakpoint breakpoint : breakpoints) {
+				fBreakpointIndex.add(breakpoint);
+			}
+		}
 	}
 
 	/**
@@ -1296,7 +1379,9 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 
 	@Override
 	public IBreakpoint[] getTriggerPoints() {
-		return fTriggerPointBreakpointList.toArray(new IBreakpoint[0]);
+		synchronized (fTriggerPointBreakpointList) {
+			return fTriggerPointBreakpointList.toArray(new IBreakpoint[0]);
+		}
 	}
 
 	@Override
@@ -1304,34 +1389,44 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		if (triggerPoint == null) {
 			return;
 		}
-		fTriggerPointBreakpointList.add(triggerPoint);
+		synchronized (fTriggerPointBreakpointList) {
+			if (fTriggerPointBreakpointList.add(triggerPoint)) {
+				fTriggerPointsActiveShown = null;
+			}
+		}
 		new BreakpointManagerTriggerPointNotifier().notify(triggerPoint);
 	}
 
 	@Override
 	public void removeTriggerPoint(IBreakpoint breakpoint) throws CoreException {
 		if (breakpoint != null) {
-			fTriggerPointBreakpointList.remove(breakpoint);
+			synchronized (fTriggerPointBreakpointList) {
+				if (fTriggerPointBreakpointList.remove(breakpoint)) {
+					fTriggerPointsActiveShown = null;
+				}
+			}
+			synchronized (fTriggerPointDisabledList) {
+				fTriggerPointDisabledList.remove(breakpoint);
+			}
 		}
 	}
 
 	@Override
 	public void removeAllTriggerPoints() throws CoreException {
 		IBreakpoint[] triggerPointBreakpointList = getTriggerPoints();
-		for (IBreakpoint iBreakpoint : triggerPointBreakpointList) {
-			if (iBreakpoint instanceof ITriggerPoint) {
-				((ITriggerPoint) iBreakpoint).setTriggerPoint(false);
+		runTriggerPointBatch(monitor -> {
+			for (IBreakpoint iBreakpoint : triggerPointBreakpointList) {
+				if (iBreakpoint instanceof ITriggerPoint) {
+					((ITriggerPoint) iBreakpoint).setTriggerPoint(false);
+				}
 			}
-		}
-		refreshTriggerpointDisplay();
+			refreshTriggerPointDependents();
+		});
 	}
 
 	@Override
 	public boolean hasActiveTriggerPoints() {
-		if (fTriggerPointBreakpointList.isEmpty()) {
-			return false;
-		}
-		for (IBreakpoint iBreakpoint : fTriggerPointBreakpointList) {
+		for (IBreakpoint iBreakpoint : getTriggerPoints()) {
 			try {
 				if (iBreakpoint.isEnabled()) {
 					return true;
@@ -1355,19 +1450,28 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 				triggerPointArray = getTriggerPoints();
 			}
 		}
+		final IBreakpoint[] toUpdate = triggerPointArray;
 		List<IBreakpoint> toDisable = new ArrayList<>();
-		for (IBreakpoint iBreakpoint : triggerPointArray) {
-			try {
-				IMarker m = iBreakpoint.getMarker();
-				if (m != null && m.exists()) {
-					if (!enable && iBreakpoint.isEnabled()) {
-						toDisable.add(iBreakpoint);
+		try {
+			// one marker delta and breakpoint change notification for all
+			// trigger points and a single display refresh at the end
+			runTriggerPointBatch(monitor -> {
+				for (IBreakpoint iBreakpoint : toUpdate) {
+					try {
+						IMarker m = iBreakpoint.getMarker();
+						if (m != null && m.exists()) {
+							if (!enable && iBreakpoint.isEnabled()) {
+								toDisable.add(iBreakpoint);
+							}
+							iBreakpoint.setEnabled(enable);
+						}
+					} catch (CoreException e) {
+						// ignore
 					}
-					iBreakpoint.setEnabled(enable);
 				}
-			} catch (CoreException e) {
-				// ignore
-			}
+			});
+		} catch (CoreException e) {
+			DebugPlugin.log(e);
 		}
 		synchronized (fTriggerPointDisabledList) {
 			fTriggerPointDisabledList.clear();
@@ -1379,15 +1483,95 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 
 	@Override
 	public void refreshTriggerpointDisplay() {
+		fTriggerPointsActiveShown = Boolean.valueOf(hasActiveTriggerPoints());
 		touchAllBreakpoints();
 	}
 
+	/**
+	 * Refreshes the display of the breakpoints which depend on the trigger
+	 * points after trigger points have changed. Only breakpoints which are not
+	 * trigger points themselves are rendered differently while trigger points
+	 * are active, and only when trigger points become active or inactive.
+	 * Changes of the trigger points are already reported by their own marker
+	 * changes. During a batched trigger point update of the calling thread the
+	 * refresh is deferred to the end of the update.
+	 */
+	public void refreshTriggerPointDependents() {
+		if (fTriggerPointRefreshPending.get() != null) {
+			fTriggerPointRefreshPending.set(Boolean.TRUE);
+			return;
+		}
+		boolean active = hasActiveTriggerPoints();
+		Boolean shown = fTriggerPointsActiveShown;
+		fTriggerPointsActiveShown = Boolean.valueOf(active);
+		if (shown != null && shown.booleanValue() == active) {
+			return;
+		}
+		if (shown == null) {
+			touchAllBreakpoints();
+			return;
+		}
+		Set<IBreakpoint> triggerPoints;
+		synchronized (fTriggerPointBreakpointList) {
+			triggerPoints = new HashSet<>(fTriggerPointBreakpointList);
+		}
+		List<IBreakpoint> dependents = new ArrayList<>();
+		for (IBreakpoint breakpoint : getBreakpoints()) {
+			if (!triggerPoints.contains(breakpoint)) {
+				dependents.add(breakpoint);
+			}
+		}
+		touchBreakpoints(dependents);
+	}
+
+	/**
+	 * Runs the given trigger point update as one workspace operation. Display
+	 * refreshes requested by the update are deferred and done once at the end
+	 * of the operation, so that the changes of the trigger points and of the
+	 * breakpoints depending on them are reported in a single resource delta
+	 * and breakpoint change notification.
+	 *
+	 * @param runnable the update
+	 * @throws CoreException if the update fails
+	 */
+	private void runTriggerPointBatch(IWorkspaceRunnable runnable) throws CoreException {
+		IWorkspaceRunnable batch = monitor -> {
+			if (fTriggerPointRefreshPending.get() != null) {
+				// nested in a batch of this thread
+				runnable.run(monitor);
+				return;
+			}
+			fTriggerPointRefreshPending.set(Boolean.FALSE);
+			boolean pending;
+			try {
+				runnable.run(monitor);
+			} finally {
+				pending = fTriggerPointRefreshPending.get().booleanValue();
+				fTriggerPointRefreshPending.remove();
+			}
+			if (pending) {
+				refreshTriggerPointDependents();
+			}
+		};
+		ResourcesPlugin.getWorkspace().run(batch, null, IWorkspace.AVOID_UPDATE, null);
+	}
+
 	/*
 	 * Touch and refresh display of all breakpoints
 	 */
 	private void touchAllBreakpoints() {
+		touchBreakpoints(Arrays.asList(getBreakpoints()));
+	}
+
+	/*
+	 * Touch and refresh display of the given breakpoints
+	 */
+	private void touchBreakpoints(List<IBreakpoint> breakpoints) {
+		if (breakpoints.isEmpty()) {
+			return;
+		}
 		IWorkspaceRunnable runnable = monitor -> {
-			for (IBreakpoint breakpoint : getBreakpoints()) {
+			for (IBreakpoint breakpoint : breakpoints) {
 				// Touch the marker (but don't actually change anything) so
 				// that the icon in
 				// the editor ruler will be updated (editors listen to
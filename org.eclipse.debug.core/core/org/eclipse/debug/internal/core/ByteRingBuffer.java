@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A byte buffer retaining at most a fixed number of the most recently written
+ * bytes. Storage grows on demand until the retention limit is reached; after
+ * that, writing overwrites the oldest bytes in place and no further memory is
+ * allocated.
+ * <p>
+ * The storage can optionally be allocated outside of the Java heap.
+ * </p>
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @since 3.21
+ */
+public class ByteRingBuffer {
+
+	/**
+	 * Retention limit used if no limit is given. Largest array size supported
+	 * by all virtual machines.
+	 */
+	public static final int UNLIMITED = Integer.MAX_VALUE - 8;
+
+	private static final int INITIAL_CAPACITY = 8192;
+
+	private final int fLimit;
+	private final boolean fDirect;
+	private ByteBuffer fBuffer;
+	/** Index of the oldest retained byte. */
+	private int fHead;
+	/** Number of retained bytes. */
+	private int fSize;
+	/** Number of bytes written but no longer retained. */
+	private long fDiscarded;
+	/** Number of bytes written since this buffer was created. */
+	private long fWritten;
+
+	/**
+	 * Creates a new ring buffer.
+	 *
+	 * @param limit maximum number of bytes to retain; values <code>&lt;= 0</code>
+	 *            mean {@link #UNLIMITED}
+	 * @param direct whether to allocate the storage outside of the Java heap
+	 */
+	public ByteRingBuffer(int limit, boolean direct) {
+		fLimit = limit <= 0 || limit > UNLIMITED ? UNLIMITED : limit;
+		fDirect = direct;
+	}
+
+	/**
+	 * Appends the given bytes. If the retention limit is exceeded the oldest
+	 * bytes are discarded.
+	 *
+	 * @param data source array
+	 * @param offset start of valid data
+	 * @param length number of valid bytes
+	 */
+	public void write(byte[] data, int offset, int length) {
+		if (length <= 0) {
+			return;
+		}
+		fWritten += length;
+		if (length >= fLimit) {
+			// only the tail of data survives
+			fDiscarded += fSize + (length - fLimit);
+			offset += length - fLimit;
+			length = fLimit;
+			fHead = 0;
+			fSize = 0;
+		}
+		ensureCapacity(Math.min(fLimit, fSize + length));
+		int capacity = fBuffer.capacity();
+		int overflow = fSize + length - capacity;
+		if (overflow > 0) {
+			fHead = (fHead + overflow) % capacity;
+			fSize -= overflow;
+			fDiscarded += overflow;
+		}
+		int tail = (fHead + fSize) % capacity;
+		int first = Math.min(length, capacity - tail);
+		fBuffer.put(tail, data, offset, first);
+		if (first < length) {
+			fBuffer.put(0, data, offset + first, length - first);
+		}
+		fSize += length;
+	}
+
+	/**
+	 * Grows the storage so it can hold at least the given number of bytes
+	 * without wrapping.
+	 */
+	private void ensureCapacity(int required) {
+		int capacity = fBuffer == null ? 0 : fBuffer.capacity();
+		if (required <= capacity) {
+			return;
+		}
+		long grown = Math.max(INITIAL_CAPACITY, (long) capacity * 2);
+		int newCapacity = (int) Math.min(fLimit, Math.max(grown, required));
+		ByteBuffer buffer = fDirect ? ByteBuffer.allocateDirect(newCapacity) : ByteBuffer.allocate(newCapacity);
+		if (fSize > 0) {
+			byte[] contents = toByteArray();
+			buffer.put(0, contents, 0, contents.length);
+		}
+		fBuffer = buffer;
+		fHead = 0;
+	}
+
+	/**
+	 * @return the number of retained bytes
+	 */
+	public int size() {
+		return fSize;
+	}
+
+	/**
+	 * @return the maximum number of bytes this buffer retains
+	 */
+	public int getLimit() {
+		return fLimit;
+	}
+
+	/**
+	 * @return whether the storage is allocated outside of the Java heap
+	 */
+	public boolean isDirect() {
+		return fDirect;
+	}
+
+	/**
+	 * @return the number of bytes written to this buffer which were discarded
+	 *         because the retention limit was exceeded
+	 */
+	public long getDiscardedCount() {
+		return fDiscarded;
+	}
+
+	/**
+	 * @return the number of bytes written to this buffer since it was
+	 *         created, including discarded and cleared bytes. The retained
+	 *         bytes are the last {@link #size()} bytes of this range.
+	 */
+	public long getWrittenCount() {
+		return fWritten;
+	}
+
+	/**
+	 * Returns a copy of the retained bytes, oldest first.
+	 *
+	 * @return retained bytes
+	 */
+	public byte[] toByteArray() {
+		return copy(0, fSize);
+	}
+
+	/**
+	 * Returns a copy of the retained bytes starting at the given position.
+	 *
+	 * @param position position in the range of all bytes ever written (see
+	 *            {@link #getWrittenCount()}); must not be before the oldest
+	 *            retained byte
+	 * @return retained bytes from the given position on
+	 */
+	public byte[] toByteArray(long position) {
+		long skip = position - (fWritten - fSize);
+		if (skip < 0 || skip > fSize) {
+			throw new IndexOutOfBoundsException(Long.toString(position));
+		}
+		return copy((int) skip, fSize - (int) skip);
+	}
+
+	/**
+	 * Returns a copy of the retained bytes in the given range.
+	 *
+	 * @param from position of the first byte in the range of all bytes ever
+	 *            written; must not be before the oldest retained byte
+	 * @param to position after the last byte; must not be after the newest
+	 *            byte
+	 * @return retained bytes in the range
+	 */
+	public byte[] toByteArray(long from, long to) {
+		long skip = from - (fWritten - fSize);
+		if (skip < 0 || from > to || to > fWritten) {
+			throw new IndexOutOfBoundsException(from + ", " + to); //$NON-NLS-1$
+		}
+		return copy((int) skip, (int) (to - from));
+	}
+
+	private byte[] copy(int start, int length) {
+		byte[] result = new byte[length];
+		if (length == 0) {
+			return result;
+		}
+		int capacity = fBuffer.capacity();
+		int from = (fHead + start) % capacity;
+		int first = Math.min(length, capacity - from);
+		fBuffer.get(from, result, 0, first);
+		if (first < length) {
+			fBuffer.get(0, result, first, length - first);
+		}
+		return result;
+	}
+
+	/**
+	 * Discards all retained bytes. The storage is kept for reuse.
+	 */
+	public void clear() {
+		fHead = 0;
+		fSize = 0;
+	}
+}
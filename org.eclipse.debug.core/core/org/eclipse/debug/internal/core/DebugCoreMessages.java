@@ -114,6 +114,8 @@ public class DebugCoreMessages extends NLS {
 	public static String LaunchManager_invalid_config_name_char;
 	public static String LaunchManager_Source_locator_does_not_exist___0__13;
 	public static String LogicalStructureType_0;
+	public static String LogicalStructureValueCache_0;
+	public static String MemoryPageCache_0;
 	public static String ProcessMonitorJob_0;
 	public static String RuntimeProcess_terminate_failed;
 	public static String RuntimeProcess_Exit_value_not_available_until_process_terminates__1;
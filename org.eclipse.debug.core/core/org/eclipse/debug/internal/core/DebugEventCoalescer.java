@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.model.IDebugElement;
+
+/**
+ * Folds redundant {@link DebugEvent#CHANGE} events of an event set before it
+ * is delivered to listeners.
+ * <p>
+ * A <code>CHANGE</code> event is redundant if a later event in the same set
+ * has the same source, detail and data, and no other kind of event (for
+ * example <code>SUSPEND</code>, <code>RESUME</code>, <code>CREATE</code> or
+ * <code>TERMINATE</code>) was fired for that source in between. Only the last
+ * of the duplicates is kept, so listeners refresh against the final state and
+ * the relative order of all remaining events is unchanged.
+ * </p>
+ *
+ * @since 3.21
+ */
+public final class DebugEventCoalescer {
+
+	private DebugEventCoalescer() {
+	}
+
+	/**
+	 * Returns the owner of the given event set: the debug target of its events
+	 * if their sources are debug elements, otherwise their common source.
+	 * Adjacent event sets are only coalesced into one delivery if they have the
+	 * same owner.
+	 *
+	 * @param events debug events
+	 * @return owner of all events or <code>null</code> if the events have
+	 *         different owners
+	 */
+	public static Object getOwner(DebugEvent[] events) {
+		Object owner = null;
+		for (DebugEvent event : events) {
+			Object source = event.getSource();
+			Object eventOwner = source instanceof IDebugElement ? ((IDebugElement) source).getDebugTarget() : source;
+			if (eventOwner == null || (owner != null && !owner.equals(eventOwner))) {
+				return null;
+			}
+			owner = eventOwner;
+		}
+		return owner;
+	}
+
+	/**
+	 * Returns the given events with redundant change events removed. Returns
+	 * the given array if nothing could be folded.
+	 *
+	 * @param events debug events in the order they were fired
+	 * @return coalesced events
+	 */
+	public static DebugEvent[] coalesce(DebugEvent[] events) {
+		if (events == null || events.length < 2) {
+			return events;
+		}
+		DebugEvent[] result = null;
+		// index of the last CHANGE event of each source since that source fired anything else
+		Map<Object, int[]> lastChange = null;
+		int removed = 0;
+		for (int i = 0; i < events.length; i++) {
+			DebugEvent event = events[i];
+			Object source = event.getSource();
+			if (event.getKind() != DebugEvent.CHANGE) {
+				if (lastChange != null) {
+					lastChange.remove(source);
+				}
+				continue;
+			}
+			if (lastChange == null) {
+				lastChange = new HashMap<>();
+			}
+			int[] indices = lastChange.get(source);
+			if (indices == null) {
+				lastChange.put(source, new int[] { i });
+				continue;
+			}
+			boolean folded = false;
+			for (int j = 0; j < indices.length; j++) {
+				DebugEvent previous = events[indices[j]];
+				if (isSameChange(previous, event)) {
+					if (result == null) {
+						result = events.clone();
+					}
+					result[indices[j]] = null;
+					removed++;
+					indices[j] = i;
+					folded = true;
+					break;
+				}
+			}
+			if (!folded) {
+				int[] grown = new int[indices.length + 1];
+				System.arraycopy(indices, 0, grown, 0, indices.length);
+				grown[indices.length] = i;
+				lastChange.put(source, grown);
+			}
+		}
+		if (result == null) {
+			return events;
+		}
+		DebugEvent[] compacted = new DebugEvent[result.length - removed];
+		int next = 0;
+		for (DebugEvent event : result) {
+			if (event != null) {
+				compacted[next++] = event;
+			}
+		}
+		return compacted;
+	}
+
+	private static boolean isSameChange(DebugEvent a, DebugEvent b) {
+		return a.getDetail() == b.getDetail() && Objects.equals(a.getData(), b.getData());
+	}
+}
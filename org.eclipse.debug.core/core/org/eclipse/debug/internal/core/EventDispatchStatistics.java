@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing the state of the debug event dispatch queue. Producers
+ * update the counters without locking, so values read while events are being
+ * fired are a best effort snapshot.
+ *
+ * @since 3.21
+ */
+public final class EventDispatchStatistics {
+
+	private static final EventDispatchStatistics fgDefault = new EventDispatchStatistics();
+
+	private final AtomicInteger fQueueDepth = new AtomicInteger();
+	private final AtomicInteger fMaxQueueDepth = new AtomicInteger();
+	private final LongAdder fQueuedEventSets = new LongAdder();
+	private final LongAdder fDeliveries = new LongAdder();
+	private final AtomicLong fTotalLatency = new AtomicLong();
+	private final LongAccumulator fMaxLatency = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Creates statistics with all counters at zero. The event queue of the
+	 * debug plug-in records into {@link #getDefault()}.
+	 */
+	public EventDispatchStatistics() {
+	}
+
+	/**
+	 * Returns the statistics of the event queue of the debug plug-in.
+	 *
+	 * @return debug event dispatch statistics
+	 */
+	public static EventDispatchStatistics getDefault() {
+		return fgDefault;
+	}
+
+	/**
+	 * Records that an element (event set or runnable) has been added to the
+	 * dispatch queue.
+	 */
+	public void queued() {
+		int depth = fQueueDepth.incrementAndGet();
+		fMaxQueueDepth.accumulateAndGet(depth, Math::max);
+	}
+
+	/**
+	 * Records that an element has been removed from the dispatch queue.
+	 *
+	 * @param latency nanoseconds the element waited in the queue
+	 * @param isEventSet whether the element was a debug event set
+	 */
+	public void dequeued(long latency, boolean isEventSet) {
+		fQueueDepth.decrementAndGet();
+		if (isEventSet) {
+			fQueuedEventSets.increment();
+			fTotalLatency.addAndGet(latency);
+			fMaxLatency.accumulate(latency);
+		}
+	}
+
+	/**
+	 * Records that one (possibly coalesced) event set has been delivered to
+	 * the registered listeners.
+	 */
+	public void delivered() {
+		fDeliveries.increment();
+	}
+
+	/**
+	 * @return the number of elements currently waiting in the dispatch queue
+	 */
+	public int getQueueDepth() {
+		return Math.max(0, fQueueDepth.get());
+	}
+
+	/**
+	 * @return the largest queue depth observed since the last reset
+	 */
+	public int getMaxQueueDepth() {
+		return fMaxQueueDepth.get();
+	}
+
+	/**
+	 * @return the number of event sets passed through the queue since the last
+	 *         reset
+	 */
+	public long getQueuedEventSetCount() {
+		return fQueuedEventSets.sum();
+	}
+
+	/**
+	 * @return the number of deliveries made to listeners since the last reset.
+	 *         Adjacent event sets may be coalesced into one delivery, so this
+	 *         is never larger than {@link #getQueuedEventSetCount()}.
+	 */
+	public long getDeliveryCount() {
+		return fDeliveries.sum();
+	}
+
+	/**
+	 * @return the average time in nanoseconds an event set waited in the queue
+	 *         before it was dispatched
+	 */
+	public long getAverageDispatchLatency() {
+		long count = fQueuedEventSets.sum();
+		return count == 0 ? 0 : fTotalLatency.get() / count;
+	}
+
+	/**
+	 * @return the longest time in nanoseconds an event set waited in the queue
+	 *         before it was dispatched
+	 */
+	public long getMaxDispatchLatency() {
+		return fMaxLatency.get();
+	}
+
+	/**
+	 * Resets all counters except the current queue depth.
+	 */
+	public void reset() {
+		fMaxQueueDepth.set(getQueueDepth());
+		fQueuedEventSets.reset();
+		fDeliveries.reset();
+		fTotalLatency.set(0);
+		fMaxLatency.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "EventDispatchStatistics [queueDepth=" + getQueueDepth() + ", maxQueueDepth=" + getMaxQueueDepth() //$NON-NLS-1$ //$NON-NLS-2$
+				+ ", eventSets=" + getQueuedEventSetCount() + ", deliveries=" + getDeliveryCount() //$NON-NLS-1$ //$NON-NLS-2$
+				+ ", avgLatencyNanos=" + getAverageDispatchLatency() + ", maxLatencyNanos=" + getMaxDispatchLatency() + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+}
@@ -16,17 +16,17 @@ package org.eclipse.debug.internal.core;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Vector;
-
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.TransformerException;
+import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
@@ -34,6 +34,7 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.PlatformObject;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.IExpressionListener;
 import org.eclipse.debug.core.IExpressionManager;
@@ -41,7 +42,6 @@ import org.eclipse.debug.core.IExpressionsListener;
 import org.eclipse.debug.core.model.IExpression;
 import org.eclipse.debug.core.model.IWatchExpression;
 import org.eclipse.debug.core.model.IWatchExpressionDelegate;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -55,10 +55,45 @@ import org.w3c.dom.NodeList;
  */
 public class ExpressionManager extends PlatformObject implements IExpressionManager {
 
+	private static final IExpression[] NO_EXPRESSIONS = new IExpression[0];
+
+	/**
+	 * Ordered registered expressions. The array is never modified, it is
+	 * replaced on every change so that it can be read without locking.
+	 */
+	private volatile IExpression[] fExpressions = NO_EXPRESSIONS;
+
+	/**
+	 * Position of each registered expression in {@link #fExpressions}.
+	 * Replaced together with the array, only accessed while holding the lock
+	 * on this manager.
+	 */
+	private Map<IExpression, Integer> fIndexes = new HashMap<>();
+
+	/**
+	 * Number of changes of the persisted state of the expressions, and the
+	 * number at the time they were last persisted. Guarded by this manager.
+	 */
+	private long fChangeCount;
+	private long fStoredChangeCount;
+
+	/**
+	 * Persists the watch expressions shortly after they have changed, so that
+	 * a burst of changes is written once.
+	 */
+	private final Job fStoreJob = new Job("Store watch expressions") { //$NON-NLS-1$
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			storeWatchExpressions();
+			return Status.OK_STATUS;
+		}
+	};
+
 	/**
-	 * Ordered collection of registered expressions.
+	 * Evaluates the watch expressions, created when the first one is
+	 * evaluated.
 	 */
-	private Vector<IExpression> fExpressions = null;
+	private WatchExpressionScheduler fScheduler;
 
 	/**
 	 * List of expression listeners
@@ -94,7 +129,14 @@ public class ExpressionManager extends PlatformObject implements IExpressionMana
 	private static final String TRUE_VALUE= "true"; //$NON-NLS-1$
 	private static final String FALSE_VALUE= "false"; //$NON-NLS-1$
 
+	/**
+	 * Delay in milliseconds after the last change before the watch
+	 * expressions are persisted.
+	 */
+	private static final long STORE_DELAY = 1000;
+
 	public ExpressionManager() {
+		fStoreJob.setSystem(true);
 		loadPersistedExpressions();
 		loadWatchExpressionDelegates();
 	}
@@ -160,6 +202,7 @@ public class ExpressionManager extends PlatformObject implements IExpressionMana
 			return;
 		}
 		NodeList list= root.getChildNodes();
+		List<IExpression> expressions = new ArrayList<>(list.getLength());
 		for (int i= 0, numItems= list.getLength(); i < numItems; i++) {
 			Node node= list.item(i);
 			if (node.getNodeType() == Node.ELEMENT_NODE) {
@@ -171,16 +214,15 @@ public class ExpressionManager extends PlatformObject implements IExpressionMana
 				String expressionText= element.getAttribute(TEXT_TAG);
 				if (expressionText.length() > 0) {
 					boolean enabled= TRUE_VALUE.equals(element.getAttribute(ENABLED_TAG));
-					IWatchExpression expression= newWatchExpression(expressionText, enabled);
-					if (fExpressions == null) {
-						fExpressions = new Vector<>(list.getLength());
-					}
-					fExpressions.add(expression);
+					expressions.add(newWatchExpression(expressionText, enabled));
 				} else {
 					DebugPlugin.logMessage("Invalid expression entry encountered while loading watch expressions. Expression text is empty.", null); //$NON-NLS-1$
 				}
 			}
 		}
+		synchronized (this) {
+			setExpressions(expressions);
+		}
 	}
 
 	/**
@@ -202,46 +244,132 @@ public class ExpressionManager extends PlatformObject implements IExpressionMana
 
 	/**
 	 * Persists this manager's watch expressions as XML in the
-	 * preference store.
+	 * preference store, if they changed since they were last persisted.
 	 */
 	public void storeWatchExpressions() {
+		IExpression[] expressions;
+		long changeCount;
+		synchronized (this) {
+			if (fChangeCount == fStoredChangeCount) {
+				return;
+			}
+			expressions = fExpressions;
+			changeCount = fChangeCount;
+		}
 		String expressionString = IInternalDebugCoreConstants.EMPTY_STRING;
 		try {
-			expressionString= getWatchExpressionsAsXML();
+			expressionString= getWatchExpressionsAsXML(expressions);
 		} catch (IOException e) {
 			DebugPlugin.log(e);
-		} catch (ParserConfigurationException e) {
-			DebugPlugin.log(e);
-		} catch (TransformerException e) {
-			DebugPlugin.log(e);
 		}
 		Preferences.setString(DebugPlugin.getUniqueIdentifier(), PREF_WATCH_EXPRESSIONS, expressionString, null);
+		synchronized (this) {
+			fStoredChangeCount = Math.max(fStoredChangeCount, changeCount);
+		}
 	}
 
 	/**
-	 * Returns this manager's watch expressions as XML.
-	 * @return this manager's watch expressions as XML
-	 * @throws IOException if an exception occurs while creating
-	 * 		the XML document.
-	 * @throws ParserConfigurationException if an exception occurs while creating
-	 * 		the XML document.
-	 * @throws TransformerException if an exception occurs while creating
-	 * 		the XML document.
+	 * Persists pending changes of the watch expressions. Called when the
+	 * debug plug-in shuts down.
 	 */
-	private String getWatchExpressionsAsXML() throws IOException, ParserConfigurationException, TransformerException {
-		IExpression[] expressions= getExpressions();
-		Document document= LaunchManager.getDocument();
-		Element rootElement= document.createElement(WATCH_EXPRESSIONS_TAG);
-		document.appendChild(rootElement);
+	public void shutdown() {
+		fStoreJob.cancel();
+		storeWatchExpressions();
+		WatchExpressionScheduler scheduler;
+		synchronized (this) {
+			scheduler = fScheduler;
+			fScheduler = null;
+		}
+		if (scheduler != null) {
+			scheduler.dispose();
+		}
+	}
+
+	/**
+	 * Returns the scheduler evaluating the watch expressions.
+	 *
+	 * @return the watch expression scheduler
+	 * @since 3.21
+	 */
+	public synchronized WatchExpressionScheduler getWatchExpressionScheduler() {
+		if (fScheduler == null) {
+			fScheduler = new WatchExpressionScheduler(this);
+		}
+		return fScheduler;
+	}
+
+	/**
+	 * Returns the given watch expressions as XML. The XML is written directly,
+	 * without building a DOM, in the format produced by
+	 * {@link LaunchManager#serializeDocument(org.w3c.dom.Document)}.
+	 *
+	 * @param expressions the expressions to persist
+	 * @return the watch expressions as XML
+	 * @throws IOException if an expression text contains an invalid UTF-16
+	 *             surrogate
+	 */
+	private String getWatchExpressionsAsXML(IExpression[] expressions) throws IOException {
+		String lineDelimiter = System.lineSeparator();
+		StringBuilder xml = new StringBuilder(128 + expressions.length * 64);
+		xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>").append(lineDelimiter); //$NON-NLS-1$
+		xml.append('<').append(WATCH_EXPRESSIONS_TAG);
+		boolean empty = true;
 		for (IExpression expression : expressions) {
 			if (expression instanceof IWatchExpression) {
-				Element element= document.createElement(EXPRESSION_TAG);
-				element.setAttribute(TEXT_TAG, expression.getExpressionText());
-				element.setAttribute(ENABLED_TAG, ((IWatchExpression) expression).isEnabled() ? TRUE_VALUE : FALSE_VALUE);
-				rootElement.appendChild(element);
+				if (empty) {
+					xml.append('>').append(lineDelimiter);
+					empty = false;
+				}
+				xml.append("    <").append(EXPRESSION_TAG); //$NON-NLS-1$
+				LaunchConfigurationInfo.appendAttribute(xml, ENABLED_TAG, ((IWatchExpression) expression).isEnabled() ? TRUE_VALUE : FALSE_VALUE);
+				LaunchConfigurationInfo.appendAttribute(xml, TEXT_TAG, expression.getExpressionText());
+				xml.append("/>").append(lineDelimiter); //$NON-NLS-1$
 			}
 		}
-		return LaunchManager.serializeDocument(document);
+		if (empty) {
+			xml.append("/>").append(lineDelimiter); //$NON-NLS-1$
+		} else {
+			xml.append("</").append(WATCH_EXPRESSIONS_TAG).append('>').append(lineDelimiter); //$NON-NLS-1$
+		}
+		return xml.toString();
+	}
+
+	/**
+	 * Replaces the registered expressions and their index. Must be called
+	 * while holding the lock on this manager.
+	 *
+	 * @param expressions the new ordered expressions
+	 */
+	private void setExpressions(List<IExpression> expressions) {
+		Map<IExpression, Integer> indexes = new HashMap<>(expressions.size() * 4 / 3 + 1);
+		for (int i = 0; i < expressions.size(); i++) {
+			indexes.put(expressions.get(i), Integer.valueOf(i));
+		}
+		fIndexes = indexes;
+		fExpressions = expressions.toArray(new IExpression[expressions.size()]);
+	}
+
+	/**
+	 * Returns the position of the given expression, or -1 if it is not
+	 * registered. Must be called while holding the lock on this manager.
+	 *
+	 * @param expression an expression
+	 * @return position of the expression or -1
+	 */
+	private int indexOf(IExpression expression) {
+		Integer index = fIndexes.get(expression);
+		return index == null ? -1 : index.intValue();
+	}
+
+	/**
+	 * Records a change of the persisted state of the expressions and
+	 * schedules persisting them.
+	 */
+	private void expressionsChanged() {
+		synchronized (this) {
+			fChangeCount++;
+		}
+		fStoreJob.schedule(STORE_DELAY);
 	}
 
 	@Override
@@ -253,6 +381,7 @@ public class ExpressionManager extends PlatformObject implements IExpressionMana
 	public void addExpressions(IExpression[] expressions) {
 		List<IExpression> added = doAdd(expressions);
 		if (!added.isEmpty()) {
+			expressionsChanged();
 			fireUpdate(added.toArray(new IExpression[added.size()]), ADDED);
 		}
 	}
@@ -268,36 +397,31 @@ public class ExpressionManager extends PlatformObject implements IExpressionMana
 	private List<IExpression> doAdd(IExpression[] expressions) {
 		List<IExpression> added = new ArrayList<>(expressions.length);
 		synchronized (this) {
-			if (fExpressions == null) {
-				fExpressions = new Vector<>(expressions.length);
-			}
-			for (IExpression expression : expressions) {
-				if (fExpressions.indexOf(expression) == -1) {
+			for (IExpression expression : new LinkedHashSet<>(Arrays.asList(expressions))) {
+				if (indexOf(expression) == -1) {
 					added.add(expression);
-					fExpressions.add(expression);
 				}
 			}
+			if (!added.isEmpty()) {
+				List<IExpression> all = new ArrayList<>(fExpressions.length + added.size());
+				all.addAll(Arrays.asList(fExpressions));
+				all.addAll(added);
+				setExpressions(all);
+			}
 		}
 		return added;
 	}
 
 	@Override
-	public synchronized IExpression[] getExpressions() {
-		if (fExpressions == null) {
-			return new IExpression[0];
-		}
-		IExpression[] temp= new IExpression[fExpressions.size()];
-		fExpressions.copyInto(temp);
-		return temp;
+	public IExpression[] getExpressions() {
+		return fExpressions.clone();
 	}
 
 	@Override
-	public synchronized IExpression[] getExpressions(String modelIdentifier) {
-		if (fExpressions == null) {
-			return new IExpression[0];
-		}
-		ArrayList<IExpression> temp = new ArrayList<>(fExpressions.size());
-		for (IExpression expression : fExpressions) {
+	public IExpression[] getExpressions(String modelIdentifier) {
+		IExpression[] expressions = fExpressions;
+		ArrayList<IExpression> temp = new ArrayList<>(expressions.length);
+		for (IExpression expression : expressions) {
 			String id = expression.getModelIdentifier();
 			if (id != null && id.equals(modelIdentifier)) {
 				temp.add(expression);
@@ -324,30 +448,37 @@ public class ExpressionManager extends PlatformObject implements IExpressionMana
 		List<IExpression> inserted = null;
 		int insertionIndex = -1;
 		synchronized (this) {
-			if (fExpressions == null || ((insertionIndex = fExpressions.indexOf(insertionLocation)) < 0)) {
+			if ((insertionIndex = indexOf(insertionLocation)) < 0) {
 				added = doAdd(expressions);
 			} else {
 				if (!insertBefore){
 					insertionIndex++;
 				}
 				inserted = new ArrayList<>(expressions.length);
-				for (IExpression expression : expressions) {
-					if (fExpressions.indexOf(expression) == -1) {
-						//Insert in the same order as the array is passed
-						fExpressions.add(insertionIndex+inserted.size(), expression);
+				for (IExpression expression : new LinkedHashSet<>(Arrays.asList(expressions))) {
+					if (indexOf(expression) == -1) {
 						inserted.add(expression);
 					}
 				}
+				if (!inserted.isEmpty()) {
+					//Insert in the same order as the array is passed
+					List<IExpression> all = new ArrayList<>(fExpressions.length + inserted.size());
+					all.addAll(Arrays.asList(fExpressions));
+					all.addAll(insertionIndex, inserted);
+					setExpressions(all);
+				}
 			}
 		}
 		if (added != null) {
 			if (!added.isEmpty()) {
+				expressionsChanged();
 				fireUpdate(added.toArray(new IExpression[added.size()]), ADDED);
 			}
 			return;
 		}
 		if (inserted != null) {
 			if (!inserted.isEmpty()) {
+				expressionsChanged();
 				fireUpdate(inserted.toArray(new IExpression[inserted.size()]), INSERTED, insertionIndex);
 			}
 		}
@@ -370,10 +501,7 @@ public class ExpressionManager extends PlatformObject implements IExpressionMana
 		int insertionIndex = -1;
 		IExpression[] movedExpressionsArray = null;
 		synchronized (this) {
-			if (fExpressions == null){
-				return;
-			}
-			insertionIndex = fExpressions.indexOf(insertionLocation);
+			insertionIndex = indexOf(insertionLocation);
 			if (insertionIndex < 0){
 				return;
 			}
@@ -381,24 +509,33 @@ public class ExpressionManager extends PlatformObject implements IExpressionMana
 				insertionIndex++;
 			}
 
-			for (IExpression expression : expressions) {
-				int removeIndex = fExpressions.indexOf(expression);
+			int insertionPoint = insertionIndex;
+			for (IExpression expression : new LinkedHashSet<>(Arrays.asList(expressions))) {
+				int removeIndex = indexOf(expression);
 				if (removeIndex >= 0){
 					movedExpressions.add(expression);
-					if (removeIndex < insertionIndex){
+					if (removeIndex < insertionPoint){
 						insertionIndex--;
 					}
-					fExpressions.remove(removeIndex);
 				}
 			}
 			movedExpressionsArray = movedExpressions.toArray(new IExpression[movedExpressions.size()]);
-			for (int i = 0; i < movedExpressionsArray.length; i++) {
+			if (movedExpressionsArray.length > 0) {
+				Set<IExpression> moved = new LinkedHashSet<>(movedExpressions);
+				List<IExpression> all = new ArrayList<>(fExpressions.length);
+				for (IExpression expression : fExpressions) {
+					if (!moved.contains(expression)) {
+						all.add(expression);
+					}
+				}
 				// Insert the expressions in the same order as the passed array
-				fExpressions.add(insertionIndex+i,movedExpressionsArray[i]);
+				all.addAll(insertionIndex, movedExpressions);
+				setExpressions(all);
 			}
 		}
 
 		if (!movedExpressions.isEmpty()) {
+			expressionsChanged();
 			fireUpdate(movedExpressionsArray, MOVED, insertionIndex);
 		}
 	}
@@ -412,17 +549,25 @@ public class ExpressionManager extends PlatformObject implements IExpressionMana
 	public void removeExpressions(IExpression[] expressions) {
 		List<IExpression> removed = new ArrayList<>(expressions.length);
 		synchronized (this) {
-			if (fExpressions == null) {
-				return;
-			}
-			for (IExpression expression : expressions) {
-				if (fExpressions.remove(expression)) {
+			for (IExpression expression : new LinkedHashSet<>(Arrays.asList(expressions))) {
+				if (indexOf(expression) >= 0) {
 					removed.add(expression);
 				}
 			}
+			if (!removed.isEmpty()) {
+				Set<IExpression> remove = new LinkedHashSet<>(removed);
+				List<IExpression> all = new ArrayList<>(fExpressions.length);
+				for (IExpression expression : fExpressions) {
+					if (!remove.contains(expression)) {
+						all.add(expression);
+					}
+				}
+				setExpressions(all);
+			}
 		}
 		// dispose outside of the synchronized block
 		if (!removed.isEmpty()) {
+			expressionsChanged();
 			for (IExpression expression : removed) {
 				expression.dispose();
 			}
@@ -455,11 +600,12 @@ public class ExpressionManager extends PlatformObject implements IExpressionMana
 	protected void watchExpressionChanged(IWatchExpression expression) {
 		boolean notify = false;
 		synchronized (this) {
-			if (fExpressions != null && fExpressions.contains(expression)) {
+			if (indexOf(expression) >= 0) {
 				notify = true;
 			}
 		}
 		if (notify) {
+			expressionsChanged();
 			fireUpdate(new IExpression[]{expression}, CHANGED);
 		}
 	}
@@ -490,8 +636,8 @@ public class ExpressionManager extends PlatformObject implements IExpressionMana
 	}
 
 	@Override
-	public synchronized boolean hasExpressions() {
-		return fExpressions != null && !fExpressions.isEmpty();
+	public boolean hasExpressions() {
+		return fExpressions.length > 0;
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2010 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -44,4 +44,62 @@ public interface IInternalDebugCoreConstants {
 	 */
 	String PREF_BREAKPOINT_MANAGER_ENABLED_STATE =  DebugPlugin.getUniqueIdentifier() + ".PREF_BREAKPOINT_MANAGER_ENABLED_STATE"; //$NON-NLS-1$
 
+	/**
+	 * Boolean preference controlling whether redundant
+	 * {@link org.eclipse.debug.core.DebugEvent#CHANGE} events of the same
+	 * source are folded before debug event sets are delivered to listeners.
+	 * Default value is <code>false</code>.
+	 *
+	 * @see DebugEventCoalescer
+	 * @since 3.21
+	 */
+	String PREF_COALESCE_CHANGE_EVENTS = DebugPlugin.getUniqueIdentifier() + ".PREF_COALESCE_CHANGE_EVENTS"; //$NON-NLS-1$
+
+	/**
+	 * Boolean preference controlling whether adjacent debug event sets of the
+	 * same debug target, fired separately, are merged into one event set
+	 * before they are delivered to filters and listeners. Default value is
+	 * <code>false</code>, so listeners see the event sets as fired.
+	 *
+	 * @since 3.21
+	 */
+	String PREF_COALESCE_EVENT_SETS = DebugPlugin.getUniqueIdentifier() + ".PREF_COALESCE_EVENT_SETS"; //$NON-NLS-1$
+
+	/**
+	 * Integer preference for the maximum number of bytes a buffered process
+	 * output stream monitor retains. Older output is discarded. A value
+	 * <code>&lt;= 0</code> means no limit. Default value is
+	 * {@link #DEFAULT_OUTPUT_BUFFER_LIMIT}.
+	 *
+	 * @since 3.21
+	 */
+	String PREF_OUTPUT_BUFFER_LIMIT = DebugPlugin.getUniqueIdentifier() + ".PREF_OUTPUT_BUFFER_LIMIT"; //$NON-NLS-1$
+
+	/**
+	 * Default maximum number of bytes a buffered process output stream
+	 * monitor retains (16 MiB).
+	 *
+	 * @see #PREF_OUTPUT_BUFFER_LIMIT
+	 * @since 3.21
+	 */
+	int DEFAULT_OUTPUT_BUFFER_LIMIT = 16 * 1024 * 1024;
+
+	/**
+	 * Boolean preference controlling whether buffered process output is kept
+	 * outside of the Java heap. Default value is <code>false</code>.
+	 *
+	 * @since 3.21
+	 */
+	String PREF_OUTPUT_BUFFER_OFF_HEAP = DebugPlugin.getUniqueIdentifier() + ".PREF_OUTPUT_BUFFER_OFF_HEAP"; //$NON-NLS-1$
+
+	/**
+	 * Boolean preference controlling whether launched system processes are
+	 * monitored by a shared executor (see {@link ProcessMonitorExecutor})
+	 * instead of dedicated threads per process. Default value is
+	 * <code>false</code>.
+	 *
+	 * @since 3.21
+	 */
+	String PREF_SHARED_PROCESS_MONITORING = DebugPlugin.getUniqueIdentifier() + ".PREF_SHARED_PROCESS_MONITORING"; //$NON-NLS-1$
+
 }
@@ -50,6 +50,25 @@ public class InputStreamMonitor {
 	 */
 	private Object fLock;
 
+	/**
+	 * Name used for the thread writing queued input if the stream is written
+	 * by the shared {@link ProcessMonitorExecutor}, or <code>null</code> if
+	 * not monitored by the shared executor.
+	 */
+	private String fSharedMonitorName;
+
+	/**
+	 * Whether a task writing queued input has been submitted to the shared
+	 * executor and not yet finished. Guarded by {@link #fLock}.
+	 */
+	private boolean fDrainScheduled;
+
+	/**
+	 * Whether monitoring by the shared executor has been stopped. Guarded by
+	 * {@link #fLock}.
+	 */
+	private boolean fSharedMonitorStopped;
+
 	/**
 	 * Whether the underlying output stream has been closed
 	 */
@@ -107,6 +126,7 @@ public class InputStreamMonitor {
 		synchronized (fLock) {
 			fQueue.add(fCharset == null ? text.getBytes() : text.getBytes(fCharset));
 			fLock.notifyAll();
+			scheduleDrain();
 		}
 	}
 
@@ -124,6 +144,7 @@ public class InputStreamMonitor {
 			System.arraycopy(data, offset, copy, 0, length);
 			fQueue.add(copy);
 			fLock.notifyAll();
+			scheduleDrain();
 		}
 	}
 
@@ -132,13 +153,23 @@ public class InputStreamMonitor {
 	}
 
 	/**
-	 * Starts a thread which writes the stream.
+	 * Starts a thread which writes the stream. If
+	 * {@link ProcessMonitorExecutor#isEnabled()} no thread is started;
+	 * instead queued input is written by a thread of the shared executor
+	 * whenever there is input to write.
 	 *
 	 * @param threadName Thread name
 	 */
 	public void startMonitoring(String threadName) {
 		synchronized (this) {
-			if (fThread == null) {
+			if (fThread == null && fSharedMonitorName == null) {
+				if (ProcessMonitorExecutor.isEnabled()) {
+					synchronized (fLock) {
+						fSharedMonitorName = threadName;
+						scheduleDrain();
+					}
+					return;
+				}
 				fThread = new Thread((Runnable) this::write, threadName);
 				fThread.setDaemon(true);
 				fThread.start();
@@ -159,6 +190,50 @@ public class InputStreamMonitor {
 		if (thread != null) {
 			thread.interrupt();
 		}
+		synchronized (fLock) {
+			if (fSharedMonitorName != null && !fSharedMonitorStopped) {
+				fSharedMonitorStopped = true;
+				scheduleDrain();
+			}
+		}
+	}
+
+	/**
+	 * Submits a task writing the queued input to the shared executor, unless
+	 * such a task is already pending or the stream is not written by the
+	 * shared executor. Must be called while holding {@link #fLock}.
+	 */
+	private void scheduleDrain() {
+		if (fSharedMonitorName != null && !fDrainScheduled && (!fQueue.isEmpty() || fSharedMonitorStopped)) {
+			fDrainScheduled = true;
+			ProcessMonitorExecutor.submit(fSharedMonitorName, this::drain);
+		}
+	}
+
+	/**
+	 * Writes queued input until the queue is empty. Closes the stream if
+	 * monitoring has been stopped meanwhile.
+	 */
+	private void drain() {
+		while (true) {
+			writeQueued();
+			synchronized (fLock) {
+				if (!fQueue.isEmpty() && !fClosed) {
+					continue;
+				}
+				if (!fSharedMonitorStopped || fClosed) {
+					fDrainScheduled = false;
+					return;
+				}
+				// keep fDrainScheduled set, nothing must be written after the stream is closed
+				break;
+			}
+		}
+		try {
+			fStream.close();
+		} catch (IOException e) {
+			DebugPlugin.log(e);
+		}
 	}
 
 	/**
@@ -181,16 +256,7 @@ public class InputStreamMonitor {
 	 * Write the text in the queue to the stream.
 	 */
 	protected void writeNext() {
-		while (!fQueue.isEmpty() && !fClosed) {
-			byte[] data = fQueue.firstElement();
-			fQueue.removeElementAt(0);
-			try {
-				fStream.write(data);
-				fStream.flush();
-			} catch (IOException e) {
-				DebugPlugin.log(e);
-			}
-		}
+		writeQueued();
 		try {
 			synchronized(fLock) {
 				// Queue could receive more input between last empty check and
@@ -203,6 +269,22 @@ public class InputStreamMonitor {
 		}
 	}
 
+	/**
+	 * Writes all queued input to the stream without waiting for more input.
+	 */
+	private void writeQueued() {
+		while (!fQueue.isEmpty() && !fClosed) {
+			byte[] data = fQueue.firstElement();
+			fQueue.removeElementAt(0);
+			try {
+				fStream.write(data);
+				fStream.flush();
+			} catch (IOException e) {
+				DebugPlugin.log(e);
+			}
+		}
+	}
+
 	/**
 	 * Closes the output stream attached to the standard input stream of this
 	 * monitor's process.
@@ -535,11 +535,12 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 
 	@Override
 	public IResource[] getMappedResources() throws CoreException {
-		List<String> paths = getAttribute(ATTR_MAPPED_RESOURCE_PATHS, (List<String>) null);
+		LaunchConfigurationMetadataCache.Metadata metadata = getLaunchManager().getMetadata(this);
+		List<String> paths = metadata != null ? metadata.getMappedResourcePaths() : getAttribute(ATTR_MAPPED_RESOURCE_PATHS, (List<String>) null);
 		if (paths == null || paths.isEmpty()) {
 			return null;
 		}
-		List<String> types = getAttribute(ATTR_MAPPED_RESOURCE_TYPES, (List<String>) null);
+		List<String> types = metadata != null ? metadata.getMappedResourceTypes() : getAttribute(ATTR_MAPPED_RESOURCE_TYPES, (List<String>) null);
 		if (types == null || types.size() != paths.size()) {
 			throw new CoreException(newStatus(DebugCoreMessages.LaunchConfiguration_0, DebugPlugin.ERROR, null));
 		}
@@ -641,6 +642,13 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 
 	@Override
 	public ILaunchConfigurationType getType() throws CoreException {
+		LaunchConfigurationMetadataCache.Metadata metadata = getLaunchManager().getMetadata(this);
+		if (metadata != null) {
+			ILaunchConfigurationType type = getLaunchManager().getLaunchConfigurationType(metadata.getTypeId());
+			if (type != null) {
+				return type;
+			}
+		}
 		return getInfo().getType();
 	}
 
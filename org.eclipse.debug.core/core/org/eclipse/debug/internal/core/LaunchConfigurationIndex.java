@@ -0,0 +1,312 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunchConfiguration;
+
+/**
+ * Secondary indexes over the launch configurations known to the
+ * {@link LaunchManager}: by type identifier, by kind, by the project storing
+ * the configuration and by mapped resource.
+ * <p>
+ * The index is maintained by the launch manager when configurations are
+ * added, changed or deleted and is only accessed while holding the launch
+ * manager's lock. Query results are in the order configurations were added to
+ * the index, like the list returned by
+ * {@link LaunchManager#getAllLaunchConfigurations()}.
+ * </p>
+ *
+ * @since 3.21
+ */
+class LaunchConfigurationIndex {
+
+	/**
+	 * The indexed keys of one launch configuration.
+	 */
+	private static final class Entry {
+		final long fSequence;
+		final String fTypeId;
+		final int fKind;
+		final IProject fProject;
+		final IResource[] fMappedResources;
+
+		Entry(long sequence, String typeId, int kind, IProject project, IResource[] mappedResources) {
+			fSequence = sequence;
+			fTypeId = typeId;
+			fKind = kind;
+			fProject = project;
+			fMappedResources = mappedResources;
+		}
+	}
+
+	private final Map<ILaunchConfiguration, Entry> fEntries = new HashMap<>();
+	private final Map<String, Set<ILaunchConfiguration>> fByType = new HashMap<>();
+	private final Map<Integer, Set<ILaunchConfiguration>> fByKind = new HashMap<>();
+	private final Map<IProject, Set<ILaunchConfiguration>> fByProject = new HashMap<>();
+	private final Map<IResource, Set<ILaunchConfiguration>> fByMappedResource = new HashMap<>();
+	/**
+	 * Configurations mapped to files, keyed by the project of the mapped
+	 * file.
+	 */
+	private final Map<IProject, Set<ILaunchConfiguration>> fByMappedFileProject = new HashMap<>();
+	private final Comparator<ILaunchConfiguration> fOrder = Comparator.comparingLong(c -> fEntries.get(c).fSequence);
+	private long fNextSequence;
+
+	/**
+	 * @param config a launch configuration
+	 * @return whether the configuration is indexed
+	 */
+	boolean contains(ILaunchConfiguration config) {
+		return fEntries.containsKey(config);
+	}
+
+	/**
+	 * Adds the given configuration to the index.
+	 *
+	 * @param config the configuration to add
+	 */
+	void add(ILaunchConfiguration config) {
+		if (!fEntries.containsKey(config)) {
+			index(config, fNextSequence++);
+		}
+	}
+
+	/**
+	 * Re-computes the indexed keys of the given configuration, for example
+	 * after its attributes changed. The configuration keeps its position in
+	 * query results.
+	 *
+	 * @param config the changed configuration
+	 */
+	void update(ILaunchConfiguration config) {
+		Entry old = unindex(config);
+		index(config, old == null ? fNextSequence++ : old.fSequence);
+	}
+
+	/**
+	 * Removes the given configuration from the index.
+	 *
+	 * @param config the configuration to remove
+	 */
+	void remove(ILaunchConfiguration config) {
+		unindex(config);
+	}
+
+	/**
+	 * Removes all configurations from the index.
+	 */
+	void clear() {
+		fEntries.clear();
+		fByType.clear();
+		fByKind.clear();
+		fByProject.clear();
+		fByMappedResource.clear();
+		fByMappedFileProject.clear();
+	}
+
+	/**
+	 * @param typeId launch configuration type identifier
+	 * @param kinds bit mask of configuration kinds
+	 * @return configurations of the given type and any of the given kinds
+	 */
+	List<ILaunchConfiguration> getByType(String typeId, int kinds) {
+		Set<ILaunchConfiguration> configs = fByType.get(typeId);
+		if (configs == null) {
+			return Collections.emptyList();
+		}
+		List<ILaunchConfiguration> result = new ArrayList<>(configs.size());
+		for (ILaunchConfiguration config : configs) {
+			if ((fEntries.get(config).fKind & kinds) > 0) {
+				result.add(config);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param kinds bit mask of configuration kinds
+	 * @return configurations of any of the given kinds
+	 */
+	List<ILaunchConfiguration> getByKind(int kinds) {
+		List<Set<ILaunchConfiguration>> matches = new ArrayList<>(2);
+		fByKind.forEach((kind, configs) -> {
+			if ((kind.intValue() & kinds) > 0) {
+				matches.add(configs);
+			}
+		});
+		return merge(matches);
+	}
+
+	/**
+	 * @param project a project
+	 * @return configurations stored as files in the given project
+	 */
+	List<ILaunchConfiguration> getByProject(IProject project) {
+		Set<ILaunchConfiguration> configs = fByProject.get(project);
+		return configs == null ? new ArrayList<>() : new ArrayList<>(configs);
+	}
+
+	/**
+	 * Returns the configurations mapped to the given resource. If the resource
+	 * is a project, configurations mapped to files in that project are
+	 * included.
+	 *
+	 * @param resource a resource
+	 * @return configurations mapped to the resource
+	 */
+	List<ILaunchConfiguration> getByMappedResource(IResource resource) {
+		List<Set<ILaunchConfiguration>> matches = new ArrayList<>(2);
+		Set<ILaunchConfiguration> configs = fByMappedResource.get(resource);
+		if (configs != null) {
+			matches.add(configs);
+		}
+		if (resource.getType() == IResource.PROJECT) {
+			configs = fByMappedFileProject.get(resource);
+			if (configs != null) {
+				matches.add(configs);
+			}
+		}
+		return merge(matches);
+	}
+
+	/**
+	 * Merges the given sets into one list without duplicates, in index order.
+	 */
+	private List<ILaunchConfiguration> merge(List<Set<ILaunchConfiguration>> sets) {
+		if (sets.isEmpty()) {
+			return new ArrayList<>();
+		}
+		if (sets.size() == 1) {
+			return new ArrayList<>(sets.get(0));
+		}
+		Set<ILaunchConfiguration> union = new LinkedHashSet<>();
+		for (Set<ILaunchConfiguration> set : sets) {
+			union.addAll(set);
+		}
+		List<ILaunchConfiguration> result = new ArrayList<>(union);
+		result.sort(fOrder);
+		return result;
+	}
+
+	private void index(ILaunchConfiguration config, long sequence) {
+		String typeId = null;
+		int kind = 0;
+		IResource[] mapped = null;
+		try {
+			typeId = config.getType().getIdentifier();
+			kind = config.getKind();
+			mapped = config.getMappedResources();
+		} catch (CoreException e) {
+			// still tracked, but only found by the keys computed so far
+			DebugPlugin.log(e);
+		}
+		IFile file = config.getFile();
+		IProject project = file == null ? null : file.getProject();
+		Entry entry = new Entry(sequence, typeId, kind, project, mapped);
+		fEntries.put(config, entry);
+		if (typeId != null) {
+			put(fByType, typeId, config, sequence);
+		}
+		if (kind != 0) {
+			put(fByKind, Integer.valueOf(kind), config, sequence);
+		}
+		if (project != null) {
+			put(fByProject, project, config, sequence);
+		}
+		if (mapped != null) {
+			for (IResource resource : mapped) {
+				if (resource == null) {
+					continue;
+				}
+				put(fByMappedResource, resource, config, sequence);
+				if (resource.getType() == IResource.FILE) {
+					put(fByMappedFileProject, resource.getProject(), config, sequence);
+				}
+			}
+		}
+	}
+
+	private Entry unindex(ILaunchConfiguration config) {
+		Entry entry = fEntries.get(config);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.fTypeId != null) {
+			remove(fByType, entry.fTypeId, config);
+		}
+		if (entry.fKind != 0) {
+			remove(fByKind, Integer.valueOf(entry.fKind), config);
+		}
+		if (entry.fProject != null) {
+			remove(fByProject, entry.fProject, config);
+		}
+		if (entry.fMappedResources != null) {
+			for (IResource resource : entry.fMappedResources) {
+				if (resource == null) {
+					continue;
+				}
+				remove(fByMappedResource, resource, config);
+				if (resource.getType() == IResource.FILE) {
+					remove(fByMappedFileProject, resource.getProject(), config);
+				}
+			}
+		}
+		fEntries.remove(config);
+		return entry;
+	}
+
+	/**
+	 * Adds the configuration to the bucket of the given key. Buckets are kept
+	 * in index order; a configuration re-indexed with its old sequence number
+	 * is inserted at its old position.
+	 */
+	private <K> void put(Map<K, Set<ILaunchConfiguration>> map, K key, ILaunchConfiguration config, long sequence) {
+		Set<ILaunchConfiguration> configs = map.computeIfAbsent(key, k -> new LinkedHashSet<>());
+		if (sequence == fNextSequence - 1 || configs.isEmpty()) {
+			configs.add(config);
+			return;
+		}
+		// re-indexed configuration, restore order of the bucket
+		List<ILaunchConfiguration> ordered = new ArrayList<>(configs);
+		ordered.add(config);
+		ordered.sort(fOrder);
+		configs.clear();
+		configs.addAll(ordered);
+	}
+
+	private static <K> void remove(Map<K, Set<ILaunchConfiguration>> map, K key, ILaunchConfiguration config) {
+		Collection<ILaunchConfiguration> configs = map.get(key);
+		if (configs != null) {
+			configs.remove(config);
+			if (configs.isEmpty()) {
+				map.remove(key);
+			}
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -26,11 +26,16 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.TransformerException;
 
 import org.eclipse.core.runtime.CoreException;
@@ -69,15 +74,60 @@ public class LaunchConfigurationInfo {
 	private static final String PROTOTYPE = "prototype"; //$NON-NLS-1$
 	private static final String VISIBLE_ATTRIBUTES = "visibleAttributes"; //$NON-NLS-1$
 
+	/**
+	 * Indentation of attribute elements and of their entries, matching the
+	 * output of the DOM serializer.
+	 */
+	private static final String ELEMENT_INDENT = "    "; //$NON-NLS-1$
+	private static final String ENTRY_INDENT = "        "; //$NON-NLS-1$
+
+	/**
+	 * Whether the DOM serializer of the running JDK writes C1 control
+	 * characters (0x7F to 0x9F) and the line separator (U+2028) in attribute
+	 * values as character references. Newer JDKs do, older ones write them
+	 * literally.
+	 */
+	private static final boolean ESCAPE_C1_CONTROLS = serializerEscapesC1Controls();
+
+	/**
+	 * Marks an attribute removed from a shared attribute table in
+	 * {@link #fChanges}.
+	 */
+	private static final Object REMOVED = new Object();
+
+	/**
+	 * The maximum number of changes recorded against a shared attribute table
+	 * relative to its size. Beyond that the changes are merged into a private
+	 * table.
+	 */
+	private static final int MAX_CHANGES_RATIO = 2;
+
 	/**
 	 * This configurations attribute table. Keys are <code>String</code>s and
 	 * values are one of <code>String</code>, <code>Integer</code>,
 	 * <code>Boolean</code>, <code>Set&lt;String&gt;</code>,
 	 * <code>List&lt;String&gt;</code>, or
 	 * <code>Map&lt;String, String&gt;</code>
+	 * <p>
+	 * Once shared with a copy of this info the table is never modified again;
+	 * changes are recorded in {@link #fChanges} instead, so that copying an
+	 * info does not copy its attributes.
+	 * </p>
 	 */
 	private TreeMap<String, Object> fAttributes;
 
+	/**
+	 * Whether {@link #fAttributes} is shared with other infos.
+	 */
+	private volatile boolean fShared;
+
+	/**
+	 * Attributes changed relative to the shared attribute table, with
+	 * {@link #REMOVED} as value for removed attributes, or <code>null</code>
+	 * if none.
+	 */
+	private TreeMap<String, Object> fChanges;
+
 	/**
 	 * This launch configuration's type
 	 */
@@ -93,6 +143,14 @@ public class LaunchConfigurationInfo {
 	 */
 	private ILaunchConfiguration fPrototype;
 
+	/**
+	 * Name of this launch configuration's prototype as read from its file, or
+	 * <code>null</code> once the prototype has been resolved or set.
+	 * Resolution is deferred so that reading a configuration never has to
+	 * wait for all configurations to be loaded.
+	 */
+	private String fPrototypeName;
+
 	/**
 	 * This prototype's visible attributes (can be <code>null</code> if launch configuration is not a prototype).
 	 */
@@ -126,12 +184,24 @@ public class LaunchConfigurationInfo {
 	}
 
 	/**
-	 * Returns this configuration's attribute table.
+	 * Returns this configuration's attribute table. The table must not be
+	 * modified, it may be shared with other infos.
 	 *
 	 * @return attribute table
 	 */
 	private TreeMap<String, Object> getAttributeTable() {
-		return fAttributes;
+		if (fChanges == null) {
+			return fAttributes;
+		}
+		TreeMap<String, Object> table = new TreeMap<>(fAttributes);
+		fChanges.forEach((key, value) -> {
+			if (value == REMOVED) {
+				table.remove(key);
+			} else {
+				table.put(key, value);
+			}
+		});
+		return table;
 	}
 
 	/**
@@ -142,6 +212,113 @@ public class LaunchConfigurationInfo {
 	 */
 	private void setAttributeTable(TreeMap<String, Object> table) {
 		fAttributes = table;
+		fShared = false;
+		fChanges = null;
+	}
+
+	/**
+	 * Returns the value of the given attribute or <code>null</code> if none.
+	 *
+	 * @param key attribute key
+	 * @return attribute value or <code>null</code>
+	 */
+	private Object get(String key) {
+		if (fChanges != null) {
+			Object value = fChanges.get(key);
+			if (value != null) {
+				return value == REMOVED ? null : value;
+			}
+		}
+		return fAttributes.get(key);
+	}
+
+	/**
+	 * @return the number of attributes
+	 */
+	private int size() {
+		int size = fAttributes.size();
+		if (fChanges != null) {
+			for (Entry<String, Object> change : fChanges.entrySet()) {
+				boolean inBase = fAttributes.containsKey(change.getKey());
+				if (change.getValue() == REMOVED) {
+					size -= inBase ? 1 : 0;
+				} else {
+					size += inBase ? 0 : 1;
+				}
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Sets or removes the given attribute and returns its previous value.
+	 * Changes to a shared table are recorded in {@link #fChanges}.
+	 *
+	 * @param key attribute key
+	 * @param value new value or <code>null</code> to remove the attribute
+	 * @return previous value or <code>null</code>
+	 */
+	private Object put(String key, Object value) {
+		if (!fShared) {
+			return value == null ? fAttributes.remove(key) : fAttributes.put(key, value);
+		}
+		Object previous = get(key);
+		if (value == null && previous == null) {
+			return null;
+		}
+		if (fChanges == null) {
+			fChanges = new TreeMap<>();
+		}
+		Object base = fAttributes.get(key);
+		if (value == null ? base == null : value == base) {
+			// back to the shared value
+			fChanges.remove(key);
+		} else {
+			fChanges.put(key, value == null ? REMOVED : value);
+		}
+		if (fChanges.isEmpty()) {
+			fChanges = null;
+		} else if (fChanges.size() > MAX_CHANGES_RATIO * (fAttributes.size() + 1)) {
+			setAttributeTable(getAttributeTable());
+		}
+		return previous;
+	}
+
+	/**
+	 * Returns the attributes changed relative to the attribute table this info
+	 * shares with the given info, or <code>null</code> if the infos do not
+	 * share an attribute table.
+	 *
+	 * @param other another info
+	 * @return keys of the attributes that may differ or <code>null</code>
+	 */
+	private Set<String> getChangedAttributes(LaunchConfigurationInfo other) {
+		if (fAttributes != other.fAttributes) {
+			return null;
+		}
+		Set<String> keys = new HashSet<>();
+		if (fChanges != null) {
+			keys.addAll(fChanges.keySet());
+		}
+		if (other.fChanges != null) {
+			keys.addAll(other.fChanges.keySet());
+		}
+		return keys;
+	}
+
+	/**
+	 * Makes this info share the attributes of the given info, without copying
+	 * them.
+	 *
+	 * @param other the info to share attributes with
+	 * @since 3.21
+	 */
+	protected void shareAttributes(LaunchConfigurationInfo other) {
+		TreeMap<String, Object> changes = other.fChanges;
+		other.fShared = true;
+		fAttributes = other.fAttributes;
+		fShared = true;
+		fChanges = changes == null ? null : new TreeMap<>(changes);
 	}
 
 	/**
@@ -169,7 +346,7 @@ public class LaunchConfigurationInfo {
 	 *             <code>String</code>
 	 */
 	protected String getStringAttribute(String key, String defaultValue) throws CoreException {
-		Object attr = getAttributeTable().get(key);
+		Object attr = get(key);
 		if (attr != null) {
 			if (attr instanceof String) {
 				return (String)attr;
@@ -196,7 +373,7 @@ public class LaunchConfigurationInfo {
 	 *             <code>int</code>
 	 */
 	protected int getIntAttribute(String key, int defaultValue) throws CoreException {
-		Object attr = getAttributeTable().get(key);
+		Object attr = get(key);
 		if (attr != null) {
 			if (attr instanceof Integer) {
 				return ((Integer)attr).intValue();
@@ -223,7 +400,7 @@ public class LaunchConfigurationInfo {
 	 *             <code>boolean</code>
 	 */
 	protected boolean getBooleanAttribute(String key, boolean defaultValue) throws CoreException {
-		Object attr = getAttributeTable().get(key);
+		Object attr = get(key);
 		if (attr != null) {
 			if (attr instanceof Boolean) {
 				return ((Boolean)attr).booleanValue();
@@ -251,7 +428,7 @@ public class LaunchConfigurationInfo {
 	 */
 	@SuppressWarnings("unchecked")
 	protected List<String> getListAttribute(String key, List<String> defaultValue) throws CoreException {
-		Object attr = getAttributeTable().get(key);
+		Object attr = get(key);
 		if (attr != null) {
 			if (attr instanceof List) {
 				return (List<String>) attr;
@@ -282,7 +459,7 @@ public class LaunchConfigurationInfo {
 	 */
 	@SuppressWarnings("unchecked")
 	protected Set<String> getSetAttribute(String key, Set<String> defaultValue) throws CoreException {
-		Object attr = getAttributeTable().get(key);
+		Object attr = get(key);
 		if (attr != null) {
 			if (attr instanceof Set) {
 				return (Set<String>) attr;
@@ -306,7 +483,7 @@ public class LaunchConfigurationInfo {
 	 * @since 3.12
 	 */
 	protected Object getObjectAttribute(String key) {
-		return getAttributeTable().get(key);
+		return get(key);
 	}
 
 	/**
@@ -322,7 +499,7 @@ public class LaunchConfigurationInfo {
 	 */
 	@SuppressWarnings("unchecked")
 	protected Map<String, String> getMapAttribute(String key, Map<String, String> defaultValue) throws CoreException {
-		Object attr = getAttributeTable().get(key);
+		Object attr = get(key);
 		if (attr != null) {
 			if (attr instanceof Map) {
 				return (Map<String, String>) attr;
@@ -364,8 +541,9 @@ public class LaunchConfigurationInfo {
 	 *
 	 * @since 3.12
 	 */
-	protected void setPrototype(ILaunchConfiguration prototype) {
+	protected synchronized void setPrototype(ILaunchConfiguration prototype) {
 		fPrototype = prototype;
+		fPrototypeName = null;
 	}
 
 	/**
@@ -376,7 +554,31 @@ public class LaunchConfigurationInfo {
 	 * @since 3.12
 	 */
 	protected ILaunchConfiguration getPrototype() {
-		return fPrototype;
+		String prototype;
+		synchronized (this) {
+			prototype = fPrototypeName;
+			if (prototype == null) {
+				return fPrototype;
+			}
+		}
+		// resolved without holding this info's lock, as the launch manager
+		// locks itself and may need the lock of this info while doing so
+		ILaunchConfiguration resolved = null;
+		ILaunchConfiguration[] launchConfigurations = DebugPlugin.getDefault().getLaunchManager().getLaunchConfigurations(ILaunchConfiguration.PROTOTYPE);
+		for (ILaunchConfiguration iLaunchConfiguration : launchConfigurations) {
+			if (prototype.equals(iLaunchConfiguration.getName())) {
+				resolved = iLaunchConfiguration;
+				break;
+			}
+		}
+		synchronized (this) {
+			// unless the prototype has been set meanwhile
+			if (fPrototypeName != null) {
+				fPrototype = resolved;
+				fPrototypeName = null;
+			}
+			return fPrototype;
+		}
 	}
 
 	/**
@@ -387,7 +589,7 @@ public class LaunchConfigurationInfo {
 	protected LaunchConfigurationInfo getCopy() {
 		LaunchConfigurationInfo copy = new LaunchConfigurationInfo();
 		copy.setType(getType());
-		copy.setAttributeTable(getAttributes());
+		copy.shareAttributes(this);
 		copy.setIsPrototype(isPrototype());
 		copy.setPrototype(getPrototype());
 		copy.setVisibleAttributes(getVisibleAttributes());
@@ -400,7 +602,7 @@ public class LaunchConfigurationInfo {
 	 * @return a copy of this info's attribute map
 	 */
 	protected TreeMap<String, Object> getAttributes() {
-		return new TreeMap<>(getAttributeTable());
+		return fChanges == null ? new TreeMap<>(fAttributes) : getAttributeTable();
 	}
 
 	/**
@@ -414,10 +616,10 @@ public class LaunchConfigurationInfo {
 	 */
 	protected void setAttribute(String key, Object value) {
 		if (value == null) {
-			getAttributeTable().remove(key);
+			put(key, null);
 			setAttributeVisibility(key, false);
 		} else {
-			Object attribute = getAttributeTable().put(key, value);
+			Object attribute = put(key, value);
 			// If attribute is new in the table and the configuration is a
 			// prototype, then add it to the visible attributes
 			if (attribute == null && fIsPrototype) {
@@ -427,34 +629,36 @@ public class LaunchConfigurationInfo {
 	}
 
 	/**
-	 * Returns the content of this info as XML
+	 * Returns the content of this info as XML. The XML is written directly
+	 * from the attribute table and is identical to what serializing an
+	 * equivalent DOM with {@link LaunchManager#serializeDocument(org.w3c.dom.Document, String)}
+	 * produces.
 	 *
+	 * @param lineDelimeter the line delimiter to use
 	 * @return the content of this info as XML
 	 * @throws CoreException
 	 *             if a attribute has been set with a null key
 	 * @throws IOException
-	 *             if an exception occurs creating the XML
-	 * @throws ParserConfigurationException
-	 *             if an exception occurs creating the XML
-	 * @throws TransformerException
-	 *             if an exception occurs creating the XML
+	 *             if an attribute contains an invalid UTF-16 surrogate
 	 */
 	@SuppressWarnings("unchecked")
-	protected String getAsXML(String lineDelimeter) throws CoreException, IOException, ParserConfigurationException, TransformerException {
-		Document doc = LaunchManager.getDocument();
-		Element configRootElement = doc.createElement(LAUNCH_CONFIGURATION);
-		doc.appendChild(configRootElement);
-
-		configRootElement.setAttribute(TYPE, getType().getIdentifier());
-
+	protected String getAsXML(String lineDelimeter) throws CoreException, IOException {
+		TreeMap<String, Object> table = getAttributeTable();
+		StringBuilder xml = new StringBuilder(256 + table.size() * 64);
+		xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>").append(lineDelimeter); //$NON-NLS-1$
+		xml.append('<').append(LAUNCH_CONFIGURATION);
+		// attributes are written in alphabetical order, as the DOM serializer does
 		ILaunchConfiguration prototype = getPrototype();
 		if (prototype != null) {
-			configRootElement.setAttribute(PROTOTYPE, prototype.getName());
-		} else if (isPrototype()) {
-			configRootElement.setAttribute(VISIBLE_ATTRIBUTES, getVisibleAttributes().stream().collect(Collectors.joining(", "))); //$NON-NLS-1$
+			appendAttribute(xml, PROTOTYPE, prototype.getName());
 		}
-
-		for (String key : getAttributeTable().keySet()) {
+		appendAttribute(xml, TYPE, getType().getIdentifier());
+		if (prototype == null && isPrototype()) {
+			appendAttribute(xml, VISIBLE_ATTRIBUTES, getVisibleAttributes().stream().collect(Collectors.joining(", "))); //$NON-NLS-1$
+		}
+		boolean empty = true;
+		for (Entry<String, Object> entry : table.entrySet()) {
+			String key = entry.getKey();
 			if (key == null) {
 				throw new DebugException(
 					new Status(
@@ -463,32 +667,292 @@ public class LaunchConfigurationInfo {
 					)
 				);
 			}
-			Object value = getAttributeTable().get(key);
+			Object value = entry.getValue();
 			if (value == null) {
 				continue;
 			}
-			Element element = null;
-			String valueString = null;
+			if (empty) {
+				xml.append('>').append(lineDelimeter);
+				empty = false;
+			}
 			if (value instanceof String) {
-				valueString = (String)value;
-				element = createKeyValueElement(doc, STRING_ATTRIBUTE, key, valueString);
+				appendKeyValueElement(xml, lineDelimeter, STRING_ATTRIBUTE, key, (String) value);
 			} else if (value instanceof Integer) {
-				valueString = ((Integer)value).toString();
-				element = createKeyValueElement(doc, INT_ATTRIBUTE, key, valueString);
+				appendKeyValueElement(xml, lineDelimeter, INT_ATTRIBUTE, key, ((Integer) value).toString());
 			} else if (value instanceof Boolean) {
-				valueString = ((Boolean)value).toString();
-				element = createKeyValueElement(doc, BOOLEAN_ATTRIBUTE, key, valueString);
+				appendKeyValueElement(xml, lineDelimeter, BOOLEAN_ATTRIBUTE, key, ((Boolean) value).toString());
 			} else if (value instanceof List) {
-				element = createListElement(doc, LIST_ATTRIBUTE, key, (List<String>) value);
+				appendCollectionElement(xml, lineDelimeter, LIST_ATTRIBUTE, LIST_ENTRY, key, (List<String>) value);
 			} else if (value instanceof Map) {
-				element = createMapElement(doc, MAP_ATTRIBUTE, key, (Map<String, String>) value);
-			} else if(value instanceof Set) {
-				element = createSetElement(doc, SET_ATTRIBUTE, key, (Set<String>) value);
+				appendMapElement(xml, lineDelimeter, MAP_ATTRIBUTE, key, (Map<String, String>) value);
+			} else if (value instanceof Set) {
+				// persist in sorted order
+				List<String> list = new ArrayList<>((Set<String>) value);
+				Collections.sort(list);
+				appendCollectionElement(xml, lineDelimeter, SET_ATTRIBUTE, SET_ENTRY, key, list);
+			}
+		}
+		if (empty) {
+			xml.append("/>").append(lineDelimeter); //$NON-NLS-1$
+		} else {
+			xml.append("</").append(LAUNCH_CONFIGURATION).append('>').append(lineDelimeter); //$NON-NLS-1$
+		}
+		return xml.toString();
+	}
+
+	/**
+	 * Appends a 'key value' element of the specified type.
+	 */
+	private static void appendKeyValueElement(StringBuilder xml, String lineDelimeter, String elementType, String key, String value) throws IOException {
+		xml.append(ELEMENT_INDENT).append('<').append(elementType);
+		appendAttribute(xml, KEY, key);
+		appendAttribute(xml, VALUE, value);
+		xml.append("/>").append(lineDelimeter); //$NON-NLS-1$
+	}
+
+	/**
+	 * Appends an element for a list or (sorted) set of values.
+	 */
+	private static void appendCollectionElement(StringBuilder xml, String lineDelimeter, String elementType, String entryType, String key, List<String> values) throws IOException {
+		xml.append(ELEMENT_INDENT).append('<').append(elementType);
+		appendAttribute(xml, KEY, key);
+		if (values.isEmpty()) {
+			xml.append("/>").append(lineDelimeter); //$NON-NLS-1$
+			return;
+		}
+		xml.append('>').append(lineDelimeter);
+		for (String value : values) {
+			xml.append(ENTRY_INDENT).append('<').append(entryType);
+			appendAttribute(xml, VALUE, value);
+			xml.append("/>").append(lineDelimeter); //$NON-NLS-1$
+		}
+		xml.append(ELEMENT_INDENT).append("</").append(elementType).append('>').append(lineDelimeter); //$NON-NLS-1$
+	}
+
+	/**
+	 * Appends an element for a map, with entries sorted by key.
+	 */
+	private static void appendMapElement(StringBuilder xml, String lineDelimeter, String elementType, String key, Map<String, String> map) throws IOException {
+		xml.append(ELEMENT_INDENT).append('<').append(elementType);
+		appendAttribute(xml, KEY, key);
+		if (map.isEmpty()) {
+			xml.append("/>").append(lineDelimeter); //$NON-NLS-1$
+			return;
+		}
+		xml.append('>').append(lineDelimeter);
+		List<String> keys = new ArrayList<>(map.keySet());
+		Collections.sort(keys);
+		for (String entryKey : keys) {
+			xml.append(ENTRY_INDENT).append('<').append(MAP_ENTRY);
+			appendAttribute(xml, KEY, entryKey);
+			appendAttribute(xml, VALUE, map.get(entryKey));
+			xml.append("/>").append(lineDelimeter); //$NON-NLS-1$
+		}
+		xml.append(ELEMENT_INDENT).append("</").append(elementType).append('>').append(lineDelimeter); //$NON-NLS-1$
+	}
+
+	/**
+	 * Determines whether the DOM serializer escapes C1 control characters by
+	 * serializing a document containing one.
+	 */
+	private static boolean serializerEscapesC1Controls() {
+		try {
+			Document doc = LaunchManager.getDocument();
+			Element root = doc.createElement(LAUNCH_CONFIGURATION);
+			root.setAttribute(VALUE, "\u0085"); //$NON-NLS-1$
+			doc.appendChild(root);
+			return !LaunchManager.serializeDocument(doc, "\n").contains("\u0085"); //$NON-NLS-1$ //$NON-NLS-2$
+		} catch (ParserConfigurationException | TransformerException | IOException e) {
+			// character references are read back correctly in any case
+			return true;
+		}
+	}
+
+	/**
+	 * Appends an XML attribute, escaping its value the way the JDK's DOM
+	 * serializer does: markup characters use entity references, control
+	 * characters and characters outside the basic multilingual plane use
+	 * character references. C1 control characters and the line separator
+	 * are written as character references if the serializer of the running
+	 * JDK does so.
+	 *
+	 * @throws IOException if the value contains a high surrogate which is not
+	 *             followed by a low surrogate
+	 */
+	static void appendAttribute(StringBuilder xml, String name, String value) throws IOException {
+		xml.append(' ').append(name).append("=\""); //$NON-NLS-1$
+		int length = value.length();
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"':
+					xml.append("&quot;"); //$NON-NLS-1$
+					break;
+				case '&':
+					xml.append("&amp;"); //$NON-NLS-1$
+					break;
+				case '<':
+					xml.append("&lt;"); //$NON-NLS-1$
+					break;
+				case '>':
+					xml.append("&gt;"); //$NON-NLS-1$
+					break;
+				default:
+					if (Character.isHighSurrogate(c)) {
+						if (i + 1 == length) {
+							// a trailing high surrogate is dropped
+							break;
+						}
+						char low = value.charAt(++i);
+						if (!Character.isLowSurrogate(low)) {
+							throw new IOException(MessageFormat.format("Invalid UTF-16 surrogate detected: {0} {1}", Integer.toHexString(c), Integer.toHexString(low))); //$NON-NLS-1$
+						}
+						xml.append("&#").append(Character.toCodePoint(c, low)).append(';'); //$NON-NLS-1$
+					} else if (c < 0x20 || Character.isLowSurrogate(c) || (ESCAPE_C1_CONTROLS && (c >= 0x7F && c <= 0x9F || c == '\u2028'))) {
+						xml.append("&#").append((int) c).append(';'); //$NON-NLS-1$
+					} else {
+						xml.append(c);
+					}
+			}
+		}
+		xml.append('"');
+	}
+
+	/**
+	 * Initializes the mapping of attributes from the XML read by the given
+	 * reader. The reader must be positioned before the root element.
+	 *
+	 * @param reader the reader to read the XML document from
+	 * @param isPrototype if the XML file corresponds to a prototype
+	 * @throws CoreException if the document is not a launch configuration
+	 * @throws XMLStreamException if the document is not well-formed
+	 *
+	 * @since 3.21
+	 */
+	protected void initializeFromXML(XMLStreamReader reader, boolean isPrototype) throws CoreException, XMLStreamException {
+		while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+			// skip prolog
+		}
+		if (!reader.isStartElement() || !reader.getLocalName().equalsIgnoreCase(LAUNCH_CONFIGURATION)) {
+			throw getInvalidFormatDebugException();
+		}
+
+		// read type
+		String id = getAttribute(reader, TYPE);
+		ILaunchConfigurationType type = DebugPlugin.getDefault().getLaunchManager().getLaunchConfigurationType(id);
+		if (type == null) {
+			String message = MessageFormat.format(DebugCoreMessages.LaunchConfigurationInfo_missing_type, id);
+			throw new DebugException(
+					new Status(
+					 IStatus.ERROR, DebugPlugin.getUniqueIdentifier(),
+					 DebugException.MISSING_LAUNCH_CONFIGURATION_TYPE, message, null)
+				);
+		}
+		setType(type);
+		String visibleAttributes = getAttribute(reader, VISIBLE_ATTRIBUTES);
+		String prototype = getAttribute(reader, PROTOTYPE);
+
+		while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+			if (!reader.isStartElement()) {
+				continue;
 			}
-			configRootElement.appendChild(element);
+			String nodeName = reader.getLocalName();
+			if (nodeName.equalsIgnoreCase(STRING_ATTRIBUTE)) {
+				setAttribute(getAttribute(reader, KEY), getAttribute(reader, VALUE));
+				skipElement(reader);
+			} else if (nodeName.equalsIgnoreCase(INT_ATTRIBUTE)) {
+				setAttribute(getAttribute(reader, KEY), Integer.valueOf(getAttribute(reader, VALUE)));
+				skipElement(reader);
+			} else if (nodeName.equalsIgnoreCase(BOOLEAN_ATTRIBUTE)) {
+				setAttribute(getAttribute(reader, KEY), Boolean.valueOf(getAttribute(reader, VALUE)));
+				skipElement(reader);
+			} else if (nodeName.equalsIgnoreCase(LIST_ATTRIBUTE)) {
+				String key = getAttribute(reader, KEY);
+				List<String> list = new ArrayList<>();
+				readEntries(reader, LIST_ENTRY, (entryKey, value) -> list.add(value));
+				setAttribute(key, list);
+			} else if (nodeName.equalsIgnoreCase(MAP_ATTRIBUTE)) {
+				String key = getAttribute(reader, KEY);
+				Map<String, String> map = new HashMap<>();
+				readEntries(reader, MAP_ENTRY, map::put);
+				setAttribute(key, map);
+			} else if (nodeName.equalsIgnoreCase(SET_ATTRIBUTE)) {
+				String key = getAttribute(reader, KEY);
+				Set<String> set = new HashSet<>();
+				readEntries(reader, SET_ENTRY, (entryKey, value) -> set.add(value));
+				setAttribute(key, set);
+			} else {
+				skipElement(reader);
+			}
+		}
+		// the rest of the document must be well-formed as well
+		while (reader.hasNext()) {
+			reader.next();
 		}
 
-		return LaunchManager.serializeDocument(doc, lineDelimeter);
+		if (isPrototype) {
+			setIsPrototype(true);
+			if (visibleAttributes.length() > 0) {
+				String[] split = visibleAttributes.split(", "); //$NON-NLS-1$
+				setVisibleAttributes(new HashSet<>(Arrays.asList(split)));
+			}
+		} else {
+			setIsPrototype(false);
+			if (prototype.length() > 0) {
+				// resolved on first access, see getPrototype()
+				fPrototypeName = prototype;
+			}
+		}
+	}
+
+	/**
+	 * Reads the entry elements of a list, set or map attribute element. The
+	 * reader is positioned on the attribute element and is left on its end
+	 * element.
+	 *
+	 * @param reader the reader
+	 * @param entryType expected name of the entry elements
+	 * @param consumer receives the key (only present for map entries) and
+	 *            value of each entry
+	 * @throws CoreException if the element contains other elements than
+	 *             entries
+	 */
+	private void readEntries(XMLStreamReader reader, String entryType, BiConsumer<String, String> consumer) throws CoreException, XMLStreamException {
+		while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+			if (!reader.isStartElement()) {
+				continue;
+			}
+			if (!reader.getLocalName().equalsIgnoreCase(entryType)) {
+				throw getInvalidFormatDebugException();
+			}
+			consumer.accept(getAttribute(reader, KEY), getAttribute(reader, VALUE));
+			skipElement(reader);
+		}
+	}
+
+	/**
+	 * Skips the content of the element the reader is positioned on, leaving
+	 * the reader on its end element.
+	 */
+	private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	/**
+	 * Returns the value of the given attribute of the current element, or an
+	 * empty string if it is not present.
+	 */
+	private static String getAttribute(XMLStreamReader reader, String name) {
+		String value = reader.getAttributeValue(null, name);
+		return value == null ? IInternalDebugCoreConstants.EMPTY_STRING : value;
 	}
 
 	/**
@@ -499,7 +963,11 @@ public class LaunchConfigurationInfo {
 	 * @param key the {@link Element} key
 	 * @param value the {@link Element} value
 	 * @return the new {@link Element}
+	 *
+	 * @deprecated launch configurations are no longer written with a DOM, use
+	 *             {@link #getAsXML(String)}
 	 */
+	@Deprecated
 	protected Element createKeyValueElement(Document doc, String elementType, String key, String value) {
 		Element element = doc.createElement(elementType);
 		element.setAttribute(KEY, key);
@@ -516,7 +984,11 @@ public class LaunchConfigurationInfo {
 	 * @param listKey the key for the element
 	 * @param list the list to fill the new element with
 	 * @return the new element
+	 *
+	 * @deprecated launch configurations are no longer written with a DOM, use
+	 *             {@link #getAsXML(String)}
 	 */
+	@Deprecated
 	protected Element createListElement(Document doc, String elementType, String listKey, List<String> list) {
 		Element listElement = doc.createElement(elementType);
 		listElement.setAttribute(KEY, listKey);
@@ -539,7 +1011,11 @@ public class LaunchConfigurationInfo {
 	 * @return the new element
 	 *
 	 * @since 3.3
+	 *
+	 * @deprecated launch configurations are no longer written with a DOM, use
+	 *             {@link #getAsXML(String)}
 	 */
+	@Deprecated
 	protected Element createSetElement(Document doc, String elementType, String setKey, Set<String> set) {
 		Element setElement = doc.createElement(elementType);
 		setElement.setAttribute(KEY, setKey);
@@ -565,7 +1041,11 @@ public class LaunchConfigurationInfo {
 	 * @param map the map to fill the new element with
 	 * @return the new element
 	 *
+	 *
+	 * @deprecated launch configurations are no longer written with a DOM, use
+	 *             {@link #getAsXML(String)}
 	 */
+	@Deprecated
 	protected Element createMapElement(Document doc, String elementType, String mapKey, Map<String, String> map) {
 		Element mapElement = doc.createElement(elementType);
 		mapElement.setAttribute(KEY, mapKey);
@@ -586,7 +1066,11 @@ public class LaunchConfigurationInfo {
 	 * Initializes the mapping of attributes from the XML file
 	 * @param root the root node from the XML document
 	 * @throws CoreException if a problem is encountered
+	 *
+	 * @deprecated launch configurations are no longer read into a DOM, use
+	 *             {@link #initializeFromXML(XMLStreamReader, boolean)}
 	 */
+	@Deprecated
 	protected void initializeFromXML(Element root) throws CoreException {
 		initializeFromXML(root, false);
 	}
@@ -599,7 +1083,11 @@ public class LaunchConfigurationInfo {
 	 * @throws CoreException if a problem is encountered
 	 *
 	 * @since 3.12
+	 *
+	 * @deprecated launch configurations are no longer read into a DOM, use
+	 *             {@link #initializeFromXML(XMLStreamReader, boolean)}
 	 */
+	@Deprecated
 	protected void initializeFromXML(Element root, boolean isPrototype) throws CoreException {
 		if (!root.getNodeName().equalsIgnoreCase(LAUNCH_CONFIGURATION)) {
 			throw getInvalidFormatDebugException();
@@ -674,7 +1162,11 @@ public class LaunchConfigurationInfo {
 	 * Loads a <code>String</code> from the specified element into the local attribute mapping
 	 * @param element the element to load from
 	 * @throws CoreException if a problem is encountered
+	 *
+	 * @deprecated launch configurations are no longer read into a DOM, use
+	 *             {@link #initializeFromXML(XMLStreamReader, boolean)}
 	 */
+	@Deprecated
 	protected void setStringAttribute(Element element) throws CoreException {
 		setAttribute(getKeyAttribute(element), getValueAttribute(element));
 	}
@@ -683,7 +1175,11 @@ public class LaunchConfigurationInfo {
 	 * Loads an <code>Integer</code> from the specified element into the local attribute mapping
 	 * @param element the element to load from
 	 * @throws CoreException if a problem is encountered
+	 *
+	 * @deprecated launch configurations are no longer read into a DOM, use
+	 *             {@link #initializeFromXML(XMLStreamReader, boolean)}
 	 */
+	@Deprecated
 	protected void setIntegerAttribute(Element element) throws CoreException {
 		setAttribute(getKeyAttribute(element), Integer.valueOf(getValueAttribute(element)));
 	}
@@ -692,7 +1188,11 @@ public class LaunchConfigurationInfo {
 	 * Loads a <code>Boolean</code> from the specified element into the local attribute mapping
 	 * @param element the element to load from
 	 * @throws CoreException if a problem is encountered
+	 *
+	 * @deprecated launch configurations are no longer read into a DOM, use
+	 *             {@link #initializeFromXML(XMLStreamReader, boolean)}
 	 */
+	@Deprecated
 	protected void setBooleanAttribute(Element element) throws CoreException {
 		setAttribute(getKeyAttribute(element), Boolean.valueOf(getValueAttribute(element)));
 	}
@@ -703,7 +1203,11 @@ public class LaunchConfigurationInfo {
 	 *
 	 * @param element the element to read the list attribute from
 	 * @throws CoreException if the element has an invalid format
+	 *
+	 * @deprecated launch configurations are no longer read into a DOM, use
+	 *             {@link #initializeFromXML(XMLStreamReader, boolean)}
 	 */
+	@Deprecated
 	protected void setListAttribute(Element element) throws CoreException {
 		String listKey = element.getAttribute(KEY);
 		NodeList nodeList = element.getChildNodes();
@@ -732,7 +1236,11 @@ public class LaunchConfigurationInfo {
 	 * @throws CoreException if the element has an invalid format
 	 *
 	 * @since 3.3
+	 *
+	 * @deprecated launch configurations are no longer read into a DOM, use
+	 *             {@link #initializeFromXML(XMLStreamReader, boolean)}
 	 */
+	@Deprecated
 	protected void setSetAttribute(Element element) throws CoreException {
 		String setKey = element.getAttribute(KEY);
 		NodeList nodeList = element.getChildNodes();
@@ -759,7 +1267,11 @@ public class LaunchConfigurationInfo {
 	 *
 	 * @param element the element to read the map attribute from
 	 * @throws CoreException if the element has an invalid format
+	 *
+	 * @deprecated launch configurations are no longer read into a DOM, use
+	 *             {@link #initializeFromXML(XMLStreamReader, boolean)}
 	 */
+	@Deprecated
 	protected void setMapAttribute(Element element) throws CoreException {
 		String mapKey = element.getAttribute(KEY);
 		NodeList nodeList = element.getChildNodes();
@@ -785,7 +1297,11 @@ public class LaunchConfigurationInfo {
 	 * @param element the element to read from
 	 * @return the value
 	 * @throws CoreException if a problem is encountered
+	 *
+	 * @deprecated launch configurations are no longer read into a DOM, use
+	 *             {@link #initializeFromXML(XMLStreamReader, boolean)}
 	 */
+	@Deprecated
 	protected String getKeyAttribute(Element element) throws CoreException {
 		String key = element.getAttribute(KEY);
 		if (key == null) {
@@ -799,7 +1315,11 @@ public class LaunchConfigurationInfo {
 	 * @param element the element to read from
 	 * @return the value
 	 * @throws CoreException if a problem is encountered
+	 *
+	 * @deprecated launch configurations are no longer read into a DOM, use
+	 *             {@link #initializeFromXML(XMLStreamReader, boolean)}
 	 */
+	@Deprecated
 	protected String getValueAttribute(Element element) throws CoreException {
 		String value = element.getAttribute(VALUE);
 		if (value == null) {
@@ -850,8 +1370,20 @@ public class LaunchConfigurationInfo {
 			return false;
 		}
 
-		// Make sure the attributes are the same
-		return compareAttributes(fAttributes, other.getAttributeTable());
+		// Make sure the attributes are the same, only the changed ones if
+		// the attribute table is shared
+		Set<String> changed = getChangedAttributes(other);
+		if (changed != null) {
+			for (String key : changed) {
+				Object attr1 = get(key);
+				Object attr2 = other.get(key);
+				if (attr1 == null ? attr2 != null : !compareAttribute(key, attr1, attr2)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return compareAttributes(getAttributeTable(), other.getAttributeTable());
 	}
 
 	/**
@@ -925,7 +1457,7 @@ public class LaunchConfigurationInfo {
 	 */
 	@Override
 	public int hashCode() {
-		return fType.hashCode() + fAttributes.size();
+		return fType.hashCode() + size();
 	}
 
 	/**
@@ -936,7 +1468,7 @@ public class LaunchConfigurationInfo {
 	 * @since 3.4.0
 	 */
 	protected boolean hasAttribute(String attributeName) {
-		return fAttributes.containsKey(attributeName);
+		return get(attributeName) != null;
 	}
 
 	/**
@@ -950,7 +1482,7 @@ public class LaunchConfigurationInfo {
 	 */
 	protected Object removeAttribute(String attributeName) {
 		if(attributeName != null) {
-			return fAttributes.remove(attributeName);
+			return put(attributeName, null);
 		}
 		return null;
 	}
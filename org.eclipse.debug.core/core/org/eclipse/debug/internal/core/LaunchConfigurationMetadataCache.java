@@ -0,0 +1,454 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.DebugPlugin;
+
+/**
+ * Persistent cache of the launch configuration metadata needed to list
+ * configurations (type, kind and mapped resources), so that the XML of a
+ * configuration only has to be parsed when its attributes are actually read.
+ * <p>
+ * The cache is stored in a compact, versioned binary file in the state
+ * location of the debug core plug-in. Each entry records the modification
+ * stamp, size and checksum of the file it was computed from. An entry is
+ * validated against the file system the first time it is used in a session:
+ * if only the time stamp changed, the checksum decides whether the entry is
+ * still current. Entries are dropped when the configuration is changed or
+ * deleted and re-created the next time its XML is parsed. Entries of files
+ * which no longer exist, for example because a configuration was deleted or
+ * renamed while the workbench was not running, are dropped when the cache is
+ * loaded and saved.
+ * </p>
+ * <p>
+ * Changes are written shortly after they have been made, so that the cache
+ * survives a crash of the workbench.
+ * </p>
+ *
+ * @since 3.21
+ */
+public class LaunchConfigurationMetadataCache {
+
+	/**
+	 * Name of the cache file in the state location of the debug core plug-in.
+	 */
+	public static final String FILE_NAME = ".launchMetadata"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x4C434D44; // "LCMD"
+	private static final int VERSION = 1;
+
+	/**
+	 * Delay in milliseconds before a modified cache is written.
+	 */
+	private static final long SAVE_DELAY = 5000;
+
+	/**
+	 * Cached metadata of one launch configuration file.
+	 */
+	public static final class Metadata {
+		private final String fName;
+		private final String fTypeId;
+		private final boolean fPrototype;
+		private final List<String> fMappedResourcePaths;
+		private final List<String> fMappedResourceTypes;
+		private long fTimeStamp;
+		private final long fLength;
+		private final long fChecksum;
+		private volatile boolean fValidated;
+
+		Metadata(String name, String typeId, boolean prototype, List<String> paths, List<String> types, long timeStamp, long length, long checksum) {
+			fName = name;
+			fTypeId = typeId;
+			fPrototype = prototype;
+			fMappedResourcePaths = paths;
+			fMappedResourceTypes = types;
+			fTimeStamp = timeStamp;
+			fLength = length;
+			fChecksum = checksum;
+		}
+
+		/**
+		 * @return launch configuration name
+		 */
+		public String getName() {
+			return fName;
+		}
+
+		/**
+		 * @return launch configuration type identifier
+		 */
+		public String getTypeId() {
+			return fTypeId;
+		}
+
+		/**
+		 * @return whether the configuration is a prototype
+		 */
+		public boolean isPrototype() {
+			return fPrototype;
+		}
+
+		/**
+		 * @return value of {@link LaunchConfiguration#ATTR_MAPPED_RESOURCE_PATHS}
+		 *         or <code>null</code>
+		 */
+		public List<String> getMappedResourcePaths() {
+			return fMappedResourcePaths;
+		}
+
+		/**
+		 * @return value of {@link LaunchConfiguration#ATTR_MAPPED_RESOURCE_TYPES}
+		 *         or <code>null</code>
+		 */
+		public List<String> getMappedResourceTypes() {
+			return fMappedResourceTypes;
+		}
+	}
+
+	private final File fFile;
+	private final Map<String, Metadata> fEntries = new ConcurrentHashMap<>();
+	private volatile boolean fLoaded;
+	private volatile boolean fDirty;
+
+	/**
+	 * Writes the cache shortly after it has been modified, so that a burst of
+	 * changes is written once.
+	 */
+	private final Job fSaveJob = new Job("Save launch configuration metadata") { //$NON-NLS-1$
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			save();
+			return Status.OK_STATUS;
+		}
+	};
+
+	/**
+	 * Creates a cache persisted in the given file.
+	 *
+	 * @param file cache file
+	 */
+	public LaunchConfigurationMetadataCache(File file) {
+		fFile = file;
+		fSaveJob.setSystem(true);
+	}
+
+	/**
+	 * Returns the cached metadata of the given configuration if it is
+	 * current with respect to the configuration's file, otherwise
+	 * <code>null</code>.
+	 *
+	 * @param config a launch configuration which is not a working copy
+	 * @return current metadata or <code>null</code>
+	 */
+	public Metadata get(LaunchConfiguration config) {
+		load();
+		String key = getKey(config);
+		if (key == null) {
+			return null;
+		}
+		Metadata metadata = fEntries.get(key);
+		if (metadata == null || metadata.fValidated) {
+			return metadata;
+		}
+		if (isCurrent(config, metadata)) {
+			metadata.fValidated = true;
+			return metadata;
+		}
+		fEntries.remove(key, metadata);
+		setDirty();
+		return null;
+	}
+
+	/**
+	 * Records the metadata of a configuration whose file has just been parsed.
+	 *
+	 * @param config the configuration
+	 * @param info the attributes parsed from the file
+	 * @param contents the parsed file contents
+	 * @param fileInfo file information obtained before the contents were read
+	 */
+	public void put(LaunchConfiguration config, LaunchConfigurationInfo info, byte[] contents, IFileInfo fileInfo) {
+		String key = getKey(config);
+		if (key == null || info.getType() == null) {
+			return;
+		}
+		List<String> paths;
+		List<String> types;
+		try {
+			paths = info.getListAttribute(LaunchConfiguration.ATTR_MAPPED_RESOURCE_PATHS, null);
+			types = info.getListAttribute(LaunchConfiguration.ATTR_MAPPED_RESOURCE_TYPES, null);
+		} catch (CoreException e) {
+			// malformed attribute, always read it from the file
+			return;
+		}
+		Metadata metadata = new Metadata(config.getName(), info.getType().getIdentifier(), info.isPrototype(), copy(paths), copy(types), fileInfo.getLastModified(), fileInfo.getLength(), checksum(contents));
+		metadata.fValidated = true;
+		fEntries.put(key, metadata);
+		setDirty();
+	}
+
+	/**
+	 * Removes the metadata of the given configuration, for example because
+	 * the configuration has been changed or deleted.
+	 *
+	 * @param config the configuration
+	 */
+	public void remove(LaunchConfiguration config) {
+		String key = getKey(config);
+		if (key != null && fEntries.remove(key) != null) {
+			setDirty();
+		}
+	}
+
+	/**
+	 * Returns the number of cached entries.
+	 *
+	 * @return number of cached entries
+	 */
+	public int size() {
+		load();
+		return fEntries.size();
+	}
+
+	/**
+	 * Writes the cache to disk now if it has been modified, for example when
+	 * the debug core plug-in shuts down.
+	 */
+	public void flush() {
+		fSaveJob.cancel();
+		save();
+	}
+
+	/**
+	 * Marks the cache as modified and schedules it to be written.
+	 */
+	private void setDirty() {
+		fDirty = true;
+		fSaveJob.schedule(SAVE_DELAY);
+	}
+
+	/**
+	 * Writes the cache to disk if it has been modified. Entries of files which
+	 * no longer exist are dropped.
+	 */
+	private synchronized void save() {
+		if (!fDirty) {
+			return;
+		}
+		// cleared before the entries are written, changes made meanwhile are
+		// written by the next save
+		fDirty = false;
+		for (Iterator<Map.Entry<String, Metadata>> iterator = fEntries.entrySet().iterator(); iterator.hasNext();) {
+			Map.Entry<String, Metadata> entry = iterator.next();
+			if (!entry.getValue().fValidated && !exists(entry.getKey())) {
+				iterator.remove();
+			}
+		}
+		File temp = new File(fFile.getParentFile(), fFile.getName() + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			List<Map.Entry<String, Metadata>> entries = new ArrayList<>(fEntries.entrySet());
+			out.writeInt(entries.size());
+			for (Map.Entry<String, Metadata> entry : entries) {
+				Metadata metadata = entry.getValue();
+				out.writeUTF(entry.getKey());
+				out.writeUTF(metadata.fName);
+				out.writeUTF(metadata.fTypeId);
+				out.writeBoolean(metadata.fPrototype);
+				out.writeLong(metadata.fTimeStamp);
+				out.writeLong(metadata.fLength);
+				out.writeLong(metadata.fChecksum);
+				writeList(out, metadata.fMappedResourcePaths);
+				writeList(out, metadata.fMappedResourceTypes);
+			}
+		} catch (IOException e) {
+			DebugPlugin.log(e);
+			temp.delete();
+			fDirty = true;
+			return;
+		}
+		try {
+			try {
+				Files.move(temp.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			DebugPlugin.log(e);
+			temp.delete();
+			fDirty = true;
+		}
+	}
+
+	/**
+	 * Reads the cache file the first time the cache is accessed. A missing,
+	 * corrupt or outdated file results in an empty cache.
+	 */
+	private void load() {
+		if (fLoaded) {
+			return;
+		}
+		synchronized (this) {
+			if (fLoaded) {
+				return;
+			}
+			if (fFile.isFile()) {
+				try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(fFile.toPath())))) {
+					if (in.readInt() == MAGIC && in.readInt() == VERSION) {
+						int count = in.readInt();
+						for (int i = 0; i < count; i++) {
+							String key = in.readUTF();
+							String name = in.readUTF();
+							String typeId = in.readUTF();
+							boolean prototype = in.readBoolean();
+							long timeStamp = in.readLong();
+							long length = in.readLong();
+							long checksum = in.readLong();
+							List<String> paths = readList(in);
+							List<String> types = readList(in);
+							if (exists(key)) {
+								fEntries.putIfAbsent(key, new Metadata(name, typeId, prototype, paths, types, timeStamp, length, checksum));
+							} else {
+								// configuration deleted or renamed meanwhile
+								setDirty();
+							}
+						}
+					} else {
+						setDirty();
+					}
+				} catch (IOException e) {
+					// start over with an empty cache
+					fEntries.clear();
+					setDirty();
+				}
+			}
+			fLoaded = true;
+		}
+	}
+
+	/**
+	 * Returns whether the metadata still describes the configuration's file.
+	 */
+	private boolean isCurrent(LaunchConfiguration config, Metadata metadata) {
+		if (!metadata.fName.equals(config.getName()) || metadata.fPrototype != config.isPrototype()) {
+			return false;
+		}
+		try {
+			IFileStore store = config.getFileStore();
+			if (store == null) {
+				return false;
+			}
+			IFileInfo fileInfo = store.fetchInfo();
+			if (!fileInfo.exists() || fileInfo.getLength() != metadata.fLength) {
+				return false;
+			}
+			if (fileInfo.getLastModified() == metadata.fTimeStamp) {
+				return true;
+			}
+			// touched but possibly unchanged, for example by a version control checkout
+			try (InputStream stream = store.openInputStream(EFS.NONE, null)) {
+				if (checksum(stream.readAllBytes()) == metadata.fChecksum) {
+					metadata.fTimeStamp = fileInfo.getLastModified();
+					setDirty();
+					return true;
+				}
+			}
+		} catch (CoreException | IOException e) {
+			// treat as stale, the file is parsed and errors are reported then
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether the file with the given cache key still exists.
+	 */
+	private static boolean exists(String key) {
+		try {
+			return EFS.getStore(new URI(key)).fetchInfo().exists();
+		} catch (CoreException | URISyntaxException e) {
+			return false;
+		}
+	}
+
+	private static String getKey(LaunchConfiguration config) {
+		try {
+			IFileStore store = config.getFileStore();
+			return store == null ? null : store.toURI().toString();
+		} catch (CoreException e) {
+			return null;
+		}
+	}
+
+	private static long checksum(byte[] contents) {
+		CRC32 crc = new CRC32();
+		crc.update(contents);
+		return crc.getValue();
+	}
+
+	private static List<String> copy(List<String> list) {
+		return list == null ? null : Collections.unmodifiableList(new ArrayList<>(list));
+	}
+
+	private static void writeList(DataOutputStream out, List<String> list) throws IOException {
+		if (list == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(list.size());
+		for (String value : list) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static List<String> readList(DataInputStream in) throws IOException {
+		int size = in.readInt();
+		if (size < 0) {
+			return null;
+		}
+		List<String> list = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			list.add(in.readUTF());
+		}
+		return Collections.unmodifiableList(list);
+	}
+}
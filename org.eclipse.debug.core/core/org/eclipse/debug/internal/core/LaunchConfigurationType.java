@@ -373,6 +373,17 @@ public class LaunchConfigurationType extends PlatformObject implements ILaunchCo
 		return false;
 	}
 
+	/**
+	 * Returns whether this type contributes a migration delegate, without
+	 * loading the delegate.
+	 *
+	 * @return whether configurations of this type can be migration candidates
+	 * @since 3.21
+	 */
+	public boolean hasMigrationDelegate() {
+		return fElement.getAttribute(IConfigurationElementConstants.MIGRATION_DELEGATE) != null;
+	}
+
 	/**
 	 * This method initializes the migration delegate
 	 * @throws CoreException if a problem is encountered
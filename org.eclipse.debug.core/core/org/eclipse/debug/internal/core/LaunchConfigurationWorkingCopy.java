@@ -206,7 +206,8 @@ public class LaunchConfigurationWorkingCopy extends LaunchConfiguration implemen
 				wc.rename(getName());
 				wc.setContainer(getContainer());
 			}
-			wc.setAttributes(getInfo().getAttributes());
+			wc.getInfo().shareAttributes(getInfo());
+			wc.setDirty();
 			updateMonitor(lmonitor, 1);
 			return wc;
 		}
@@ -22,16 +22,18 @@ package org.eclipse.debug.internal.core;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -40,17 +42,26 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -59,6 +70,7 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
 import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
 import org.eclipse.core.filesystem.IFileStore;
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -113,9 +125,7 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
-import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * Manages launch configurations, launch configuration types, and registered launches.
@@ -513,6 +523,24 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	public static final IPath LOCAL_LAUNCH_CONFIGURATION_CONTAINER_PATH =
 		DebugPlugin.getDefault().getStateLocation().append(".launches"); //$NON-NLS-1$
 
+	/**
+	 * Factory for streaming readers of launch configuration files. Configured
+	 * once, it is used concurrently to create readers.
+	 */
+	private static final XMLInputFactory fgXMLInputFactory = createXMLInputFactory();
+
+	/**
+	 * Minimum number of launch configuration files for validating them in
+	 * parallel on the initial load.
+	 */
+	private static final int PARALLEL_LOAD_THRESHOLD = 32;
+
+	/**
+	 * Maximum number of threads validating launch configurations on the
+	 * initial load.
+	 */
+	private static final int MAX_LOAD_PARALLELISM = 8;
+
 	/**
 	 * Returns a Document that can be used to build a DOM tree
 	 * @return the Document
@@ -570,9 +598,12 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 
 	/**
 	 * Launch configuration cache. Keys are <code>LaunchConfiguration</code>,
-	 * values are <code>LaunchConfigurationInfo</code>.
+	 * values are <code>LaunchConfigurationInfo</code>. The map is concurrent
+	 * since {@link #getInfo(LaunchConfiguration)} and
+	 * {@link #getMetadata(LaunchConfiguration)} read it without holding the
+	 * lock of the launch manager.
 	 */
-	private Map<ILaunchConfiguration, LaunchConfigurationInfo> fLaunchConfigurations = new HashMap<>(10);
+	private final Map<ILaunchConfiguration, LaunchConfigurationInfo> fLaunchConfigurations = new ConcurrentHashMap<>(10);
 
 	/**
 	 * A cache of launch configuration names currently in the workspace.
@@ -585,6 +616,40 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 */
 	private List<ILaunchConfiguration> fLaunchConfigurationIndex = null;
 
+	/**
+	 * Completed once the initial load of all launch configurations running
+	 * on {@link #fLaunchConfigurationLoader} has been published, or
+	 * <code>null</code> if no load is in progress. Other threads wait for it
+	 * rather than loading the configurations as well.
+	 */
+	private CompletableFuture<Void> fLaunchConfigurationLoad = null;
+
+	/**
+	 * Thread running the initial load of all launch configurations, or
+	 * <code>null</code> if no load is in progress.
+	 */
+	private Thread fLaunchConfigurationLoader = null;
+
+	/**
+	 * Valid launch configurations found so far by the initial load, or
+	 * <code>null</code> if no load is in progress. Returned by calls which
+	 * cannot wait for the load. Synchronized on itself.
+	 */
+	private List<ILaunchConfiguration> fLaunchConfigurationsLoaded = null;
+
+	/**
+	 * Secondary indexes over {@link #fLaunchConfigurationIndex} by type, kind,
+	 * project and mapped resource. Maintained together with the collection of
+	 * all launch configurations.
+	 */
+	private final LaunchConfigurationIndex fLaunchConfigurationLookup = new LaunchConfigurationIndex();
+
+	/**
+	 * Persistent metadata of launch configuration files, used to answer type
+	 * and mapped resource queries without parsing the XML.
+	 */
+	private final LaunchConfigurationMetadataCache fMetadataCache = new LaunchConfigurationMetadataCache(DebugPlugin.getDefault().getStateLocation().append(LaunchConfigurationMetadataCache.FILE_NAME).toFile());
+
 	/**
 	 * Launch configuration comparator extensions,
 	 * keyed by attribute name.
@@ -860,6 +925,7 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		if (fLaunchConfigurationIndex != null) {
 			fLaunchConfigurationIndex.clear();
 		}
+		fLaunchConfigurationLookup.clear();
 	}
 
 	@Override
@@ -947,15 +1013,34 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 * @since 3.12
 	 */
 	protected LaunchConfigurationInfo createInfoFromXML(InputStream stream, boolean isPrototype) throws CoreException, ParserConfigurationException, IOException, SAXException {
-		Element root = null;
-		DocumentBuilder parser = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-		parser.setErrorHandler(new DefaultHandler());
-		root = parser.parse(new InputSource(stream)).getDocumentElement();
 		LaunchConfigurationInfo info = new LaunchConfigurationInfo();
-		info.initializeFromXML(root, isPrototype);
+		try {
+			XMLStreamReader reader = fgXMLInputFactory.createXMLStreamReader(stream);
+			try {
+				info.initializeFromXML(reader, isPrototype);
+			} finally {
+				reader.close();
+			}
+		} catch (XMLStreamException e) {
+			throw new SAXException(e);
+		}
 		return info;
 	}
 
+	/**
+	 * Creates the factory for readers of launch configuration files. The
+	 * files are read without namespace processing and without DTDs.
+	 *
+	 * @return XML input factory
+	 */
+	private static XMLInputFactory createXMLInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newFactory();
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		return factory;
+	}
+
 	/**
 	 * Finds and returns all launch configurations in the given
 	 * container (and sub-containers)
@@ -1011,25 +1096,23 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		final File directory = containerPath.toFile();
 		if (directory.isDirectory()) {
 			List<ILaunchConfiguration> configs = new ArrayList<>();
-			FilenameFilter configFilter = (dir, name) -> dir.equals(directory) &&
-					name.endsWith(ILaunchConfiguration.LAUNCH_CONFIGURATION_FILE_EXTENSION);
-			File[] configFiles = directory.listFiles(configFilter);
-			if (configFiles != null && configFiles.length > 0) {
-				LaunchConfiguration config = null;
-				for (File configFile : configFiles) {
-					config = new LaunchConfiguration(LaunchConfiguration.getSimpleName(configFile.getName()), null, false);
-					configs.add(config);
-				}
-			}
-			FilenameFilter prototypeFilter = (dir, name) -> dir.equals(directory) && name.endsWith(ILaunchConfiguration.LAUNCH_CONFIGURATION_PROTOTYPE_FILE_EXTENSION);
-			File[] prototypeFiles = directory.listFiles(prototypeFilter);
-			if (prototypeFiles != null && prototypeFiles.length > 0) {
-				LaunchConfiguration config = null;
-				for (File prototypeFile : prototypeFiles) {
-					config = new LaunchConfiguration(LaunchConfiguration.getSimpleName(prototypeFile.getName()), null, true);
-					configs.add(config);
+			List<ILaunchConfiguration> prototypes = new ArrayList<>();
+			String configSuffix = '.' + ILaunchConfiguration.LAUNCH_CONFIGURATION_FILE_EXTENSION;
+			String prototypeSuffix = '.' + ILaunchConfiguration.LAUNCH_CONFIGURATION_PROTOTYPE_FILE_EXTENSION;
+			// single pass over the directory
+			try (DirectoryStream<java.nio.file.Path> stream = Files.newDirectoryStream(directory.toPath())) {
+				for (java.nio.file.Path file : stream) {
+					String name = file.getFileName().toString();
+					if (name.endsWith(configSuffix)) {
+						configs.add(new LaunchConfiguration(LaunchConfiguration.getSimpleName(name), null, false));
+					} else if (name.endsWith(prototypeSuffix)) {
+						prototypes.add(new LaunchConfiguration(LaunchConfiguration.getSimpleName(name), null, true));
+					}
 				}
+			} catch (IOException e) {
+				DebugPlugin.log(e);
 			}
+			configs.addAll(prototypes);
 			return configs;
 		}
 		return Collections.emptyList();
@@ -1134,22 +1217,154 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	/**
 	 * Returns a collection of all launch configuration handles in
 	 * the workspace. This collection is initialized lazily.
+	 * <p>
+	 * The initial load validates the discovered configurations in parallel.
+	 * It runs without holding the launch manager's lock (unless the caller
+	 * holds it), and its result is published at once. Concurrent callers wait
+	 * for the load in progress. Calls made while holding the lock or as part of
+	 * the load itself cannot wait without deadlocking; they return the
+	 * configurations loaded so far.
+	 * </p>
 	 *
 	 * @return all launch configuration handles
 	 */
-	public synchronized List<ILaunchConfiguration> getAllLaunchConfigurations() {
-		if (fLaunchConfigurationIndex == null) {
+	public List<ILaunchConfiguration> getAllLaunchConfigurations() {
+		boolean holdsLock = Thread.holdsLock(this);
+		Thread current = Thread.currentThread();
+		CompletableFuture<Void> load;
+		List<ILaunchConfiguration> loaded;
+		synchronized (this) {
+			if (fLaunchConfigurationIndex != null) {
+				return fLaunchConfigurationIndex;
+			}
+			load = fLaunchConfigurationLoad;
+			loaded = fLaunchConfigurationsLoaded;
+			if (load == null) {
+				load = new CompletableFuture<>();
+				loaded = Collections.synchronizedList(new ArrayList<>());
+				fLaunchConfigurationLoad = load;
+				fLaunchConfigurationLoader = current;
+				fLaunchConfigurationsLoaded = loaded;
+			} else if (holdsLock || current == fLaunchConfigurationLoader || current instanceof LoadWorkerThread) {
+				synchronized (loaded) {
+					return new ArrayList<>(loaded);
+				}
+			} else {
+				loaded = null;
+			}
+		}
+		if (loaded == null) {
+			load.join();
+			synchronized (this) {
+				return fLaunchConfigurationIndex;
+			}
+		}
+		try {
+			loadLaunchConfigurations(loaded);
+		} finally {
+			synchronized (this) {
+				synchronized (loaded) {
+					fLaunchConfigurationIndex = new ArrayList<>(loaded);
+				}
+				for (ILaunchConfiguration config : fLaunchConfigurationIndex) {
+					fLaunchConfigurationLookup.add(config);
+				}
+				hookResourceChangeListener();
+				fLaunchConfigurationLoad = null;
+				fLaunchConfigurationLoader = null;
+				fLaunchConfigurationsLoaded = null;
+			}
+			load.complete(null);
+		}
+		synchronized (this) {
+			return fLaunchConfigurationIndex;
+		}
+	}
+
+	/**
+	 * Discovers the launch configuration files stored locally and in the
+	 * workspace and returns the valid configurations. Validation may parse
+	 * configuration files; if there are enough of them and the calling thread
+	 * does not hold the lock of this launch manager (which parsing needs), it
+	 * runs on a bounded fork-join pool.
+	 *
+	 * @param valid list receiving the valid launch configurations, local
+	 *            configurations first
+	 */
+	private void loadLaunchConfigurations(List<ILaunchConfiguration> valid) {
+		long start = System.nanoTime();
+		List<ILaunchConfiguration> candidates = new ArrayList<>(findLocalLaunchConfigurations());
+		candidates.addAll(findLaunchConfigurations(ResourcesPlugin.getWorkspace().getRoot()));
+		long discovered = System.nanoTime();
+		int parallelism = 1;
+		if (candidates.size() < PARALLEL_LOAD_THRESHOLD || Thread.holdsLock(this)) {
+			verifyConfigurations(candidates, valid);
+		} else {
+			// types are needed by all workers
+			getLaunchConfigurationTypes();
+			parallelism = Math.min(Runtime.getRuntime().availableProcessors(), MAX_LOAD_PARALLELISM);
+			ILaunchConfiguration[] configs = new LinkedHashSet<>(candidates).toArray(new ILaunchConfiguration[0]);
+			boolean[] validity = new boolean[configs.length];
+			ForkJoinPool pool = new ForkJoinPool(parallelism, LoadWorkerThread::new, null, false);
 			try {
-				fLaunchConfigurationIndex = new ArrayList<>(20);
-				List<ILaunchConfiguration> configs = findLocalLaunchConfigurations();
-				verifyConfigurations(configs, fLaunchConfigurationIndex);
-				configs = findLaunchConfigurations(ResourcesPlugin.getWorkspace().getRoot());
-				verifyConfigurations(configs, fLaunchConfigurationIndex);
+				pool.invoke(new ValidationTask(configs, validity, 0, configs.length));
 			} finally {
-				hookResourceChangeListener();
+				pool.shutdown();
+			}
+			for (int i = 0; i < configs.length; i++) {
+				if (validity[i]) {
+					valid.add(configs[i]);
+				}
 			}
 		}
-		return fLaunchConfigurationIndex;
+		if (DebugOptions.DEBUG_LAUNCH_CONFIGURATIONS) {
+			long end = System.nanoTime();
+			DebugOptions.trace(DebugOptions.DEBUG_FLAG_LAUNCH_CONFIGURATIONS, MessageFormat.format("Loaded {0} of {1} launch configurations in {2} ms (discovery {3} ms, validation {4} ms, parallelism {5})", //$NON-NLS-1$
+					valid.size(), candidates.size(), TimeUnit.NANOSECONDS.toMillis(end - start), TimeUnit.NANOSECONDS.toMillis(discovered - start), TimeUnit.NANOSECONDS.toMillis(end - discovered), parallelism), null);
+		}
+	}
+
+	/**
+	 * Worker thread of the pool validating launch configurations during the
+	 * initial load.
+	 */
+	private static final class LoadWorkerThread extends ForkJoinWorkerThread {
+		LoadWorkerThread(ForkJoinPool pool) {
+			super(pool);
+		}
+	}
+
+	/**
+	 * Validates a range of launch configurations, splitting the range until
+	 * it is small enough to be validated by a single worker.
+	 */
+	private class ValidationTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private static final int BATCH_SIZE = 8;
+
+		private final ILaunchConfiguration[] fConfigs;
+		private final boolean[] fValidity;
+		private final int fFrom;
+		private final int fTo;
+
+		ValidationTask(ILaunchConfiguration[] configs, boolean[] validity, int from, int to) {
+			fConfigs = configs;
+			fValidity = validity;
+			fFrom = from;
+			fTo = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (fTo - fFrom <= BATCH_SIZE) {
+				for (int i = fFrom; i < fTo; i++) {
+					fValidity[i] = isValid(fConfigs[i]);
+				}
+				return;
+			}
+			int middle = (fFrom + fTo) >>> 1;
+			invokeAll(new ValidationTask(fConfigs, fValidity, fFrom, middle), new ValidationTask(fConfigs, fValidity, middle, fTo));
+		}
 	}
 
 	/**
@@ -1360,11 +1575,14 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 			if (config.exists()) {
 				BufferedInputStream stream = null;
 				try {
+					IFileInfo fileInfo = store.fetchInfo();
 					stream = new BufferedInputStream(store.openInputStream(EFS.NONE, null));
-					info = createInfoFromXML(stream, isPrototype(store));
+					byte[] contents = stream.readAllBytes();
+					info = createInfoFromXML(new ByteArrayInputStream(contents), isPrototype(store));
 					synchronized (this) {
 						fLaunchConfigurations.put(config, info);
 					}
+					fMetadataCache.put(config, info, contents, fileInfo);
 				} catch (FileNotFoundException e) {
 					throwException(config, e);
 				} catch (SAXException e) {
@@ -1393,6 +1611,32 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		return info;
 	}
 
+	/**
+	 * Returns the persisted metadata of the given configuration if it is
+	 * current and the configuration's attributes have not been read yet,
+	 * otherwise <code>null</code>.
+	 *
+	 * @param config the {@link LaunchConfiguration} to get the metadata of
+	 * @return current metadata or <code>null</code>
+	 * @since 3.21
+	 */
+	protected LaunchConfigurationMetadataCache.Metadata getMetadata(LaunchConfiguration config) {
+		if (config.isWorkingCopy() || fLaunchConfigurations.get(config) != null) {
+			return null;
+		}
+		return fMetadataCache.get(config);
+	}
+
+	/**
+	 * Returns the persistent cache of launch configuration metadata.
+	 *
+	 * @return launch configuration metadata cache
+	 * @since 3.21
+	 */
+	public LaunchConfigurationMetadataCache getMetadataCache() {
+		return fMetadataCache;
+	}
+
 	/**
 	 * Check if the given {@link IFileStore} is a prototype.
 	 *
@@ -1438,47 +1682,36 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	}
 
 	@Override
-	public synchronized ILaunchConfiguration[] getLaunchConfigurations() {
+	public ILaunchConfiguration[] getLaunchConfigurations() {
 		return getLaunchConfigurations(ILaunchConfiguration.CONFIGURATION);
 	}
 
 	@Override
 	public ILaunchConfiguration[] getLaunchConfigurations(int kinds) {
+		// load outside of the lock, see getAllLaunchConfigurations()
 		List<ILaunchConfiguration> allConfigs = getAllLaunchConfigurations();
-		if (((kinds & ILaunchConfiguration.CONFIGURATION) > 0) && ((kinds & ILaunchConfiguration.PROTOTYPE) > 0)) {
-			// all kinds
-			return allConfigs.toArray(new ILaunchConfiguration[allConfigs.size()]);
-		} else {
-			List<ILaunchConfiguration> select = new ArrayList<>(allConfigs.size());
-			Iterator<ILaunchConfiguration> iterator = allConfigs.iterator();
-			while (iterator.hasNext()) {
-				ILaunchConfiguration config = iterator.next();
-				try {
-					if ((config.getKind() & kinds) > 0) {
-						select.add(config);
-					}
-				} catch (CoreException e) {
-					DebugPlugin.log(e);
-				}
+		synchronized (this) {
+			if (((kinds & ILaunchConfiguration.CONFIGURATION) > 0) && ((kinds & ILaunchConfiguration.PROTOTYPE) > 0)) {
+				// all kinds
+				return allConfigs.toArray(new ILaunchConfiguration[allConfigs.size()]);
 			}
+			List<ILaunchConfiguration> select = fLaunchConfigurationLookup.getByKind(kinds);
 			return select.toArray(new ILaunchConfiguration[select.size()]);
 		}
 	}
 
 	@Override
-	public synchronized ILaunchConfiguration[] getLaunchConfigurations(ILaunchConfigurationType type) throws CoreException {
+	public ILaunchConfiguration[] getLaunchConfigurations(ILaunchConfigurationType type) throws CoreException {
 		return getLaunchConfigurations(type, ILaunchConfiguration.CONFIGURATION);
 	}
 
 	@Override
-	public synchronized ILaunchConfiguration[] getLaunchConfigurations(ILaunchConfigurationType type, int kinds) throws CoreException {
-		List<ILaunchConfiguration> configs = new ArrayList<>();
-		for (ILaunchConfiguration config : getAllLaunchConfigurations()) {
-			if (config.getType().equals(type) && ((config.getKind() & kinds) > 0)) {
-				configs.add(config);
-			}
+	public ILaunchConfiguration[] getLaunchConfigurations(ILaunchConfigurationType type, int kinds) throws CoreException {
+		getAllLaunchConfigurations();
+		synchronized (this) {
+			List<ILaunchConfiguration> configs = fLaunchConfigurationLookup.getByType(type.getIdentifier(), kinds);
+			return configs.toArray(new ILaunchConfiguration[configs.size()]);
 		}
-		return configs.toArray(new ILaunchConfiguration[configs.size()]);
 	}
 
 	/**
@@ -1489,15 +1722,11 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 * @return collection of launch configurations that are stored as resources
 	 *  in the given project
 	 */
-	protected synchronized List<ILaunchConfiguration> getLaunchConfigurations(IProject project) {
-		List<ILaunchConfiguration> configs = new ArrayList<>();
-		for (ILaunchConfiguration config : getAllLaunchConfigurations()) {
-			IFile file = config.getFile();
-			if (file != null && file.getProject().equals(project)) {
-				configs.add(config);
-			}
+	protected List<ILaunchConfiguration> getLaunchConfigurations(IProject project) {
+		getAllLaunchConfigurations();
+		synchronized (this) {
+			return fLaunchConfigurationLookup.getByProject(project);
 		}
-		return configs;
 	}
 
 	@Override
@@ -1755,36 +1984,25 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 * @since 3.2
 	 */
 	public ILaunchConfiguration[] getMappedConfigurations(IResource resource) {
-		List<ILaunchConfiguration> configurations = new ArrayList<>();
-		for (ILaunchConfiguration config : getAllLaunchConfigurations()) {
-			try {
-				IResource[] resources = config.getMappedResources();
-				if(resources != null) {
-					for (IResource res : resources) {
-						if(res.equals(resource)) {
-							configurations.add(config);
-							break;
-						} else if (resource.getType() == IResource.PROJECT && res.getType() == IResource.FILE){
-							if (res.getProject().equals(resource)) {
-								configurations.add(config);
-								break;
-							}
-						}
-					}
-				}
-			} catch (CoreException ce) {
-				DebugPlugin.log(ce);
-			}
+		getAllLaunchConfigurations();
+		synchronized (this) {
+			List<ILaunchConfiguration> configurations = fLaunchConfigurationLookup.getByMappedResource(resource);
+			return configurations.toArray(new ILaunchConfiguration[configurations.size()]);
 		}
-		return configurations.toArray(new ILaunchConfiguration[configurations.size()]);
 	}
 
 	@Override
 	public ILaunchConfiguration[] getMigrationCandidates() throws CoreException {
 		List<ILaunchConfiguration> configs = new ArrayList<>();
-		for (ILaunchConfiguration config : getAllLaunchConfigurations()) {
-			if (!config.isReadOnly() && config.isMigrationCandidate()) {
-				configs.add(config);
+		for (ILaunchConfigurationType type : getLaunchConfigurationTypes()) {
+			// only configurations of types contributing a migration delegate can be candidates
+			if (!((LaunchConfigurationType) type).hasMigrationDelegate()) {
+				continue;
+			}
+			for (ILaunchConfiguration config : getLaunchConfigurations(type, ILaunchConfiguration.CONFIGURATION | ILaunchConfiguration.PROTOTYPE)) {
+				if (!config.isReadOnly() && config.isMigrationCandidate()) {
+					configs.add(config);
+				}
 			}
 		}
 		return configs.toArray(new ILaunchConfiguration[configs.size()]);
@@ -2111,9 +2329,13 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 			boolean added = false;
 			synchronized (this) {
 				List<ILaunchConfiguration> allConfigs = getAllLaunchConfigurations();
-				if (!allConfigs.contains(config)) {
+				if (!fLaunchConfigurationLookup.contains(config)) {
 					allConfigs.add(config);
+					fLaunchConfigurationLookup.add(config);
 					added = true;
+				} else {
+					// attributes may have changed, refresh the indexed keys
+					fLaunchConfigurationLookup.update(config);
 				}
 			}
 			if (added) {
@@ -2138,6 +2360,9 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		synchronized(this) {
 			fLaunchConfigurations.remove(config);
 		}
+		if (config instanceof LaunchConfiguration) {
+			fMetadataCache.remove((LaunchConfiguration) config);
+		}
 		clearConfigNameCache();
 		if (isValid(config)) {
 			// in case the config has been refreshed and it was removed from the
@@ -2163,7 +2388,11 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		synchronized (this) {
 			Object key = fLaunchConfigurations.remove(config);
 			removed = key != null;
+			if (config instanceof LaunchConfiguration) {
+				fMetadataCache.remove((LaunchConfiguration) config);
+			}
 			getAllLaunchConfigurations().remove(config);
+			fLaunchConfigurationLookup.remove(config);
 		}
 		if (removed) {
 			getConfigurationNotifier().notify(config, REMOVED);
@@ -2352,6 +2581,7 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		}
 
 		persistPreferredLaunchDelegates();
+		fMetadataCache.flush();
 		clearAllLaunchConfigurations();
 		fStepFilterManager = null;
 		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
@@ -2451,9 +2681,11 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 * @param valid the list to place valid configurations in
 	 */
 	protected void verifyConfigurations(List<ILaunchConfiguration> verify, List<ILaunchConfiguration> valid) {
+		Set<ILaunchConfiguration> known = new HashSet<>(valid);
 		for (ILaunchConfiguration config : verify) {
-			if (!valid.contains(config) && isValid(config)) {
+			if (!known.contains(config) && isValid(config)) {
 				valid.add(config);
+				known.add(config);
 			}
 		}
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
 package org.eclipse.debug.internal.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -40,15 +41,52 @@ public class LogicalStructureManager {
 	private List<LogicalStructureType> fTypes = null;
 	private List<LogicalStructureProvider> fTypeProviders;
 
+	/**
+	 * A combination of logical structure types, as the indices of the types in
+	 * {@link LogicalStructureManager#fStructureTypeIds}.
+	 */
+	private static final class ComboKey {
+		private final int[] fIndexes;
+		private final int fHashCode;
+
+		ComboKey(int[] indexes) {
+			fIndexes = indexes;
+			fHashCode = Arrays.hashCode(indexes);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof ComboKey && Arrays.equals(fIndexes, ((ComboKey) obj).fIndexes);
+		}
+
+		@Override
+		public int hashCode() {
+			return fHashCode;
+		}
+
+		/**
+		 * Returns the persisted form of this combination, a series of
+		 * comma-separated indices.
+		 */
+		@Override
+		public String toString() {
+			StringBuilder comboKey = new StringBuilder();
+			for (int index : fIndexes) {
+				comboKey.append(index).append(',');
+			}
+			return comboKey.toString();
+		}
+	}
+
 	/**
 	 * Map containing the user's selection for each combination of logical
 	 * structure types.
-	 * key: String - Comma-separated list of ints representing a combination of structure types.
-	 *               These integers are indeces into the fStructureTypeIds array.
+	 * key: ComboKey - The indices representing a combination of structure types.
+	 *                 These integers are indeces into the fStructureTypeIds array.
 	 * value: Integer - One of the ints from the combo key (the one chosen by the user) or -1 if
 	 *                  the user has chosen not to display any structures for this combination
 	 */
-	private Map<String, Integer> fStructureTypeSelections = null;
+	private Map<ComboKey, Integer> fStructureTypeSelections = null;
 	/**
 	 * List of known type identifiers. An identifier's index in this list is used as
 	 * its ID number. This list is maintained as a space-saving measure so that the various
@@ -56,6 +94,10 @@ public class LogicalStructureManager {
 	 * full index strings.
 	 */
 	private List<String> fStructureTypeIds = null;
+	/**
+	 * Index of each identifier in {@link #fStructureTypeIds}.
+	 */
+	private Map<String, Integer> fStructureTypeIndexes = null;
 
 	/**
 	 * Preference key used for storing the user's selected structure for each combination
@@ -116,20 +158,39 @@ public class LogicalStructureManager {
 			// id,id,...,selectedid
 			int i = selection.lastIndexOf(',');
 			if (i > 0 && i < selection.length() - 1) {
-				String comboKey= selection.substring(0, i + 1);
 				String selected= selection.substring(i + 1, selection.length());
-				fStructureTypeSelections.put(comboKey, Integer.valueOf(Integer.parseInt(selected)));
+				try {
+					fStructureTypeSelections.put(parseComboKey(selection.substring(0, i)), Integer.valueOf(Integer.parseInt(selected)));
+				} catch (NumberFormatException e) {
+					// ignore a malformed selection
+				}
 			}
 		}
 	}
 
+	/**
+	 * Returns the combination of the comma-separated indices of structure types.
+	 *
+	 * @param indexes comma-separated indices
+	 * @return the combination of the indices
+	 * @throws NumberFormatException if an index is not an integer
+	 */
+	private static ComboKey parseComboKey(String indexes) {
+		String[] tokens = indexes.split(","); //$NON-NLS-1$
+		int[] comboKey = new int[tokens.length];
+		for (int i = 0; i < tokens.length; i++) {
+			comboKey[i] = Integer.parseInt(tokens[i]);
+		}
+		return new ComboKey(comboKey);
+	}
+
 	/**
 	 * Stores the map of structure selections to the preference store
 	 */
 	private void storeStructureTypeSelections() {
 		StringBuilder buffer= new StringBuilder();
-		for (Entry<String, Integer> entry : fStructureTypeSelections.entrySet()) {
-			buffer.append(entry.getKey());
+		for (Entry<ComboKey, Integer> entry : fStructureTypeSelections.entrySet()) {
+			buffer.append(entry.getKey().toString());
 			buffer.append(entry.getValue());
 			buffer.append('|');
 		}
@@ -141,12 +202,14 @@ public class LogicalStructureManager {
 	 */
 	private void loadStructureTypeIds() {
 		fStructureTypeIds = new ArrayList<>();
+		fStructureTypeIndexes = new HashMap<>();
 		// Types are stored as a comma-separated, ordered list.
 		String types= Platform.getPreferencesService().getString(DebugPlugin.getUniqueIdentifier(), PREF_STRUCTURE_IDS, IInternalDebugCoreConstants.EMPTY_STRING, null);
 		StringTokenizer tokenizer= new StringTokenizer(types, ","); //$NON-NLS-1$
 		while (tokenizer.hasMoreTokens()) {
 			String id= tokenizer.nextToken();
-			if (id.length() > 0) {
+			if (id.length() > 0 && !fStructureTypeIndexes.containsKey(id)) {
+				fStructureTypeIndexes.put(id, Integer.valueOf(fStructureTypeIds.size()));
 				fStructureTypeIds.add(id);
 			}
 		}
@@ -171,11 +234,12 @@ public class LogicalStructureManager {
 	 * @return the structure that the user has chosen from among the given collection
 	 *  or <code>null</code> if the user has chosen to display none
 	 */
-	public ILogicalStructureType getSelectedStructureType(ILogicalStructureType[] structureTypes) {
+	public synchronized ILogicalStructureType getSelectedStructureType(ILogicalStructureType[] structureTypes) {
 		if (structureTypes.length == 0) {
 			return null;
 		}
-		String combo= getComboString(structureTypes);
+		initialize();
+		ComboKey combo= getComboKey(structureTypes);
 		// Lookup the combo
 		Integer index = fStructureTypeSelections.get(combo);
 		if (index == null) {
@@ -203,11 +267,12 @@ public class LogicalStructureManager {
 	 * @param selected the type that is selected for the given combo or <code>null</code>
 	 *  if the user has de-selected any structure for the given combo
 	 */
-	public void setEnabledType(ILogicalStructureType[] types, ILogicalStructureType selected) {
-		String combo= getComboString(types);
+	public synchronized void setEnabledType(ILogicalStructureType[] types, ILogicalStructureType selected) {
+		initialize();
+		ComboKey combo= getComboKey(types);
 		int index= -1; // Initialize to "none selected"
 		if (selected != null) {
-			index= fStructureTypeIds.indexOf(selected.getId());
+			index= getTypeIndex(selected.getId());
 		}
 		Integer integer= Integer.valueOf(index);
 		fStructureTypeSelections.put(combo, integer);
@@ -215,6 +280,23 @@ public class LogicalStructureManager {
 		storeStructureTypeIds();
 	}
 
+	/**
+	 * Returns the key representing the given combination of logical
+	 * structure types. The key holds the indices representing the various
+	 * types. If any of the given types don't have indices associated with
+	 * them, this method will create the appropriate index.
+	 * @param types the logical structure types
+	 * @return the key representing the given combination of logical
+	 *  structure types
+	 */
+	private ComboKey getComboKey(ILogicalStructureType[] types) {
+		int[] comboKey= new int[types.length];
+		for (int i = 0; i < types.length; i++) {
+			comboKey[i]= getTypeIndex(types[i].getId());
+		}
+		return new ComboKey(comboKey);
+	}
+
 	/**
 	 * Returns the string representing the given combination of logical
 	 * structure types. This string will be a series of comma-separated
@@ -226,16 +308,24 @@ public class LogicalStructureManager {
 	 *  structure types
 	 */
 	protected String getComboString(ILogicalStructureType[] types) {
-		StringBuilder comboKey= new StringBuilder();
-		for (ILogicalStructureType type : types) {
-			int typeIndex = fStructureTypeIds.indexOf(type.getId());
-			if (typeIndex == -1) {
-				typeIndex= fStructureTypeIds.size();
-				fStructureTypeIds.add(type.getId());
-			}
-			comboKey.append(typeIndex).append(',');
+		return getComboKey(types).toString();
+	}
+
+	/**
+	 * Returns the index of the given logical structure type identifier in the
+	 * list of known identifiers, adding the identifier if it is not known yet.
+	 *
+	 * @param id logical structure type identifier
+	 * @return index of the identifier
+	 */
+	private int getTypeIndex(String id) {
+		Integer index = fStructureTypeIndexes.get(id);
+		if (index == null) {
+			index = Integer.valueOf(fStructureTypeIds.size());
+			fStructureTypeIds.add(id);
+			fStructureTypeIndexes.put(id, index);
 		}
-		return comboKey.toString();
+		return index.intValue();
 	}
 
 	private synchronized void initialize() {
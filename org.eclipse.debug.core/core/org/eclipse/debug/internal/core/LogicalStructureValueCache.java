@@ -0,0 +1,353 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IDebugEventSetListener;
+import org.eclipse.debug.core.ILogicalStructureType;
+import org.eclipse.debug.core.model.IDebugElement;
+import org.eclipse.debug.core.model.IDebugTarget;
+import org.eclipse.debug.core.model.IExpression;
+import org.eclipse.debug.core.model.ILogicalStructureTypeDelegate3;
+import org.eclipse.debug.core.model.IValue;
+
+/**
+ * Cache of evaluated logical structures, shared by all clients presenting
+ * logical structures of values such as the variables and expressions views
+ * and hovers.
+ * <p>
+ * Entries are keyed by debug target, suspend epoch, raw value and logical
+ * structure type. The epoch of a target advances whenever its state changes
+ * (it suspends, resumes or the content of one of its elements changes), which
+ * drops the target's entries; evaluations still running at that time cannot
+ * publish stale results. Concurrent requests for the same structure wait for a
+ * single evaluation.
+ * </p>
+ * <p>
+ * The entries are spread over lock stripes, each with a bounded number of
+ * least recently used entries. Logical values of
+ * {@link ILogicalStructureTypeDelegate3} types are released when their
+ * target's epoch advances or when the cache is cleared, but not when their
+ * entry is evicted, as clients may still present them until then. A value
+ * whose entry was dropped before its evaluation completed is not retained by
+ * the cache.
+ * </p>
+ *
+ * @since 3.21
+ */
+public class LogicalStructureValueCache implements IDebugEventSetListener {
+
+	/**
+	 * Default maximum number of cached logical structures.
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+	private static final int STRIPES = 16;
+
+	/**
+	 * Key of values without debug target.
+	 */
+	private static final Object NO_TARGET = new Object();
+
+	private static LogicalStructureValueCache fgDefault;
+
+	/**
+	 * A logical structure of a value in an epoch of a debug target.
+	 */
+	private static final class Key {
+		final Object fTarget;
+		final long fEpoch;
+		final IValue fValue;
+		final ILogicalStructureType fType;
+
+		Key(Object target, long epoch, IValue value, ILogicalStructureType type) {
+			fTarget = target;
+			fEpoch = epoch;
+			fValue = value;
+			fType = type;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return fEpoch == other.fEpoch && fTarget.equals(other.fTarget) && fValue.equals(other.fValue) && fType.equals(other.fType);
+		}
+
+		@Override
+		public int hashCode() {
+			return ((fTarget.hashCode() * 31 + Long.hashCode(fEpoch)) * 31 + fValue.hashCode()) * 31 + fType.hashCode();
+		}
+	}
+
+	/**
+	 * The epoch of a debug target and the evicted entries of the epoch that
+	 * have a value to release. The evicted entries are guarded by the state.
+	 */
+	private static final class TargetState {
+		volatile long fEpoch;
+		List<Entry> fEvicted = new ArrayList<>();
+	}
+
+	/**
+	 * A cached logical structure and, once evaluated, the type to release it
+	 * with. The release fields are guarded by the lock of the entry's stripe.
+	 */
+	private static final class Entry {
+		final CompletableFuture<IValue> fFuture = new CompletableFuture<>();
+		ILogicalStructureTypeDelegate3 fReleaseType;
+		IValue fLogical;
+
+		void release() {
+			if (fReleaseType != null) {
+				fReleaseType.releaseValue(fLogical);
+			}
+		}
+	}
+
+	private final int fMaxEntriesPerStripe;
+	private final List<LinkedHashMap<Key, Entry>> fStripes = new ArrayList<>(STRIPES);
+	private final Map<Object, TargetState> fTargets = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the cache shared by all clients, which is invalidated by debug
+	 * events.
+	 *
+	 * @return the shared cache
+	 */
+	public static synchronized LogicalStructureValueCache getDefault() {
+		if (fgDefault == null) {
+			fgDefault = new LogicalStructureValueCache(DEFAULT_MAX_ENTRIES);
+			DebugPlugin.getDefault().addDebugEventListener(fgDefault);
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Creates a cache holding up to about the given number of logical
+	 * structures. The cache is only invalidated by debug events if it is
+	 * registered as a debug event listener.
+	 *
+	 * @param maxEntries maximum number of cached logical structures
+	 */
+	public LogicalStructureValueCache(int maxEntries) {
+		fMaxEntriesPerStripe = Math.max(1, maxEntries / STRIPES);
+		for (int i = 0; i < STRIPES; i++) {
+			fStripes.add(new LinkedHashMap<>(16, 0.75f, true));
+		}
+	}
+
+	/**
+	 * Returns the logical value replacing the given value using the specified
+	 * logical structure type. The value is retrieved from the cache if
+	 * possible, or evaluated if not.
+	 *
+	 * @param type the logical structure type used to evaluate the logical
+	 *            value
+	 * @param value the raw value to replace with a logical structure
+	 * @return the logical value replacing the raw value
+	 * @throws CoreException if the evaluation fails or waiting for another
+	 *             thread's evaluation is interrupted
+	 */
+	public IValue getLogicalStructure(ILogicalStructureType type, IValue value) throws CoreException {
+		Object target = getTarget(value);
+		TargetState state = fTargets.computeIfAbsent(target, t -> new TargetState());
+		Key key = new Key(target, state.fEpoch, value, type);
+		LinkedHashMap<Key, Entry> stripe = getStripe(key);
+		Entry entry;
+		boolean evaluate = false;
+		synchronized (stripe) {
+			entry = stripe.get(key);
+			if (entry == null) {
+				entry = new Entry();
+				evaluate = true;
+				// entries of an ended epoch would never be dropped
+				if (state.fEpoch == key.fEpoch) {
+					stripe.put(key, entry);
+					Iterator<Map.Entry<Key, Entry>> eldest = stripe.entrySet().iterator();
+					while (stripe.size() > fMaxEntriesPerStripe && eldest.hasNext()) {
+						evict(eldest.next());
+						eldest.remove();
+					}
+				}
+			}
+		}
+		if (evaluate) {
+			try {
+				IValue result = type.getLogicalStructure(value);
+				if (result != null && type instanceof ILogicalStructureTypeDelegate3) {
+					synchronized (stripe) {
+						if (stripe.get(key) == entry) {
+							entry.fReleaseType = (ILogicalStructureTypeDelegate3) type;
+							entry.fLogical = result;
+						}
+					}
+				}
+				entry.fFuture.complete(result);
+				return result;
+			} catch (Throwable e) {
+				// waiting threads must not block, whatever the evaluation throws
+				synchronized (stripe) {
+					stripe.remove(key, entry);
+				}
+				entry.fFuture.completeExceptionally(e);
+				throw e;
+			}
+		}
+		try {
+			return entry.fFuture.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CoreException(new Status(IStatus.CANCEL, DebugPlugin.getUniqueIdentifier(), DebugCoreMessages.LogicalStructureValueCache_0, e));
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof CoreException) {
+				throw (CoreException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new CoreException(new Status(IStatus.ERROR, DebugPlugin.getUniqueIdentifier(), cause.getMessage(), cause));
+		}
+	}
+
+	/**
+	 * Drops the cached logical structures of the given debug target and
+	 * releases their values.
+	 *
+	 * @param target a debug target
+	 */
+	public void invalidate(IDebugTarget target) {
+		invalidate0(target == null ? NO_TARGET : target, false);
+	}
+
+	/**
+	 * Drops all cached logical structures and releases their values.
+	 */
+	public void clear() {
+		for (Object target : new ArrayList<>(fTargets.keySet())) {
+			invalidate0(target, true);
+		}
+	}
+
+	@Override
+	public void handleDebugEvents(DebugEvent[] events) {
+		for (DebugEvent event : events) {
+			if (!invalidates(event)) {
+				continue;
+			}
+			Object source = event.getSource();
+			IDebugTarget target = source instanceof IDebugElement ? ((IDebugElement) source).getDebugTarget() : null;
+			if (target == null) {
+				clear();
+				return;
+			}
+			invalidate0(target, event.getKind() == DebugEvent.TERMINATE);
+		}
+	}
+
+	/**
+	 * Returns whether the given event changes the state of its debug target
+	 * in a way that may change logical structures.
+	 */
+	private static boolean invalidates(DebugEvent event) {
+		switch (event.getKind()) {
+			case DebugEvent.TERMINATE:
+				return true;
+			case DebugEvent.RESUME:
+			case DebugEvent.SUSPEND:
+				return event.getDetail() != DebugEvent.EVALUATION_IMPLICIT;
+			case DebugEvent.CHANGE:
+				// new results of watch expressions do not change the target
+				return event.getDetail() == DebugEvent.CONTENT && !(event.getSource() instanceof IExpression);
+			default:
+				return false;
+		}
+	}
+
+	private void invalidate0(Object target, boolean remove) {
+		TargetState state = remove ? fTargets.remove(target) : fTargets.get(target);
+		if (state == null) {
+			return;
+		}
+		List<Entry> removed;
+		synchronized (state) {
+			state.fEpoch++;
+			removed = state.fEvicted;
+			state.fEvicted = new ArrayList<>();
+		}
+		for (LinkedHashMap<Key, Entry> stripe : fStripes) {
+			synchronized (stripe) {
+				for (Iterator<Map.Entry<Key, Entry>> iterator = stripe.entrySet().iterator(); iterator.hasNext();) {
+					Map.Entry<Key, Entry> entry = iterator.next();
+					if (entry.getKey().fTarget.equals(target)) {
+						removed.add(entry.getValue());
+						iterator.remove();
+					}
+				}
+			}
+		}
+		removed.forEach(Entry::release);
+	}
+
+	/**
+	 * Keeps the value of an evicted entry for release when the epoch of its
+	 * target ends. Called holding the lock of the entry's stripe.
+	 */
+	private void evict(Map.Entry<Key, Entry> evicted) {
+		Entry entry = evicted.getValue();
+		if (entry.fReleaseType == null) {
+			return;
+		}
+		TargetState state = fTargets.get(evicted.getKey().fTarget);
+		if (state != null) {
+			synchronized (state) {
+				if (state.fEpoch == evicted.getKey().fEpoch) {
+					state.fEvicted.add(entry);
+					return;
+				}
+			}
+		}
+		// the epoch already ended
+		entry.release();
+	}
+
+	private LinkedHashMap<Key, Entry> getStripe(Key key) {
+		int hash = key.hashCode();
+		return fStripes.get((hash ^ (hash >>> 16)) & (STRIPES - 1));
+	}
+
+	private static Object getTarget(IValue value) {
+		IDebugTarget target = value.getDebugTarget();
+		return target == null ? NO_TARGET : target;
+	}
+}
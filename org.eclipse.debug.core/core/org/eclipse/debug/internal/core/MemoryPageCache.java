@@ -0,0 +1,473 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.math.BigInteger;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IDebugEventSetListener;
+import org.eclipse.debug.core.IMemoryBlockListener;
+import org.eclipse.debug.core.model.IDebugElement;
+import org.eclipse.debug.core.model.IDebugTarget;
+import org.eclipse.debug.core.model.IMemoryBlock;
+import org.eclipse.debug.core.model.IMemoryBlockExtension;
+import org.eclipse.debug.core.model.IMemoryBlockRetrieval;
+import org.eclipse.debug.core.model.MemoryByte;
+
+/**
+ * Page based cache of the content of extended memory blocks.
+ * <p>
+ * Memory is retrieved from memory blocks in pages of a fixed number of
+ * addressable units, whose values and flags are stored in primitive arrays
+ * rather than as {@link MemoryByte} objects. Only the addressable units
+ * requested by clients are retrieved, as reading other memory may have side
+ * effects; a page remembers which of its units it holds. Each memory block
+ * retrieval keeps a bounded number of least recently used pages, so that
+ * renderings scrolling over overlapping ranges do not retrieve the same memory
+ * again.
+ * </p>
+ * <p>
+ * The pages of a memory block are dropped when it changes, when its debug
+ * target suspends, resumes or terminates, and when it is removed from the
+ * memory block manager. Memory retrieved while pages are dropped is returned
+ * but not cached. The shared cache is registered with the debug plug-in when
+ * it starts, so that it is invalidated before renderings refresh.
+ * </p>
+ *
+ * @since 3.21
+ */
+public class MemoryPageCache implements IDebugEventSetListener, IMemoryBlockListener {
+
+	/**
+	 * Number of addressable units in a page.
+	 */
+	public static final int PAGE_UNITS = 1024;
+
+	/**
+	 * Maximum number of pages kept per memory block retrieval.
+	 */
+	public static final int MAX_PAGES = 256;
+
+	private static MemoryPageCache fgDefault;
+
+	/**
+	 * A page of memory of a memory block. Pages are not modified once cached;
+	 * retrieving more of a page copies it.
+	 */
+	private static final class Page {
+		final byte[] fValues;
+		final byte[] fFlags;
+		/**
+		 * The addressable units of this page that have been retrieved.
+		 */
+		final BitSet fRetrieved;
+
+		Page(int length) {
+			fValues = new byte[length];
+			fFlags = new byte[length];
+			fRetrieved = new BitSet(PAGE_UNITS);
+		}
+
+		Page(Page page) {
+			fValues = page.fValues.clone();
+			fFlags = page.fFlags.clone();
+			fRetrieved = (BitSet) page.fRetrieved.clone();
+		}
+
+		boolean isRetrieved(int from, int to) {
+			return fRetrieved.nextClearBit(from) >= to;
+		}
+	}
+
+	private static final class PageKey {
+		final IMemoryBlockExtension fBlock;
+		final BigInteger fIndex;
+
+		PageKey(IMemoryBlockExtension block, BigInteger index) {
+			fBlock = block;
+			fIndex = index;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof PageKey)) {
+				return false;
+			}
+			PageKey other = (PageKey) obj;
+			return fBlock == other.fBlock && fIndex.equals(other.fIndex);
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(fBlock) * 31 + fIndex.hashCode();
+		}
+	}
+
+	/**
+	 * A read-only view of a range of cached memory. Values and flags are read
+	 * from the shared pages; {@link MemoryByte} objects are only created on
+	 * request.
+	 */
+	public static final class MemoryRange {
+		private final Page[] fPages;
+		private final int fOffset;
+		private final int fLength;
+		private final int fPageLength;
+
+		MemoryRange(Page[] pages, int offset, int length, int pageLength) {
+			fPages = pages;
+			fOffset = offset;
+			fLength = length;
+			fPageLength = pageLength;
+		}
+
+		/**
+		 * Returns the number of bytes in this range.
+		 *
+		 * @return the number of bytes in this range
+		 */
+		public int length() {
+			return fLength;
+		}
+
+		/**
+		 * Returns the value of the byte at the given index.
+		 *
+		 * @param index index of a byte in this range
+		 * @return the value of the byte
+		 */
+		public byte getValue(int index) {
+			int i = checkIndex(index) + fOffset;
+			return fPages[i / fPageLength].fValues[i % fPageLength];
+		}
+
+		/**
+		 * Returns the flags of the byte at the given index, as defined by
+		 * {@link MemoryByte}.
+		 *
+		 * @param index index of a byte in this range
+		 * @return the flags of the byte
+		 */
+		public byte getFlags(int index) {
+			int i = checkIndex(index) + fOffset;
+			return fPages[i / fPageLength].fFlags[i % fPageLength];
+		}
+
+		/**
+		 * Returns new memory bytes for the given part of this range.
+		 *
+		 * @param index index of the first byte
+		 * @param length number of bytes
+		 * @return new memory bytes
+		 */
+		public MemoryByte[] toMemoryBytes(int index, int length) {
+			if (index < 0 || length < 0 || index + length > fLength) {
+				throw new IndexOutOfBoundsException();
+			}
+			MemoryByte[] bytes = new MemoryByte[length];
+			for (int i = 0; i < length; i++) {
+				int j = index + i + fOffset;
+				Page page = fPages[j / fPageLength];
+				bytes[i] = new MemoryByte(page.fValues[j % fPageLength], page.fFlags[j % fPageLength]);
+			}
+			return bytes;
+		}
+
+		/**
+		 * Returns a range over a copy of the given memory bytes.
+		 *
+		 * @param bytes memory bytes
+		 * @return a range over a copy of the bytes
+		 */
+		public static MemoryRange of(MemoryByte[] bytes) {
+			Page page = new Page(Math.max(1, bytes.length));
+			for (int i = 0; i < bytes.length; i++) {
+				page.fValues[i] = bytes[i].getValue();
+				page.fFlags[i] = bytes[i].getFlags();
+			}
+			return new MemoryRange(new Page[] { page }, 0, bytes.length, page.fValues.length);
+		}
+
+		private int checkIndex(int index) {
+			if (index < 0 || index >= fLength) {
+				throw new IndexOutOfBoundsException(index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Least recently used pages of each memory block retrieval, each map
+	 * guarded by itself.
+	 */
+	private final Map<Object, LinkedHashMap<PageKey, Page>> fPages = new HashMap<>();
+
+	private final int fMaxPages;
+
+	/**
+	 * Advanced whenever cached memory is dropped.
+	 */
+	private final AtomicLong fEpoch = new AtomicLong();
+
+	/**
+	 * Returns the cache shared by all renderings.
+	 *
+	 * @return the shared cache
+	 */
+	public static synchronized MemoryPageCache getDefault() {
+		if (fgDefault == null) {
+			fgDefault = new MemoryPageCache(MAX_PAGES);
+			DebugPlugin.getDefault().addDebugEventListener(fgDefault);
+			DebugPlugin.getDefault().getMemoryBlockManager().addListener(fgDefault);
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Creates a cache keeping up to the given number of pages per memory block
+	 * retrieval. The cache is only invalidated by debug events if it is
+	 * registered as a debug event listener.
+	 *
+	 * @param maxPages maximum number of pages per memory block retrieval
+	 */
+	public MemoryPageCache(int maxPages) {
+		fMaxPages = Math.max(1, maxPages);
+	}
+
+	/**
+	 * Returns the memory of the given memory block starting at the given
+	 * address, as {@link IMemoryBlockExtension#getBytesFromAddress(BigInteger, long)}
+	 * would. Bytes the memory block does not return are neither readable nor
+	 * writable.
+	 *
+	 * @param block memory block
+	 * @param address address of the first addressable unit
+	 * @param units number of addressable units
+	 * @return memory of the memory block
+	 * @throws DebugException if the memory cannot be retrieved
+	 */
+	public MemoryRange getBytesFromAddress(IMemoryBlockExtension block, BigInteger address, long units) throws DebugException {
+		int unitSize = Math.max(1, block.getAddressableSize());
+		int pageLength = PAGE_UNITS * unitSize;
+		BigInteger pageUnits = BigInteger.valueOf(PAGE_UNITS);
+		BigInteger[] first = address.divideAndRemainder(pageUnits);
+		BigInteger last = address.add(BigInteger.valueOf(Math.max(units, 1) - 1)).divide(pageUnits);
+		int count = last.subtract(first[0]).intValueExact() + 1;
+		BigInteger end = address.add(BigInteger.valueOf(units));
+		Page[] pages = new Page[count];
+		for (int i = 0; i < count; i++) {
+			BigInteger index = first[0].add(BigInteger.valueOf(i));
+			int from = i == 0 ? first[1].intValue() : 0;
+			int to = end.subtract(index.multiply(pageUnits)).min(pageUnits).intValue();
+			pages[i] = getPage(block, index, Math.min(from, to), to, pageLength);
+		}
+		return new MemoryRange(pages, first[1].intValue() * unitSize, Math.toIntExact(units * unitSize), pageLength);
+	}
+
+	/**
+	 * Returns a page of the memory block holding at least the given units of
+	 * the page.
+	 */
+	private Page getPage(IMemoryBlockExtension block, BigInteger index, int from, int to, int pageLength) throws DebugException {
+		LinkedHashMap<PageKey, Page> pages = getPages(block);
+		PageKey key = new PageKey(block, index);
+		long epoch = fEpoch.get();
+		Page cached;
+		synchronized (pages) {
+			cached = pages.get(key);
+		}
+		if (cached != null && cached.isRetrieved(from, to)) {
+			return cached;
+		}
+		Page page = retrievePage(block, index, cached, from, to, pageLength);
+		synchronized (pages) {
+			// memory retrieved while the cache was invalidated may be stale
+			if (epoch == fEpoch.get()) {
+				pages.put(key, page);
+				Iterator<Page> eldest = pages.values().iterator();
+				while (pages.size() > fMaxPages && eldest.hasNext()) {
+					eldest.next();
+					eldest.remove();
+				}
+			}
+		}
+		return page;
+	}
+
+	/**
+	 * Retrieves the given units of a page that have not been retrieved yet,
+	 * restricted to the bounds of the memory block if it has any.
+	 */
+	private Page retrievePage(IMemoryBlockExtension block, BigInteger index, Page cached, int from, int to, int pageLength) throws DebugException {
+		Page page = cached == null ? new Page(pageLength) : new Page(cached);
+		BigInteger start = index.multiply(BigInteger.valueOf(PAGE_UNITS));
+		BigInteger min = block.getMemoryBlockStartAddress();
+		BigInteger max = block.getMemoryBlockEndAddress();
+		int unitSize = pageLength / PAGE_UNITS;
+		int i = page.fRetrieved.nextClearBit(from);
+		while (i < to) {
+			int next = page.fRetrieved.nextSetBit(i);
+			int j = next < 0 || next > to ? to : next;
+			BigInteger runStart = start.add(BigInteger.valueOf(i));
+			BigInteger runEnd = start.add(BigInteger.valueOf(j - 1));
+			BigInteger runFrom = min != null && min.compareTo(runStart) > 0 ? min : runStart;
+			BigInteger runTo = max != null && max.compareTo(runEnd) < 0 ? max : runEnd;
+			if (runFrom.compareTo(runTo) <= 0) {
+				MemoryByte[] bytes = block.getBytesFromAddress(runFrom, runTo.subtract(runFrom).longValue() + 1);
+				if (bytes == null) {
+					throw new DebugException(new Status(IStatus.ERROR, DebugPlugin.getUniqueIdentifier(), DebugException.REQUEST_FAILED, DebugCoreMessages.MemoryPageCache_0, null));
+				}
+				int offset = runFrom.subtract(start).intValue() * unitSize;
+				int length = Math.min(bytes.length, (runTo.subtract(runFrom).intValue() + 1) * unitSize);
+				for (int k = 0; k < length; k++) {
+					MemoryByte b = bytes[k];
+					if (b != null) {
+						page.fValues[offset + k] = b.getValue();
+						page.fFlags[offset + k] = b.getFlags();
+					}
+				}
+			}
+			page.fRetrieved.set(i, j);
+			i = page.fRetrieved.nextClearBit(j);
+		}
+		return page;
+	}
+
+	private LinkedHashMap<PageKey, Page> getPages(IMemoryBlockExtension block) {
+		Object retrieval = getRetrieval(block);
+		synchronized (fPages) {
+			return fPages.computeIfAbsent(retrieval, r -> new LinkedHashMap<>(16, 0.75f, true));
+		}
+	}
+
+	/**
+	 * Drops the cached memory of the given memory block.
+	 *
+	 * @param block memory block
+	 */
+	public void invalidate(IMemoryBlock block) {
+		fEpoch.incrementAndGet();
+		Object retrieval = getRetrieval(block);
+		synchronized (fPages) {
+			LinkedHashMap<PageKey, Page> pages = fPages.get(retrieval);
+			if (pages != null) {
+				synchronized (pages) {
+					pages.keySet().removeIf(key -> key.fBlock == block);
+					if (pages.isEmpty()) {
+						fPages.remove(retrieval);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drops the cached memory of all memory blocks of the given debug target.
+	 *
+	 * @param target debug target
+	 */
+	public void invalidate(IDebugTarget target) {
+		invalidate(target, false);
+	}
+
+	/**
+	 * Drops the cached memory of all memory blocks of the given debug target
+	 * and, if it terminated, forgets the target's memory block retrieval.
+	 */
+	private void invalidate(IDebugTarget target, boolean terminated) {
+		fEpoch.incrementAndGet();
+		synchronized (fPages) {
+			if (terminated) {
+				fPages.remove(target);
+			}
+			for (Iterator<LinkedHashMap<PageKey, Page>> iterator = fPages.values().iterator(); iterator.hasNext();) {
+				LinkedHashMap<PageKey, Page> pages = iterator.next();
+				synchronized (pages) {
+					pages.keySet().removeIf(key -> key.fBlock.getDebugTarget() == target);
+					if (pages.isEmpty()) {
+						iterator.remove();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drops all cached memory.
+	 */
+	public void clear() {
+		fEpoch.incrementAndGet();
+		synchronized (fPages) {
+			fPages.clear();
+		}
+	}
+
+	@Override
+	public void handleDebugEvents(DebugEvent[] events) {
+		for (DebugEvent event : events) {
+			Object source = event.getSource();
+			switch (event.getKind()) {
+				case DebugEvent.SUSPEND:
+				case DebugEvent.RESUME:
+					if (source instanceof IDebugElement) {
+						invalidate(((IDebugElement) source).getDebugTarget(), false);
+					}
+					break;
+				case DebugEvent.TERMINATE:
+					if (source instanceof IDebugElement) {
+						invalidate(((IDebugElement) source).getDebugTarget(), source instanceof IDebugTarget);
+					}
+					break;
+				case DebugEvent.CHANGE:
+					if (source instanceof IMemoryBlock) {
+						invalidate((IMemoryBlock) source);
+					}
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
+	@Override
+	public void memoryBlocksAdded(IMemoryBlock[] memory) {
+	}
+
+	@Override
+	public void memoryBlocksRemoved(IMemoryBlock[] memory) {
+		for (IMemoryBlock block : memory) {
+			invalidate(block);
+		}
+	}
+
+	private static Object getRetrieval(IMemoryBlock block) {
+		if (block instanceof IMemoryBlockExtension) {
+			IMemoryBlockRetrieval retrieval = ((IMemoryBlockExtension) block).getMemoryBlockRetrieval();
+			if (retrieval != null) {
+				return retrieval;
+			}
+		}
+		return block;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,17 +16,21 @@
 package org.eclipse.debug.internal.core;
 
 import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.IBinaryStreamListener;
+import org.eclipse.debug.core.ICharSequenceStreamListener;
 import org.eclipse.debug.core.IStreamListener;
 import org.eclipse.debug.core.model.IBinaryStreamMonitor;
 
@@ -35,6 +39,18 @@ import org.eclipse.debug.core.model.IBinaryStreamMonitor;
  * additions to the stream.
  * <p>
  * The output stream monitor reads system out (or err) via and input stream.
+ * <p>
+ * Buffered content is kept in a {@link ByteRingBuffer} which retains at most
+ * {@link IInternalDebugCoreConstants#PREF_OUTPUT_BUFFER_LIMIT} bytes. Listeners
+ * are notified after the monitor lock has been released, so slow listeners
+ * do not block clients accessing the buffered content.
+ * <p>
+ * Listeners are still notified on the reading thread rather than handed off to
+ * a notification thread. A handoff queue would have to keep every chunk a slow
+ * listener has not consumed yet, without bound, which is what the retention
+ * limit prevents. Notifying on the reading thread lets the process block on a
+ * full pipe instead.
+ * </p>
  */
 public class OutputStreamMonitor implements IBinaryStreamMonitor {
 	/**
@@ -63,13 +79,50 @@ public class OutputStreamMonitor implements IBinaryStreamMonitor {
 	 *
 	 * @see #isBuffered()
 	 */
-	private ByteArrayOutputStream fContents;
+	private ByteRingBuffer fContents;
+
+	/**
+	 * Maximum number of bytes retained while buffering, or a value
+	 * <code>&lt;= 0</code> for no limit.
+	 */
+	private int fBufferLimit;
 
 	/**
-	 * Decoder used for the buffered content. This is required to keep the state
-	 * of an incomplete character.
+	 * Decoded buffered content. Its valid part starts at
+	 * {@link #fDecodedOffset} and holds the characters decoded from the bytes
+	 * since {@link #fDecodedStart} up to {@link #fDecodedPosition}. The
+	 * characters of bytes the retention limit discarded are dropped as chunks
+	 * are appended, so it is bounded like the buffered bytes.
+	 */
+	private StringBuilder fDecodedContents;
+	private int fDecodedOffset;
+	/**
+	 * Number of characters dropped from the start of
+	 * {@link #fDecodedContents}. Used to keep {@link #fDecodedChunks} valid
+	 * when the builder is compacted.
+	 */
+	private long fDecodedBase;
+	/**
+	 * Position in {@link ByteRingBuffer#getWrittenCount()} of the first byte
+	 * decoded into the valid part of {@link #fDecodedContents}.
 	 */
-	private StreamDecoder fBufferedDecoder;
+	private long fDecodedStart;
+	/**
+	 * Position in {@link ByteRingBuffer#getWrittenCount()} up to which the
+	 * buffered content has been decoded.
+	 */
+	private long fDecodedPosition;
+	/**
+	 * For each chunk decoded into {@link #fDecodedContents}, oldest first, the
+	 * position after its last byte and the number of characters decoded up to
+	 * its end, counted from {@link #fDecodedBase}.
+	 */
+	private final ArrayDeque<long[]> fDecodedChunks = new ArrayDeque<>();
+	/**
+	 * Whether decoding restarted in the middle of the stream, so the first
+	 * bytes decoded may continue a character which was discarded.
+	 */
+	private boolean fAlignDecoding;
 	private String fCachedDecodedContents;
 
 	/**
@@ -77,6 +130,12 @@ public class OutputStreamMonitor implements IBinaryStreamMonitor {
 	 */
 	private Thread fThread;
 
+	/**
+	 * The task reading from the stream if the stream is read by the shared
+	 * {@link ProcessMonitorExecutor}.
+	 */
+	private Future<?> fReadTask;
+
 	/**
 	 * Whether or not this monitor has been killed. When the monitor is killed,
 	 * it stops reading from the stream immediately.
@@ -85,6 +144,10 @@ public class OutputStreamMonitor implements IBinaryStreamMonitor {
 
 	private Charset fCharset;
 
+	/**
+	 * Decoder of the stream. Each byte is decoded once, for the text listeners
+	 * and the buffered content alike.
+	 */
 	private StreamDecoder fDecoder;
 
 	private final AtomicBoolean fDone;
@@ -103,6 +166,7 @@ public class OutputStreamMonitor implements IBinaryStreamMonitor {
 		fCharset = charset;
 		fDecoder = new StreamDecoder(charset == null ? Charset.defaultCharset() : charset);
 		fDone = new AtomicBoolean(false);
+		fBufferLimit = Platform.getPreferencesService().getInt(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_OUTPUT_BUFFER_LIMIT, IInternalDebugCoreConstants.DEFAULT_OUTPUT_BUFFER_LIMIT, null);
 		setBuffered(true);
 	}
 
@@ -136,16 +200,23 @@ public class OutputStreamMonitor implements IBinaryStreamMonitor {
 	 */
 	protected void close() {
 		Thread thread = null;
+		Future<?> readTask = null;
 
 		synchronized (this) {
 			thread = fThread;
 			fThread = null;
+			readTask = fReadTask;
+			fReadTask = null;
 		}
 
-		if (thread != null) {
+		if (thread != null || readTask != null) {
 			try {
-				thread.join();
-			} catch (InterruptedException ie) {
+				if (thread != null) {
+					thread.join();
+				} else {
+					readTask.get();
+				}
+			} catch (InterruptedException | ExecutionException e) {
 			}
 
 			fListeners.clear();
@@ -156,19 +227,44 @@ public class OutputStreamMonitor implements IBinaryStreamMonitor {
 	/**
 	 * Notifies the listeners that content has been appended to the stream. Will
 	 * notify both, binary and text listeners.
+	 * <p>
+	 * Only listeners which were registered when the content was appended (see
+	 * <code>listeners</code> and <code>binaryListeners</code>) and are still
+	 * registered are notified. This keeps the contract that content is either
+	 * part of the buffered content a listener was registered after, or
+	 * delivered to that listener, even though notification happens outside of
+	 * the monitor lock.
+	 * </p>
 	 *
 	 * @param data that has been appended; not <code>null</code>
 	 * @param offset start of valid data
 	 * @param length number of valid bytes
+	 * @param text the decoded data, or <code>null</code> if there are no text
+	 *            listeners
+	 * @param listeners text listeners registered when the data was appended
+	 * @param binaryListeners binary listeners registered when the data was
+	 *            appended
 	 */
-	private void fireStreamAppended(final byte[] data, int offset, int length) {
-		if (!fListeners.isEmpty()) {
-			String text = fDecoder.decode(data, offset, length);
+	private void fireStreamAppended(final byte[] data, int offset, int length, CharSequence text, Object[] listeners, Object[] binaryListeners) {
+		if (listeners.length > 0) {
+			String string = null;
 			for (final IStreamListener listener : fListeners) {
+				if (!contains(listeners, listener)) {
+					continue;
+				}
+				final boolean charSequenceListener = listener instanceof ICharSequenceStreamListener;
+				if (!charSequenceListener && string == null) {
+					string = text.toString();
+				}
+				final String textString = string;
 				SafeRunner.run(new ISafeRunnable() {
 					@Override
 					public void run() throws Exception {
-						listener.streamAppended(text, OutputStreamMonitor.this);
+						if (charSequenceListener) {
+							((ICharSequenceStreamListener) listener).streamAppended(text, OutputStreamMonitor.this);
+						} else {
+							listener.streamAppended(textString, OutputStreamMonitor.this);
+						}
 					}
 
 					@Override
@@ -178,7 +274,7 @@ public class OutputStreamMonitor implements IBinaryStreamMonitor {
 				});
 			}
 		}
-		if (!fBinaryListeners.isEmpty()) {
+		if (binaryListeners.length > 0) {
 			final byte[] validData;
 			if (offset > 0 || length < data.length) {
 				validData = new byte[length];
@@ -187,6 +283,9 @@ public class OutputStreamMonitor implements IBinaryStreamMonitor {
 				validData = data;
 			}
 			for (final IBinaryStreamListener listener : fBinaryListeners) {
+				if (!contains(binaryListeners, listener)) {
+					continue;
+				}
 				SafeRunner.run(new ISafeRunnable() {
 					@Override
 					public void run() throws Exception {
@@ -202,6 +301,15 @@ public class OutputStreamMonitor implements IBinaryStreamMonitor {
 		}
 	}
 
+	private static boolean contains(Object[] listeners, Object listener) {
+		for (Object l : listeners) {
+			if (l == listener) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public synchronized String getContents() {
 		if (!isBuffered()) {
@@ -210,11 +318,118 @@ public class OutputStreamMonitor implements IBinaryStreamMonitor {
 		if (fCachedDecodedContents != null) {
 			return fCachedDecodedContents;
 		}
-		byte[] data = getData();
-		fCachedDecodedContents = fBufferedDecoder.decode(data, 0, data.length);
+		long written = fContents.getWrittenCount();
+		decodeBuffered(written);
+		trimDecodedContents();
+		long retainedStart = written - fContents.size();
+		StringBuilder result = new StringBuilder(fDecodedContents.length() - fDecodedOffset);
+		int from = fDecodedOffset;
+		if (fDecodedStart < retainedStart) {
+			// the oldest decoded chunk is partly discarded, decode its retained part again
+			long[] chunk = fDecodedChunks.peek();
+			byte[] data = fContents.toByteArray(retainedStart, chunk[0]);
+			int skip = StreamDecoder.getCharacterStart(getCharset(), data, 0, data.length, retainedStart);
+			new StreamDecoder(getCharset()).decode(result, data, skip, data.length - skip);
+			from = (int) (chunk[1] - fDecodedBase);
+		}
+		result.append(fDecodedContents, from, fDecodedContents.length());
+		fCachedDecodedContents = result.toString();
 		return fCachedDecodedContents;
 	}
 
+	/**
+	 * Decodes the buffered bytes which have not been decoded yet up to the given
+	 * position. If the retention limit discarded bytes which were not decoded,
+	 * decoding restarts with a new decoder.
+	 *
+	 * @param position position in {@link ByteRingBuffer#getWrittenCount()} to
+	 *            decode to
+	 */
+	private void decodeBuffered(long position) {
+		long retainedStart = fContents.getWrittenCount() - fContents.size();
+		if (fDecodedPosition < retainedStart) {
+			resetBufferedDecoding(Math.min(retainedStart, position), true);
+		}
+		if (fDecodedPosition < position) {
+			byte[] data = fContents.toByteArray(fDecodedPosition, position);
+			appendDecoded(decode(data, 0, data.length), position);
+		}
+	}
+
+	/**
+	 * Decodes bytes following {@link #fDecodedPosition}. The result is only
+	 * valid until the next decode.
+	 */
+	private CharSequence decode(byte[] data, int offset, int length) {
+		int skip = 0;
+		if (fAlignDecoding) {
+			fAlignDecoding = false;
+			skip = StreamDecoder.getCharacterStart(getCharset(), data, offset, length, fDecodedPosition);
+		}
+		return fDecoder.decodeView(data, offset + skip, length - skip);
+	}
+
+	/**
+	 * Appends decoded characters to the buffered content.
+	 *
+	 * @param text the characters decoded from the bytes up to the given
+	 *            position
+	 * @param position position in {@link ByteRingBuffer#getWrittenCount()}
+	 *            after the decoded bytes
+	 */
+	private void appendDecoded(CharSequence text, long position) {
+		fDecodedContents.append(text);
+		fDecodedChunks.add(new long[] { position, fDecodedBase + fDecodedContents.length() });
+		fDecodedPosition = position;
+		trimDecodedContents();
+	}
+
+	/**
+	 * Drops the characters of decoded chunks whose bytes the retention limit
+	 * discarded entirely.
+	 */
+	private void trimDecodedContents() {
+		long retainedStart = fContents.getWrittenCount() - fContents.size();
+		long[] chunk;
+		while ((chunk = fDecodedChunks.peek()) != null && chunk[0] <= retainedStart) {
+			fDecodedChunks.poll();
+			fDecodedStart = chunk[0];
+			fDecodedOffset = (int) (chunk[1] - fDecodedBase);
+		}
+		if (fDecodedOffset > 0 && fDecodedOffset >= fDecodedContents.length() / 2) {
+			fDecodedContents.delete(0, fDecodedOffset);
+			fDecodedBase += fDecodedOffset;
+			fDecodedOffset = 0;
+		}
+	}
+
+	/**
+	 * Discards the decoded buffered content and restarts decoding at the given
+	 * position.
+	 *
+	 * @param position position in {@link ByteRingBuffer#getWrittenCount()} to
+	 *            decode from
+	 * @param newDecoder whether decoding restarts with a new decoder, which is
+	 *            required if the bytes before the position were not decoded
+	 */
+	private void resetBufferedDecoding(long position, boolean newDecoder) {
+		if (newDecoder) {
+			fDecoder = new StreamDecoder(getCharset());
+			fAlignDecoding = position > 0;
+		}
+		fDecodedContents = new StringBuilder();
+		fDecodedOffset = 0;
+		fDecodedBase = 0;
+		fDecodedChunks.clear();
+		fDecodedStart = position;
+		fDecodedPosition = position;
+		fCachedDecodedContents = null;
+	}
+
+	private Charset getCharset() {
+		return fCharset == null ? Charset.defaultCharset() : fCharset;
+	}
+
 	@Override
 	public synchronized byte[] getData() {
 		return isBuffered() ? fContents.toByteArray() : new byte[0];
@@ -248,13 +463,27 @@ public class OutputStreamMonitor implements IBinaryStreamMonitor {
 					}
 					read = fStream.read(buffer);
 					if (read > 0) {
+						Object[] listeners;
+						Object[] binaryListeners;
+						CharSequence text = null;
 						synchronized (this) {
+							listeners = fListeners.getListeners();
+							binaryListeners = fBinaryListeners.getListeners();
 							if (isBuffered()) {
 								fCachedDecodedContents = null;
+								long position = fContents.getWrittenCount();
 								fContents.write(buffer, 0, read);
+								if (listeners.length > 0) {
+									// decode once for the listeners and the buffered content
+									decodeBuffered(position);
+									text = decode(buffer, 0, read);
+									appendDecoded(text, position + read);
+								}
+							} else if (listeners.length > 0) {
+								text = fDecoder.decodeView(buffer, 0, read);
 							}
-							fireStreamAppended(buffer, 0, read);
 						}
+						fireStreamAppended(buffer, 0, read, text, listeners, binaryListeners);
 					}
 				} catch (IOException ioe) {
 					if (!fKilled) {
@@ -264,7 +493,7 @@ public class OutputStreamMonitor implements IBinaryStreamMonitor {
 				} catch (NullPointerException e) {
 					// killing the stream monitor while reading can cause an NPE
 					// when reading from the stream
-					if (!fKilled && fThread != null) {
+					if (!fKilled && (fThread != null || fReadTask != null)) {
 						DebugPlugin.log(e);
 					}
 					return;
@@ -301,14 +530,20 @@ public class OutputStreamMonitor implements IBinaryStreamMonitor {
 	}
 
 	/**
-	 * Starts a thread which reads from the stream
+	 * Starts a thread which reads from the stream. If
+	 * {@link ProcessMonitorExecutor#isEnabled()} the stream is read by a
+	 * thread of the shared executor.
 	 *
 	 * @param name Thread name
 	 */
 	protected void startMonitoring(String name) {
 		synchronized (this) {
-			if (fThread == null) {
+			if (fThread == null && fReadTask == null) {
 				fDone.set(false);
+				if (ProcessMonitorExecutor.isEnabled()) {
+					fReadTask = ProcessMonitorExecutor.submit(name, this::read);
+					return;
+				}
 				fThread = new Thread((Runnable) this::read, name);
 				fThread.setDaemon(true);
 				fThread.setPriority(Thread.MIN_PRIORITY);
@@ -322,11 +557,13 @@ public class OutputStreamMonitor implements IBinaryStreamMonitor {
 		if (isBuffered() != buffer) {
 			fCachedDecodedContents = null;
 			if (buffer) {
-				fContents = new ByteArrayOutputStream();
-				fBufferedDecoder = new StreamDecoder(fCharset == null ? Charset.defaultCharset() : fCharset);
+				fContents = new ByteRingBuffer(fBufferLimit, Platform.getPreferencesService().getBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_OUTPUT_BUFFER_OFF_HEAP, false, null));
+				// keep the decoder state, the stream continues
+				resetBufferedDecoding(0, false);
 			} else {
 				fContents = null;
-				fBufferedDecoder = null;
+				fDecodedContents = null;
+				fDecodedChunks.clear();
 			}
 		}
 	}
@@ -335,7 +572,29 @@ public class OutputStreamMonitor implements IBinaryStreamMonitor {
 	public synchronized void flushContents() {
 		if (isBuffered()) {
 			fCachedDecodedContents = null;
-			fContents.reset();
+			// keep the decoder state, an incomplete character is completed by following content
+			resetBufferedDecoding(fContents.getWrittenCount(), false);
+			fContents.clear();
+		}
+	}
+
+	/**
+	 * Sets the maximum number of bytes retained while buffering. If more
+	 * content is read the oldest bytes are discarded.
+	 *
+	 * @param limit maximum number of bytes to retain or a value
+	 *            <code>&lt;= 0</code> for no limit
+	 */
+	public synchronized void setBufferLimit(int limit) {
+		fBufferLimit = limit;
+		if (isBuffered()) {
+			byte[] data = fContents.toByteArray();
+			long retainedStart = fContents.getWrittenCount() - data.length;
+			// the new buffer starts at a character boundary, so positions in it are aligned
+			int skip = retainedStart > 0 ? StreamDecoder.getCharacterStart(getCharset(), data, 0, data.length, retainedStart) : 0;
+			fContents = new ByteRingBuffer(limit, fContents.isDirect());
+			fContents.write(data, skip, data.length - skip);
+			resetBufferedDecoding(0, true);
 		}
 	}
 
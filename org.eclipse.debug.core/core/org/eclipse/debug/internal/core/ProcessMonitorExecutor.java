@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.debug.core.DebugPlugin;
+
+/**
+ * Shared pool of daemon threads used to monitor launched system processes if
+ * {@link IInternalDebugCoreConstants#PREF_SHARED_PROCESS_MONITORING} is
+ * enabled.
+ * <p>
+ * In this mode termination of processes implemented by the JDK is detected
+ * through {@link Process#onExit()} instead of a dedicated thread per process.
+ * Other {@link Process} implementations, and processes for which
+ * {@link Process#onExit()} fails, are polled by a single timer thread shared
+ * by all processes. Input for a process is only written by a pool thread while
+ * there is queued input.
+ * </p>
+ * <p>
+ * Process output can only be read by blocking, so each open output stream
+ * still occupies a pool thread. These threads are reused once a process has
+ * terminated instead of creating new threads for every launch. Compared to
+ * dedicated threads, a running process therefore needs no thread to detect
+ * its termination nor to wait for input.
+ * </p>
+ *
+ * @since 3.21
+ */
+public final class ProcessMonitorExecutor {
+
+	private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 30, TimeUnit.SECONDS, new SynchronousQueue<>(), new ThreadFactory() {
+		private final AtomicInteger fCount = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "Process Monitor Worker-" + fCount.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	/**
+	 * Interval in milliseconds in which processes are polled for their
+	 * termination by {@link #awaitExit(Process, BooleanSupplier, Runnable)}.
+	 */
+	private static final long EXIT_POLL_INTERVAL = 50;
+
+	private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, r -> {
+		Thread thread = new Thread(r, "Process Monitor Exit Poller"); //$NON-NLS-1$
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	static {
+		TIMER.setKeepAliveTime(30, TimeUnit.SECONDS);
+		TIMER.allowCoreThreadTimeOut(true);
+	}
+
+	private ProcessMonitorExecutor() {
+	}
+
+	/**
+	 * @return whether newly launched processes should be monitored by the
+	 *         shared executor instead of dedicated threads
+	 */
+	public static boolean isEnabled() {
+		return Platform.getPreferencesService().getBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_SHARED_PROCESS_MONITORING, false, null);
+	}
+
+	/**
+	 * @return the shared executor
+	 */
+	public static Executor getExecutor() {
+		return EXECUTOR;
+	}
+
+	/**
+	 * Runs the given task on a pool thread which carries the given name while
+	 * the task is running.
+	 *
+	 * @param name thread name used while the task runs
+	 * @param task the task to run
+	 * @return future to wait for completion of the task
+	 */
+	public static Future<?> submit(String name, Runnable task) {
+		return EXECUTOR.submit(() -> {
+			Thread thread = Thread.currentThread();
+			String poolName = thread.getName();
+			thread.setName(name);
+			try {
+				task.run();
+			} finally {
+				thread.setName(poolName);
+			}
+		});
+	}
+
+	/**
+	 * Runs the given action on a pool thread once the given process has
+	 * terminated. The process is polled by a timer thread shared by all
+	 * processes, so no thread is blocked while it runs.
+	 *
+	 * @param process the process to wait for
+	 * @param cancelled whether waiting is no longer needed, polling stops
+	 *            without running the action once it returns <code>true</code>
+	 * @param action the action to run once the process has terminated
+	 */
+	public static void awaitExit(Process process, BooleanSupplier cancelled, Runnable action) {
+		TIMER.schedule(() -> {
+			if (cancelled.getAsBoolean()) {
+				return;
+			}
+			if (process.isAlive()) {
+				awaitExit(process, cancelled, action);
+			} else {
+				EXECUTOR.execute(action);
+			}
+		}, EXIT_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @return the number of threads currently in the pool
+	 */
+	public static int getPoolSize() {
+		return EXECUTOR.getPoolSize();
+	}
+}
@@ -15,8 +15,12 @@
 package org.eclipse.debug.internal.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -27,6 +31,7 @@ import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchListener;
 import org.eclipse.debug.core.commands.IStepFiltersHandler;
 import org.eclipse.debug.core.model.IStepFilter;
+import org.eclipse.debug.core.model.StepFilterMatcher;
 import org.eclipse.debug.internal.core.commands.DebugCommandRequest;
 
 /**
@@ -39,6 +44,29 @@ public class StepFilterManager implements ILaunchListener {
 
 	public static final String PREF_USE_STEP_FILTERS = DebugPlugin.getUniqueIdentifier() + ".USE_STEP_FILTERS"; //$NON-NLS-1$
 
+	/**
+	 * Maximum number of compiled pattern sets kept, one or a few per debug
+	 * model in practice.
+	 */
+	private static final int MAX_MATCHERS = 16;
+
+	/**
+	 * Step filters contributed for each model identifier.
+	 */
+	private final Map<String, IStepFilter[]> fStepFiltersByModel = new ConcurrentHashMap<>();
+
+	/**
+	 * Recently compiled pattern sets, in access order.
+	 */
+	private final Map<List<String>, StepFilterMatcher> fMatchers = new LinkedHashMap<List<String>, StepFilterMatcher>(MAX_MATCHERS, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<String>, StepFilterMatcher> eldest) {
+			return size() > MAX_MATCHERS;
+		}
+	};
+
 	/**
 	 * The step filter manager is instantiated by the debug UI plug-in,
 	 * and should be accessed from the <code>DebugUIPlugin</code> class.
@@ -103,12 +131,44 @@ public class StepFilterManager implements ILaunchListener {
 	 * @see org.eclipse.debug.core.model.IStepFilter
 	 */
 	public IStepFilter[] getStepFilters(String modelIdentifier) {
-		initialize();
-		List<IStepFilter> select = new ArrayList<>();
-		for (StepFilter extension : stepFilters) {
-			Collections.addAll(select, extension.getStepFilters(modelIdentifier));
+		IStepFilter[] filters = fStepFiltersByModel.get(modelIdentifier);
+		if (filters == null) {
+			initialize();
+			List<IStepFilter> select = new ArrayList<>();
+			for (StepFilter extension : stepFilters) {
+				Collections.addAll(select, extension.getStepFilters(modelIdentifier));
+			}
+			filters = select.toArray(new IStepFilter[select.size()]);
+			// retry delegates that failed to load on the next request
+			if (!select.contains(null)) {
+				fStepFiltersByModel.put(modelIdentifier, filters);
+			}
+		}
+		return filters.clone();
+	}
+
+	/**
+	 * Returns a matcher for the given step filter patterns. Matchers are
+	 * compiled once and kept until the patterns in use change.
+	 *
+	 * @param patterns the active step filter patterns
+	 * @return a matcher for the given patterns
+	 * @since 3.21
+	 * @see StepFilterMatcher
+	 */
+	public StepFilterMatcher getStepFilterMatcher(String[] patterns) {
+		if (patterns.length == 0) {
+			return StepFilterMatcher.EMPTY;
+		}
+		List<String> key = Arrays.asList(patterns.clone());
+		synchronized (fMatchers) {
+			StepFilterMatcher matcher = fMatchers.get(key);
+			if (matcher == null) {
+				matcher = StepFilterMatcher.compile(patterns);
+				fMatchers.put(key, matcher);
+			}
+			return matcher;
 		}
-		return select.toArray(new IStepFilter[select.size()]);
 	}
 
 	private List<StepFilter> stepFilters = null;
@@ -37,7 +37,18 @@ public class StreamDecoder {
 	private final CharsetDecoder decoder;
 	private final ByteBuffer inputBuffer;
 	private final CharBuffer outputBuffer;
+	/**
+	 * Characters which did not fit into {@link #outputBuffer} during the last
+	 * {@link #decodeView(byte[], int, int)}, or <code>null</code>.
+	 */
+	private StringBuilder overflow;
 	private volatile boolean finished;
+	/**
+	 * Whether {@link #outputBuffer} is currently handed out as view by
+	 * {@link #decodeView(byte[], int, int)} and must be cleared before it is
+	 * reused.
+	 */
+	private boolean viewPending;
 
 	/**
 	 * Incomplete list of known Single Byte Character Sets (see
@@ -57,6 +68,13 @@ public class StreamDecoder {
 		this.finished = false;
 	}
 
+	private void releaseView() {
+		if (this.viewPending) {
+			this.viewPending = false;
+			this.outputBuffer.clear();
+		}
+	}
+
 	private void consume(StringBuilder consumer) {
 		this.outputBuffer.flip();
 		consumer.append(this.outputBuffer);
@@ -64,15 +82,21 @@ public class StreamDecoder {
 	}
 
 	private void internalDecode(StringBuilder consumer, byte[] buffer, int offset, int length) {
+		releaseView();
 		assert (offset >= 0);
 		assert (length >= 0);
 		int position = offset;
 		int end = offset + length;
 		assert (end <= buffer.length);
 		boolean finishedReading = false;
+		this.overflow = null;
 		do {
 			CoderResult result = this.decoder.decode(this.inputBuffer, this.outputBuffer, false);
 			if (result.isOverflow()) {
+				if (consumer == null) {
+					consumer = new StringBuilder(this.outputBuffer.capacity() * 2);
+					this.overflow = consumer;
+				}
 				this.consume(consumer);
 			} else if (result.isUnderflow()) {
 				this.inputBuffer.compact();
@@ -102,11 +126,54 @@ public class StreamDecoder {
 		return builder.toString();
 	}
 
-	private void decode(StringBuilder consumer, byte[] buffer, int offset, int length) {
+	/**
+	 * Decodes the given bytes and appends the characters to the given
+	 * builder.
+	 *
+	 * @param consumer the builder to append to
+	 * @param buffer the bytes to decode
+	 * @param offset start of valid data
+	 * @param length number of valid bytes
+	 */
+	public void decode(StringBuilder consumer, byte[] buffer, int offset, int length) {
+		if (this.decoder == null) {
+			consumer.append(new String(buffer, offset, length, charset));
+			return;
+		}
 		this.internalDecode(consumer, buffer, offset, length);
 		this.consume(consumer);
 	}
 
+	/**
+	 * Decodes the given bytes without copying the result into a new
+	 * <code>String</code> if possible.
+	 * <p>
+	 * The returned sequence may be a view of this decoder's internal buffer
+	 * and is only valid until the next invocation of any decode or finish
+	 * method.
+	 * </p>
+	 *
+	 * @param buffer the bytes to decode
+	 * @param offset start of valid data
+	 * @param length number of valid bytes
+	 * @return the decoded characters
+	 */
+	public CharSequence decodeView(byte[] buffer, int offset, int length) {
+		if (this.decoder == null) {
+			return new String(buffer, offset, length, charset);
+		}
+		this.internalDecode(null, buffer, offset, length);
+		if (this.overflow != null) {
+			StringBuilder result = this.overflow;
+			this.overflow = null;
+			this.consume(result);
+			return result;
+		}
+		this.outputBuffer.flip();
+		this.viewPending = true;
+		return this.outputBuffer.asReadOnlyBuffer();
+	}
+
 	public String finish() {
 		if (this.decoder == null) {
 			return ""; //$NON-NLS-1$
@@ -120,6 +187,7 @@ public class StreamDecoder {
 		if (this.finished) {
 			return;
 		}
+		releaseView();
 		this.finished = true;
 		CoderResult result;
 		result = this.decoder.decode(this.inputBuffer, this.outputBuffer, true);
@@ -135,4 +203,31 @@ public class StreamDecoder {
 		this.consume(consumer);
 	}
 
+	/**
+	 * Returns the number of bytes to skip at the beginning of the given data
+	 * so that decoding starts at a character boundary. Used when the start of
+	 * a stream was discarded at an arbitrary byte position. Boundaries are
+	 * found for UTF-8 and the fixed width UTF-16 and UTF-32 encodings; for
+	 * other charsets no bytes are skipped.
+	 *
+	 * @param charset the charset of the stream
+	 * @param data the bytes to decode
+	 * @param offset start of valid data
+	 * @param length number of valid bytes
+	 * @param position position of the first byte in the stream
+	 * @return number of bytes which do not start a character
+	 */
+	public static int getCharacterStart(Charset charset, byte[] data, int offset, int length, long position) {
+		String name = charset.name();
+		if (name.equals("UTF-8")) { //$NON-NLS-1$
+			int skip = 0;
+			// continuation bytes look like 10xxxxxx, a character has at most three of them
+			while (skip < length && skip < 3 && (data[offset + skip] & 0xC0) == 0x80) {
+				skip++;
+			}
+			return skip;
+		}
+		int width = name.startsWith("UTF-16") ? 2 : name.startsWith("UTF-32") ? 4 : 1; //$NON-NLS-1$ //$NON-NLS-2$
+		return Math.min(length, (int) ((width - position % width) % width));
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2015 IBM Corporation and others.
+ *  Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,6 @@ package org.eclipse.debug.internal.core;
 
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.debug.core.DebugEvent;
-import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
@@ -23,8 +22,6 @@ import org.eclipse.debug.core.model.IDebugElement;
 import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.debug.core.model.IValue;
 import org.eclipse.debug.core.model.IWatchExpression;
-import org.eclipse.debug.core.model.IWatchExpressionDelegate;
-import org.eclipse.debug.core.model.IWatchExpressionListener;
 import org.eclipse.debug.core.model.IWatchExpressionResult;
 
 /**
@@ -66,57 +63,68 @@ public class WatchExpression implements IWatchExpression {
 	 */
 	@Override
 	public void evaluate() {
+		evaluate(false);
+	}
+
+	/**
+	 * Schedules the evaluation of this expression in its current context.
+	 *
+	 * @param shareResult whether a result computed for the same expression
+	 *            text in the same context while the target is suspended may
+	 *            be reused
+	 */
+	private void evaluate(boolean shareResult) {
 		IDebugElement context= fCurrentContext;
 		if (context == null) {
 			return;
 		}
-
-		IWatchExpressionListener listener = this::setResult;
 		setPending(true);
-		IWatchExpressionDelegate delegate= DebugPlugin.getDefault().getExpressionManager().newWatchExpressionDelegate(context.getModelIdentifier());
-		if (delegate != null) {
-			delegate.evaluateExpression(getExpressionText(), context, listener);
-		} else {
-			// No delegate provided
-			listener.watchEvaluationFinished(new IWatchExpressionResult() {
-				@Override
-				public IValue getValue() {
-					return null;
-				}
-				@Override
-				public boolean hasErrors() {
-					return true;
-				}
-				@Override
-				public String[] getErrorMessages() {
-					return new String[] { DebugCoreMessages.WatchExpression_0 };
-				}
-				@Override
-				public String getExpressionText() {
-					return WatchExpression.this.getExpressionText();
-				}
-				@Override
-				public DebugException getException() {
-					return null;
-				}
-			});
-		}
+		getScheduler().evaluate(this, context, shareResult);
 	}
 
 	@Override
 	public void setExpressionContext(IDebugElement context) {
+		if (!setContext(context) || !isEnabled()) {
+			return;
+		}
+
+		evaluate(true);
+	}
+
+	/**
+	 * Sets the context of this expression and evaluates it in that context,
+	 * even if it is disabled. Unlike {@link #setExpressionContext(IDebugElement)}
+	 * the delegate is always asked again rather than reusing an earlier
+	 * result.
+	 *
+	 * @param context the context to evaluate this expression in
+	 */
+	public void reevaluate(IDebugElement context) {
+		if (setContext(context)) {
+			evaluate(false);
+		}
+	}
+
+	/**
+	 * Sets the context of this expression, cancelling its evaluation and
+	 * clearing its result if there is no context.
+	 *
+	 * @return whether there is a context to evaluate this expression in
+	 */
+	private boolean setContext(IDebugElement context) {
 		synchronized (this) {
 			fCurrentContext= context;
 		}
 		if (context == null) {
+			getScheduler().cancel(this);
 			setResult(null);
-			return;
-		}
-		if (!isEnabled()) {
-			return;
+			return false;
 		}
+		return true;
+	}
 
-		evaluate();
+	private static WatchExpressionScheduler getScheduler() {
+		return ((ExpressionManager) DebugPlugin.getDefault().getExpressionManager()).getWatchExpressionScheduler();
 	}
 
 	/**
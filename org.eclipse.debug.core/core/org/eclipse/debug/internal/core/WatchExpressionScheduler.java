@@ -0,0 +1,584 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IDebugEventSetListener;
+import org.eclipse.debug.core.model.IDebugElement;
+import org.eclipse.debug.core.model.IDebugTarget;
+import org.eclipse.debug.core.model.IExpression;
+import org.eclipse.debug.core.model.IValue;
+import org.eclipse.debug.core.model.IWatchExpressionDelegate;
+import org.eclipse.debug.core.model.IWatchExpressionResult;
+
+/**
+ * Schedules the evaluation of watch expressions with the watch expression
+ * delegates of the expression manager.
+ * <p>
+ * At most {@link #MAX_EVALUATIONS_PER_TARGET} evaluations are outstanding
+ * with the delegates per debug target, further evaluations are queued. When a
+ * watch expression is evaluated again, for example because the debug context
+ * changed, its previous evaluation is cancelled: it is removed from the queue
+ * or, if a delegate is already evaluating it, its result is discarded. Queued
+ * evaluations of a debug target are cancelled when the target resumes or
+ * terminates.
+ * </p>
+ * <p>
+ * A started evaluation gives up its slot when all watch expressions waiting
+ * for it have been cancelled, or when the delegate has not reported a result
+ * within the evaluation timeout. A result reported after the timeout is still
+ * delivered. The timeouts of all evaluations are run by one timer thread,
+ * which ends when no evaluation is started for a while. The queue of a
+ * terminated debug target is dropped, even if its delegate never reports the
+ * results of started evaluations.
+ * </p>
+ * <p>
+ * Watch expressions with the same text are evaluated once per context: they
+ * share an outstanding evaluation and, while the debug target stays
+ * suspended, the result of a completed one. An evaluation started before the
+ * state of the target changed is not shared. Explicit re-evaluations always
+ * ask the delegate again.
+ * </p>
+ *
+ * @since 3.21
+ */
+public class WatchExpressionScheduler implements IDebugEventSetListener {
+
+	/**
+	 * Maximum number of evaluations outstanding with the delegates per debug
+	 * target.
+	 */
+	public static final int MAX_EVALUATIONS_PER_TARGET = 4;
+
+	/**
+	 * Default time in milliseconds after which a started evaluation no longer
+	 * counts against {@link #MAX_EVALUATIONS_PER_TARGET}.
+	 */
+	public static final long DEFAULT_EVALUATION_TIMEOUT = 30000;
+
+	/**
+	 * Evaluation time statistics of the delegate of one debug model.
+	 */
+	public static final class EvaluationStatistics {
+		private long fCount;
+		private long fTotalTime;
+		private long fMaxTime;
+
+		synchronized void record(long nanos) {
+			fCount++;
+			fTotalTime += nanos;
+			fMaxTime = Math.max(fMaxTime, nanos);
+		}
+
+		/**
+		 * @return number of completed evaluations
+		 */
+		public synchronized long getCount() {
+			return fCount;
+		}
+
+		/**
+		 * @return total time of the completed evaluations in nanoseconds
+		 */
+		public synchronized long getTotalTime() {
+			return fTotalTime;
+		}
+
+		/**
+		 * @return longest time of a completed evaluation in nanoseconds
+		 */
+		public synchronized long getMaxTime() {
+			return fMaxTime;
+		}
+	}
+
+	/**
+	 * Expression text evaluated in a context.
+	 */
+	private static final class Key {
+		final IDebugElement fContext;
+		final String fText;
+
+		Key(IDebugElement context, String text) {
+			fContext = context;
+			fText = text;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return fContext.equals(other.fContext) && Objects.equals(fText, other.fText);
+		}
+
+		@Override
+		public int hashCode() {
+			return fContext.hashCode() * 31 + Objects.hashCode(fText);
+		}
+	}
+
+	/**
+	 * One evaluation by a delegate, shared by the watch expressions with the
+	 * same text and context.
+	 */
+	private static final class Evaluation {
+		final Key fKey;
+		final TargetQueue fQueue;
+		final List<WatchExpression> fExpressions = new ArrayList<>(1);
+		/** Epoch of the target when the evaluation was started */
+		long fEpoch;
+		boolean fStarted;
+		boolean fHoldsSlot;
+		boolean fDone;
+		long fStartTime;
+		ScheduledFuture<?> fTimeout;
+
+		Evaluation(Key key, TargetQueue queue) {
+			fKey = key;
+			fQueue = queue;
+		}
+	}
+
+	/**
+	 * The evaluations of one debug target.
+	 */
+	private static final class TargetQueue {
+		final Object fTarget;
+		final Deque<Evaluation> fQueued = new ArrayDeque<>();
+		final Map<Key, Evaluation> fOutstanding = new HashMap<>();
+		final Map<Key, IWatchExpressionResult> fResults = new HashMap<>();
+		long fEpoch;
+		int fRunning;
+		boolean fDraining;
+		boolean fDrainAgain;
+
+		TargetQueue(Object target) {
+			fTarget = target;
+		}
+
+		/**
+		 * Forgets the results, and the results of evaluations started before,
+		 * because the state of the target changed.
+		 */
+		void invalidate() {
+			fResults.clear();
+			fEpoch++;
+		}
+	}
+
+	private final ExpressionManager fManager;
+	private final ScheduledThreadPoolExecutor fTimer;
+	private final Map<Object, TargetQueue> fQueues = new HashMap<>();
+	private final Map<WatchExpression, Evaluation> fCurrent = new HashMap<>();
+	private final Map<String, EvaluationStatistics> fStatistics = new ConcurrentHashMap<>();
+	private volatile long fEvaluationTimeout = DEFAULT_EVALUATION_TIMEOUT;
+
+	/**
+	 * Creates a scheduler for the delegates of the given expression manager.
+	 *
+	 * @param manager the expression manager
+	 */
+	WatchExpressionScheduler(ExpressionManager manager) {
+		fManager = manager;
+		fTimer = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "Watch Expression Evaluation Timeout"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		fTimer.setKeepAliveTime(30, TimeUnit.SECONDS);
+		fTimer.allowCoreThreadTimeOut(true);
+		fTimer.setRemoveOnCancelPolicy(true);
+		DebugPlugin.getDefault().addDebugEventListener(this);
+	}
+
+	/**
+	 * Stops listening to debug events and cancels all queued evaluations.
+	 */
+	void dispose() {
+		DebugPlugin.getDefault().removeDebugEventListener(this);
+		synchronized (this) {
+			for (TargetQueue queue : fQueues.values()) {
+				queue.fQueued.clear();
+				queue.fOutstanding.clear();
+				queue.invalidate();
+			}
+			fQueues.clear();
+			fCurrent.clear();
+		}
+		fTimer.shutdownNow();
+	}
+
+	/**
+	 * Schedules the evaluation of the given watch expression in the given
+	 * context. Cancels the previous evaluation of the expression. The result
+	 * is reported to {@link WatchExpression#setResult(IWatchExpressionResult)}.
+	 *
+	 * @param expression the watch expression
+	 * @param context the context to evaluate the expression in
+	 * @param shareResult whether the result of a completed evaluation of the
+	 *            same text in the same context may be reused
+	 */
+	public void evaluate(WatchExpression expression, IDebugElement context, boolean shareResult) {
+		Key key = new Key(context, expression.getExpressionText());
+		IWatchExpressionResult result = null;
+		TargetQueue queue;
+		TargetQueue released;
+		synchronized (this) {
+			released = cancel0(expression);
+			queue = getQueue(context);
+			if (shareResult) {
+				result = queue.fResults.get(key);
+			}
+			if (result == null) {
+				Evaluation evaluation = queue.fOutstanding.get(key);
+				// a started evaluation may report a result of a previous state
+				if (evaluation == null || (evaluation.fStarted && (!shareResult || evaluation.fEpoch != queue.fEpoch))) {
+					evaluation = new Evaluation(key, queue);
+					queue.fOutstanding.put(key, evaluation);
+					queue.fQueued.add(evaluation);
+				}
+				evaluation.fExpressions.add(expression);
+				fCurrent.put(expression, evaluation);
+			}
+		}
+		if (released != null) {
+			drain(released);
+		}
+		if (result != null) {
+			expression.setResult(result);
+		} else {
+			drain(queue);
+		}
+	}
+
+	/**
+	 * Cancels the outstanding evaluation of the given watch expression, if
+	 * any.
+	 *
+	 * @param expression the watch expression
+	 */
+	public void cancel(WatchExpression expression) {
+		TargetQueue released;
+		synchronized (this) {
+			released = cancel0(expression);
+		}
+		if (released != null) {
+			drain(released);
+		}
+	}
+
+	/**
+	 * Sets the time after which a started evaluation no longer counts against
+	 * {@link #MAX_EVALUATIONS_PER_TARGET}.
+	 *
+	 * @param timeout timeout in milliseconds
+	 */
+	public void setEvaluationTimeout(long timeout) {
+		fEvaluationTimeout = timeout;
+	}
+
+	/**
+	 * Returns the evaluation time statistics of the delegates by debug model
+	 * identifier.
+	 *
+	 * @return statistics by debug model identifier
+	 */
+	public Map<String, EvaluationStatistics> getStatistics() {
+		return new HashMap<>(fStatistics);
+	}
+
+	@Override
+	public void handleDebugEvents(DebugEvent[] events) {
+		List<WatchExpression> cancelled = null;
+		synchronized (this) {
+			for (DebugEvent event : events) {
+				Object source = event.getSource();
+				if (!(source instanceof IDebugElement) || source instanceof IExpression) {
+					continue;
+				}
+				switch (event.getKind()) {
+					case DebugEvent.RESUME:
+					case DebugEvent.TERMINATE:
+						cancelled = cancelQueued(getTarget((IDebugElement) source), cancelled);
+						break;
+					case DebugEvent.SUSPEND:
+					case DebugEvent.CHANGE:
+						TargetQueue queue = fQueues.get(getTarget((IDebugElement) source));
+						if (queue != null) {
+							queue.invalidate();
+						}
+						break;
+					default:
+						break;
+				}
+			}
+		}
+		if (cancelled != null) {
+			for (WatchExpression expression : cancelled) {
+				expression.setPending(false);
+			}
+		}
+	}
+
+	/**
+	 * Cancels the queued evaluations of the given target and forgets its
+	 * results. Must be called while holding the lock on this scheduler.
+	 *
+	 * @return the watch expressions whose evaluation was cancelled
+	 */
+	private List<WatchExpression> cancelQueued(Object target, List<WatchExpression> cancelled) {
+		TargetQueue queue = fQueues.get(target);
+		if (queue == null) {
+			return cancelled;
+		}
+		queue.invalidate();
+		List<WatchExpression> result = cancelled == null ? new ArrayList<>() : cancelled;
+		for (Evaluation evaluation : queue.fQueued) {
+			queue.fOutstanding.remove(evaluation.fKey, evaluation);
+			for (WatchExpression expression : evaluation.fExpressions) {
+				fCurrent.remove(expression, evaluation);
+				result.add(expression);
+			}
+		}
+		queue.fQueued.clear();
+		removeIfIdle(queue);
+		return result;
+	}
+
+	/**
+	 * Detaches the given watch expression from its outstanding evaluation. An
+	 * evaluation no expression waits for anymore is dropped from the queue or,
+	 * if it has been started, gives up its slot. Must be called while holding
+	 * the lock on this scheduler.
+	 *
+	 * @return the queue to drain because a slot has been released, or
+	 *         <code>null</code>
+	 */
+	private TargetQueue cancel0(WatchExpression expression) {
+		Evaluation evaluation = fCurrent.remove(expression);
+		if (evaluation == null) {
+			return null;
+		}
+		evaluation.fExpressions.remove(expression);
+		if (!evaluation.fExpressions.isEmpty()) {
+			return null;
+		}
+		TargetQueue queue = evaluation.fQueue;
+		queue.fOutstanding.remove(evaluation.fKey, evaluation);
+		if (!evaluation.fStarted) {
+			queue.fQueued.remove(evaluation);
+			removeIfIdle(queue);
+			return null;
+		}
+		evaluation.fDone = true;
+		return releaseSlot(evaluation) ? queue : null;
+	}
+
+	/**
+	 * Gives up the slot of a started evaluation. Must be called while holding
+	 * the lock on this scheduler.
+	 *
+	 * @return whether the evaluation held a slot
+	 */
+	private static boolean releaseSlot(Evaluation evaluation) {
+		if (!evaluation.fHoldsSlot) {
+			return false;
+		}
+		evaluation.fHoldsSlot = false;
+		evaluation.fQueue.fRunning--;
+		if (evaluation.fTimeout != null) {
+			evaluation.fTimeout.cancel(false);
+			evaluation.fTimeout = null;
+		}
+		return true;
+	}
+
+	/**
+	 * Gives up the slot of an evaluation the delegate has not completed in
+	 * time, so that a hung delegate does not block the evaluations of the
+	 * target. The evaluation still accepts its result.
+	 */
+	private void timedOut(Evaluation evaluation) {
+		synchronized (this) {
+			if (evaluation.fDone || !releaseSlot(evaluation)) {
+				return;
+			}
+		}
+		drain(evaluation.fQueue);
+	}
+
+	/**
+	 * Starts queued evaluations of the given target while it has less than
+	 * the maximum number of outstanding evaluations. Evaluations completed
+	 * synchronously by their delegate continue the loop instead of recursing.
+	 */
+	private void drain(TargetQueue queue) {
+		synchronized (this) {
+			if (queue.fDraining) {
+				queue.fDrainAgain = true;
+				return;
+			}
+			queue.fDraining = true;
+		}
+		while (true) {
+			Evaluation evaluation;
+			synchronized (this) {
+				queue.fDrainAgain = false;
+				evaluation = queue.fRunning < MAX_EVALUATIONS_PER_TARGET ? queue.fQueued.poll() : null;
+				if (evaluation == null) {
+					if (!queue.fDrainAgain) {
+						queue.fDraining = false;
+						removeIfIdle(queue);
+						return;
+					}
+					continue;
+				}
+				evaluation.fStarted = true;
+				evaluation.fHoldsSlot = true;
+				evaluation.fEpoch = queue.fEpoch;
+				evaluation.fStartTime = System.nanoTime();
+				queue.fRunning++;
+				if (!fTimer.isShutdown()) {
+					evaluation.fTimeout = fTimer.schedule(() -> timedOut(evaluation), fEvaluationTimeout, TimeUnit.MILLISECONDS);
+				}
+			}
+			start(evaluation);
+		}
+	}
+
+	/**
+	 * Asks the delegate of the context's debug model to evaluate.
+	 */
+	private void start(Evaluation evaluation) {
+		IDebugElement context = evaluation.fKey.fContext;
+		String text = evaluation.fKey.fText;
+		IWatchExpressionDelegate delegate = fManager.newWatchExpressionDelegate(context.getModelIdentifier());
+		if (delegate == null) {
+			// No delegate provided
+			finished(evaluation, new IWatchExpressionResult() {
+				@Override
+				public IValue getValue() {
+					return null;
+				}
+				@Override
+				public boolean hasErrors() {
+					return true;
+				}
+				@Override
+				public String[] getErrorMessages() {
+					return new String[] { DebugCoreMessages.WatchExpression_0 };
+				}
+				@Override
+				public String getExpressionText() {
+					return text;
+				}
+				@Override
+				public DebugException getException() {
+					return null;
+				}
+			});
+			return;
+		}
+		try {
+			delegate.evaluateExpression(text, context, result -> finished(evaluation, result));
+		} catch (RuntimeException e) {
+			DebugPlugin.log(e);
+			finished(evaluation, null);
+		}
+	}
+
+	/**
+	 * Reports the result of an evaluation to the watch expressions still
+	 * waiting for it and starts the next queued evaluation.
+	 */
+	private void finished(Evaluation evaluation, IWatchExpressionResult result) {
+		List<WatchExpression> expressions;
+		TargetQueue queue = evaluation.fQueue;
+		synchronized (this) {
+			if (evaluation.fDone) {
+				return;
+			}
+			evaluation.fDone = true;
+			releaseSlot(evaluation);
+			queue.fOutstanding.remove(evaluation.fKey, evaluation);
+			if (result != null && evaluation.fEpoch == queue.fEpoch && fQueues.get(queue.fTarget) == queue) {
+				queue.fResults.put(evaluation.fKey, result);
+			}
+			expressions = new ArrayList<>(evaluation.fExpressions);
+			for (WatchExpression expression : expressions) {
+				fCurrent.remove(expression, evaluation);
+			}
+			evaluation.fExpressions.clear();
+		}
+		if (evaluation.fStarted) {
+			String modelIdentifier = evaluation.fKey.fContext.getModelIdentifier();
+			if (modelIdentifier != null) {
+				fStatistics.computeIfAbsent(modelIdentifier, id -> new EvaluationStatistics()).record(System.nanoTime() - evaluation.fStartTime);
+			}
+		}
+		for (WatchExpression expression : expressions) {
+			expression.setResult(result);
+		}
+		drain(queue);
+	}
+
+	/**
+	 * Returns the queue of the given context's debug target, creating it if
+	 * needed. Must be called while holding the lock on this scheduler.
+	 */
+	private TargetQueue getQueue(IDebugElement context) {
+		return fQueues.computeIfAbsent(getTarget(context), TargetQueue::new);
+	}
+
+	/**
+	 * Forgets the queue of a terminated target, and the queue of a target
+	 * without queued or running evaluations unless the target is suspended and
+	 * its results can still be shared. Must be called while holding the lock
+	 * on this scheduler.
+	 */
+	private void removeIfIdle(TargetQueue queue) {
+		Object target = queue.fTarget;
+		if (target instanceof IDebugTarget && ((IDebugTarget) target).isTerminated()) {
+			// evaluations still running report to the detached queue
+			fQueues.remove(target, queue);
+		} else if (queue.fRunning == 0 && queue.fQueued.isEmpty() && !queue.fDraining && queue.fResults.isEmpty()) {
+			fQueues.remove(target, queue);
+		}
+	}
+
+	/**
+	 * Returns the key of the queue of the given element: its debug target or,
+	 * if it has none, the element itself.
+	 */
+	private static Object getTarget(IDebugElement element) {
+		IDebugTarget target = element.getDebugTarget();
+		return target == null ? element : target;
+	}
+}
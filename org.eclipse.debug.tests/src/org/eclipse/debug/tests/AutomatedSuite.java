@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2021 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,6 +18,8 @@ package org.eclipse.debug.tests;
 import org.eclipse.debug.tests.breakpoint.BreakpointOrderingTests;
 import org.eclipse.debug.tests.breakpoint.BreakpointTests;
 import org.eclipse.debug.tests.breakpoint.SerialExecutorTest;
+import org.eclipse.debug.tests.console.AnsiStyleIndexTests;
+import org.eclipse.debug.tests.console.ChunkedTextStoreTests;
 import org.eclipse.debug.tests.console.ConsoleDocumentAdapterTests;
 import org.eclipse.debug.tests.console.ConsoleManagerTests;
 import org.eclipse.debug.tests.console.ConsoleTests;
@@ -31,6 +33,8 @@ import org.eclipse.debug.tests.console.ProcessConsoleTests;
 import org.eclipse.debug.tests.console.RuntimeProcessTests;
 import org.eclipse.debug.tests.console.StreamsProxyTests;
 import org.eclipse.debug.tests.console.TextConsoleViewerTest;
+import org.eclipse.debug.tests.events.DebugEventCoalescerTests;
+import org.eclipse.debug.tests.events.EventDispatchTests;
 import org.eclipse.debug.tests.launching.AcceleratorSubstitutionTests;
 import org.eclipse.debug.tests.launching.ArgumentParsingTests;
 import org.eclipse.debug.tests.launching.LaunchConfigurationTests;
@@ -45,11 +49,13 @@ import org.eclipse.debug.tests.sourcelookup.SourceLookupFacilityTests;
 import org.eclipse.debug.tests.statushandlers.StatusHandlerTests;
 import org.eclipse.debug.tests.stepfilters.StepFiltersTests;
 import org.eclipse.debug.tests.ui.VariableValueEditorManagerTests;
+import org.eclipse.debug.tests.view.memory.MemoryPageCacheTests;
 import org.eclipse.debug.tests.view.memory.MemoryRenderingTests;
 import org.eclipse.debug.tests.view.memory.TableRenderingTests;
 import org.eclipse.debug.tests.viewer.model.ChildrenUpdateTests;
 import org.eclipse.debug.tests.viewer.model.FilterTransformTests;
 import org.eclipse.debug.tests.viewer.model.PresentationContextTests;
+import org.eclipse.debug.tests.viewer.model.ViewerUpdateExecutorTests;
 import org.eclipse.debug.tests.viewer.model.VirtualViewerContentTests;
 import org.eclipse.debug.tests.viewer.model.VirtualViewerDeltaTests;
 import org.eclipse.debug.tests.viewer.model.VirtualViewerFilterTests;
@@ -90,11 +96,17 @@ import org.junit.runners.Suite;
 		FilterTransformTests.class,
 		ChildrenUpdateTests.class,
 		PresentationContextTests.class,
+		ViewerUpdateExecutorTests.class,
 		VariableValueEditorManagerTests.class,
 
 		// Memory view
 		MemoryRenderingTests.class,
 		TableRenderingTests.class,
+		MemoryPageCacheTests.class,
+
+		// Debug events
+		DebugEventCoalescerTests.class,
+		EventDispatchTests.class,
 
 		// Launch framework
 		LaunchConfigurationTests.class,
@@ -114,6 +126,8 @@ import org.junit.runners.Suite;
 
 		// Console view
 		ConsoleDocumentAdapterTests.class,
+		ChunkedTextStoreTests.class,
+		AnsiStyleIndexTests.class,
 		ConsoleManagerTests.class,
 		ConsoleTests.class,
 		IOConsoleTests.class,
@@ -13,6 +13,9 @@
  *******************************************************************************/
 package org.eclipse.debug.tests;
 
+import org.eclipse.debug.tests.breakpoint.BreakpointManagerPerformanceTests;
+import org.eclipse.debug.tests.launching.LaunchConfigurationPerformanceTests;
+import org.eclipse.debug.tests.launching.LaunchManagerPerformanceTests;
 import org.eclipse.debug.tests.viewer.model.JFaceViewerPerformanceTests;
 import org.eclipse.debug.tests.viewer.model.VirtualViewerPerformanceTests;
 import org.junit.runner.RunWith;
@@ -26,6 +29,9 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
 		JFaceViewerPerformanceTests.class,
-		VirtualViewerPerformanceTests.class })
+		VirtualViewerPerformanceTests.class,
+		LaunchManagerPerformanceTests.class,
+		LaunchConfigurationPerformanceTests.class,
+		BreakpointManagerPerformanceTests.class })
 public class PerformanceSuite {
 }
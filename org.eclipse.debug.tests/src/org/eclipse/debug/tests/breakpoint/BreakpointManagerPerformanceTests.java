@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.breakpoint;
+
+import static org.junit.Assert.assertEquals;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.internal.core.BreakpointManager;
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.debug.tests.TestsPlugin;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Measures breakpoint lookups by model identifier, resource and line with a
+ * large number of registered breakpoints.
+ */
+@SuppressWarnings("restriction")
+public class BreakpointManagerPerformanceTests extends AbstractDebugTest {
+
+	private static final int BREAKPOINT_COUNT = 50000;
+	private static final int LINES_PER_RESOURCE = 100;
+	private static final int QUERY_COUNT = 1000;
+
+	private BreakpointManager fManager;
+	private IProject fProject;
+	private IBreakpoint[] fBreakpoints;
+
+	public String getDefaultScenarioId() {
+		return this.getClass().getName() + '#' + name.getMethodName() + "()"; //$NON-NLS-1$
+	}
+
+	@Override
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		fManager = (BreakpointManager) DebugPlugin.getDefault().getBreakpointManager();
+		fProject = TestsPlugin.createProject("BreakpointManagerPerformanceTests"); //$NON-NLS-1$
+		fBreakpoints = new IBreakpoint[BREAKPOINT_COUNT];
+		IWorkspaceRunnable create = monitor -> {
+			for (int i = LINES_PER_RESOURCE; i < BREAKPOINT_COUNT; i += LINES_PER_RESOURCE) {
+				IFolder folder = (IFolder) getResource(i);
+				if (!folder.exists()) {
+					folder.create(true, true, null);
+				}
+			}
+			for (int i = 0; i < BREAKPOINT_COUNT; i++) {
+				fBreakpoints[i] = new TestBreakpoint("bp" + i, getResource(i), i % LINES_PER_RESOURCE); //$NON-NLS-1$
+			}
+		};
+		ResourcesPlugin.getWorkspace().run(create, null);
+		fManager.addBreakpoints(fBreakpoints);
+	}
+
+	@Override
+	@After
+	public void tearDown() throws Exception {
+		fManager.removeBreakpoints(fBreakpoints, true);
+		super.tearDown();
+	}
+
+	/**
+	 * Breakpoints are spread over the project and its folders, with
+	 * {@link #LINES_PER_RESOURCE} breakpoints on each.
+	 */
+	private IResource getResource(int index) {
+		int resource = index / LINES_PER_RESOURCE;
+		return resource == 0 ? fProject : fProject.getFolder("folder" + resource); //$NON-NLS-1$
+	}
+
+	/**
+	 * Measures lookups by model identifier.
+	 */
+	@Test
+	public void testLookupByModel() throws Exception {
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(getDefaultScenarioId());
+		try {
+			for (int i = 0; i < 10; i++) {
+				meter.start();
+				for (int j = 0; j < 10; j++) {
+					assertEquals(BREAKPOINT_COUNT, fManager.getBreakpoints(TestBreakpoint.MODEL).length);
+				}
+				meter.stop();
+			}
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+		}
+	}
+
+	/**
+	 * Measures lookups by resource and by resource and line.
+	 */
+	@Test
+	public void testLookupByResourceAndLine() throws Exception {
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(getDefaultScenarioId());
+		try {
+			for (int i = 0; i < 10; i++) {
+				meter.start();
+				for (int j = 0; j < QUERY_COUNT; j++) {
+					int index = (j * 7919) % BREAKPOINT_COUNT;
+					IResource resource = getResource(index);
+					assertEquals(LINES_PER_RESOURCE, fManager.getBreakpoints(resource).length);
+					assertEquals(1, fManager.getBreakpoints(resource, index % LINES_PER_RESOURCE).length);
+				}
+				meter.stop();
+			}
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+		}
+	}
+}
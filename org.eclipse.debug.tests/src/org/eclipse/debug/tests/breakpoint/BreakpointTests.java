@@ -18,20 +18,30 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.eclipse.core.commands.operations.IOperationHistory;
 import org.eclipse.core.commands.operations.IUndoContext;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IMarkerDelta;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.IBreakpointManager;
+import org.eclipse.debug.core.IBreakpointsListener;
 import org.eclipse.debug.core.model.IBreakpoint;
 import org.eclipse.debug.internal.core.BreakpointManager;
 import org.eclipse.debug.internal.ui.DebugUIPlugin;
 import org.eclipse.debug.internal.ui.views.breakpoints.BreakpointsView;
 import org.eclipse.debug.tests.AbstractDebugTest;
 import org.eclipse.debug.tests.TestUtil;
+import org.eclipse.debug.tests.TestsPlugin;
 import org.eclipse.debug.ui.DebugUITools;
 import org.eclipse.debug.ui.IDebugUIConstants;
+import org.eclipse.debug.ui.actions.ExportBreakpointsOperation;
+import org.eclipse.debug.ui.actions.ImportBreakpointsOperation;
 import org.eclipse.swt.widgets.TreeItem;
 import org.eclipse.ui.PlatformUI;
 import org.junit.Test;
@@ -130,4 +140,191 @@ public class BreakpointTests extends AbstractDebugTest {
 			}
 		}
 	}
+
+	/**
+	 * Tests the breakpoint manager's lookups by model, resource and line
+	 * while breakpoints are added, moved and removed.
+	 */
+	@Test
+	public void testIndexedLookups() throws Exception {
+		BreakpointManager manager = (BreakpointManager) bpm;
+		IProject project = TestsPlugin.createProject("BreakpointIndexTests"); //$NON-NLS-1$
+		TestBreakpoint bp1 = new TestBreakpoint("bp1", project, 1); //$NON-NLS-1$
+		TestBreakpoint bp2 = new TestBreakpoint("bp2", project, 2); //$NON-NLS-1$
+		TestBreakpoint bp3 = new TestBreakpoint("bp3", project, 2); //$NON-NLS-1$
+		bpm.addBreakpoints(new IBreakpoint[] { bp1, bp2, bp3 });
+
+		assertEquals(Arrays.asList(bp1, bp2, bp3), Arrays.asList(manager.getBreakpoints(project)));
+		assertEquals(Arrays.asList(bp2, bp3), Arrays.asList(manager.getBreakpoints(project, 2)));
+		assertEquals(Arrays.asList(bp1, bp2, bp3), getTestBreakpoints());
+		assertEquals(0, manager.getBreakpoints(project, 3).length);
+
+		// moving a marker updates the line index
+		bp1.getMarker().setAttribute(IMarker.LINE_NUMBER, 3);
+		waitWhile(t -> manager.getBreakpoints(project, 3).length == 0, t -> "Line index not updated"); //$NON-NLS-1$
+		assertEquals(Arrays.asList(bp1), Arrays.asList(manager.getBreakpoints(project, 3)));
+		assertEquals(0, manager.getBreakpoints(project, 1).length);
+
+		bpm.removeBreakpoint(bp2, true);
+		assertEquals(Arrays.asList(bp1, bp3), Arrays.asList(manager.getBreakpoints(project)));
+		assertEquals(Arrays.asList(bp3), Arrays.asList(manager.getBreakpoints(project, 2)));
+		assertFalse(bpm.isRegistered(bp2));
+	}
+
+	/**
+	 * Tests that lookups for a <code>null</code> model identifier or resource
+	 * find no breakpoints rather than failing.
+	 */
+	@Test
+	public void testIndexedLookupsWithNull() throws Exception {
+		BreakpointManager manager = (BreakpointManager) bpm;
+		IProject project = TestsPlugin.createProject("BreakpointIndexTests"); //$NON-NLS-1$
+		bpm.addBreakpoint(new TestBreakpoint("bp", project, 1)); //$NON-NLS-1$
+
+		assertEquals(0, bpm.getBreakpoints((String) null).length);
+		assertEquals(0, manager.getBreakpoints((IResource) null).length);
+		assertEquals(0, manager.getBreakpoints(null, 1).length);
+		assertEquals(0, manager.getBreakpoints(null, -1).length);
+	}
+
+	/**
+	 * Tests that disabling and re-enabling all trigger points is reported as
+	 * one change of the trigger points and the breakpoints depending on them.
+	 */
+	@Test
+	public void testEnableTriggerPoints() throws Exception {
+		IProject project = TestsPlugin.createProject("BreakpointTriggerPointTests"); //$NON-NLS-1$
+		List<TestBreakpoint> triggerPoints = new ArrayList<>();
+		List<IBreakpoint> all = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			TestBreakpoint bp = new TestBreakpoint("bp" + i, project, i + 1); //$NON-NLS-1$
+			bp.setEnabled(true);
+			if (i % 5 == 0) {
+				bp.setTriggerPoint(true);
+				triggerPoints.add(bp);
+			}
+			all.add(bp);
+		}
+		bpm.addBreakpoints(all.toArray(new IBreakpoint[all.size()]));
+		assertEquals(triggerPoints.size(), bpm.getTriggerPoints().length);
+		assertTrue(bpm.hasActiveTriggerPoints());
+
+		List<IBreakpoint[]> notifications = new ArrayList<>();
+		IBreakpointsListener listener = new IBreakpointsListener() {
+			@Override
+			public void breakpointsAdded(IBreakpoint[] breakpoints) {
+			}
+
+			@Override
+			public void breakpointsRemoved(IBreakpoint[] breakpoints, IMarkerDelta[] deltas) {
+			}
+
+			@Override
+			public void breakpointsChanged(IBreakpoint[] breakpoints, IMarkerDelta[] deltas) {
+				notifications.add(breakpoints);
+			}
+		};
+		bpm.addBreakpointListener(listener);
+		try {
+			bpm.enableTriggerPoints(null, false);
+			assertFalse(bpm.hasActiveTriggerPoints());
+			for (TestBreakpoint bp : triggerPoints) {
+				assertFalse(bp.isEnabled());
+			}
+			assertEquals(1, notifications.size());
+			assertEquals(all.size(), notifications.get(0).length);
+
+			notifications.clear();
+			bpm.enableTriggerPoints(null, true);
+			assertTrue(bpm.hasActiveTriggerPoints());
+			for (TestBreakpoint bp : triggerPoints) {
+				assertTrue(bp.isEnabled());
+			}
+			assertEquals(1, notifications.size());
+			assertEquals(all.size(), notifications.get(0).length);
+		} finally {
+			bpm.removeBreakpointListener(listener);
+		}
+
+		bpm.removeAllTriggerPoints();
+		assertEquals(0, bpm.getTriggerPoints().length);
+		assertFalse(bpm.hasActiveTriggerPoints());
+	}
+
+	/**
+	 * Tests that refreshing the trigger point display touches all breakpoints
+	 * each time, even if the trigger points did not change.
+	 */
+	@Test
+	public void testRefreshTriggerpointDisplay() throws Exception {
+		IProject project = TestsPlugin.createProject("BreakpointTriggerPointRefreshTests"); //$NON-NLS-1$
+		List<IBreakpoint> all = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			TestBreakpoint bp = new TestBreakpoint("bp" + i, project, i + 1); //$NON-NLS-1$
+			bp.setEnabled(true);
+			if (i == 0) {
+				bp.setTriggerPoint(true);
+			}
+			all.add(bp);
+		}
+		bpm.addBreakpoints(all.toArray(new IBreakpoint[all.size()]));
+
+		List<IBreakpoint[]> notifications = new ArrayList<>();
+		IBreakpointsListener listener = new IBreakpointsListener() {
+			@Override
+			public void breakpointsAdded(IBreakpoint[] breakpoints) {
+			}
+
+			@Override
+			public void breakpointsRemoved(IBreakpoint[] breakpoints, IMarkerDelta[] deltas) {
+			}
+
+			@Override
+			public void breakpointsChanged(IBreakpoint[] breakpoints, IMarkerDelta[] deltas) {
+				notifications.add(breakpoints);
+			}
+		};
+		bpm.addBreakpointListener(listener);
+		try {
+			for (int i = 0; i < 2; i++) {
+				notifications.clear();
+				bpm.refreshTriggerpointDisplay();
+				assertEquals(1, notifications.size());
+				assertEquals(all.size(), notifications.get(0).length);
+			}
+		} finally {
+			bpm.removeBreakpointListener(listener);
+		}
+		bpm.removeAllTriggerPoints();
+	}
+
+	/**
+	 * Tests exporting breakpoints and importing them again, which must match
+	 * the existing breakpoints instead of duplicating them.
+	 */
+	@Test
+	public void testExportImport() throws Exception {
+		IProject project = TestsPlugin.createProject("BreakpointImportTests"); //$NON-NLS-1$
+		TestBreakpoint bp1 = new TestBreakpoint("bp1", project, 1); //$NON-NLS-1$
+		TestBreakpoint bp2 = new TestBreakpoint("bp2", project, 2); //$NON-NLS-1$
+		bpm.addBreakpoints(new IBreakpoint[] { bp1, bp2 });
+		ExportBreakpointsOperation export = new ExportBreakpointsOperation(new IBreakpoint[] { bp1, bp2 });
+		export.run(new NullProgressMonitor());
+
+		// existing breakpoints are matched by marker type and line
+		ImportBreakpointsOperation reimport = new ImportBreakpointsOperation(export.getBuffer(), false, false);
+		reimport.run(new NullProgressMonitor());
+		assertEquals(0, reimport.getImportedBreakpoints().length);
+		assertEquals(2, getTestBreakpoints().size());
+
+		bp1.delete();
+		ImportBreakpointsOperation restore = new ImportBreakpointsOperation(export.getBuffer(), false, false);
+		restore.run(new NullProgressMonitor());
+		assertEquals(1, restore.getImportedBreakpoints().length);
+		TestBreakpoint restored = (TestBreakpoint) restore.getImportedBreakpoints()[0];
+		assertEquals("bp1", restored.getText()); //$NON-NLS-1$
+		assertEquals(1, restored.getMarker().getAttribute(IMarker.LINE_NUMBER, -1));
+		assertTrue(restored.isRegistered());
+		assertEquals(2, getTestBreakpoints().size());
+	}
 }
@@ -60,6 +60,20 @@ public class TestBreakpoint extends Breakpoint {
 
 	}
 
+	TestBreakpoint(String text, IResource resource, int lineNumber) {
+		IWorkspaceRunnable wr = monitor -> {
+			setMarker(resource.createMarker(IBreakpoint.BREAKPOINT_MARKER));
+			ensureMarker().setAttribute(ID, getModelIdentifier());
+			ensureMarker().setAttribute(TEXT_ATTRIBUTE, text);
+			ensureMarker().setAttribute(IMarker.LINE_NUMBER, lineNumber);
+		};
+		try {
+			ResourcesPlugin.getWorkspace().run(wr, null);
+		} catch (CoreException e) {
+			fail("Unexpected exception: " + e); //$NON-NLS-1$
+		}
+	}
+
 	public String getText() {
 		return getMarker().getAttribute(TEXT_ATTRIBUTE, null);
 	}
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.console;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.ui.internal.console.ansi.participants.AnsiStyleIndex;
+import org.eclipse.ui.internal.console.ansi.utils.AnsiConsoleAttributes;
+import org.junit.Test;
+
+/**
+ * Tests the index of escape sequences used by the ANSI console support.
+ */
+public class AnsiStyleIndexTests extends AbstractDebugTest {
+
+	private static final String BOLD = "\u001b[1m"; //$NON-NLS-1$
+	private static final String RED = "\u001b[31m"; //$NON-NLS-1$
+	private static final String RESET = "\u001b[0m"; //$NON-NLS-1$
+
+	private final AnsiStyleIndex index = new AnsiStyleIndex();
+	private final StringBuilder document = new StringBuilder();
+
+	/**
+	 * Sequences split over several appends are found as if appended at once.
+	 */
+	@Test
+	public void testSequencesSplitAcrossAppends() {
+		append("a\u001b[1mb\u001b[3"); //$NON-NLS-1$
+		assertEquals(1, index.size());
+		append("1mc\u001b"); //$NON-NLS-1$
+		append("[0md"); //$NON-NLS-1$
+		assertEquals("a" + BOLD + "b" + RED + "c" + RESET + "d", document.toString()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		assertSequences(1, 4, 6, 5, 12, 4);
+
+		assertTrue(index.getAttributes(0).bold);
+		assertEquals(Integer.valueOf(1), index.getAttributes(1).currentFgColor);
+		assertTrue(index.getAttributes(1).bold);
+		assertEquals(new AnsiConsoleAttributes(), index.getAttributes(2));
+
+		assertEquals(new AnsiConsoleAttributes(), index.getAttributesBefore(0));
+		assertEquals(index.getAttributes(0), index.getAttributesBefore(1));
+		assertEquals(index.getAttributes(1), index.getAttributesBefore(2));
+		assertEquals(index.getAttributes(2), index.getAttributesBefore(3));
+
+		assertEquals(0, index.find(0));
+		assertEquals(0, index.find(4));
+		assertEquals(1, index.find(5));
+		assertEquals(2, index.find(11));
+		assertEquals(3, index.find(16));
+	}
+
+	/**
+	 * Sequences other than Select Graphic Rendition select no attributes and
+	 * keep those in effect.
+	 */
+	@Test
+	public void testNonGraphicSequences() {
+		append(BOLD + "a\u001b[K\u001b[x"); //$NON-NLS-1$
+		assertSequences(0, 4, 5, 3);
+		assertNull(index.getAttributes(1));
+		assertTrue(index.getAttributesBefore(2).bold);
+	}
+
+	/**
+	 * Trimming the beginning of the document through the middle of a sequence
+	 * keeps the rest of the sequence, trimming past it keeps its attributes in
+	 * effect.
+	 */
+	@Test
+	public void testTrimThroughSequence() {
+		append("a" + BOLD + "b" + RED + "c"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		trim(3);
+		assertEquals(2, index.size());
+		assertSequences(0, 2, 3, 5);
+		assertEquals(new AnsiConsoleAttributes(), index.getAttributesBefore(0));
+		assertEquals(0, index.find(0));
+
+		trim(2);
+		assertSequences(1, 5);
+		assertTrue(index.getAttributesBefore(0).bold);
+		assertEquals(Integer.valueOf(1), index.getAttributes(0).currentFgColor);
+
+		trim(document.length());
+		assertEquals(0, index.size());
+		assertEquals(Integer.valueOf(1), index.getAttributesBefore(0).currentFgColor);
+
+		append(RESET + "d"); //$NON-NLS-1$
+		assertSequences(0, 4);
+		assertEquals(Integer.valueOf(1), index.getAttributesBefore(0).currentFgColor);
+		assertEquals(new AnsiConsoleAttributes(), index.getAttributesBefore(1));
+	}
+
+	/**
+	 * The console style listener rescans the document once the ANSI support is
+	 * enabled again, as the index missed the changes while disabled. The result
+	 * must not depend on the content seen before.
+	 */
+	@Test
+	public void testRescanAfterDisableEnable() {
+		append("a" + BOLD + RED + "b\u001b["); //$NON-NLS-1$ //$NON-NLS-2$
+		// changed while disabled, the index is not updated
+		document.setLength(0);
+		document.append("c" + RESET + "d" + BOLD); //$NON-NLS-1$ //$NON-NLS-2$
+		index.clear();
+		assertEquals(0, index.size());
+		assertEquals(new AnsiConsoleAttributes(), index.getAttributesBefore(0));
+		index.replace(0, 0, document.toString(), document.length());
+
+		AnsiStyleIndex expected = new AnsiStyleIndex();
+		expected.replace(0, 0, document.toString(), document.length());
+		assertEquals(expected.size(), index.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.getOffset(i), index.getOffset(i));
+			assertEquals(expected.getLength(i), index.getLength(i));
+			assertEquals(expected.getAttributes(i), index.getAttributes(i));
+			assertEquals(expected.getAttributesBefore(i), index.getAttributesBefore(i));
+		}
+		assertSequences(1, 4, 6, 4);
+		assertTrue(index.getAttributesBefore(2).bold);
+		assertFalse(index.getAttributesBefore(1).bold);
+
+		// the unfinished sequence seen before the rescan is gone
+		append("[31m"); //$NON-NLS-1$
+		assertEquals(2, index.size());
+	}
+
+	/**
+	 * Text inserted before a sequence moves it, text inserted into a sequence
+	 * lengthens it.
+	 */
+	@Test
+	public void testInsertInMiddle() {
+		append("a" + BOLD + "b" + RESET + "c"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		insert(0, "xy"); //$NON-NLS-1$
+		assertSequences(3, 4, 8, 4);
+
+		insert(5, "zz"); //$NON-NLS-1$
+		assertSequences(3, 6, 10, 4);
+		assertEquals(0, index.find(8));
+		assertEquals(1, index.find(9));
+
+		insert(3, "q"); //$NON-NLS-1$
+		assertSequences(4, 6, 11, 4);
+
+		insert(10, "w"); //$NON-NLS-1$
+		assertSequences(4, 6, 12, 4);
+		assertTrue(index.getAttributesBefore(1).bold);
+
+		append(RED);
+		assertSequences(4, 6, 12, 4, document.length() - 5, 5);
+	}
+
+	/**
+	 * Attributes no longer used after trimming are dropped from the index,
+	 * those of the remaining sequences are kept.
+	 */
+	@Test
+	public void testManyAttributes() {
+		for (int i = 0; i < 3000; i++) {
+			append(sequence(i) + "x"); //$NON-NLS-1$
+			if (document.length() > 1000) {
+				trim(document.length() - 500);
+			}
+		}
+		assertTrue(index.size() > 0);
+		int first = 3000 - index.size();
+		for (int i = 0; i < index.size(); i++) {
+			assertColors(first + i, index.getAttributes(i));
+			assertColors(first + i, index.getAttributesBefore(i + 1));
+		}
+		assertColors(first - 1, index.getAttributesBefore(0));
+	}
+
+	/**
+	 * More attributes than compacted at once remain in use, none are lost
+	 * while unused ones are dropped.
+	 */
+	@Test
+	public void testManyLiveAttributes() {
+		for (int i = 0; i < 5000; i++) {
+			append(sequence(i) + "x"); //$NON-NLS-1$
+			if (i % 3000 == 2999) {
+				trim(document.length() / 2);
+			}
+		}
+		int first = 5000 - index.size();
+		for (int i = 0; i < index.size(); i++) {
+			assertColors(first + i, index.getAttributes(i));
+		}
+		assertColors(first - 1, index.getAttributesBefore(0));
+	}
+
+	private static String sequence(int i) {
+		return "\u001b[38;5;" + i % 256 + ";48;5;" + i / 256 + "m"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	private static void assertColors(int i, AnsiConsoleAttributes attributes) {
+		assertEquals(Integer.valueOf(i % 256), attributes.currentFgColor);
+		assertEquals(Integer.valueOf(i / 256), attributes.currentBgColor);
+	}
+
+	private void append(String text) {
+		index.replace(document.length(), 0, text, document.length() + text.length());
+		document.append(text);
+	}
+
+	private void insert(int offset, String text) {
+		document.insert(offset, text);
+		index.replace(offset, 0, text, document.length());
+	}
+
+	private void trim(int length) {
+		document.delete(0, length);
+		index.replace(0, length, "", document.length()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Asserts the offsets and lengths of all sequences.
+	 */
+	private void assertSequences(int... offsetsAndLengths) {
+		assertEquals(offsetsAndLengths.length / 2, index.size());
+		for (int i = 0; i < index.size(); i++) {
+			assertEquals("Offset of sequence " + i, offsetsAndLengths[2 * i], index.getOffset(i)); //$NON-NLS-1$
+			assertEquals("Length of sequence " + i, offsetsAndLengths[2 * i + 1], index.getLength(i)); //$NON-NLS-1$
+		}
+	}
+}
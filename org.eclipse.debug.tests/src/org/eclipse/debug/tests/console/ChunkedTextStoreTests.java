@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.console;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.ui.internal.console.ChunkedTextStore;
+import org.eclipse.ui.internal.console.ConsoleDocument;
+import org.junit.Test;
+
+/**
+ * Tests the chunked text store of console documents.
+ */
+public class ChunkedTextStoreTests extends AbstractDebugTest {
+
+	@Test
+	public void testAppendAndTrim() {
+		ChunkedTextStore store = new ChunkedTextStore(4);
+		store.replace(0, 0, "0123456789"); //$NON-NLS-1$
+		store.replace(store.getLength(), 0, "abc"); //$NON-NLS-1$
+		assertEquals("0123456789abc", store.get(0, store.getLength())); //$NON-NLS-1$
+		store.replace(0, 5, ""); //$NON-NLS-1$
+		assertEquals("56789abc", store.get(0, store.getLength())); //$NON-NLS-1$
+		assertEquals('5', store.get(0));
+		assertEquals('c', store.get(7));
+		store.replace(0, 8, ""); //$NON-NLS-1$
+		assertEquals(0, store.getLength());
+		store.replace(0, 0, "xyz"); //$NON-NLS-1$
+		assertEquals("xyz", store.get(0, 3)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testRandomChanges() {
+		for (int chunkSize : new int[] { 1, 3, 16, 100 }) {
+			Random random = new Random(chunkSize);
+			ChunkedTextStore store = new ChunkedTextStore(chunkSize);
+			StringBuilder expected = new StringBuilder();
+			for (int i = 0; i < 500; i++) {
+				String text = "line " + i + (random.nextBoolean() ? "\n" : ""); //$NON-NLS-1$ //$NON-NLS-2$
+				int operation = random.nextInt(10);
+				if (operation < 5) {
+					store.replace(store.getLength(), 0, text);
+					expected.append(text);
+				} else if (operation < 7) {
+					int length = random.nextInt(expected.length() + 1);
+					store.replace(0, length, ""); //$NON-NLS-1$
+					expected.delete(0, length);
+				} else if (operation < 9) {
+					int offset = random.nextInt(expected.length() + 1);
+					int length = random.nextInt(expected.length() - offset + 1);
+					store.replace(offset, length, text);
+					expected.replace(offset, offset + length, text);
+				} else {
+					store.set(text);
+					expected.setLength(0);
+					expected.append(text);
+				}
+				assertEquals(expected.length(), store.getLength());
+				assertEquals(expected.toString(), store.get(0, store.getLength()));
+				if (expected.length() > 0) {
+					int offset = random.nextInt(expected.length());
+					assertEquals(expected.charAt(offset), store.get(offset));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testConsoleDocumentLines() throws Exception {
+		IDocument document = new ConsoleDocument();
+		for (int i = 0; i < 1000; i++) {
+			document.replace(document.getLength(), 0, "line " + i + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		int trimmed = document.getLineOffset(600);
+		document.replace(0, trimmed, ""); //$NON-NLS-1$
+		assertEquals(401, document.getNumberOfLines());
+		assertEquals("line 600\n", document.get(document.getLineOffset(0), document.getLineLength(0))); //$NON-NLS-1$
+		assertEquals("line 999\n", document.get(document.getLineOffset(399), document.getLineLength(399))); //$NON-NLS-1$
+		assertEquals(399, document.getLineOfOffset(document.getLength() - 1));
+	}
+}
@@ -21,10 +21,15 @@ import static org.junit.Assert.fail;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.eclipse.core.commands.Command;
 import org.eclipse.debug.tests.AbstractDebugTest;
 import org.eclipse.debug.tests.TestUtil;
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.ui.IViewPart;
 import org.eclipse.ui.IWorkbenchCommandConstants;
@@ -37,7 +42,11 @@ import org.eclipse.ui.console.IConsoleConstants;
 import org.eclipse.ui.console.IConsoleManager;
 import org.eclipse.ui.console.IOConsole;
 import org.eclipse.ui.console.IOConsoleOutputStream;
+import org.eclipse.ui.console.IPatternMatchListener;
 import org.eclipse.ui.console.MessageConsole;
+import org.eclipse.ui.console.MessageConsoleStream;
+import org.eclipse.ui.console.PatternMatchEvent;
+import org.eclipse.ui.console.TextConsole;
 import org.eclipse.ui.texteditor.IWorkbenchActionDefinitionIds;
 import org.junit.Test;
 
@@ -229,4 +238,81 @@ public class ConsoleTests extends AbstractDebugTest {
 			consoleInput.available();
 		}
 	}
+
+	/**
+	 * Tests that pattern match listeners with literal, regular expression and
+	 * no line qualifiers are all notified of their matches.
+	 *
+	 * @throws Exception if test fails
+	 */
+	@Test
+	public void testPatternMatchListenerQualifiers() throws Exception {
+		MessageConsole console = new MessageConsole("Test Console", null); //$NON-NLS-1$
+		List<String> files = Collections.synchronizedList(new ArrayList<>());
+		List<String> numbers = Collections.synchronizedList(new ArrayList<>());
+		List<String> errors = Collections.synchronizedList(new ArrayList<>());
+		console.addPatternMatchListener(new MatchCollector(console, "\\w+\\.(java|class)", "\\.java|\\.class", files)); //$NON-NLS-1$ //$NON-NLS-2$
+		console.addPatternMatchListener(new MatchCollector(console, "\\d+", "[0-9]", numbers)); //$NON-NLS-1$ //$NON-NLS-2$
+		console.addPatternMatchListener(new MatchCollector(console, "ERROR", null, errors)); //$NON-NLS-1$
+		try (MessageConsoleStream stream = console.newMessageStream()) {
+			stream.println("Compiling Foo.java and Bar.class"); //$NON-NLS-1$
+			stream.println("ERROR in line 42"); //$NON-NLS-1$
+			stream.println("nothing to see here"); //$NON-NLS-1$
+			stream.println("Baz.java:7 ERROR"); //$NON-NLS-1$
+		}
+		waitWhile(c -> files.size() < 3 || numbers.size() < 2 || errors.size() < 2, c -> files + " " + numbers + " " + errors); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(Arrays.asList("Foo.java", "Bar.class", "Baz.java"), files); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals(Arrays.asList("42", "7"), numbers); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(Arrays.asList("ERROR", "ERROR"), errors); //$NON-NLS-1$ //$NON-NLS-2$
+		console.destroy();
+	}
+
+	/**
+	 * Pattern match listener collecting the matched text.
+	 */
+	private static class MatchCollector implements IPatternMatchListener {
+		private final TextConsole fConsole;
+		private final String fPattern;
+		private final String fQualifier;
+		private final List<String> fMatches;
+
+		MatchCollector(TextConsole console, String pattern, String qualifier, List<String> matches) {
+			fConsole = console;
+			fPattern = pattern;
+			fQualifier = qualifier;
+			fMatches = matches;
+		}
+
+		@Override
+		public void connect(TextConsole console) {
+		}
+
+		@Override
+		public void disconnect() {
+		}
+
+		@Override
+		public void matchFound(PatternMatchEvent event) {
+			try {
+				fMatches.add(fConsole.getDocument().get(event.getOffset(), event.getLength()));
+			} catch (BadLocationException e) {
+				fMatches.add(e.getMessage());
+			}
+		}
+
+		@Override
+		public String getPattern() {
+			return fPattern;
+		}
+
+		@Override
+		public int getCompilerFlags() {
+			return 0;
+		}
+
+		@Override
+		public String getLineQualifier() {
+			return fQualifier;
+		}
+	}
 }
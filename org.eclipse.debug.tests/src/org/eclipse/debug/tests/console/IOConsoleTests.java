@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2020 Paul Pazderski and others.
+ * Copyright (c) 2019, 2023 Paul Pazderski and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -58,6 +58,7 @@ import org.eclipse.ui.console.IConsoleDocumentPartitionerExtension;
 import org.eclipse.ui.console.IConsoleManager;
 import org.eclipse.ui.console.IOConsole;
 import org.eclipse.ui.console.IOConsoleOutputStream;
+import org.eclipse.ui.internal.console.IOConsolePartitioner;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -709,6 +710,31 @@ public class IOConsoleTests extends AbstractDebugTest {
 		}
 	}
 
+	/**
+	 * Test that output exceeding the frame budget of the partitioner is appended
+	 * over several runs without loss or reordering.
+	 */
+	@Test
+	public void testFrameBudget() throws Exception {
+		final IOConsoleTestUtil c = getTestUtil("Test frame budget");
+		final IOConsolePartitioner partitioner = (IOConsolePartitioner) c.getPartitioner();
+		partitioner.setFrameBudget(10);
+		assertEquals(10, partitioner.getFrameBudget());
+		try (IOConsoleOutputStream otherOut = c.getConsole().newOutputStream()) {
+			final StringBuilder expected = new StringBuilder();
+			for (int i = 0; i < 50; i++) {
+				final String line = i + " 0123456789\n";
+				c.writeFast(line, i % 3 == 0 ? otherOut : c.getDefaultOutputStream());
+				expected.append(line);
+			}
+			c.waitForScheduledJobs();
+			c.verifyContent(expected.toString()).verifyPartitions();
+			assertTrue("Pending output not recorded.", partitioner.getMaxPendingLength() > 0);
+			assertEquals("Output stream waited.", 0, partitioner.getProducerWaitCount());
+		}
+		closeConsole(c);
+	}
+
 	/**
 	 * Some extra tests for IOConsolePartitioner.
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2020 Paul Pazderski and others.
+ * Copyright (c) 2020, 2023 Paul Pazderski and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -26,6 +26,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
 import org.eclipse.debug.core.IBinaryStreamListener;
+import org.eclipse.debug.core.ICharSequenceStreamListener;
 import org.eclipse.debug.core.IStreamListener;
 import org.eclipse.debug.core.model.IBinaryStreamMonitor;
 import org.eclipse.debug.core.model.IStreamMonitor;
@@ -157,6 +158,107 @@ public class OutputStreamMonitorTests extends AbstractDebugTest {
 		}
 	}
 
+	/**
+	 * Test that a buffered monitor only retains the configured number of
+	 * bytes while listeners still receive everything.
+	 */
+	@Test
+	public void testBufferLimit() throws Exception {
+		byte[] input = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+		try {
+			monitor.setBufferLimit(8);
+			monitor.addBinaryListener(fBinaryListener);
+			monitor.startMonitoring();
+			for (int i = 0; i < input.length; i += 3) {
+				sysout.write(input, i, Math.min(3, input.length - i));
+				sysout.flush();
+			}
+			TestUtil.waitWhile(() -> notifiedBytes.size() < input.length, 1000);
+			assertArrayEquals("Wrong binary content through listener.", input, notifiedBytes.toByteArray());
+			assertEquals("Monitor retained wrong content.", "cdefghij", monitor.getContents());
+
+			monitor.flushContents();
+			assertEquals("Monitor not flushed.", "", monitor.getContents());
+			sysout.write(input, 0, 4);
+			sysout.flush();
+			TestUtil.waitWhile(() -> notifiedBytes.size() < input.length + 4, 1000);
+			assertEquals("Monitor retained wrong content.", "0123", monitor.getContents());
+
+			// decoded content must not outgrow the retained bytes
+			monitor.flushContents();
+			sysout.write(input, 0, 10);
+			sysout.flush();
+			TestUtil.waitWhile(() -> notifiedBytes.size() < input.length + 14, 1000);
+			assertEquals("Monitor retained wrong content.", "23456789", monitor.getContents());
+			sysout.write(input, 10, 3);
+			sysout.flush();
+			TestUtil.waitWhile(() -> notifiedBytes.size() < input.length + 17, 1000);
+			assertEquals("Monitor retained wrong content.", "56789abc", monitor.getContents());
+		} finally {
+			sysout.close();
+			monitor.close();
+		}
+	}
+
+	/**
+	 * Test that buffered content truncated by the retention limit in the
+	 * middle of a multibyte character is decoded from the next character on.
+	 */
+	@Test
+	public void testBufferLimitCharacterBoundary() throws Exception {
+		byte[] input = "ab\u00E4\u00F6\u00FC".getBytes(StandardCharsets.UTF_8);
+		try {
+			monitor.setBufferLimit(5);
+			monitor.addBinaryListener(fBinaryListener);
+			monitor.startMonitoring();
+			sysout.write(input);
+			sysout.flush();
+			TestUtil.waitWhile(() -> notifiedBytes.size() < input.length, 1000);
+			assertEquals("Monitor retained wrong content.", "\u00F6\u00FC", monitor.getContents());
+
+			monitor.setBufferLimit(3);
+			assertEquals("Monitor retained wrong content.", "\u00FC", monitor.getContents());
+		} finally {
+			sysout.close();
+			monitor.close();
+		}
+	}
+
+	/**
+	 * Test that {@link ICharSequenceStreamListener}s receive the same content
+	 * as {@link IStreamListener}s and that buffered content is decoded
+	 * incrementally.
+	 */
+	@Test
+	public void testCharSequenceListener() throws Exception {
+		String input = "o\u00F6O\u00EFiI\u00D6\u00D8\u00F8";
+		byte[] byteInput = input.getBytes(StandardCharsets.UTF_8);
+		StringBuilder notifiedSequences = new StringBuilder();
+		ICharSequenceStreamListener sequenceListener = (text, mon) -> {
+			if (monitor == mon) {
+				notifiedSequences.append(text);
+			}
+		};
+		try {
+			monitor.addListener(sequenceListener);
+			monitor.addListener(fStreamListener);
+			monitor.startMonitoring();
+			for (int i = 0; i < byteInput.length; i += 3) {
+				sysout.write(byteInput, i, Math.min(3, byteInput.length - i));
+				sysout.flush();
+				// access contents between chunks to decode incrementally
+				monitor.getContents();
+			}
+			TestUtil.waitWhile(() -> notifiedChars.length() < input.length(), 1000);
+			assertEquals("Wrong content through listener.", input, notifiedChars.toString());
+			assertEquals("Wrong content through char sequence listener.", input, notifiedSequences.toString());
+			assertEquals("Monitor buffered wrong content.", input, monitor.getContents());
+		} finally {
+			sysout.close();
+			monitor.close();
+		}
+	}
+
 	/**
 	 * Test that passing <code>null</code> as charset does not raise exceptions.
 	 */
@@ -20,18 +20,26 @@ import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IDebugEventSetListener;
 import org.eclipse.debug.core.model.IProcess;
 import org.eclipse.debug.core.model.RuntimeProcess;
 import org.eclipse.debug.internal.core.DebugCoreMessages;
+import org.eclipse.debug.internal.core.IInternalDebugCoreConstants;
+import org.eclipse.debug.internal.core.Preferences;
+import org.eclipse.debug.internal.core.ProcessMonitorExecutor;
 import org.eclipse.debug.tests.AbstractDebugTest;
 import org.eclipse.debug.tests.TestUtil;
 import org.eclipse.debug.tests.sourcelookup.TestLaunch;
@@ -211,6 +219,58 @@ public class RuntimeProcessTests extends AbstractDebugTest {
 		assertEquals(DebugCoreMessages.RuntimeProcess_terminate_failed, timeoutException.getMessage());
 	}
 
+	/**
+	 * Test that many {@link RuntimeProcess}es can be monitored by the shared
+	 * process monitor executor and all of them report termination.
+	 * <p>
+	 * {@link MockProcess} is not a JDK process, so each one is polled for its
+	 * termination rather than awaited through {@link Process#onExit()}. Its
+	 * output streams are empty, so running processes occupy no threads of the
+	 * executor.
+	 * </p>
+	 */
+	@Test
+	public void testSharedProcessMonitoring() throws Exception {
+		final int processCount = 100;
+		Set<Object> terminated = ConcurrentHashMap.newKeySet();
+		AtomicInteger processTerminateEvents = new AtomicInteger();
+		IDebugEventSetListener listener = events -> {
+			for (DebugEvent event : events) {
+				if (event.getKind() == DebugEvent.TERMINATE && event.getSource() instanceof RuntimeProcess) {
+					terminated.add(event.getSource());
+					processTerminateEvents.incrementAndGet();
+				}
+			}
+		};
+		DebugPlugin.getDefault().addDebugEventListener(listener);
+		Preferences.setBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_SHARED_PROCESS_MONITORING, true, InstanceScope.INSTANCE);
+		try {
+			List<MockProcess> mockProcesses = new ArrayList<>();
+			List<RuntimeProcess> runtimeProcesses = new ArrayList<>();
+			for (int i = 0; i < processCount; i++) {
+				MockProcess mockProcess = new MockProcess(MockProcess.RUN_FOREVER);
+				mockProcesses.add(mockProcess);
+				runtimeProcesses.add(mockProcess.toRuntimeProcess("MockProcess " + i));
+			}
+			for (RuntimeProcess runtimeProcess : runtimeProcesses) {
+				assertFalse("RuntimeProcess already terminated.", runtimeProcess.isTerminated());
+			}
+			// idle threads of earlier tests may remain in the pool for a while
+			assertTrue("Running processes block threads: " + ProcessMonitorExecutor.getPoolSize(), ProcessMonitorExecutor.getPoolSize() < processCount / 2);
+			mockProcesses.forEach(MockProcess::destroy);
+
+			TestUtil.waitWhile(() -> terminated.size() < processCount, 10000);
+			for (RuntimeProcess runtimeProcess : runtimeProcesses) {
+				assertTrue("RuntimeProcess not terminated.", runtimeProcess.isTerminated());
+			}
+			TestUtil.waitForJobs(name.getMethodName(), 25, 500);
+			assertEquals("Wrong number of terminate events.", processCount, processTerminateEvents.get());
+		} finally {
+			Preferences.setToDefault(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_SHARED_PROCESS_MONITORING);
+			DebugPlugin.getDefault().removeDebugEventListener(listener);
+		}
+	}
+
 	/**
 	 * See comment in MockProcess.MockProcess().new InputStream() {...}.read()
 	 * for why this test fails
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.events;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.internal.core.DebugEventCoalescer;
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.junit.Test;
+
+/**
+ * Tests folding of redundant change events by {@link DebugEventCoalescer}.
+ */
+@SuppressWarnings("restriction")
+public class DebugEventCoalescerTests extends AbstractDebugTest {
+
+	private final Object fThread = new Object();
+	private final Object fFrame = new Object();
+
+	@Test
+	public void testNothingToFold() {
+		DebugEvent[] events = new DebugEvent[] {
+				new DebugEvent(fThread, DebugEvent.CHANGE, DebugEvent.CONTENT),
+				new DebugEvent(fFrame, DebugEvent.CHANGE, DebugEvent.CONTENT),
+				new DebugEvent(fThread, DebugEvent.CHANGE, DebugEvent.STATE) };
+		assertSame(events, DebugEventCoalescer.coalesce(events));
+	}
+
+	@Test
+	public void testFoldDuplicateChanges() {
+		DebugEvent first = new DebugEvent(fThread, DebugEvent.CHANGE, DebugEvent.CONTENT);
+		DebugEvent frame = new DebugEvent(fFrame, DebugEvent.CHANGE, DebugEvent.STATE);
+		DebugEvent second = new DebugEvent(fThread, DebugEvent.CHANGE, DebugEvent.CONTENT);
+		DebugEvent third = new DebugEvent(fThread, DebugEvent.CHANGE, DebugEvent.CONTENT);
+		DebugEvent[] result = DebugEventCoalescer.coalesce(new DebugEvent[] { first, frame, second, third });
+		assertArrayEquals(new DebugEvent[] { frame, third }, result);
+	}
+
+	@Test
+	public void testKeepOrderAroundOtherEvents() {
+		DebugEvent change1 = new DebugEvent(fThread, DebugEvent.CHANGE, DebugEvent.CONTENT);
+		DebugEvent suspend = new DebugEvent(fThread, DebugEvent.SUSPEND, DebugEvent.STEP_END);
+		DebugEvent change2 = new DebugEvent(fThread, DebugEvent.CHANGE, DebugEvent.CONTENT);
+		DebugEvent resume = new DebugEvent(fThread, DebugEvent.RESUME, DebugEvent.STEP_OVER);
+		DebugEvent change3 = new DebugEvent(fThread, DebugEvent.CHANGE, DebugEvent.CONTENT);
+		DebugEvent[] events = new DebugEvent[] { change1, suspend, change2, resume, change3 };
+		assertSame(events, DebugEventCoalescer.coalesce(events));
+	}
+
+	@Test
+	public void testDifferentDataNotFolded() {
+		DebugEvent first = new DebugEvent(fThread, DebugEvent.CHANGE, DebugEvent.CONTENT);
+		first.setData("a"); //$NON-NLS-1$
+		DebugEvent second = new DebugEvent(fThread, DebugEvent.CHANGE, DebugEvent.CONTENT);
+		second.setData("b"); //$NON-NLS-1$
+		DebugEvent third = new DebugEvent(fThread, DebugEvent.CHANGE, DebugEvent.CONTENT);
+		third.setData("a"); //$NON-NLS-1$
+		DebugEvent[] result = DebugEventCoalescer.coalesce(new DebugEvent[] { first, second, third });
+		assertArrayEquals(new DebugEvent[] { second, third }, result);
+	}
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.events;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IDebugEventSetListener;
+import org.eclipse.debug.internal.core.DebugEventCoalescer;
+import org.eclipse.debug.internal.core.EventDispatchStatistics;
+import org.eclipse.debug.internal.core.IInternalDebugCoreConstants;
+import org.eclipse.debug.internal.core.Preferences;
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.debug.tests.TestUtil;
+import org.junit.Test;
+
+/**
+ * Tests the opt-in coalescing of adjacent debug event sets by the event
+ * dispatch job and its {@link EventDispatchStatistics}.
+ */
+@SuppressWarnings("restriction")
+public class EventDispatchTests extends AbstractDebugTest {
+
+	private final Object fTrigger = new Object();
+	private final Object fFirst = new Object();
+	private final Object fSecond = new Object();
+
+	@Test
+	public void testOwner() {
+		DebugEvent first = new DebugEvent(fFirst, DebugEvent.CHANGE);
+		DebugEvent second = new DebugEvent(fSecond, DebugEvent.CHANGE);
+		assertSame(fFirst, DebugEventCoalescer.getOwner(new DebugEvent[] { first, first }));
+		assertNull(DebugEventCoalescer.getOwner(new DebugEvent[] { first, second }));
+	}
+
+	/**
+	 * Event sets queued while a listener is notified are delivered after it
+	 * returns. If enabled, those of the same owner are coalesced, others are
+	 * not.
+	 */
+	@Test
+	public void testCoalesceRelatedEventSets() throws Exception {
+		final EventDispatchStatistics statistics = EventDispatchStatistics.getDefault();
+		final long queuedBefore = statistics.getQueuedEventSetCount();
+		final long deliveredBefore = statistics.getDeliveryCount();
+		List<DebugEvent[]> received;
+		Preferences.setBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_COALESCE_EVENT_SETS, true, InstanceScope.INSTANCE);
+		try {
+			received = fireRelatedEventSets();
+		} finally {
+			Preferences.setBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_COALESCE_EVENT_SETS, false, InstanceScope.INSTANCE);
+		}
+		assertEquals("Related event sets not coalesced", 2, received.size()); //$NON-NLS-1$
+		DebugEvent[] first = received.get(0);
+		assertEquals(3, first.length);
+		assertEquals(DebugEvent.SUSPEND, first[0].getKind());
+		assertEquals(DebugEvent.CHANGE, first[1].getKind());
+		assertEquals(DebugEvent.RESUME, first[2].getKind());
+		for (DebugEvent event : first) {
+			assertSame(fFirst, event.getSource());
+		}
+		assertEquals(1, received.get(1).length);
+		assertSame(fSecond, received.get(1)[0].getSource());
+		long queued = statistics.getQueuedEventSetCount() - queuedBefore;
+		assertTrue(queued >= 5);
+		assertTrue(statistics.getDeliveryCount() - deliveredBefore < queued);
+	}
+
+	/**
+	 * Event sets are delivered as fired unless coalescing is enabled.
+	 */
+	@Test
+	public void testEventSetsNotCoalescedByDefault() throws Exception {
+		List<DebugEvent[]> received = fireRelatedEventSets();
+		assertEquals(4, received.size());
+		for (DebugEvent[] events : received) {
+			assertEquals(1, events.length);
+		}
+		assertEquals(DebugEvent.SUSPEND, received.get(0)[0].getKind());
+		assertEquals(DebugEvent.CHANGE, received.get(1)[0].getKind());
+		assertEquals(DebugEvent.RESUME, received.get(2)[0].getKind());
+		assertSame(fSecond, received.get(3)[0].getSource());
+	}
+
+	@Test
+	public void testResetStatistics() {
+		EventDispatchStatistics statistics = new EventDispatchStatistics();
+		statistics.queued();
+		statistics.queued();
+		statistics.dequeued(100, true);
+		statistics.delivered();
+		assertEquals(1, statistics.getQueuedEventSetCount());
+		assertEquals(1, statistics.getDeliveryCount());
+		assertEquals(2, statistics.getMaxQueueDepth());
+		assertEquals(100, statistics.getMaxDispatchLatency());
+
+		statistics.reset();
+		assertEquals(0, statistics.getQueuedEventSetCount());
+		assertEquals(0, statistics.getDeliveryCount());
+		assertEquals(0, statistics.getAverageDispatchLatency());
+		assertEquals(0, statistics.getMaxDispatchLatency());
+		assertEquals(1, statistics.getQueueDepth());
+		assertEquals(1, statistics.getMaxQueueDepth());
+	}
+
+	/**
+	 * Fires four event sets, three of the first owner and one of the second,
+	 * while a listener is notified of a trigger event set.
+	 *
+	 * @return the event sets of either owner received by a listener
+	 */
+	private List<DebugEvent[]> fireRelatedEventSets() throws Exception {
+		final List<DebugEvent[]> received = new ArrayList<>();
+		IDebugEventSetListener listener = events -> {
+			List<DebugEvent> relevant = new ArrayList<>();
+			for (DebugEvent event : events) {
+				if (event.getSource() == fTrigger) {
+					fire(fFirst, DebugEvent.SUSPEND);
+					fire(fFirst, DebugEvent.CHANGE);
+					fire(fFirst, DebugEvent.RESUME);
+					fire(fSecond, DebugEvent.CHANGE);
+				} else if (event.getSource() == fFirst || event.getSource() == fSecond) {
+					relevant.add(event);
+				}
+			}
+			if (!relevant.isEmpty()) {
+				synchronized (received) {
+					received.add(relevant.toArray(new DebugEvent[relevant.size()]));
+				}
+			}
+		};
+		DebugPlugin.getDefault().addDebugEventListener(listener);
+		try {
+			fire(fTrigger, DebugEvent.CHANGE);
+			TestUtil.waitWhile(() -> {
+				synchronized (received) {
+					return received.stream().mapToInt(events -> events.length).sum() < 4;
+				}
+			}, 10000);
+		} finally {
+			DebugPlugin.getDefault().removeDebugEventListener(listener);
+		}
+		synchronized (received) {
+			return new ArrayList<>(received);
+		}
+	}
+
+	private static void fire(Object source, int kind) {
+		DebugPlugin.getDefault().fireDebugEventSet(new DebugEvent[] { new DebugEvent(source, kind) });
+	}
+}
@@ -14,21 +14,30 @@
 package org.eclipse.debug.tests.expressions;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.IExpressionListener;
 import org.eclipse.debug.core.IExpressionManager;
 import org.eclipse.debug.core.IExpressionsListener;
+import org.eclipse.debug.core.model.DebugElement;
+import org.eclipse.debug.core.model.IDebugElement;
 import org.eclipse.debug.core.model.IExpression;
 import org.eclipse.debug.core.model.IWatchExpression;
 import org.eclipse.debug.internal.core.ExpressionManager;
 import org.eclipse.debug.internal.core.IExpressionsListener2;
+import org.eclipse.debug.internal.core.WatchExpressionScheduler;
 import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.debug.tests.TestUtil;
+import org.eclipse.debug.tests.expressions.TestWatchExpressionDelegate.Request;
 import org.junit.After;
 import org.junit.Test;
 
@@ -514,6 +523,33 @@ public class ExpressionManagerTests extends AbstractDebugTest {
 		assertEquals("exp5", expressions[4].getExpressionText()); //$NON-NLS-1$
 	}
 
+	/**
+	 * Tests that changed expressions are persisted without an explicit store,
+	 * including expression texts with markup and control characters.
+	 */
+	@Test
+	public void testDeferredPersistence() throws Exception {
+		ExpressionManager manager = (ExpressionManager) getManager();
+		String special = "a < b && c > \"d\"\n\te"; //$NON-NLS-1$
+		IWatchExpression exp1 = manager.newWatchExpression("exp1"); //$NON-NLS-1$
+		IWatchExpression exp2 = manager.newWatchExpression(special);
+		IWatchExpression exp3 = manager.newWatchExpression("exp3"); //$NON-NLS-1$
+		manager.addExpressions(new IExpression[] { exp1, exp2, exp3 });
+		exp2.setEnabled(false);
+		manager.moveExpressions(new IExpression[] { exp3 }, exp1, true);
+
+		waitWhile(t -> {
+			IExpression[] persisted = new ExpressionManager().getExpressions();
+			return persisted.length != 3 || !persisted[0].getExpressionText().equals("exp3"); //$NON-NLS-1$
+		}, t -> "Expressions not persisted"); //$NON-NLS-1$
+		IExpression[] expressions = new ExpressionManager().getExpressions();
+		assertEquals("exp3", expressions[0].getExpressionText()); //$NON-NLS-1$
+		assertEquals("exp1", expressions[1].getExpressionText()); //$NON-NLS-1$
+		assertEquals(special, expressions[2].getExpressionText());
+		assertFalse(((IWatchExpression) expressions[2]).isEnabled());
+		assertTrue(((IWatchExpression) expressions[1]).isEnabled());
+	}
+
 	/**
 	 * Tests concurrent access to expressions.
 	 *
@@ -552,4 +588,156 @@ public class ExpressionManagerTests extends AbstractDebugTest {
 		assertNull(ex[0]);
 	}
 
+	/**
+	 * Returns a debug element without debug target for the test watch
+	 * expression delegate.
+	 */
+	private static IDebugElement newContext() {
+		return new DebugElement(null) {
+			@Override
+			public String getModelIdentifier() {
+				return TestWatchExpressionDelegate.MODEL;
+			}
+		};
+	}
+
+	/**
+	 * Tests that the watch expression scheduler limits the number of
+	 * outstanding evaluations and evaluates identical expression texts once.
+	 */
+	@Test
+	public void testScheduleEvaluations() {
+		TestWatchExpressionDelegate.reset();
+		IDebugElement context = newContext();
+		List<IWatchExpression> expressions = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			IWatchExpression expression = getManager().newWatchExpression("exp" + (i % 5)); //$NON-NLS-1$
+			expression.setExpressionContext(context);
+			expressions.add(expression);
+		}
+		assertEquals(WatchExpressionScheduler.MAX_EVALUATIONS_PER_TARGET, TestWatchExpressionDelegate.getPending().size());
+		for (IWatchExpression expression : expressions) {
+			assertTrue(expression.isPending());
+		}
+		List<Request> pending;
+		while (!(pending = TestWatchExpressionDelegate.getPending()).isEmpty()) {
+			TestWatchExpressionDelegate.complete(pending.get(0));
+		}
+		assertEquals(5, TestWatchExpressionDelegate.getCount());
+		for (IWatchExpression expression : expressions) {
+			assertFalse(expression.isPending());
+			assertTrue(expression.getErrorMessages()[0].startsWith(expression.getExpressionText() + '#'));
+		}
+
+		// the result is shared while the context does not change
+		IWatchExpression another = getManager().newWatchExpression("exp0"); //$NON-NLS-1$
+		another.setExpressionContext(context);
+		assertFalse(another.isPending());
+		assertEquals(5, TestWatchExpressionDelegate.getCount());
+		assertEquals(expressions.get(0).getErrorMessages()[0], another.getErrorMessages()[0]);
+
+		// an explicit evaluation asks the delegate again
+		another.evaluate();
+		assertEquals(6, TestWatchExpressionDelegate.getCount());
+		TestWatchExpressionDelegate.complete(TestWatchExpressionDelegate.getPending().get(0));
+		assertEquals("exp0#6", another.getErrorMessages()[0]); //$NON-NLS-1$
+
+		WatchExpressionScheduler.EvaluationStatistics statistics = ((ExpressionManager) getManager()).getWatchExpressionScheduler().getStatistics().get(TestWatchExpressionDelegate.MODEL);
+		assertNotNull(statistics);
+		assertTrue(statistics.getCount() >= 6);
+	}
+
+	/**
+	 * Tests that the result of an evaluation in a previous context is
+	 * discarded once the expression is evaluated in a new context.
+	 */
+	@Test
+	public void testCancelStaleEvaluation() {
+		TestWatchExpressionDelegate.reset();
+		IWatchExpression expression = getManager().newWatchExpression("stale"); //$NON-NLS-1$
+		expression.setExpressionContext(newContext());
+		expression.setExpressionContext(newContext());
+		List<Request> pending = TestWatchExpressionDelegate.getPending();
+		assertEquals(2, pending.size());
+
+		TestWatchExpressionDelegate.complete(pending.get(0));
+		assertTrue(expression.isPending());
+		assertEquals(0, expression.getErrorMessages().length);
+
+		TestWatchExpressionDelegate.complete(pending.get(1));
+		assertFalse(expression.isPending());
+		assertEquals("stale#2", expression.getErrorMessages()[0]); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that an evaluation started before the state of the target changed
+	 * is not shared with expressions evaluated afterwards.
+	 */
+	@Test
+	public void testNoSharingAcrossStateChange() {
+		TestWatchExpressionDelegate.reset();
+		IDebugElement context = newContext();
+		IWatchExpression before = getManager().newWatchExpression("changed"); //$NON-NLS-1$
+		before.setExpressionContext(context);
+		((ExpressionManager) getManager()).getWatchExpressionScheduler().handleDebugEvents(new DebugEvent[] {
+				new DebugEvent(context, DebugEvent.CHANGE, DebugEvent.CONTENT) });
+		IWatchExpression after = getManager().newWatchExpression("changed"); //$NON-NLS-1$
+		after.setExpressionContext(context);
+		List<Request> pending = TestWatchExpressionDelegate.getPending();
+		assertEquals(2, pending.size());
+
+		TestWatchExpressionDelegate.complete(pending.get(0));
+		assertEquals("changed#1", before.getErrorMessages()[0]); //$NON-NLS-1$
+		assertTrue(after.isPending());
+		TestWatchExpressionDelegate.complete(pending.get(1));
+		assertEquals("changed#2", after.getErrorMessages()[0]); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a started evaluation no expression waits for anymore gives
+	 * up its slot, so that queued evaluations of the target can start.
+	 */
+	@Test
+	public void testCancelReleasesSlot() {
+		TestWatchExpressionDelegate.reset();
+		IDebugElement context = newContext();
+		List<IWatchExpression> expressions = new ArrayList<>();
+		for (int i = 0; i <= WatchExpressionScheduler.MAX_EVALUATIONS_PER_TARGET; i++) {
+			IWatchExpression expression = getManager().newWatchExpression("slot" + i); //$NON-NLS-1$
+			expression.setExpressionContext(context);
+			expressions.add(expression);
+		}
+		assertEquals(WatchExpressionScheduler.MAX_EVALUATIONS_PER_TARGET, TestWatchExpressionDelegate.getPending().size());
+		expressions.get(0).setExpressionContext(null);
+		assertEquals(WatchExpressionScheduler.MAX_EVALUATIONS_PER_TARGET + 1, TestWatchExpressionDelegate.getPending().size());
+		assertTrue(expressions.get(WatchExpressionScheduler.MAX_EVALUATIONS_PER_TARGET).isPending());
+	}
+
+	/**
+	 * Tests that evaluations a delegate does not complete in time do not
+	 * block the target, and that their results are still delivered.
+	 */
+	@Test
+	public void testEvaluationTimeout() throws Exception {
+		TestWatchExpressionDelegate.reset();
+		WatchExpressionScheduler scheduler = ((ExpressionManager) getManager()).getWatchExpressionScheduler();
+		scheduler.setEvaluationTimeout(100);
+		try {
+			IDebugElement context = newContext();
+			List<IWatchExpression> expressions = new ArrayList<>();
+			for (int i = 0; i < 2 * WatchExpressionScheduler.MAX_EVALUATIONS_PER_TARGET; i++) {
+				IWatchExpression expression = getManager().newWatchExpression("hung" + i); //$NON-NLS-1$
+				expression.setExpressionContext(context);
+				expressions.add(expression);
+			}
+			TestUtil.waitWhile(() -> TestWatchExpressionDelegate.getPending().size() < expressions.size(), 5000);
+			assertEquals(expressions.size(), TestWatchExpressionDelegate.getPending().size());
+
+			TestWatchExpressionDelegate.complete(TestWatchExpressionDelegate.getPending().get(0));
+			assertFalse(expressions.get(0).isPending());
+			assertEquals("hung0#1", expressions.get(0).getErrorMessages()[0]); //$NON-NLS-1$
+		} finally {
+			scheduler.setEvaluationTimeout(WatchExpressionScheduler.DEFAULT_EVALUATION_TIMEOUT);
+		}
+	}
 }
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.expressions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.model.IDebugElement;
+import org.eclipse.debug.core.model.IValue;
+import org.eclipse.debug.core.model.IWatchExpressionDelegate;
+import org.eclipse.debug.core.model.IWatchExpressionListener;
+import org.eclipse.debug.core.model.IWatchExpressionResult;
+
+/**
+ * Watch expression delegate which records evaluation requests, tests complete
+ * them explicitly. The result of an evaluation reports the expression text
+ * and the number of the request as error message.
+ */
+public class TestWatchExpressionDelegate implements IWatchExpressionDelegate {
+
+	/**
+	 * Debug model the delegate is contributed for.
+	 */
+	public static final String MODEL = "org.eclipse.debug.tests.watch"; //$NON-NLS-1$
+
+	static class Request {
+		final String fExpression;
+		final IDebugElement fContext;
+		final IWatchExpressionListener fListener;
+		final int fNumber;
+
+		Request(String expression, IDebugElement context, IWatchExpressionListener listener, int number) {
+			fExpression = expression;
+			fContext = context;
+			fListener = listener;
+			fNumber = number;
+		}
+
+		/**
+		 * Completes the evaluation.
+		 */
+		void complete() {
+			String message = fExpression + '#' + fNumber;
+			fListener.watchEvaluationFinished(new IWatchExpressionResult() {
+				@Override
+				public IValue getValue() {
+					return null;
+				}
+
+				@Override
+				public boolean hasErrors() {
+					return true;
+				}
+
+				@Override
+				public String[] getErrorMessages() {
+					return new String[] { message };
+				}
+
+				@Override
+				public String getExpressionText() {
+					return fExpression;
+				}
+
+				@Override
+				public DebugException getException() {
+					return null;
+				}
+			});
+		}
+	}
+
+	private static final List<Request> fgPending = new ArrayList<>();
+	private static int fgCount;
+
+	@Override
+	public void evaluateExpression(String expression, IDebugElement context, IWatchExpressionListener listener) {
+		synchronized (fgPending) {
+			fgPending.add(new Request(expression, context, listener, ++fgCount));
+		}
+	}
+
+	/**
+	 * @return the requests which have not been completed yet
+	 */
+	static List<Request> getPending() {
+		synchronized (fgPending) {
+			return new ArrayList<>(fgPending);
+		}
+	}
+
+	/**
+	 * Completes the given request.
+	 */
+	static void complete(Request request) {
+		synchronized (fgPending) {
+			fgPending.remove(request);
+		}
+		request.complete();
+	}
+
+	/**
+	 * @return number of evaluation requests since the last reset
+	 */
+	static int getCount() {
+		synchronized (fgPending) {
+			return fgCount;
+		}
+	}
+
+	/**
+	 * Forgets all requests.
+	 */
+	static void reset() {
+		synchronized (fgPending) {
+			fgPending.clear();
+			fgCount = 0;
+		}
+	}
+}
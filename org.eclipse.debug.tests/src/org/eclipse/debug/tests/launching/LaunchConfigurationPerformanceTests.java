@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.launching;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationType;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+import org.junit.Test;
+
+/**
+ * Measures reading and writing of launch configuration files with large list,
+ * set and map attributes, such as environment variables and class path
+ * entries.
+ */
+public class LaunchConfigurationPerformanceTests extends AbstractLaunchTest {
+
+	private static final int ENTRY_COUNT = 2000;
+	private static final int ITERATIONS = 20;
+
+	public String getDefaultScenarioId() {
+		return this.getClass().getName() + '#' + name.getMethodName() + "()"; //$NON-NLS-1$
+	}
+
+	private ILaunchConfigurationWorkingCopy newLargeConfiguration(String configName) throws Exception {
+		ILaunchConfigurationType type = getLaunchManager().getLaunchConfigurationType(LaunchConfigurationTests.ID_TEST_LAUNCH_TYPE);
+		ILaunchConfigurationWorkingCopy wc = type.newInstance(null, configName);
+		Map<String, String> environment = new HashMap<>();
+		List<String> classpath = new ArrayList<>();
+		Set<String> entries = new HashSet<>();
+		for (int i = 0; i < ENTRY_COUNT; i++) {
+			environment.put("VARIABLE_" + i, "/some/path/with <special> & \"quoted\" characters/" + i); //$NON-NLS-1$ //$NON-NLS-2$
+			classpath.add("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<runtimeClasspathEntry path=\"3\" projectName=\"project" + i + "\" type=\"1\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			entries.add("entry" + i); //$NON-NLS-1$
+		}
+		wc.setAttribute(ILaunchManager.ATTR_ENVIRONMENT_VARIABLES, environment);
+		wc.setAttribute("classpath", classpath); //$NON-NLS-1$
+		wc.setAttribute("set", entries); //$NON-NLS-1$
+		return wc;
+	}
+
+	/**
+	 * Measures saving a configuration with large attributes.
+	 */
+	@Test
+	public void testSaveLargeConfiguration() throws Exception {
+		ILaunchConfigurationWorkingCopy wc = newLargeConfiguration("perf-save"); //$NON-NLS-1$
+		ILaunchConfiguration config = wc.doSave();
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(getDefaultScenarioId());
+		try {
+			for (int i = 0; i < ITERATIONS; i++) {
+				ILaunchConfigurationWorkingCopy copy = config.getWorkingCopy();
+				copy.setAttribute("iteration", i); //$NON-NLS-1$
+				meter.start();
+				config = copy.doSave();
+				meter.stop();
+			}
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+			config.delete();
+		}
+	}
+
+	/**
+	 * Measures reading the attributes of a configuration with large
+	 * attributes from its file.
+	 */
+	@Test
+	public void testReadLargeConfiguration() throws Exception {
+		ILaunchConfiguration config = newLargeConfiguration("perf-read").doSave(); //$NON-NLS-1$
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(getDefaultScenarioId());
+		try {
+			for (int i = 0; i < ITERATIONS; i++) {
+				// saving discards the cached attributes, so they are read from the file again
+				ILaunchConfigurationWorkingCopy copy = config.getWorkingCopy();
+				copy.setAttribute("iteration", i); //$NON-NLS-1$
+				config = copy.doSave();
+				meter.start();
+				Map<String, Object> attributes = config.getAttributes();
+				meter.stop();
+				assertEquals(ENTRY_COUNT, ((Map<?, ?>) attributes.get(ILaunchManager.ATTR_ENVIRONMENT_VARIABLES)).size());
+			}
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+			config.delete();
+		}
+	}
+}
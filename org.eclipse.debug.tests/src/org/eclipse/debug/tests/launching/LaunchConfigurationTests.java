@@ -32,7 +32,12 @@ import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -69,6 +74,7 @@ import org.eclipse.debug.core.ILaunchesListener2;
 import org.eclipse.debug.core.Launch;
 import org.eclipse.debug.core.model.IProcess;
 import org.eclipse.debug.internal.core.LaunchConfiguration;
+import org.eclipse.debug.internal.core.LaunchConfigurationMetadataCache;
 import org.eclipse.debug.internal.core.LaunchManager;
 import org.eclipse.debug.tests.TestsPlugin;
 import org.eclipse.debug.tests.console.MockProcess;
@@ -2003,4 +2009,223 @@ public class LaunchConfigurationTests extends AbstractLaunchTest implements ILau
 
 	}
 
+	/**
+	 * Tests that the persisted metadata of a launch configuration survives a
+	 * time stamp change of an unchanged file, and is discarded once the file
+	 * content changes.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testMetadataCache() throws Exception {
+		LaunchManager manager = (LaunchManager) getLaunchManager();
+		ILaunchConfigurationWorkingCopy wc = newConfiguration(null, "metadata-cache"); //$NON-NLS-1$
+		wc.setMappedResources(new IResource[] { getProject() });
+		LaunchConfiguration config = (LaunchConfiguration) wc.doSave();
+		try {
+			// reading attributes parses the file and records its metadata
+			config.getAttributes();
+			manager.getMetadataCache().flush();
+			File cacheFile = DebugPlugin.getDefault().getStateLocation().append(LaunchConfigurationMetadataCache.FILE_NAME).toFile();
+
+			LaunchConfigurationMetadataCache.Metadata metadata = new LaunchConfigurationMetadataCache(cacheFile).get(config);
+			assertNotNull("Metadata should be persisted", metadata); //$NON-NLS-1$
+			assertEquals(ID_TEST_LAUNCH_TYPE, metadata.getTypeId());
+			assertFalse(metadata.isPrototype());
+			assertEquals(Arrays.asList(getProject().getFullPath().toPortableString()), metadata.getMappedResourcePaths());
+
+			File file = config.getLocation().toFile();
+			assertTrue(file.setLastModified(file.lastModified() - 10000));
+			assertNotNull("Metadata should survive a touched file", new LaunchConfigurationMetadataCache(cacheFile).get(config)); //$NON-NLS-1$
+
+			Files.write(file.toPath(), System.lineSeparator().getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+			assertNull("Metadata of a modified file should be discarded", new LaunchConfigurationMetadataCache(cacheFile).get(config)); //$NON-NLS-1$
+		} finally {
+			config.delete();
+		}
+	}
+
+	/**
+	 * Tests that persisted metadata of a launch configuration whose file no
+	 * longer exists is dropped when the cache is loaded.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testMetadataCacheDropsDeletedFiles() throws Exception {
+		LaunchManager manager = (LaunchManager) getLaunchManager();
+		LaunchConfiguration config = (LaunchConfiguration) newConfiguration(null, "metadata-cache-deleted").doSave(); //$NON-NLS-1$
+		File cacheFile = DebugPlugin.getDefault().getStateLocation().append(LaunchConfigurationMetadataCache.FILE_NAME).toFile();
+		File copy = new File(cacheFile.getParentFile(), cacheFile.getName() + ".test"); //$NON-NLS-1$
+		try {
+			config.getAttributes();
+			manager.getMetadataCache().flush();
+			Files.copy(cacheFile.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			int size = new LaunchConfigurationMetadataCache(copy).size();
+			assertTrue(size > 0);
+
+			// the copy still has the entry, as if the workbench had crashed
+			config.delete();
+			LaunchConfigurationMetadataCache cache = new LaunchConfigurationMetadataCache(copy);
+			assertEquals("Entry of a deleted file should be dropped", size - 1, cache.size()); //$NON-NLS-1$
+			cache.flush();
+			assertEquals(size - 1, new LaunchConfigurationMetadataCache(copy).size());
+		} finally {
+			copy.delete();
+			config.delete();
+		}
+	}
+
+	/**
+	 * Tests that working copies sharing the attributes of their original do
+	 * not affect each other and still compare by content.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testCopyOnWriteAttributes() throws Exception {
+		ILaunchConfiguration config = newConfiguration(null, "copy-on-write").doSave(); //$NON-NLS-1$
+		try {
+			ILaunchConfigurationWorkingCopy wc = config.getWorkingCopy();
+			assertTrue(config.contentsEqual(wc));
+			wc.setAttribute("String1", "changed"); //$NON-NLS-1$ //$NON-NLS-2$
+			wc.removeAttribute("Int1"); //$NON-NLS-1$
+			wc.setAttribute("New", "new"); //$NON-NLS-1$ //$NON-NLS-2$
+			assertFalse(config.contentsEqual(wc));
+			assertEquals("String1", config.getAttribute("String1", "")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			assertTrue(config.hasAttribute("Int1")); //$NON-NLS-1$
+			assertFalse(config.hasAttribute("New")); //$NON-NLS-1$
+			assertEquals(4, config.getAttributes().size());
+			assertEquals(4, wc.getAttributes().size());
+
+			// reverting the changes in a nested working copy
+			ILaunchConfigurationWorkingCopy nested = wc.getWorkingCopy();
+			nested.setAttribute("String1", "String1"); //$NON-NLS-1$ //$NON-NLS-2$
+			nested.setAttribute("Int1", 1); //$NON-NLS-1$
+			nested.removeAttribute("New"); //$NON-NLS-1$
+			assertTrue(config.contentsEqual(nested));
+			assertFalse(config.contentsEqual(wc));
+			nested.doSave();
+			assertTrue(config.contentsEqual(wc));
+			assertEquals(config.getAttributes(), wc.getAttributes());
+			wc.setAttribute("String1", "changed again"); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals("String1", nested.getAttribute("String1", "")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+			// many changes
+			for (int i = 0; i < 20; i++) {
+				wc.setAttribute("Added" + i, i); //$NON-NLS-1$
+			}
+			assertEquals(24, wc.getAttributes().size());
+			assertEquals(4, config.getAttributes().size());
+			config = wc.doSave();
+			assertEquals(24, config.getAttributes().size());
+			assertEquals("changed again", config.getAttribute("String1", "")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		} finally {
+			config.delete();
+		}
+	}
+
+	/**
+	 * Tests that launch configuration files are written exactly as the DOM
+	 * serializer used to write them, and read back unchanged.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testXMLSerializationCompatibility() throws Exception {
+		ILaunchConfigurationWorkingCopy wc = newConfiguration(null, "xml-compatibility"); //$NON-NLS-1$
+		String special = "line1\nline2\r\n\ttab \"quoted\" 'single' <tag> & \u00e9\u20ac\ud83d\ude00"; //$NON-NLS-1$
+		wc.setAttribute("Special", special); //$NON-NLS-1$
+		wc.setAttribute("List", Arrays.asList("b", special, "")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		wc.setAttribute("EmptyList", new ArrayList<String>()); //$NON-NLS-1$
+		Map<String, String> map = new HashMap<>();
+		map.put("z", "last"); //$NON-NLS-1$ //$NON-NLS-2$
+		map.put("a", special); //$NON-NLS-1$
+		wc.setAttribute("Map", map); //$NON-NLS-1$
+		wc.setAttribute("Set", new HashSet<>(Arrays.asList("y", "x", special))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		ILaunchConfiguration config = wc.doSave();
+		try {
+			String content = new String(Files.readAllBytes(config.getLocation().toFile().toPath()), StandardCharsets.UTF_8);
+			String delimiter = content.contains("\r\n") ? "\r\n" : "\n"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			assertEquals(serializeWithDOM(config, delimiter), content);
+			assertEquals(wc.getAttributes(), config.getAttributes());
+		} finally {
+			config.delete();
+		}
+	}
+
+	/**
+	 * Tests that C1 control characters and the Unicode line and paragraph
+	 * separators are escaped as the DOM serializer escapes them, and read
+	 * back unchanged.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testXMLSerializationC1Controls() throws Exception {
+		ILaunchConfigurationWorkingCopy wc = newConfiguration(null, "xml-c1-controls"); //$NON-NLS-1$
+		StringBuilder value = new StringBuilder();
+		for (char c = 0x7E; c <= 0xA0; c++) {
+			value.append(c);
+		}
+		value.append("\u2028\u2029"); //$NON-NLS-1$
+		wc.setAttribute("Controls", value.toString()); //$NON-NLS-1$
+		wc.setAttribute("ControlList", Arrays.asList(value.toString(), "\u0085")); //$NON-NLS-1$ //$NON-NLS-2$
+		Map<String, String> map = new HashMap<>();
+		map.put("\u2028", value.toString()); //$NON-NLS-1$
+		wc.setAttribute("ControlMap", map); //$NON-NLS-1$
+		ILaunchConfiguration config = wc.doSave();
+		try {
+			String content = new String(Files.readAllBytes(config.getLocation().toFile().toPath()), StandardCharsets.UTF_8);
+			String delimiter = content.contains("\r\n") ? "\r\n" : "\n"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			assertEquals(serializeWithDOM(config, delimiter), content);
+			assertEquals(wc.getAttributes(), config.getAttributes());
+		} finally {
+			config.delete();
+		}
+	}
+
+	/**
+	 * Serializes the attributes of the given configuration the way launch
+	 * configurations were written with a DOM.
+	 */
+	@SuppressWarnings("unchecked")
+	private String serializeWithDOM(ILaunchConfiguration config, String delimiter) throws Exception {
+		org.w3c.dom.Document doc = LaunchManager.getDocument();
+		org.w3c.dom.Element root = doc.createElement("launchConfiguration"); //$NON-NLS-1$
+		doc.appendChild(root);
+		root.setAttribute("type", config.getType().getIdentifier()); //$NON-NLS-1$
+		for (Map.Entry<String, Object> entry : new java.util.TreeMap<>(config.getAttributes()).entrySet()) {
+			Object value = entry.getValue();
+			org.w3c.dom.Element element;
+			if (value instanceof List || value instanceof Set) {
+				boolean isList = value instanceof List;
+				element = doc.createElement(isList ? "listAttribute" : "setAttribute"); //$NON-NLS-1$ //$NON-NLS-2$
+				List<String> values = new ArrayList<>((Collection<String>) value);
+				if (!isList) {
+					Collections.sort(values);
+				}
+				for (String v : values) {
+					org.w3c.dom.Element child = doc.createElement(isList ? "listEntry" : "setEntry"); //$NON-NLS-1$ //$NON-NLS-2$
+					child.setAttribute("value", v); //$NON-NLS-1$
+					element.appendChild(child);
+				}
+			} else if (value instanceof Map) {
+				element = doc.createElement("mapAttribute"); //$NON-NLS-1$
+				for (Map.Entry<String, String> e : new java.util.TreeMap<>((Map<String, String>) value).entrySet()) {
+					org.w3c.dom.Element child = doc.createElement("mapEntry"); //$NON-NLS-1$
+					child.setAttribute("key", e.getKey()); //$NON-NLS-1$
+					child.setAttribute("value", e.getValue()); //$NON-NLS-1$
+					element.appendChild(child);
+				}
+			} else {
+				String type = value instanceof String ? "stringAttribute" : value instanceof Integer ? "intAttribute" : "booleanAttribute"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				element = doc.createElement(type);
+				element.setAttribute("value", value.toString()); //$NON-NLS-1$
+			}
+			element.setAttribute("key", entry.getKey()); //$NON-NLS-1$
+			root.appendChild(element);
+		}
+		return LaunchManager.serializeDocument(doc, delimiter);
+	}
 }
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.launching;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationType;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.debug.internal.core.LaunchManager;
+import org.eclipse.debug.tests.TestsPlugin;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares the indexed launch configuration queries of the launch manager
+ * with a scan over all launch configurations.
+ */
+@SuppressWarnings("restriction")
+public class LaunchManagerPerformanceTests extends AbstractLaunchTest {
+
+	private static final int CONFIGURATION_COUNT = 500;
+	private static final int QUERY_COUNT = 200;
+
+	private final List<ILaunchConfiguration> fConfigurations = new ArrayList<>();
+	private ILaunchConfigurationType fType;
+	private IProject fProject;
+
+	public String getDefaultScenarioId() {
+		return this.getClass().getName() + '#' + name.getMethodName() + "()"; //$NON-NLS-1$
+	}
+
+	@Override
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		fType = getLaunchManager().getLaunchConfigurationType(LaunchConfigurationTests.ID_TEST_LAUNCH_TYPE);
+		fProject = TestsPlugin.createProject("LaunchManagerPerformanceTests"); //$NON-NLS-1$
+		for (int i = 0; i < CONFIGURATION_COUNT; i++) {
+			ILaunchConfigurationWorkingCopy wc = fType.newInstance(null, "perf-config-" + i); //$NON-NLS-1$
+			wc.setMappedResources(new IResource[] { fProject.getFile("file" + i + ".txt") }); //$NON-NLS-1$ //$NON-NLS-2$
+			fConfigurations.add(wc.doSave());
+		}
+	}
+
+	@Override
+	@After
+	public void tearDown() throws Exception {
+		for (ILaunchConfiguration config : fConfigurations) {
+			config.delete();
+		}
+		fConfigurations.clear();
+		super.tearDown();
+	}
+
+	/**
+	 * Queries by type, kind and mapped resource using the launch manager's
+	 * indexes.
+	 */
+	@Test
+	public void testIndexedQueries() throws Exception {
+		LaunchManager manager = (LaunchManager) getLaunchManager();
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(getDefaultScenarioId());
+		try {
+			for (int i = 0; i < 10; i++) {
+				meter.start();
+				int found = 0;
+				for (int j = 0; j < QUERY_COUNT; j++) {
+					found += manager.getLaunchConfigurations(fType, ILaunchConfiguration.CONFIGURATION).length;
+					found += manager.getLaunchConfigurations(ILaunchConfiguration.PROTOTYPE).length;
+					found += manager.getMappedConfigurations(fProject).length;
+				}
+				meter.stop();
+				assertEquals(expectedCount(), found);
+			}
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+		}
+	}
+
+	/**
+	 * Runs the same queries as {@link #testIndexedQueries()} by scanning all
+	 * launch configurations, as the launch manager did before it maintained
+	 * indexes.
+	 */
+	@Test
+	public void testLinearQueries() throws Exception {
+		LaunchManager manager = (LaunchManager) getLaunchManager();
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(getDefaultScenarioId());
+		try {
+			for (int i = 0; i < 10; i++) {
+				meter.start();
+				int found = 0;
+				for (int j = 0; j < QUERY_COUNT; j++) {
+					for (ILaunchConfiguration config : manager.getAllLaunchConfigurations()) {
+						if (config.getType().equals(fType) && (config.getKind() & ILaunchConfiguration.CONFIGURATION) > 0) {
+							found++;
+						}
+						if ((config.getKind() & ILaunchConfiguration.PROTOTYPE) > 0) {
+							found++;
+						}
+						if (isMapped(config, fProject)) {
+							found++;
+						}
+					}
+				}
+				meter.stop();
+				assertEquals(expectedCount(), found);
+			}
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+		}
+	}
+
+	private int expectedCount() throws CoreException {
+		LaunchManager manager = (LaunchManager) getLaunchManager();
+		return QUERY_COUNT * (manager.getLaunchConfigurations(fType, ILaunchConfiguration.CONFIGURATION).length + manager.getLaunchConfigurations(ILaunchConfiguration.PROTOTYPE).length + manager.getMappedConfigurations(fProject).length);
+	}
+
+	private static boolean isMapped(ILaunchConfiguration config, IProject project) throws CoreException {
+		IResource[] resources = config.getMappedResources();
+		if (resources != null) {
+			for (IResource res : resources) {
+				if (res.equals(project) || (res.getType() == IResource.FILE && res.getProject().equals(project))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
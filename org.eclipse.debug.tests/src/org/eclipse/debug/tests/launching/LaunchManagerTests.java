@@ -16,10 +16,24 @@ package org.eclipse.debug.tests.launching;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Platform;
@@ -29,6 +43,7 @@ import org.eclipse.debug.core.ILaunchConfigurationType;
 import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.debug.core.ILaunchManager;
 import org.eclipse.debug.internal.core.LaunchManager;
+import org.eclipse.debug.tests.TestsPlugin;
 import org.eclipse.debug.tests.launching.CancellingLaunchDelegate.CancellingLaunch;
 import org.eclipse.debug.tests.launching.ThrowingLaunchDelegate.ThrowingEnum;
 import org.eclipse.debug.tests.launching.ThrowingLaunchDelegate.ThrowingLaunch;
@@ -506,4 +521,160 @@ public class LaunchManagerTests extends AbstractLaunchTest {
 	public void testThrowingLaunch() throws Exception {
 		testThrowingLaunchDelegateMethod(ThrowingEnum.launch);
 	}
+
+	/**
+	 * Tests that indexed launch configuration queries of the launch manager
+	 * agree with a scan of all configurations while configurations are added,
+	 * changed and deleted.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testIndexedQueries() throws Exception {
+		LaunchManager manager = (LaunchManager) getLaunchManager();
+		ILaunchConfigurationType type = manager.getLaunchConfigurationType(LaunchConfigurationTests.ID_TEST_LAUNCH_TYPE);
+		IProject project = TestsPlugin.createProject("LaunchManagerIndexTests"); //$NON-NLS-1$
+		IFile file = project.getFile("mapped.txt"); //$NON-NLS-1$
+		List<ILaunchConfiguration> created = new ArrayList<>();
+		try {
+			ILaunchConfigurationWorkingCopy wc = type.newInstance(null, "indexed-local"); //$NON-NLS-1$
+			wc.setMappedResources(new IResource[] { file });
+			created.add(wc.doSave());
+			wc = type.newInstance(project, "indexed-shared"); //$NON-NLS-1$
+			wc.setMappedResources(new IResource[] { project });
+			created.add(wc.doSave());
+			created.add(type.newPrototypeInstance(null, "indexed-prototype").doSave()); //$NON-NLS-1$
+			assertIndexedQueries(manager, type, project, file);
+
+			// changing the mapping must move the configuration between buckets
+			wc = created.get(0).getWorkingCopy();
+			wc.setMappedResources(null);
+			created.set(0, wc.doSave());
+			assertIndexedQueries(manager, type, project, file);
+			assertFalse(Arrays.asList(manager.getMappedConfigurations(file)).contains(created.get(0)));
+			assertTrue(Arrays.asList(manager.getMappedConfigurations(project)).contains(created.get(1)));
+		} finally {
+			for (ILaunchConfiguration config : created) {
+				config.delete();
+			}
+		}
+		assertIndexedQueries(manager, type, project, file);
+		assertEquals(0, manager.getMappedConfigurations(project).length);
+	}
+
+	/**
+	 * Tests that the initial load of a launch manager, which validates enough
+	 * configurations in parallel, finds all configurations and prototypes and
+	 * that prototype links still resolve. Concurrent callers share the result
+	 * of one load.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testParallelInitialLoad() throws Exception {
+		ILaunchConfigurationType type = getLaunchManager().getLaunchConfigurationType(LaunchConfigurationTests.ID_TEST_LAUNCH_TYPE);
+		List<ILaunchConfiguration> created = new ArrayList<>();
+		try {
+			ILaunchConfiguration prototype = type.newPrototypeInstance(null, "parallel-prototype").doSave(); //$NON-NLS-1$
+			created.add(prototype);
+			for (int i = 0; i < 64; i++) {
+				ILaunchConfigurationWorkingCopy wc = type.newInstance(null, "parallel-config-" + i); //$NON-NLS-1$
+				wc.setPrototype(prototype, true);
+				created.add(wc.doSave());
+			}
+			LaunchManager manager = new LaunchManager();
+			try {
+				List<CompletableFuture<List<ILaunchConfiguration>>> loads = new ArrayList<>();
+				for (int i = 0; i < 4; i++) {
+					loads.add(CompletableFuture.supplyAsync(manager::getAllLaunchConfigurations));
+				}
+				List<ILaunchConfiguration> all = loads.get(0).get(30, TimeUnit.SECONDS);
+				for (CompletableFuture<List<ILaunchConfiguration>> load : loads) {
+					assertSame(all, load.get(30, TimeUnit.SECONDS));
+				}
+				Set<ILaunchConfiguration> loaded = new HashSet<>(all);
+				assertTrue(loaded.containsAll(created));
+				assertTrue(Arrays.asList(manager.getLaunchConfigurations(ILaunchConfiguration.PROTOTYPE)).contains(prototype));
+				assertEquals(new HashSet<>(Arrays.asList(getLaunchManager().getLaunchConfigurations(type))), new HashSet<>(Arrays.asList(manager.getLaunchConfigurations(type))));
+				for (ILaunchConfiguration config : created.subList(1, created.size())) {
+					assertEquals(prototype, config.getPrototype());
+				}
+			} finally {
+				ResourcesPlugin.getWorkspace().removeResourceChangeListener(manager);
+			}
+		} finally {
+			for (ILaunchConfiguration config : created) {
+				config.delete();
+			}
+		}
+	}
+
+	/**
+	 * Tests that a call made during the initial load, which cannot wait for
+	 * it, returns the configurations loaded so far instead of loading again.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testReentrantInitialLoad() throws Exception {
+		ILaunchConfigurationType type = getLaunchManager().getLaunchConfigurationType(LaunchConfigurationTests.ID_TEST_LAUNCH_TYPE);
+		ILaunchConfiguration config = type.newInstance(null, "reentrant-config").doSave(); //$NON-NLS-1$
+		try {
+			AtomicInteger loads = new AtomicInteger();
+			List<List<ILaunchConfiguration>> reentrant = new ArrayList<>();
+			LaunchManager manager = new LaunchManager() {
+				@Override
+				protected List<ILaunchConfiguration> findLocalLaunchConfigurations() {
+					loads.incrementAndGet();
+					reentrant.add(getAllLaunchConfigurations());
+					return super.findLocalLaunchConfigurations();
+				}
+			};
+			try {
+				List<ILaunchConfiguration> all = manager.getAllLaunchConfigurations();
+				assertTrue(all.contains(config));
+				assertSame(all, manager.getAllLaunchConfigurations());
+				assertEquals(1, loads.get());
+				assertEquals(1, reentrant.size());
+				assertTrue(reentrant.get(0).isEmpty());
+			} finally {
+				ResourcesPlugin.getWorkspace().removeResourceChangeListener(manager);
+			}
+		} finally {
+			config.delete();
+		}
+	}
+
+	private void assertIndexedQueries(LaunchManager manager, ILaunchConfigurationType type, IProject project, IFile file) throws CoreException {
+		List<ILaunchConfiguration> all = manager.getAllLaunchConfigurations();
+		for (int kinds : new int[] { ILaunchConfiguration.CONFIGURATION, ILaunchConfiguration.PROTOTYPE, ILaunchConfiguration.CONFIGURATION | ILaunchConfiguration.PROTOTYPE }) {
+			List<ILaunchConfiguration> byKind = new ArrayList<>();
+			List<ILaunchConfiguration> byType = new ArrayList<>();
+			for (ILaunchConfiguration config : all) {
+				if ((config.getKind() & kinds) > 0) {
+					byKind.add(config);
+					if (config.getType().equals(type)) {
+						byType.add(config);
+					}
+				}
+			}
+			assertEquals(byKind, Arrays.asList(manager.getLaunchConfigurations(kinds)));
+			assertEquals(byType, Arrays.asList(manager.getLaunchConfigurations(type, kinds)));
+		}
+		for (IResource resource : new IResource[] { project, file }) {
+			List<ILaunchConfiguration> mapped = new ArrayList<>();
+			for (ILaunchConfiguration config : all) {
+				IResource[] resources = config.getMappedResources();
+				if (resources != null) {
+					for (IResource res : resources) {
+						if (res.equals(resource) || (resource.getType() == IResource.PROJECT && res.getType() == IResource.FILE && res.getProject().equals(resource))) {
+							mapped.add(config);
+							break;
+						}
+					}
+				}
+			}
+			assertEquals(mapped, Arrays.asList(manager.getMappedConfigurations(resource)));
+		}
+	}
 }
@@ -14,9 +14,14 @@
 package org.eclipse.debug.tests.logicalstructure;
 
 import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILogicalStructureType;
 import org.eclipse.debug.core.model.IValue;
+import org.eclipse.debug.internal.core.LogicalStructureValueCache;
 import org.eclipse.debug.internal.ui.views.variables.LogicalStructureCache;
 import org.eclipse.debug.tests.AbstractDebugTest;
 import org.junit.Test;
@@ -38,4 +43,88 @@ public class LogicalStructureCacheTest extends AbstractDebugTest {
 		assertFalse(logicalStructure.isAllocated());
 	}
 
+	@Test
+	public void testInvalidateOnSuspend() throws Exception {
+		TestValue rawValue = new TestValue("raw");
+		ILogicalStructureType type = DebugPlugin.getLogicalStructureTypes(rawValue)[0];
+
+		LogicalStructureValueCache cache = new LogicalStructureValueCache(LogicalStructureValueCache.DEFAULT_MAX_ENTRIES);
+		IValue logicalStructure = cache.getLogicalStructure(type, rawValue);
+		assertSame(logicalStructure, cache.getLogicalStructure(type, rawValue));
+
+		cache.handleDebugEvents(new DebugEvent[] { new DebugEvent(rawValue, DebugEvent.SUSPEND, DebugEvent.EVALUATION_IMPLICIT) });
+		assertSame(logicalStructure, cache.getLogicalStructure(type, rawValue));
+		assertTrue(logicalStructure.isAllocated());
+
+		cache.handleDebugEvents(new DebugEvent[] { new DebugEvent(rawValue, DebugEvent.SUSPEND, DebugEvent.BREAKPOINT) });
+		assertFalse(logicalStructure.isAllocated());
+		IValue reevaluated = cache.getLogicalStructure(type, rawValue);
+		assertNotSame(logicalStructure, reevaluated);
+		assertTrue(reevaluated.isAllocated());
+	}
+
+	@Test
+	public void testReleaseEvictedValuesWithEpoch() throws Exception {
+		TestValue rawValue = new TestValue("raw");
+		ILogicalStructureType type = DebugPlugin.getLogicalStructureTypes(rawValue)[0];
+
+		LogicalStructureValueCache cache = new LogicalStructureValueCache(16);
+		IValue[] logicalStructures = new IValue[100];
+		for (int i = 0; i < logicalStructures.length; i++) {
+			logicalStructures[i] = cache.getLogicalStructure(type, new TestValue("raw"));
+		}
+		// evicted values may still be presented until the epoch ends
+		for (IValue logicalStructure : logicalStructures) {
+			assertTrue(logicalStructure.isAllocated());
+		}
+
+		cache.handleDebugEvents(new DebugEvent[] { new DebugEvent(rawValue, DebugEvent.RESUME, DebugEvent.STEP_OVER) });
+
+		for (IValue logicalStructure : logicalStructures) {
+			assertFalse(logicalStructure.isAllocated());
+		}
+	}
+
+	@Test
+	public void testEvaluationError() throws Exception {
+		TestValue rawValue = new TestValue("raw");
+		AtomicInteger evaluations = new AtomicInteger();
+		ILogicalStructureType type = new ILogicalStructureType() {
+			@Override
+			public boolean providesLogicalStructure(IValue value) {
+				return true;
+			}
+
+			@Override
+			public IValue getLogicalStructure(IValue value) {
+				if (evaluations.incrementAndGet() == 1) {
+					throw new AssertionError("evaluation failed");
+				}
+				return new TestValue("logical structure");
+			}
+
+			@Override
+			public String getDescription(IValue value) {
+				return getDescription();
+			}
+
+			@Override
+			public String getDescription() {
+				return "failing";
+			}
+
+			@Override
+			public String getId() {
+				return "failing";
+			}
+		};
+
+		LogicalStructureValueCache cache = new LogicalStructureValueCache(LogicalStructureValueCache.DEFAULT_MAX_ENTRIES);
+		assertThrows(AssertionError.class, () -> cache.getLogicalStructure(type, rawValue));
+		IValue logicalStructure = cache.getLogicalStructure(type, rawValue);
+		assertNotNull(logicalStructure);
+		assertSame(logicalStructure, cache.getLogicalStructure(type, rawValue));
+		assertEquals(2, evaluations.get());
+	}
+
 }
@@ -13,10 +13,12 @@ package org.eclipse.debug.tests.stepfilters;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.model.IStepFilter;
+import org.eclipse.debug.core.model.StepFilterMatcher;
 import org.eclipse.debug.tests.AbstractDebugTest;
 import org.junit.Test;
 
@@ -42,4 +44,36 @@ public class StepFiltersTests extends AbstractDebugTest {
 		assertFalse(stepFilters[0].isFiltered(new Object()));
 	}
 
+	@Test
+	public void testStepFilterMatcher() {
+		StepFilterMatcher matcher = DebugPlugin.getStepFilterMatcher(new String[] {
+				"java.lang.*", "sun.misc.Unsafe", "*Test", "org.eclipse.*.internal.?ore.*", "a*b*c" }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+		assertTrue(matcher.matches("java.lang.String")); //$NON-NLS-1$
+		assertTrue(matcher.matches("java.lang.reflect.Method")); //$NON-NLS-1$
+		assertFalse(matcher.matches("java.lang")); //$NON-NLS-1$
+		assertFalse(matcher.matches("java.util.List")); //$NON-NLS-1$
+
+		assertTrue(matcher.matches("sun.misc.Unsafe")); //$NON-NLS-1$
+		assertFalse(matcher.matches("sun.misc.Unsafe$1")); //$NON-NLS-1$
+		assertFalse(matcher.matches("sun.misc.Unsaf")); //$NON-NLS-1$
+
+		assertTrue(matcher.matches("com.example.FooTest")); //$NON-NLS-1$
+		assertTrue(matcher.matches("Test")); //$NON-NLS-1$
+		assertFalse(matcher.matches("com.example.FooTests")); //$NON-NLS-1$
+
+		assertTrue(matcher.matches("org.eclipse.debug.internal.core.LaunchManager")); //$NON-NLS-1$
+		assertTrue(matcher.matches("org.eclipse.a.b.internal.more.X")); //$NON-NLS-1$
+		assertFalse(matcher.matches("org.eclipse.debug.internal.ui.X")); //$NON-NLS-1$
+
+		assertTrue(matcher.matches("abc")); //$NON-NLS-1$
+		assertTrue(matcher.matches("axxbyyc")); //$NON-NLS-1$
+		assertTrue(matcher.matches("abcbc")); //$NON-NLS-1$
+		assertFalse(matcher.matches("axxbyycd")); //$NON-NLS-1$
+
+		assertSame(matcher, DebugPlugin.getStepFilterMatcher(matcher.getPatterns()));
+		assertTrue(DebugPlugin.getStepFilterMatcher(new String[] { "*" }).matches("anything")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse(DebugPlugin.getStepFilterMatcher(new String[0]).matches("anything")); //$NON-NLS-1$
+	}
+
 }
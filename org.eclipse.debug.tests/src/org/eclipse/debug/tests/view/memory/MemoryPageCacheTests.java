@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.view.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.math.BigInteger;
+
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.model.MemoryByte;
+import org.eclipse.debug.internal.core.MemoryPageCache;
+import org.eclipse.debug.internal.core.MemoryPageCache.MemoryRange;
+import org.junit.Test;
+
+/**
+ * Tests the page based memory cache
+ */
+public class MemoryPageCacheTests {
+
+	/**
+	 * Memory block whose bytes have the low byte of their address as value,
+	 * counting retrievals and remembering the last one.
+	 */
+	static class CountingMemoryBlock extends TableRenderingTestsMemoryBlock {
+
+		int fRetrievals;
+		BigInteger fLastAddress;
+		long fLastUnits;
+		final BigInteger fEnd;
+
+		CountingMemoryBlock(int addressableSize, BigInteger end) {
+			super(new byte[0], addressableSize);
+			fEnd = end;
+		}
+
+		@Override
+		public BigInteger getMemoryBlockEndAddress() throws DebugException {
+			return fEnd;
+		}
+
+		@Override
+		public MemoryByte[] getBytesFromAddress(BigInteger address, long units) throws DebugException {
+			fRetrievals++;
+			fLastAddress = address;
+			fLastUnits = units;
+			int unitSize = getAddressableSize();
+			MemoryByte[] bytes = new MemoryByte[(int) units * unitSize];
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = new MemoryByte((byte) (address.intValue() * unitSize + i), (byte) (MemoryByte.READABLE | MemoryByte.WRITABLE));
+			}
+			return bytes;
+		}
+	}
+
+	@Test
+	public void testOverlappingRanges() throws DebugException {
+		CountingMemoryBlock block = new CountingMemoryBlock(1, null);
+		MemoryPageCache cache = new MemoryPageCache(MemoryPageCache.MAX_PAGES);
+
+		MemoryRange range = cache.getBytesFromAddress(block, BigInteger.valueOf(100), 200);
+		assertEquals(200, range.length());
+		for (int i = 0; i < range.length(); i++) {
+			assertEquals((byte) (100 + i), range.getValue(i));
+			assertEquals(MemoryByte.READABLE | MemoryByte.WRITABLE, range.getFlags(i));
+		}
+		assertEquals(1, block.fRetrievals);
+
+		range = cache.getBytesFromAddress(block, BigInteger.valueOf(150), 100);
+		assertEquals((byte) 150, range.getValue(0));
+		assertEquals(1, block.fRetrievals);
+
+		// only the units not retrieved before are retrieved
+		range = cache.getBytesFromAddress(block, BigInteger.valueOf(200), 200);
+		for (int i = 0; i < range.length(); i++) {
+			assertEquals((byte) (200 + i), range.getValue(i));
+		}
+		assertEquals(2, block.fRetrievals);
+		assertEquals(BigInteger.valueOf(300), block.fLastAddress);
+		assertEquals(100, block.fLastUnits);
+
+		// crosses into the second page
+		range = cache.getBytesFromAddress(block, BigInteger.valueOf(MemoryPageCache.PAGE_UNITS - 10), 20);
+		MemoryByte[] bytes = range.toMemoryBytes(0, range.length());
+		assertEquals(20, bytes.length);
+		for (int i = 0; i < bytes.length; i++) {
+			assertEquals((byte) (MemoryPageCache.PAGE_UNITS - 10 + i), bytes[i].getValue());
+		}
+		assertEquals(4, block.fRetrievals);
+		assertEquals(BigInteger.valueOf(MemoryPageCache.PAGE_UNITS), block.fLastAddress);
+		assertEquals(10, block.fLastUnits);
+
+		cache.handleDebugEvents(new DebugEvent[] { new DebugEvent(block, DebugEvent.CHANGE, DebugEvent.CONTENT) });
+		cache.getBytesFromAddress(block, BigInteger.valueOf(100), 200);
+		assertEquals(5, block.fRetrievals);
+	}
+
+	@Test
+	public void testAddressableSizeAndBounds() throws DebugException {
+		CountingMemoryBlock block = new CountingMemoryBlock(2, BigInteger.valueOf(15));
+		MemoryPageCache cache = new MemoryPageCache(MemoryPageCache.MAX_PAGES);
+
+		MemoryRange range = cache.getBytesFromAddress(block, BigInteger.valueOf(10), 10);
+		assertEquals(20, range.length());
+		for (int i = 0; i < 12; i++) {
+			assertEquals((byte) (20 + i), range.getValue(i));
+		}
+		// beyond the end of the memory block
+		for (int i = 12; i < range.length(); i++) {
+			MemoryByte b = range.toMemoryBytes(i, 1)[0];
+			assertFalse(b.isReadable());
+			assertFalse(b.isWritable());
+		}
+	}
+
+	/**
+	 * Memory retrieved while the cache is invalidated is not cached.
+	 */
+	@Test
+	public void testInvalidateDuringRetrieval() throws DebugException {
+		MemoryPageCache cache = new MemoryPageCache(MemoryPageCache.MAX_PAGES);
+		CountingMemoryBlock block = new CountingMemoryBlock(1, null) {
+			@Override
+			public MemoryByte[] getBytesFromAddress(BigInteger address, long units) throws DebugException {
+				if (fRetrievals == 0) {
+					cache.handleDebugEvents(new DebugEvent[] { new DebugEvent(this, DebugEvent.CHANGE, DebugEvent.CONTENT) });
+				}
+				return super.getBytesFromAddress(address, units);
+			}
+		};
+
+		MemoryRange range = cache.getBytesFromAddress(block, BigInteger.ZERO, 16);
+		assertEquals(16, range.length());
+		cache.getBytesFromAddress(block, BigInteger.ZERO, 16);
+		assertEquals(2, block.fRetrievals);
+		cache.getBytesFromAddress(block, BigInteger.ZERO, 16);
+		assertEquals(2, block.fRetrievals);
+	}
+}
@@ -266,4 +266,27 @@ public class ChildrenUpdateTests extends AbstractDebugTest {
 		assertEquals("Wrong offset", 1, update1.getOffset()); //$NON-NLS-1$
 		assertEquals("Wrong length", 3, update1.getLength()); //$NON-NLS-1$
 	}
+
+	/**
+	 * Tests coalescing of requests separated by a gap
+	 */
+	@Test
+	public void testCoalesceWithGap() {
+		Object element = new Object();
+		TreeModelContentProvider cp = getContentProvider();
+		ChildrenUpdate update1 = new ChildrenUpdate(cp, element, TreePath.EMPTY, element, 10, 5, null);
+		ChildrenUpdate update2 = new ChildrenUpdate(cp, element, TreePath.EMPTY, element, 20, 5, null);
+		assertFalse("Should not coalesce", update1.coalesce(update2, 4)); //$NON-NLS-1$
+		assertTrue("Should coalesce", update1.coalesce(update2, 5)); //$NON-NLS-1$
+		assertEquals("Wrong offset", 10, update1.getOffset()); //$NON-NLS-1$
+		assertEquals("Wrong length", 15, update1.getLength()); //$NON-NLS-1$
+
+		// a containing range is only merged with a gap, as without prefetching
+		update2 = new ChildrenUpdate(cp, element, TreePath.EMPTY, element, 0, 40, null);
+		assertFalse("Should not coalesce", update1.coalesce(update2, 0)); //$NON-NLS-1$
+		assertFalse("Should not coalesce", update1.coalesce(update2)); //$NON-NLS-1$
+		assertTrue("Should coalesce", update1.coalesce(update2, 1)); //$NON-NLS-1$
+		assertEquals("Wrong offset", 0, update1.getOffset()); //$NON-NLS-1$
+		assertEquals("Wrong length", 40, update1.getLength()); //$NON-NLS-1$
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2013 Wind River Systems and others.
+ * Copyright (c) 2009, 2023 Wind River Systems and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,10 +14,16 @@
  *******************************************************************************/
 package org.eclipse.debug.tests.viewer.model;
 
+import org.eclipse.debug.internal.ui.DebugUIPlugin;
+import org.eclipse.debug.internal.ui.preferences.IDebugPreferenceConstants;
 import org.eclipse.debug.internal.ui.viewers.model.IInternalTreeModelViewer;
 import org.eclipse.debug.internal.ui.viewers.model.provisional.IModelDelta;
+import org.eclipse.debug.internal.ui.viewers.model.provisional.IViewerUpdate;
+import org.eclipse.debug.internal.ui.viewers.model.provisional.IViewerUpdateListener;
 import org.eclipse.debug.internal.ui.viewers.model.provisional.ModelDelta;
+import org.eclipse.debug.tests.TestUtil;
 import org.eclipse.debug.tests.viewer.model.TestModel.TestElement;
+import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.viewers.TreePath;
 import org.eclipse.jface.viewers.TreeSelection;
 import org.eclipse.jface.viewers.Viewer;
@@ -334,4 +340,77 @@ abstract public class PerformanceTests extends AbstractViewerModelTest implement
 		}
 	}
 
+	@Test
+	public void testScrollList() throws Exception {
+		scrollList();
+	}
+
+	@Test
+	public void testScrollListPrefetch() throws Exception {
+		IPreferenceStore store = DebugUIPlugin.getDefault().getPreferenceStore();
+		store.setValue(IDebugPreferenceConstants.PREF_VIEWER_PREFETCH, true);
+		try {
+			scrollList();
+		} finally {
+			store.setToDefault(IDebugPreferenceConstants.PREF_VIEWER_PREFETCH);
+		}
+	}
+
+	/**
+	 * Scrolls through a long list a page at a time, waiting for the viewer to
+	 * retrieve the revealed elements.
+	 */
+	private void scrollList() throws Exception {
+		final int numElements = 10000;
+		final int pageSize = 50;
+		TestModel model = new TestModel();
+		model.setRoot(new TestElement(model, "root", new TestElement[0])); //$NON-NLS-1$
+		model.setElementChildren(TreePath.EMPTY, TestModel.makeSingleLevelModelElements(model, numElements, "model.")); //$NON-NLS-1$
+
+		boolean[] updating = new boolean[1];
+		IViewerUpdateListener updateListener = new IViewerUpdateListener() {
+			@Override
+			public void viewerUpdatesBegin() {
+				updating[0] = true;
+			}
+
+			@Override
+			public void viewerUpdatesComplete() {
+				updating[0] = false;
+			}
+
+			@Override
+			public void updateStarted(IViewerUpdate update) {
+			}
+
+			@Override
+			public void updateComplete(IViewerUpdate update) {
+			}
+		};
+		fViewer.addViewerUpdateListener(updateListener);
+		fVirtualItemValidator.setVisibleRange(0, pageSize);
+
+		fViewer.setInput(model.getRootElement());
+		TestUtil.processUIEvents();
+		waitWhile(t -> updating[0], t -> "Viewer updates not complete"); //$NON-NLS-1$
+
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(getDefaultScenarioId());
+		try {
+			for (int i = 1; i <= 100; i++) {
+				meter.start();
+				fViewer.reveal(TreePath.EMPTY, i * pageSize);
+				TestUtil.processUIEvents();
+				waitWhile(t -> updating[0], t -> "Viewer updates not complete"); //$NON-NLS-1$
+				meter.stop();
+			}
+
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+			fViewer.removeViewerUpdateListener(updateListener);
+		}
+	}
+
 }
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.viewer.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.internal.ui.model.elements.ViewerUpdateExecutor;
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.junit.Test;
+
+/**
+ * Tests the shared executor of element content and label provider updates.
+ */
+public class ViewerUpdateExecutorTests extends AbstractDebugTest {
+
+	@Test
+	public void testSerialLane() throws Exception {
+		ViewerUpdateExecutor executor = new ViewerUpdateExecutor("test", 4); //$NON-NLS-1$
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger overlaps = new AtomicInteger();
+		AtomicInteger executions = new AtomicInteger();
+		Object lane = new Object();
+		int runs = 20;
+		for (int i = 0; i < runs; i++) {
+			executor.execute(lane, ViewerUpdateExecutor.PRIORITY_VISIBLE, this, () -> {
+				if (running.incrementAndGet() > 1) {
+					overlaps.incrementAndGet();
+				}
+				try {
+					Thread.sleep(1);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				executions.incrementAndGet();
+				running.decrementAndGet();
+			});
+		}
+		Job.getJobManager().join(executor, null);
+		assertEquals(runs, executions.get());
+		assertEquals(0, overlaps.get());
+		assertEquals(runs, executor.getTaskCount());
+	}
+
+	@Test
+	public void testConcurrentLanes() throws Exception {
+		ViewerUpdateExecutor executor = new ViewerUpdateExecutor("test", 2); //$NON-NLS-1$
+		CountDownLatch latch = new CountDownLatch(2);
+		AtomicInteger met = new AtomicInteger();
+		Runnable rendezvous = () -> {
+			latch.countDown();
+			try {
+				if (latch.await(10, TimeUnit.SECONDS)) {
+					met.incrementAndGet();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		executor.execute("a", ViewerUpdateExecutor.PRIORITY_VISIBLE, this, rendezvous); //$NON-NLS-1$
+		executor.execute("b", ViewerUpdateExecutor.PRIORITY_VISIBLE, this, rendezvous); //$NON-NLS-1$
+		Job.getJobManager().join(executor, null);
+		assertEquals("Updates of different lanes did not run concurrently", 2, met.get()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testPriority() throws Exception {
+		ViewerUpdateExecutor executor = new ViewerUpdateExecutor("test", 1); //$NON-NLS-1$
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		executor.execute(this, ViewerUpdateExecutor.PRIORITY_VISIBLE, null, () -> {
+			blocked.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		assertTrue(blocked.await(10, TimeUnit.SECONDS));
+		executor.execute(this, ViewerUpdateExecutor.PRIORITY_STRUCTURE, null, () -> order.add("structure")); //$NON-NLS-1$
+		executor.execute(this, ViewerUpdateExecutor.PRIORITY_VISIBLE, null, () -> order.add("visible")); //$NON-NLS-1$
+		release.countDown();
+		Job.getJobManager().join(executor, null);
+		assertEquals(List.of("visible", "structure"), order); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(3, executor.getTaskCount());
+		assertTrue(executor.getMaxWaitTime() > 0);
+		assertTrue(executor.getTotalWaitTime() >= executor.getMaxWaitTime());
+		executor.resetStatistics();
+		assertEquals(0, executor.getTaskCount());
+	}
+
+	@Test
+	public void testJoinFamily() throws Exception {
+		ViewerUpdateExecutor executor = new ViewerUpdateExecutor("test", 2); //$NON-NLS-1$
+		AtomicInteger executions = new AtomicInteger();
+		for (int i = 0; i < 10; i++) {
+			executor.execute(Integer.valueOf(i % 3), ViewerUpdateExecutor.PRIORITY_STRUCTURE, this, () -> {
+				try {
+					Thread.sleep(2);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				executions.incrementAndGet();
+			});
+		}
+		// workers belong to the family of the updates until they have run
+		Job.getJobManager().join(this, null);
+		assertEquals(10, executions.get());
+	}
+}
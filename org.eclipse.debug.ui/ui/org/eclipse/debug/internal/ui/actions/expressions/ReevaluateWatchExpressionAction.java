@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,6 +21,7 @@ import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.model.IDebugElement;
 import org.eclipse.debug.core.model.IWatchExpression;
+import org.eclipse.debug.internal.core.WatchExpression;
 import org.eclipse.debug.internal.ui.DebugUIPlugin;
 import org.eclipse.debug.ui.DebugUITools;
 import org.eclipse.jface.action.IAction;
@@ -74,10 +75,16 @@ public class ReevaluateWatchExpressionAction implements IObjectActionDelegate {
 		IDebugElement context = getContext();
 		for (Iterator<?> iter = getCurrentSelection().iterator(); iter.hasNext();) {
 			IWatchExpression expression= (IWatchExpression) iter.next();
-			expression.setExpressionContext(context);
-			if (!expression.isEnabled()) {
-				// Force a reevaluation
-				expression.evaluate();
+			if (expression instanceof WatchExpression) {
+				// Force a reevaluation, setting the context may only reuse the
+				// result of an earlier evaluation
+				((WatchExpression) expression).reevaluate(context);
+			} else {
+				expression.setExpressionContext(context);
+				if (!expression.isEnabled()) {
+					// Force a reevaluation
+					expression.evaluate();
+				}
 			}
 		}
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,7 +18,6 @@ package org.eclipse.debug.internal.ui.elements.adapters;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.Collections;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.debug.core.DebugException;
@@ -26,6 +25,8 @@ import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.debug.core.model.IMemoryBlock;
 import org.eclipse.debug.core.model.IMemoryBlockExtension;
 import org.eclipse.debug.core.model.MemoryByte;
+import org.eclipse.debug.internal.core.MemoryPageCache;
+import org.eclipse.debug.internal.core.MemoryPageCache.MemoryRange;
 import org.eclipse.debug.internal.ui.DebugUIMessages;
 import org.eclipse.debug.internal.ui.DebugUIPlugin;
 import org.eclipse.debug.internal.ui.memory.provisional.AbstractAsyncTableRendering;
@@ -261,6 +262,7 @@ public class MemoryBlockContentAdapter extends AsynchronousContentAdapter {
 
 		IMemoryBlockExtension extMemoryBlock = null;
 		MemoryByte[] memoryBuffer = null;
+		MemoryRange range = null;
 
 		long reqNumBytes = 0;
 		try {
@@ -272,12 +274,8 @@ public class MemoryBlockContentAdapter extends AsynchronousContentAdapter {
 
 				long reqNumberOfUnits = tableRendering.getAddressableUnitPerLine() * numberOfLines;
 
-				memoryBuffer = extMemoryBlock.getBytesFromAddress(startAddress, reqNumberOfUnits);
-
-				if (memoryBuffer == null) {
-					DebugException e = new DebugException(DebugUIPlugin.newErrorStatus(DebugUIMessages.MemoryViewContentProvider_Unable_to_retrieve_content, null));
-					throw e;
-				}
+				// overlapping ranges are served from pages retrieved before
+				range = MemoryPageCache.getDefault().getBytesFromAddress(extMemoryBlock, startAddress, reqNumberOfUnits);
 			} else {
 				// get memory from memory block
 				byte[] memory = descriptor.getMemoryBlock().getBytes();
@@ -343,34 +341,20 @@ public class MemoryBlockContentAdapter extends AsynchronousContentAdapter {
 				}
 			}
 		} catch (DebugException e) {
-			memoryBuffer = makeDummyContent(numberOfLines, tableRendering.getBytesPerLine());
+			range = MemoryRange.of(makeDummyContent(numberOfLines, tableRendering.getBytesPerLine()));
 
 			// finish creating the content provider before throwing an event
 			dbgEvt = e;
 		} catch (Throwable e) {
 			// catch all errors from this process just to be safe
-			memoryBuffer = makeDummyContent(numberOfLines, tableRendering.getBytesPerLine());
+			range = MemoryRange.of(makeDummyContent(numberOfLines, tableRendering.getBytesPerLine()));
 
 			// finish creating the content provider before throwing an event
 			dbgEvt = new DebugException(DebugUIPlugin.newErrorStatus(e.getMessage(), e));
 		}
 
-		// if debug adapter did not return enough memory, create dummy memory
-		if (memoryBuffer.length < reqNumBytes) {
-			ArrayList<MemoryByte> newBuffer = new ArrayList<>();
-
-			Collections.addAll(newBuffer, memoryBuffer);
-
-			for (int i = memoryBuffer.length; i < reqNumBytes; i++) {
-				MemoryByte mb = new MemoryByte();
-				mb.setReadable(false);
-				mb.setWritable(false);
-				mb.setEndianessKnown(false);
-				newBuffer.add(mb);
-			}
-
-			memoryBuffer = newBuffer.toArray(new MemoryByte[newBuffer.size()]);
-
+		if (range == null) {
+			range = MemoryRange.of(memoryBuffer);
 		}
 
 		boolean manageDelta = true;
@@ -387,11 +371,11 @@ public class MemoryBlockContentAdapter extends AsynchronousContentAdapter {
 		}
 
 		// put memory information into MemoryViewLine
-		return organizeLines(numberOfLines, memoryBuffer, startAddress, manageDelta, context);
+		return organizeLines(numberOfLines, range, startAddress, manageDelta, context);
 
 	}
 
-	private Object[] organizeLines(long numberOfLines, MemoryByte[] memoryBuffer, BigInteger address, boolean manageDelta, MemoryViewPresentationContext context) {
+	private Object[] organizeLines(long numberOfLines, MemoryRange memoryBuffer, BigInteger address, boolean manageDelta, MemoryViewPresentationContext context) {
 		ArrayList<MemorySegment> lineCache = new ArrayList<>();
 		IMemoryRendering rendering = context.getRendering();
 		if (!(rendering instanceof AbstractAsyncTableRendering)) {
@@ -410,7 +394,10 @@ public class MemoryBlockContentAdapter extends AsynchronousContentAdapter {
 			// j is the counter for memArray, memory returned by debug adapter
 			for (int j = i * bytesPerLine; j < i * bytesPerLine + bytesPerLine; j++) {
 
-				byte changeFlag = memoryBuffer[j].getFlags();
+				// memory the debug adapter did not return is neither readable
+				// nor writable
+				byte value = j < memoryBuffer.length() ? memoryBuffer.getValue(j) : 0;
+				byte changeFlag = j < memoryBuffer.length() ? memoryBuffer.getFlags(j) : 0;
 				if (manageDelta) {
 					// turn off both change and known bits to make sure that
 					// the change bits returned by debug adapters do not take
@@ -423,7 +410,7 @@ public class MemoryBlockContentAdapter extends AsynchronousContentAdapter {
 					changeFlag ^= MemoryByte.CHANGED;
 				}
 
-				MemoryByte newByteObj = new MemoryByte(memoryBuffer[j].getValue(), changeFlag);
+				MemoryByte newByteObj = new MemoryByte(value, changeFlag);
 				memory[k] = newByteObj;
 				k++;
 			}
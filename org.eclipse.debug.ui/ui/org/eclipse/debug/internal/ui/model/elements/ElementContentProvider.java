@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2007 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -50,37 +50,52 @@ public abstract class ElementContentProvider implements IElementContentProvider
 
 	@Override
 	public void update(final IChildrenUpdate[] updates) {
-		Job job = new ElementContentProviderJob("Debug children update") { //$NON-NLS-1$
-			@Override
-			protected IStatus run(IProgressMonitor monitor) {
-				for (IChildrenUpdate update : updates) {
-					if (!update.isCanceled()) {
-						retrieveChildren(update);
-					}
-					update.done();
+		schedule("Debug children update", updates, getRule(updates), ViewerUpdateExecutor.PRIORITY_VISIBLE, () -> { //$NON-NLS-1$
+			for (IChildrenUpdate update : updates) {
+				if (!update.isCanceled()) {
+					retrieveChildren(update);
 				}
-				return Status.OK_STATUS;
+				update.done();
 			}
-		};
-		job.setRule(getRule(updates));
-		job.schedule();
+		});
 	}
 
 	@Override
 	public void update(final IChildrenCountUpdate[] updates) {
-		Job job = new ElementContentProviderJob("Debug child count update") { //$NON-NLS-1$
+		schedule("Debug child count update", updates, getRule(updates), ViewerUpdateExecutor.PRIORITY_STRUCTURE, () -> { //$NON-NLS-1$
+			for (IChildrenCountUpdate update : updates) {
+				if (!update.isCanceled()) {
+					retrieveChildCount(update);
+				}
+				update.done();
+			}
+		});
+	}
+
+	/**
+	 * Performs the given updates. Updates without scheduling rule are run by
+	 * the shared {@link ViewerUpdateExecutor}, other updates by a job with the
+	 * rule.
+	 *
+	 * @param name name of the job
+	 * @param updates the updates
+	 * @param rule scheduling rule or <code>null</code>
+	 * @param priority priority of the updates in the shared executor
+	 * @param runnable performs the updates
+	 */
+	private void schedule(String name, IViewerUpdate[] updates, ISchedulingRule rule, int priority, Runnable runnable) {
+		if (rule == null) {
+			ViewerUpdateExecutor.getDefault().execute(updates, priority, ElementContentProvider.class, runnable);
+			return;
+		}
+		Job job = new ElementContentProviderJob(name) {
 			@Override
 			protected IStatus run(IProgressMonitor monitor) {
-				for (IChildrenCountUpdate update : updates) {
-					if (!update.isCanceled()) {
-						retrieveChildCount(update);
-					}
-					update.done();
-				}
+				runnable.run();
 				return Status.OK_STATUS;
 			}
 		};
-		job.setRule(getRule(updates));
+		job.setRule(rule);
 		job.schedule();
 	}
 
@@ -202,20 +217,14 @@ public abstract class ElementContentProvider implements IElementContentProvider
 
 	@Override
 	public void update(final IHasChildrenUpdate[] updates) {
-		Job job = new ElementContentProviderJob("Debug has children update") { //$NON-NLS-1$
-			@Override
-			protected IStatus run(IProgressMonitor monitor) {
-				for (IHasChildrenUpdate update : updates) {
-					if (!update.isCanceled()) {
-						updateHasChildren(update);
-					}
-					update.done();
+		schedule("Debug has children update", updates, getRule(updates), ViewerUpdateExecutor.PRIORITY_STRUCTURE, () -> { //$NON-NLS-1$
+			for (IHasChildrenUpdate update : updates) {
+				if (!update.isCanceled()) {
+					updateHasChildren(update);
 				}
-				return Status.OK_STATUS;
+				update.done();
 			}
-		};
-		job.setRule(getRule(updates));
-		job.schedule();
+		});
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2014 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -138,22 +138,7 @@ public abstract class ElementLabelProvider implements IElementLabelProvider {
 		public void run() {
 			ILabelUpdate update = getNextUpdate();
 			while (update != null) {
-				ISchedulingRule rule = getRule(update);
-				if (!update.isCanceled()) {
-					try {
-						if (rule != null) {
-							Job.getJobManager().beginRule(rule, null);
-						}
-						retrieveLabel(update);
-					} catch (CoreException e) {
-						update.setStatus(e.getStatus());
-					} finally {
-						if (rule != null) {
-							Job.getJobManager().endRule(rule);
-						}
-					}
-				}
-				update.done();
+				performUpdate(update, getRule(update));
 				update = getNextUpdate();
 			}
 		}
@@ -179,6 +164,31 @@ public abstract class ElementLabelProvider implements IElementLabelProvider {
 		}
 	}
 
+	/**
+	 * Retrieves the label of the given update, holding the given rule if any,
+	 * and completes the update.
+	 *
+	 * @param update label update
+	 * @param rule scheduling rule or <code>null</code>
+	 */
+	private void performUpdate(ILabelUpdate update, ISchedulingRule rule) {
+		if (!update.isCanceled()) {
+			try {
+				if (rule != null) {
+					Job.getJobManager().beginRule(rule, null);
+				}
+				retrieveLabel(update);
+			} catch (CoreException e) {
+				update.setStatus(e.getStatus());
+			} finally {
+				if (rule != null) {
+					Job.getJobManager().endRule(rule);
+				}
+			}
+		}
+		update.done();
+	}
+
 	/**
 	 * Retrieves label attributes for the specified update.
 	 *
@@ -329,6 +339,14 @@ public abstract class ElementLabelProvider implements IElementLabelProvider {
 
 	@Override
 	public synchronized void update(ILabelUpdate[] updates) {
+		if (!requiresUIJob(updates) && !hasRule(updates)) {
+			ViewerUpdateExecutor.getDefault().execute(updates, ViewerUpdateExecutor.PRIORITY_VISIBLE, ElementLabelProvider.class, () -> {
+				for (ILabelUpdate update : updates) {
+					performUpdate(update, null);
+				}
+			});
+			return;
+		}
 		if (fLabelJob == null) {
 			fLabelJob = newLabelJob(updates);
 		}
@@ -340,6 +358,23 @@ public abstract class ElementLabelProvider implements IElementLabelProvider {
 		fLabelJob.schedule();
 	}
 
+	/**
+	 * Returns whether any of the given updates has a scheduling rule, in which
+	 * case the updates are run by a label job holding the rules rather than by
+	 * the shared {@link ViewerUpdateExecutor}.
+	 *
+	 * @param updates label updates
+	 * @return whether any update has a scheduling rule
+	 */
+	private boolean hasRule(ILabelUpdate[] updates) {
+		for (ILabelUpdate update : updates) {
+			if (getRule(update) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Returns a new <code>Job</code> to update the specified labels. This method
 	 * is used to determine if a UI job is needed or not, in the event the request for an update
@@ -17,7 +17,6 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILogicalStructureType;
@@ -25,6 +24,7 @@ import org.eclipse.debug.core.model.IDebugElement;
 import org.eclipse.debug.core.model.IIndexedValue;
 import org.eclipse.debug.core.model.IValue;
 import org.eclipse.debug.core.model.IVariable;
+import org.eclipse.debug.internal.core.LogicalStructureValueCache;
 import org.eclipse.debug.internal.ui.viewers.model.provisional.IPresentationContext;
 import org.eclipse.debug.internal.ui.viewers.model.provisional.IViewerUpdate;
 import org.eclipse.debug.internal.ui.views.variables.IndexedVariablePartition;
@@ -223,32 +223,14 @@ public class VariableContentProvider extends ElementContentProvider {
 
 	/**
 	 * Returns the logical structure cache to use to store calculated structures.  If the cache does not
-	 * exist yet, one is created and a debug event listener is added to clear the cache on RESUME and
-	 * TERMINATE events.
+	 * exist yet, one is created on top of the logical structure cache shared with other clients, which
+	 * drops the structures of a debug target when it resumes, suspends or terminates.
 	 *
 	 * @return the logical structure cache to use
 	 */
 	protected synchronized LogicalStructureCache getLogicalStructureCache(){
 		if (fgLogicalCache == null){
-			fgLogicalCache = new LogicalStructureCache();
-			// Add a listener to clear the cache when resuming, terminating, or suspending
-			DebugPlugin.getDefault().addDebugEventListener(events -> {
-				for (DebugEvent event : events) {
-					if (event.getKind() == DebugEvent.TERMINATE) {
-						fgLogicalCache.clear();
-						break;
-					} else if (event.getKind() == DebugEvent.RESUME && event.getDetail() != DebugEvent.EVALUATION_IMPLICIT) {
-						fgLogicalCache.clear();
-						break;
-					} else if (event.getKind() == DebugEvent.SUSPEND && event.getDetail() != DebugEvent.EVALUATION_IMPLICIT) {
-						fgLogicalCache.clear();
-						break;
-					} else if (event.getKind() == DebugEvent.CHANGE && event.getDetail() == DebugEvent.CONTENT) {
-						fgLogicalCache.clear();
-						break;
-					}
-				}
-			});
+			fgLogicalCache = new LogicalStructureCache(LogicalStructureValueCache.getDefault());
 		}
 		return fgLogicalCache;
 	}
@@ -0,0 +1,382 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.ui.model.elements;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.model.IDebugElement;
+import org.eclipse.debug.core.model.IDebugTarget;
+import org.eclipse.debug.internal.ui.DebugUIPlugin;
+import org.eclipse.debug.internal.ui.viewers.model.provisional.IViewerUpdate;
+
+/**
+ * Executes viewer updates of element content and label providers on a bounded
+ * number of worker jobs, rather than scheduling a job per batch of updates.
+ * <p>
+ * Updates of the same kind, of elements of the same debug target and for the
+ * same view are run one after another in a lane, so that the updates of one
+ * target do not occupy all workers. A slow update only delays the following
+ * updates of its lane; updates of other kinds, other views or other targets,
+ * and updates of elements that do not belong to a target, run concurrently.
+ * Updates that need mutual exclusion still use jobs with their scheduling
+ * rules. Workers take the update of highest
+ * priority among the lanes that are not busy, so that the updates populating
+ * visible rows are run before structural updates, such as child counts.
+ * </p>
+ * <p>
+ * The time updates wait in the queue is recorded, and traced when the
+ * <code>org.eclipse.debug.ui/debug/viewers/contentProvider</code> option is
+ * enabled and the wait is long.
+ * </p>
+ *
+ * @since 3.18
+ */
+public final class ViewerUpdateExecutor {
+
+	/**
+	 * Priority of updates presenting visible rows, such as children and label
+	 * updates.
+	 */
+	public static final int PRIORITY_VISIBLE = 0;
+
+	/**
+	 * Priority of structural updates, such as child count and has children
+	 * updates.
+	 */
+	public static final int PRIORITY_STRUCTURE = 1;
+
+	/**
+	 * Wait time above which an update is traced.
+	 */
+	private static final long TRACE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private static ViewerUpdateExecutor fgDefault;
+
+	/**
+	 * A queued update.
+	 */
+	private static final class Task implements Comparable<Task> {
+		final Lane fLane;
+		final Runnable fRunnable;
+		final Object fFamily;
+		final int fPriority;
+		final long fSequence;
+		final long fQueued;
+
+		Task(Lane lane, Runnable runnable, Object family, int priority, long sequence) {
+			fLane = lane;
+			fRunnable = runnable;
+			fFamily = family;
+			fPriority = priority;
+			fSequence = sequence;
+			fQueued = System.nanoTime();
+		}
+
+		@Override
+		public int compareTo(Task other) {
+			if (fPriority != other.fPriority) {
+				return Integer.compare(fPriority, other.fPriority);
+			}
+			return Long.compare(fSequence, other.fSequence);
+		}
+	}
+
+	/**
+	 * Identifies the lane of updates of one kind, of elements of a debug
+	 * target, for a view.
+	 */
+	private static final class LaneKey {
+		final Object fTarget;
+		final Object fContext;
+		final Class<?> fKind;
+
+		LaneKey(Object target, Object context, Class<?> kind) {
+			fTarget = target;
+			fContext = context;
+			fKind = kind;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof LaneKey)) {
+				return false;
+			}
+			LaneKey other = (LaneKey) obj;
+			return fTarget.equals(other.fTarget) && Objects.equals(fContext, other.fContext) && fKind == other.fKind;
+		}
+
+		@Override
+		public int hashCode() {
+			return (fTarget.hashCode() * 31 + Objects.hashCode(fContext)) * 31 + fKind.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return fKind.getSimpleName() + " of " + fTarget; //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Queued updates run one at a time.
+	 */
+	private static final class Lane implements Comparable<Lane> {
+		final Object fKey;
+		final PriorityQueue<Task> fTasks = new PriorityQueue<>();
+		/**
+		 * Whether one of the updates is running.
+		 */
+		boolean fBusy;
+		/**
+		 * Whether the lane is in the queue of ready lanes.
+		 */
+		boolean fReady;
+
+		Lane(Object key) {
+			fKey = key;
+		}
+
+		@Override
+		public int compareTo(Lane other) {
+			return fTasks.peek().compareTo(other.fTasks.peek());
+		}
+	}
+
+	/**
+	 * Runs updates while there are lanes ready.
+	 */
+	private final class Worker extends Job {
+
+		Worker() {
+			super(fName);
+			setSystem(true);
+			setUser(false);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			Task task = next(null);
+			while (task != null) {
+				try {
+					task.fRunnable.run();
+				} catch (RuntimeException e) {
+					DebugUIPlugin.log(e);
+				}
+				task = next(task);
+			}
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return family == ViewerUpdateExecutor.this || isPending(family);
+		}
+	}
+
+	private final String fName;
+	private final int fMaxWorkers;
+
+	private final Map<Object, Lane> fLanes = new HashMap<>();
+	private final PriorityQueue<Lane> fReady = new PriorityQueue<>();
+	private final Map<Object, Integer> fPending = new HashMap<>();
+	private int fWorkers;
+	private int fBusyWorkers;
+	private long fSequence;
+
+	private long fTaskCount;
+	private long fTotalWaitNanos;
+	private long fMaxWaitNanos;
+
+	/**
+	 * Returns the executor shared by the element content and label providers.
+	 *
+	 * @return the shared executor
+	 */
+	public static synchronized ViewerUpdateExecutor getDefault() {
+		if (fgDefault == null) {
+			int workers = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+			fgDefault = new ViewerUpdateExecutor("Debug viewer updates", workers); //$NON-NLS-1$
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Creates an executor running updates on up to the given number of worker
+	 * jobs. Workers belong to the family of this executor and to the family of
+	 * each update queued or running.
+	 *
+	 * @param name name of the worker jobs
+	 * @param maxWorkers maximum number of worker jobs
+	 */
+	public ViewerUpdateExecutor(String name, int maxWorkers) {
+		fName = name;
+		fMaxWorkers = Math.max(1, maxWorkers);
+	}
+
+	/**
+	 * Queues the given runnable performing the specified updates. The runnable
+	 * is run in the lane of the kind of the updates, the debug target of the
+	 * updated elements and the view, if the elements belong to a target.
+	 *
+	 * @param updates the updates performed by the runnable
+	 * @param priority {@link #PRIORITY_VISIBLE} or {@link #PRIORITY_STRUCTURE}
+	 * @param family job family the workers belong to until the runnable has
+	 *            run, or <code>null</code>
+	 * @param runnable performs the updates
+	 */
+	public void execute(IViewerUpdate[] updates, int priority, Object family, Runnable runnable) {
+		execute(getLaneKey(updates), priority, family, runnable);
+	}
+
+	/**
+	 * Queues the given runnable in the lane identified by the given key.
+	 * Runnables of a <code>null</code> key have a lane of their own.
+	 *
+	 * @param key lane key or <code>null</code>
+	 * @param priority {@link #PRIORITY_VISIBLE} or {@link #PRIORITY_STRUCTURE}
+	 * @param family job family the workers belong to until the runnable has
+	 *            run, or <code>null</code>
+	 * @param runnable the runnable
+	 */
+	public void execute(Object key, int priority, Object family, Runnable runnable) {
+		Worker worker = null;
+		synchronized (this) {
+			Lane lane = key == null ? new Lane(null) : fLanes.computeIfAbsent(key, Lane::new);
+			if (lane.fReady) {
+				// the head of the lane may change
+				fReady.remove(lane);
+			}
+			lane.fTasks.add(new Task(lane, runnable, family, priority, fSequence++));
+			if (!lane.fBusy) {
+				fReady.add(lane);
+				lane.fReady = true;
+			}
+			if (family != null) {
+				fPending.merge(family, Integer.valueOf(1), (count, one) -> Integer.valueOf(count.intValue() + 1));
+			}
+			if (fWorkers < fMaxWorkers && fWorkers - fBusyWorkers < fReady.size()) {
+				fWorkers++;
+				worker = new Worker();
+			}
+		}
+		if (worker != null) {
+			worker.schedule();
+		}
+	}
+
+	/**
+	 * Completes the given task, if any, and returns the next task to run or
+	 * <code>null</code> when no lane is ready, in which case the calling
+	 * worker ends.
+	 */
+	private synchronized Task next(Task done) {
+		if (done != null) {
+			fBusyWorkers--;
+			Lane lane = done.fLane;
+			lane.fBusy = false;
+			if (!lane.fTasks.isEmpty()) {
+				fReady.add(lane);
+				lane.fReady = true;
+			} else if (lane.fKey != null) {
+				fLanes.remove(lane.fKey);
+			}
+			if (done.fFamily != null) {
+				fPending.computeIfPresent(done.fFamily, (family, count) -> count.intValue() == 1 ? null : Integer.valueOf(count.intValue() - 1));
+			}
+		}
+		Lane lane = fReady.poll();
+		if (lane == null) {
+			fWorkers--;
+			return null;
+		}
+		lane.fReady = false;
+		lane.fBusy = true;
+		fBusyWorkers++;
+		Task task = lane.fTasks.poll();
+		long wait = System.nanoTime() - task.fQueued;
+		fTaskCount++;
+		fTotalWaitNanos += wait;
+		fMaxWaitNanos = Math.max(fMaxWaitNanos, wait);
+		if (DebugUIPlugin.DEBUG_CONTENT_PROVIDER && wait > TRACE_WAIT_NANOS) {
+			DebugUIPlugin.trace("Viewer update waited " + TimeUnit.NANOSECONDS.toMillis(wait) + "ms in lane " + lane.fKey); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return task;
+	}
+
+	private synchronized boolean isPending(Object family) {
+		return fPending.containsKey(family);
+	}
+
+	/**
+	 * Returns the number of updates that have been taken from the queue.
+	 *
+	 * @return number of updates run or running
+	 */
+	public synchronized long getTaskCount() {
+		return fTaskCount;
+	}
+
+	/**
+	 * Returns the total time updates have waited in the queue, in nanoseconds.
+	 *
+	 * @return total wait time in nanoseconds
+	 */
+	public synchronized long getTotalWaitTime() {
+		return fTotalWaitNanos;
+	}
+
+	/**
+	 * Returns the longest time an update has waited in the queue, in
+	 * nanoseconds.
+	 *
+	 * @return maximum wait time in nanoseconds
+	 */
+	public synchronized long getMaxWaitTime() {
+		return fMaxWaitNanos;
+	}
+
+	/**
+	 * Resets the wait time statistics.
+	 */
+	public synchronized void resetStatistics() {
+		fTaskCount = 0;
+		fTotalWaitNanos = 0;
+		fMaxWaitNanos = 0;
+	}
+
+	/**
+	 * Returns the key of the lane of the given updates, or <code>null</code>
+	 * if the updated elements do not belong to a debug target.
+	 */
+	private static Object getLaneKey(IViewerUpdate[] updates) {
+		if (updates.length == 0) {
+			return null;
+		}
+		IViewerUpdate update = updates[0];
+		IDebugElement element = DebugPlugin.getAdapter(update.getElement(), IDebugElement.class);
+		IDebugTarget target = element == null ? null : element.getDebugTarget();
+		if (target == null) {
+			return null;
+		}
+		return new LaneKey(target, update.getPresentationContext(), update.getClass());
+	}
+}
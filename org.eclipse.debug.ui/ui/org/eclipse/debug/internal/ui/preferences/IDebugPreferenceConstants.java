@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -352,6 +352,16 @@ public interface IDebugPreferenceConstants {
 	 * @since 3.8
 	 */
 	String DEBUG_VIEW_TOOLBAR_HIDDEN_PERSPECTIVES = "org.eclispe.debug.ui.Debug_view.debug_toolbar_hidden_perspectives"; //$NON-NLS-1$
+
+	/**
+	 * Boolean preference controlling whether tree model viewers predict the
+	 * elements about to be revealed while scrolling and retrieve them ahead of
+	 * time, merging nearby requests and limiting the number of concurrent
+	 * requests.
+	 *
+	 * @since 3.18
+	 */
+	String PREF_VIEWER_PREFETCH = "org.eclipse.debug.ui.viewer.prefetch"; //$NON-NLS-1$
 }
 
 
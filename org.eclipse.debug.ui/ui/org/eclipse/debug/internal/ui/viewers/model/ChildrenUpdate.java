@@ -126,13 +126,33 @@ public class ChildrenUpdate extends ViewerUpdateMonitor implements IChildrenUpda
 	 */
 	@Override
 	public synchronized boolean coalesce(ViewerUpdateMonitor request) {
+		return coalesce(request, 0);
+	}
+
+	/**
+	 * Returns whether this request can coalesce the given request, and performs
+	 * the coalesce if it can. Ranges of children separated by up to the given
+	 * number of children are merged, the children in between are retrieved as
+	 * well. With a gap, a range containing this request's range is merged as
+	 * well; without one, ranges are merged as {@link #coalesce(ViewerUpdateMonitor)}
+	 * always did.
+	 *
+	 * @param request request to coalesce with this request
+	 * @param maxGap maximum number of children between the ranges
+	 * @return whether it worked
+	 *
+	 * This method is public so the test suite has access - it should be default
+	 * protection.
+	 */
+	public synchronized boolean coalesce(ViewerUpdateMonitor request, int maxGap) {
 		if (request instanceof ChildrenUpdate) {
 			ChildrenUpdate cu = (ChildrenUpdate) request;
 			if (getElement().equals(cu.getElement()) && getElementPath().equals(cu.getElementPath())) {
 				int end = fIndex + fLength;
 				int otherStart = cu.getOffset();
 				int otherEnd = otherStart + cu.getLength();
-				if ((otherStart >= fIndex && otherStart <= end) || (otherEnd >= fIndex && otherEnd <= end)) {
+				if ((otherStart >= fIndex - maxGap && otherStart <= end + maxGap) || (otherEnd >= fIndex - maxGap && otherEnd <= end + maxGap)
+						|| (maxGap > 0 && otherStart <= fIndex && otherEnd >= end)) {
 					// overlap
 					fIndex = Math.min(fIndex, otherStart);
 					end = Math.max(end, otherEnd);
@@ -36,6 +36,7 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.debug.internal.ui.DebugUIPlugin;
 import org.eclipse.debug.internal.ui.model.elements.ElementContentProvider;
+import org.eclipse.debug.internal.ui.preferences.IDebugPreferenceConstants;
 import org.eclipse.debug.internal.ui.viewers.model.provisional.ICheckboxModelProxy;
 import org.eclipse.debug.internal.ui.viewers.model.provisional.IChildrenUpdate;
 import org.eclipse.debug.internal.ui.viewers.model.provisional.IElementContentProvider;
@@ -142,6 +143,68 @@ public class TreeModelContentProvider implements ITreeModelContentProvider, ICon
 
 	private int fRevealIndex;
 
+	/**
+	 * Maximum number of elements retrieved ahead of the elements requested by
+	 * the viewer when prefetching.
+	 */
+	static final int MAX_PREFETCH = 100;
+
+	/**
+	 * Maximum number of elements between two children ranges of the same
+	 * parent that are still merged into one request when prefetching.
+	 */
+	static final int MAX_COALESCE_GAP = 32;
+
+	/**
+	 * Maximum number of requests in progress when prefetching, each of which
+	 * is one call to an element content provider.
+	 */
+	static final int MAX_REQUESTS_IN_PROGRESS = 16;
+
+	/**
+	 * Whether elements are retrieved ahead of scrolling, see
+	 * {@link IDebugPreferenceConstants#PREF_VIEWER_PREFETCH}. Updated when the
+	 * input changes.
+	 */
+	private boolean fPrefetch;
+
+	/**
+	 * Range of children last requested by the viewer for each parent path,
+	 * used to predict the next range while scrolling.
+	 */
+	private final Map<TreePath, ScrollWindow> fScrollWindows = new HashMap<>();
+
+	/**
+	 * Contiguous range of children requested by the viewer and the distance
+	 * between the starts of the last two ranges.
+	 */
+	private static class ScrollWindow {
+		int fLow;
+		int fHigh;
+		int fVelocity;
+
+		ScrollWindow(int index) {
+			fLow = index;
+			fHigh = index;
+		}
+
+		/**
+		 * Records a request for the given index and returns the number of
+		 * elements to retrieve after (positive) or before (negative) it.
+		 */
+		int next(int index) {
+			if (index >= fLow - 1 && index <= fHigh + 1) {
+				fLow = Math.min(fLow, index);
+				fHigh = Math.max(fHigh, index);
+			} else {
+				fVelocity = index - fLow;
+				fLow = index;
+				fHigh = index;
+			}
+			return Math.max(-MAX_PREFETCH, Math.min(MAX_PREFETCH, fVelocity));
+		}
+	}
+
 	/**
 	 * Update type constants
 	 */
@@ -175,6 +238,7 @@ public class TreeModelContentProvider implements ITreeModelContentProvider, ICon
 			}
 		}
 		fWaitingRequests.clear();
+		fScrollWindows.clear();
 
 		fStateTracker.dispose();
 		fModelListeners.clear();
@@ -203,6 +267,8 @@ public class TreeModelContentProvider implements ITreeModelContentProvider, ICon
 
 		Assert.isTrue( fViewer.getDisplay().getThread() == Thread.currentThread() );
 
+		fScrollWindows.clear();
+		fPrefetch = isPrefetchPreferred();
 		if (oldInput != null) {
 			fStateTracker.saveViewerState(oldInput);
 		}
@@ -968,7 +1034,13 @@ public class TreeModelContentProvider implements ITreeModelContentProvider, ICon
 	 */
 	private ViewerUpdateMonitor coalesce(List<ViewerUpdateMonitor> requests, ViewerUpdateMonitor toCoalesce) {
 		for (ViewerUpdateMonitor waiting : requests) {
-			if (waiting.coalesce(toCoalesce)) {
+			boolean coalesced;
+			if (fPrefetch && waiting instanceof ChildrenUpdate) {
+				coalesced = ((ChildrenUpdate) waiting).coalesce(toCoalesce, MAX_COALESCE_GAP);
+			} else {
+				coalesced = waiting.coalesce(toCoalesce);
+			}
+			if (coalesced) {
 				requests.remove(waiting);
 				// coalesced with existing request, done
 				// try to coalesce the combined requests with other waiting requests
@@ -1027,6 +1099,10 @@ public class TreeModelContentProvider implements ITreeModelContentProvider, ICon
 		if (fWaitingRequests.isEmpty()) {
 			return;
 		}
+		if (fPrefetch && getRequestsInProgressCount() >= MAX_REQUESTS_IN_PROGRESS) {
+			// started when one of the running requests completes
+			return;
+		}
 		List<ViewerUpdateMonitor> waiting = fWaitingRequests.get(schedulingPath);
 		if (waiting == null) {
 			// no waiting, update the entry with the shortest path
@@ -1048,6 +1124,19 @@ public class TreeModelContentProvider implements ITreeModelContentProvider, ICon
 		}
 	}
 
+	/**
+	 * Returns the number of requests in progress.
+	 *
+	 * @return number of requests in progress
+	 */
+	private int getRequestsInProgressCount() {
+		int count = 0;
+		for (List<ViewerUpdateMonitor> requests : fRequestsInProgress.values()) {
+			count += requests.size();
+		}
+		return count;
+	}
+
 	/**
 	 * Returns true if there are running requests for any parent element of
 	 * the given tree path.
@@ -1187,11 +1276,30 @@ public class TreeModelContentProvider implements ITreeModelContentProvider, ICon
 		Object parent = getElement(parentPath);
 		IElementContentProvider contentAdapter = ViewerAdapterService.getContentProvider(parent);
 		if (contentAdapter != null) {
-			ChildrenUpdate request = new ChildrenUpdate(this, getViewer().getInput(), parentPath, parent, modelIndex, contentAdapter);
+			int index = modelIndex;
+			int length = 1;
+			if (fPrefetch) {
+				int prefetch = fScrollWindows.computeIfAbsent(parentPath, p -> new ScrollWindow(modelIndex)).next(modelIndex);
+				if (prefetch != 0) {
+					int count = viewToModelCount(parentPath, getViewer().getChildCount(parentPath));
+					int start = Math.max(0, Math.min(modelIndex, modelIndex + prefetch));
+					int end = Math.min(count, Math.max(modelIndex + 1, modelIndex + 1 + prefetch));
+					if (start <= modelIndex && end > modelIndex) {
+						index = start;
+						length = end - start;
+					}
+				}
+			}
+			ChildrenUpdate request = new ChildrenUpdate(this, getViewer().getInput(), parentPath, parent, index, length, contentAdapter);
 			schedule(request);
 		}
 	}
 
+	private static boolean isPrefetchPreferred() {
+		DebugUIPlugin plugin = DebugUIPlugin.getDefault();
+		return plugin != null && plugin.getPreferenceStore().getBoolean(IDebugPreferenceConstants.PREF_VIEWER_PREFETCH);
+	}
+
 	private void doUpdateHasChildren(TreePath path) {
 		Assert.isTrue( getViewer().getDisplay().getThread() == Thread.currentThread() );
 
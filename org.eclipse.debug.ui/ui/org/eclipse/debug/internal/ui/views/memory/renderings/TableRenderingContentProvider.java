@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,7 +16,6 @@ package org.eclipse.debug.internal.ui.views.memory.renderings;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.Vector;
@@ -29,6 +28,8 @@ import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.debug.core.model.IMemoryBlock;
 import org.eclipse.debug.core.model.IMemoryBlockExtension;
 import org.eclipse.debug.core.model.MemoryByte;
+import org.eclipse.debug.internal.core.MemoryPageCache;
+import org.eclipse.debug.internal.core.MemoryPageCache.MemoryRange;
 import org.eclipse.debug.internal.ui.DebugUIMessages;
 import org.eclipse.debug.internal.ui.DebugUIPlugin;
 import org.eclipse.debug.internal.ui.IInternalDebugUIConstants;
@@ -335,6 +336,7 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 
 		IMemoryBlockExtension extMemoryBlock = null;
 		MemoryByte[] memoryBuffer = null;
+		MemoryRange range = null;
 
 		String paddedString = DebugUIPlugin.getDefault().getPreferenceStore().getString(IDebugUIConstants.PREF_PADDED_STR);
 
@@ -349,13 +351,8 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 
 				long reqNumberOfUnits = getTableRendering(fInput).getAddressableUnitPerLine() * numberOfLines;
 
-				memoryBuffer =	extMemoryBlock.getBytesFromAddress(startingAddress,	reqNumberOfUnits);
-
-				if(memoryBuffer == null)
-				{
-					DebugException e = new DebugException(DebugUIPlugin.newErrorStatus(DebugUIMessages.MemoryViewContentProvider_Unable_to_retrieve_content, null));
-					throw e;
-				}
+				// overlapping ranges are served from pages retrieved before
+				range = MemoryPageCache.getDefault().getBytesFromAddress(extMemoryBlock, startingAddress, reqNumberOfUnits);
 			}
 			else
 			{
@@ -429,7 +426,7 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 		}
 		catch (DebugException e)
 		{
-			memoryBuffer = makeDummyContent(numberOfLines);
+			range = MemoryRange.of(makeDummyContent(numberOfLines));
 
 			// finish creating the content provider before throwing an event
 			dbgEvt = e;
@@ -437,30 +434,15 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 		catch (Throwable e)
 		{
 			// catch all errors from this process just to be safe
-			memoryBuffer = makeDummyContent(numberOfLines);
+			range = MemoryRange.of(makeDummyContent(numberOfLines));
 
 			// finish creating the content provider before throwing an event
 			dbgEvt = new DebugException(DebugUIPlugin.newErrorStatus(e.getMessage(), e));
 		}
 
-		// if debug adapter did not return enough memory, create dummy memory
-		if (memoryBuffer.length < reqNumBytes)
+		if (range == null)
 		{
-			ArrayList<MemoryByte> newBuffer = new ArrayList<>();
-
-			Collections.addAll(newBuffer, memoryBuffer);
-
-			for (int i=memoryBuffer.length; i<reqNumBytes; i++)
-			{
-				MemoryByte mb = new MemoryByte();
-				mb.setReadable(false);
-				mb.setWritable(false);
-				mb.setEndianessKnown(false);
-				newBuffer.add(mb);
-			}
-
-			memoryBuffer = newBuffer.toArray(new MemoryByte[newBuffer.size()]);
-
+			range = MemoryRange.of(memoryBuffer);
 		}
 
 		// clear line cache
@@ -483,14 +465,14 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 		}
 
 		// put memory information into MemoryViewLine
-		organizeLines(numberOfLines, updateDelta, addressLength, memoryBuffer, paddedString, address, manageDelta);
+		organizeLines(numberOfLines, updateDelta, addressLength, range, paddedString, address, manageDelta);
 
 		if (dbgEvt != null){
 			throw dbgEvt;
 		}
 	}
 
-	private void organizeLines(long numberOfLines, boolean updateDelta, int addressLength, MemoryByte[] memoryBuffer, String paddedString, String address, boolean manageDelta)
+	private void organizeLines(long numberOfLines, boolean updateDelta, int addressLength, MemoryRange memoryBuffer, String paddedString, String address, boolean manageDelta)
 	{
 		for (int i = 0; i < numberOfLines; i++)
 		{   //chop the raw memory up
@@ -514,7 +496,11 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 				j++)
 			{
 
-				byte changeFlag = memoryBuffer[j].getFlags();
+				// memory the debug adapter did not return is neither readable
+				// nor writable
+				byte value = j < memoryBuffer.length() ? memoryBuffer.getValue(j) : 0;
+				byte flags = j < memoryBuffer.length() ? memoryBuffer.getFlags(j) : 0;
+				byte changeFlag = flags;
 				if (manageDelta)
 				{
 					// turn off both change and known bits to make sure that
@@ -528,7 +514,7 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 					changeFlag ^= MemoryByte.CHANGED;
 				}
 
-				MemoryByte newByteObj = new MemoryByte(memoryBuffer[j].getValue(), changeFlag);
+				MemoryByte newByteObj = new MemoryByte(value, changeFlag);
 				memory[k] =  newByteObj;
 				k++;
 
@@ -536,7 +522,7 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 				if (!manageDelta)
 				{
 					// If the byte is marked as unknown, the line is not monitored
-					if (!memoryBuffer[j].isHistoryKnown())
+					if ((flags & MemoryByte.HISTORY_KNOWN) == 0)
 					{
 						isMonitored = false;
 					}
@@ -915,7 +901,7 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 			}
 			lineCache.clear();
 
-			organizeLines(numberOfLines, updateDelta, addressLength, memoryBuffer, paddedString, address, manageDelta);
+			organizeLines(numberOfLines, updateDelta, addressLength, MemoryRange.of(memoryBuffer), paddedString, address, manageDelta);
 		}
 	}
 
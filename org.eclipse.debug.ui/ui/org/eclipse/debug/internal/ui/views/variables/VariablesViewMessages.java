@@ -22,7 +22,6 @@ public class VariablesViewMessages extends NLS {
 	public static String DetailPaneMaxLengthDialog_1;
 	public static String DetailPaneMaxLengthDialog_2;
 	public static String DetailPaneMaxLengthDialog_3;
-	public static String LogicalStructureCache_0;
 	public static String ToggleObjectBrowsersAction_1;
 	public static String VariablesView_41;
 	public static String ExpressionView_4;
@@ -22,6 +22,10 @@ import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Map.Entry;
 
 import org.eclipse.core.resources.IMarker;
@@ -89,6 +93,7 @@ public class ExportBreakpointsOperation implements IRunnableWithProgress {
 	public void run(IProgressMonitor monitor) throws InvocationTargetException {
 		SubMonitor localmonitor = SubMonitor.convert(monitor, ImportExportMessages.ExportOperation_0, fBreakpoints.length);
 		XMLMemento memento = XMLMemento.createWriteRoot(IImportExportConstants.IE_NODE_BREAKPOINTS);
+		Map<IAdaptable, String> workingSets = getWorkingSetsAttributes();
 		try (Writer writer = fWriter) {
 			for (IBreakpoint breakpoint : fBreakpoints) {
 				if (localmonitor.isCanceled()) {
@@ -122,7 +127,7 @@ public class ExportBreakpointsOperation implements IRunnableWithProgress {
 						child = root.createChild(IImportExportConstants.IE_NODE_ATTRIB);
 						if(iterval.equals(IInternalDebugUIConstants.WORKING_SET_NAME)) {
 							wsattrib = true;
-							value = getWorkingSetsAttribute(breakpoint);
+							value = workingSets.getOrDefault(breakpoint, ""); //$NON-NLS-1$
 						}
 						child.putString(IImportExportConstants.IE_NODE_NAME, iterval);
 						child.putString(IImportExportConstants.IE_NODE_VALUE, value);
@@ -132,7 +137,7 @@ public class ExportBreakpointsOperation implements IRunnableWithProgress {
 					//ensure the working set infos are present if not previously updated
 					child = root.createChild(IImportExportConstants.IE_NODE_ATTRIB);
 					child.putString(IImportExportConstants.IE_NODE_NAME, IInternalDebugUIConstants.WORKING_SET_NAME);
-					child.putString(IImportExportConstants.IE_NODE_VALUE, getWorkingSetsAttribute(breakpoint));
+					child.putString(IImportExportConstants.IE_NODE_VALUE, workingSets.getOrDefault(breakpoint, "")); //$NON-NLS-1$
 					child = root.createChild(IImportExportConstants.IE_NODE_ATTRIB);
 					child.putString(IImportExportConstants.IE_NODE_NAME, IInternalDebugUIConstants.WORKING_SET_ID);
 					child.putString(IImportExportConstants.IE_NODE_VALUE, IDebugUIConstants.BREAKPOINT_WORKINGSET_ID);
@@ -158,40 +163,26 @@ public class ExportBreakpointsOperation implements IRunnableWithProgress {
 	}
 
 	/**
-	 * Collects all of the breakpoint working sets that contain the given {@link IBreakpoint}
-	 * in the given list
+	 * Computes the working sets attribute of all breakpoints in breakpoint
+	 * working sets, visiting each working set once.
 	 *
-	 * @param breakpoint the breakpoint to get working set information about
-	 * @return the {@link IImportExportConstants#DELIMITER} delimited {@link String} for all of the work sets the given breakpoint belongs to
-	 * @since 3.5
+	 * @return map of breakpoints to the {@link IImportExportConstants#DELIMITER}
+	 *         delimited names of the working sets they belong to
 	 */
-	private String getWorkingSetsAttribute(IBreakpoint breakpoint) {
+	private Map<IAdaptable, String> getWorkingSetsAttributes() {
 		IWorkingSetManager mgr = PlatformUI.getWorkbench().getWorkingSetManager();
-		StringBuilder buffer = new StringBuilder();
-		IWorkingSet[] sets = mgr.getWorkingSets();
-		for (IWorkingSet set : sets) {
-			if (IDebugUIConstants.BREAKPOINT_WORKINGSET_ID.equals(set.getId()) && containsBreakpoint(set, breakpoint)) {
-				buffer.append(IImportExportConstants.DELIMITER).append(set.getName());
-			}
-		}
-		return buffer.toString();
-	}
-
-	/**
-	 * Method to ensure markers and breakpoints are not both added to the working set
-	 * @param set the set to check
-	 * @param breakpoint the breakpoint to check for existence
-	 * @return true if it is present false otherwise
-	 * @since 3.5
-	 */
-	private boolean containsBreakpoint(IWorkingSet set, IBreakpoint breakpoint) {
-		IAdaptable[] elements = set.getElements();
-		for (IAdaptable element : elements) {
-			if (element.equals(breakpoint)) {
-				return true;
+		Map<IAdaptable, StringBuilder> buffers = new HashMap<>();
+		for (IWorkingSet set : mgr.getWorkingSets()) {
+			if (IDebugUIConstants.BREAKPOINT_WORKINGSET_ID.equals(set.getId())) {
+				// the same breakpoint may be contained more than once
+				for (IAdaptable element : new LinkedHashSet<>(Arrays.asList(set.getElements()))) {
+					buffers.computeIfAbsent(element, e -> new StringBuilder()).append(IImportExportConstants.DELIMITER).append(set.getName());
+				}
 			}
 		}
-		return false;
+		Map<IAdaptable, String> attributes = new HashMap<>(buffers.size());
+		buffers.forEach((element, buffer) -> attributes.put(element, buffer.toString()));
+		return attributes;
 	}
 
 	/**
@@ -27,13 +27,18 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdaptable;
@@ -42,6 +47,7 @@ import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.model.IBreakpoint;
 import org.eclipse.debug.core.model.IBreakpointImportParticipant;
+import org.eclipse.debug.internal.core.BreakpointImportMatcher;
 import org.eclipse.debug.internal.core.BreakpointManager;
 import org.eclipse.debug.internal.ui.IInternalDebugUIConstants;
 import org.eclipse.debug.internal.ui.importexport.breakpoints.IImportExportConstants;
@@ -77,6 +83,18 @@ public class ImportBreakpointsOperation implements IRunnableWithProgress {
 
 	private BreakpointManager fManager = (BreakpointManager) DebugPlugin.getDefault().getBreakpointManager();
 
+	/**
+	 * Index of the breakpoints existing before the import, used to find
+	 * breakpoints equivalent to imported ones.
+	 */
+	private BreakpointImportMatcher fMatcher = null;
+
+	/**
+	 * Working sets of restored breakpoints, applied once all breakpoints are
+	 * restored.
+	 */
+	private Map<IBreakpoint, String[]> fWorkingSetUpdates = new LinkedHashMap<>();
+
 	/**
 	 * When a buffer is specified, a file is not used.
 	 */
@@ -180,57 +198,69 @@ public class ImportBreakpointsOperation implements IRunnableWithProgress {
 			}
 			IMemento[] nodes = memento.getChildren(IImportExportConstants.IE_NODE_BREAKPOINT);
 			IWorkspaceRoot workspace = ResourcesPlugin.getWorkspace().getRoot();
-			localmonitor.setWorkRemaining(nodes.length);
-			Map<String, Object> attributes = null;
-			IBreakpointImportParticipant[] participants = null;
-			for (IMemento node : nodes) {
-				if(localmonitor.isCanceled()) {
-					return;
-				}
-				attributes = collectBreakpointProperties(node);
-				if(attributes == null) {
-					continue;
-				}
-				IResource resource;
-				if(fImportBreakpoints) {
-					resource = workspace.findMember((String) attributes.get(IImportExportConstants.IE_NODE_PATH));
-				} else {
-					resource = workspace;
-				}
-				// filter resource breakpoints that do not exist in this workspace
-				if(resource != null) {
-					try {
-						participants = fManager.getImportParticipants((String) attributes.get(IImportExportConstants.IE_NODE_TYPE));
+			localmonitor.setWorkRemaining(nodes.length + 1);
+			fMatcher = new BreakpointImportMatcher(fManager.getBreakpoints());
+			// create and update all markers in one workspace operation
+			IWorkspaceRunnable restore = wmonitor -> {
+				Map<String, Object> attributes = null;
+				IBreakpointImportParticipant[] participants = null;
+				for (IMemento node : nodes) {
+					if (localmonitor.isCanceled()) {
+						return;
 					}
-					catch(CoreException ce) {}
-					IMarker marker = findExistingMarker(attributes, participants);
-					if(marker == null) {
-						marker = resource.createMarker((String) attributes.get(IImportExportConstants.IE_NODE_TYPE));
-						restoreBreakpoint(marker, attributes, participants);
+					attributes = collectBreakpointProperties(node);
+					if (attributes == null) {
+						continue;
 					}
-					else {
-						if(fOverwriteAll) {
-							if(!fImportBreakpoints) {
-								marker = resource.createMarker((String) attributes.get(IImportExportConstants.IE_NODE_TYPE));
-							} else {
-								marker.setAttributes(null);
-							}
+					IResource resource;
+					if (fImportBreakpoints) {
+						resource = workspace.findMember((String) attributes.get(IImportExportConstants.IE_NODE_PATH));
+					} else {
+						resource = workspace;
+					}
+					// filter resource breakpoints that do not exist in this workspace
+					if (resource != null) {
+						try {
+							participants = fManager.getImportParticipants((String) attributes.get(IImportExportConstants.IE_NODE_TYPE));
+						} catch (CoreException ce) {
+						}
+						IMarker marker = findExistingMarker(attributes, participants);
+						if (marker == null) {
+							marker = resource.createMarker((String) attributes.get(IImportExportConstants.IE_NODE_TYPE));
 							restoreBreakpoint(marker, attributes, participants);
+						} else {
+							if (fOverwriteAll) {
+								if (!fImportBreakpoints) {
+									marker = resource.createMarker((String) attributes.get(IImportExportConstants.IE_NODE_TYPE));
+								} else {
+									marker.setAttributes(null);
+								}
+								restoreBreakpoint(marker, attributes, participants);
+							}
 						}
 					}
+					fCurrentWorkingSetProperty = null;
+					localmonitor.worked(1);
 				}
-				fCurrentWorkingSetProperty = null;
-				localmonitor.worked(1);
+			};
+			ResourcesPlugin.getWorkspace().run(restore, null, IWorkspace.AVOID_UPDATE, null);
+			if (localmonitor.isCanceled()) {
+				return;
 			}
+			updateWorkingSets();
 			if(fAdded.size() > 0 && fImportBreakpoints) {
+				// registers all breakpoints with a single notification
 				fManager.addBreakpoints(fAdded.toArray(new IBreakpoint[fAdded.size()]));
 			}
+			localmonitor.worked(1);
 		}
 		catch(CoreException ce) {
 			throw new InvocationTargetException(ce,
  MessageFormat.format("There was a problem importing breakpoints from: {0}", new Object[] { fFileName })); //$NON-NLS-1$
 		}
 		finally {
+			fMatcher = null;
+			fWorkingSetUpdates.clear();
 			localmonitor.done();
 		}
 	}
@@ -243,17 +273,11 @@ public class ImportBreakpointsOperation implements IRunnableWithProgress {
 	 * @since 3.5
 	 */
 	protected IMarker findExistingMarker(Map<String, Object> attributes, IBreakpointImportParticipant[] participants) {
-		IBreakpoint[] bps = fManager.getBreakpoints();
-		for (IBreakpoint bp : bps) {
-			for (IBreakpointImportParticipant participant : participants) {
-				try {
-					if (participant.matches(attributes, bp)) {
-						return bp.getMarker();
-					}
-				}catch(CoreException ce) {}
-			}
+		BreakpointImportMatcher matcher = fMatcher;
+		if (matcher == null) {
+			matcher = new BreakpointImportMatcher(fManager.getBreakpoints());
 		}
-		return null;
+		return matcher.findExistingMarker(attributes, participants);
 	}
 
 	/**
@@ -344,7 +368,7 @@ public class ImportBreakpointsOperation implements IRunnableWithProgress {
 			fAdded.add(breakpoint);
 			if (fImportBreakpoints && fCreateWorkingSets && fCurrentWorkingSetProperty != null) {
 				String[] names = fCurrentWorkingSetProperty.split("\\" + IImportExportConstants.DELIMITER); //$NON-NLS-1$
-				updateWorkingSets(names, breakpoint);
+				fWorkingSetUpdates.put(breakpoint, names);
 			}
 			if(participants != null) {
 				for (IBreakpointImportParticipant participant : participants) {
@@ -358,6 +382,7 @@ public class ImportBreakpointsOperation implements IRunnableWithProgress {
 			if(breakpoint != null) {
 				try {
 					fAdded.remove(breakpoint);
+					fWorkingSetUpdates.remove(breakpoint);
 					marker.delete();
 				} catch (CoreException e) {}
 			}
@@ -365,76 +390,52 @@ public class ImportBreakpointsOperation implements IRunnableWithProgress {
 	}
 
 	/**
-	 * Updates the working sets the given breakpoint belongs to
-	 * @param wsnames the array of working set names
-	 * @param breakpoint the breakpoint to add to the working sets
-	 * @since 3.5
+	 * Updates the working sets of all restored breakpoints. Each breakpoint is
+	 * added to the working sets it was exported from, creating them if needed,
+	 * and removed from other breakpoint working sets. Each working set is
+	 * updated once.
 	 */
-	private void updateWorkingSets(String[] wsnames, IBreakpoint breakpoint) {
+	private void updateWorkingSets() {
+		if (fWorkingSetUpdates.isEmpty()) {
+			return;
+		}
 		IWorkingSetManager mgr = PlatformUI.getWorkbench().getWorkingSetManager();
-		ArrayList<IWorkingSet> sets = new ArrayList<>();
-		collectContainingWorkingsets(breakpoint, sets);
-		for (String wsname : wsnames) {
-			if ("".equals(wsname)) { //$NON-NLS-1$
-				continue;
-			}
-			IWorkingSet set = mgr.getWorkingSet(wsname);
-			if (set == null) {
-				//create working set
-				set = mgr.createWorkingSet(wsname, new IAdaptable[] {});
-				set.setId(IDebugUIConstants.BREAKPOINT_WORKINGSET_ID);
-				mgr.addWorkingSet(set);
+		Map<IWorkingSet, Set<IAdaptable>> elements = new LinkedHashMap<>();
+		for (IWorkingSet set : mgr.getWorkingSets()) {
+			if (IDebugUIConstants.BREAKPOINT_WORKINGSET_ID.equals(set.getId())) {
+				elements.put(set, new LinkedHashSet<>(Arrays.asList(set.getElements())));
 			}
-			if(!sets.contains(set)) {
-				IAdaptable[] elements = set.getElements();
-				IAdaptable[] newElements = new IAdaptable[elements.length + 1];
-				newElements[newElements.length - 1] = breakpoint;
-				System.arraycopy(elements, 0, newElements, 0, elements.length);
-				set.setElements(newElements);
-			}
-			sets.remove(set);
 		}
-		ArrayList<IAdaptable> items = null;
-		for (IWorkingSet set : sets) {
-			items = new ArrayList<>(Arrays.asList(set.getElements()));
-			if(items.remove(breakpoint)) {
-				set.setElements(items.toArray(new IAdaptable[items.size()]));
+		Set<IWorkingSet> changed = new HashSet<>();
+		for (Entry<IBreakpoint, String[]> update : fWorkingSetUpdates.entrySet()) {
+			IBreakpoint breakpoint = update.getKey();
+			Set<IWorkingSet> sets = new HashSet<>();
+			for (String wsname : update.getValue()) {
+				if ("".equals(wsname)) { //$NON-NLS-1$
+					continue;
+				}
+				IWorkingSet set = mgr.getWorkingSet(wsname);
+				if (set == null) {
+					//create working set
+					set = mgr.createWorkingSet(wsname, new IAdaptable[] {});
+					set.setId(IDebugUIConstants.BREAKPOINT_WORKINGSET_ID);
+					mgr.addWorkingSet(set);
+				}
+				sets.add(set);
+				if (elements.computeIfAbsent(set, s -> new LinkedHashSet<>(Arrays.asList(s.getElements()))).add(breakpoint)) {
+					changed.add(set);
+				}
 			}
-		}
-	}
-
-	/**
-	 * Collects all of the breakpoint working sets that contain the given {@link IBreakpoint}
-	 * in the given list
-	 *
-	 * @param breakpoint the breakpoint to collect working set containers from
-	 * @param collector the list to collect containing working sets in
-	 * @since 3.5
-	 */
-	private void collectContainingWorkingsets(IBreakpoint breakpoint, List<IWorkingSet> collector) {
-		IWorkingSetManager mgr = PlatformUI.getWorkbench().getWorkingSetManager();
-		IWorkingSet[] sets = mgr.getWorkingSets();
-		for (IWorkingSet set : sets) {
-			if (IDebugUIConstants.BREAKPOINT_WORKINGSET_ID.equals(set.getId()) && containsBreakpoint(set, breakpoint)) {
-				collector.add(set);
+			for (Entry<IWorkingSet, Set<IAdaptable>> entry : elements.entrySet()) {
+				if (!sets.contains(entry.getKey()) && IDebugUIConstants.BREAKPOINT_WORKINGSET_ID.equals(entry.getKey().getId()) && entry.getValue().remove(breakpoint)) {
+					changed.add(entry.getKey());
+				}
 			}
 		}
-	}
-
-	/**
-	 * Method to ensure markers and breakpoints are not both added to the working set
-	 * @param set the set to check
-	 * @param breakpoint the breakpoint to check for existence
-	 * @return true if it is present false otherwise
-	 */
-	private boolean containsBreakpoint(IWorkingSet set, IBreakpoint breakpoint) {
-		IAdaptable[] elements = set.getElements();
-		for (IAdaptable element : elements) {
-			if (element.equals(breakpoint)) {
-				return true;
-			}
+		for (IWorkingSet set : changed) {
+			Set<IAdaptable> members = elements.get(set);
+			set.setElements(members.toArray(new IAdaptable[members.size()]));
 		}
-		return false;
 	}
 
 	/**
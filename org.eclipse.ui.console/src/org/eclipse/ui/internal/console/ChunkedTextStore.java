@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.console;
+
+import java.util.Arrays;
+
+import org.eclipse.jface.text.ITextStore;
+
+/**
+ * A text store for console content, which grows at its end and is trimmed at
+ * its beginning.
+ * <p>
+ * The text is stored in a sequence of chunks of bounded size. Only the last
+ * chunk is appended to, so appending never moves existing text. Removing text
+ * from the beginning drops the chunks that are entirely removed and does not
+ * touch the remaining text, so trimming costs in proportion to the number of
+ * dropped chunks. Other changes, which in a console are usually edits of the
+ * input near the end of the document, copy the text following the change.
+ * </p>
+ * <p>
+ * Offsets are located by a binary search over the start offsets of the chunks.
+ * Not thread safe, the console document synchronizes access.
+ * </p>
+ */
+public class ChunkedTextStore implements ITextStore {
+
+	/**
+	 * Default maximum number of characters of a chunk.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+	private final int fChunkSize;
+
+	/**
+	 * Circular buffer of chunks, its capacity is a power of two.
+	 */
+	private char[][] fChunks = new char[16][];
+
+	/**
+	 * Number of characters used in each chunk.
+	 */
+	private int[] fUsed = new int[16];
+
+	/**
+	 * Start of each chunk in the stream of all text ever appended.
+	 */
+	private long[] fStarts = new long[16];
+
+	private int fHead;
+	private int fCount;
+
+	/**
+	 * Position of the first character of the text in the stream of all text
+	 * ever appended. Characters of the first chunk before this position have
+	 * been removed.
+	 */
+	private long fBase;
+
+	private int fLength;
+
+	/**
+	 * Creates an empty store with chunks of {@link #DEFAULT_CHUNK_SIZE}
+	 * characters.
+	 */
+	public ChunkedTextStore() {
+		this(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates an empty store with chunks of the given maximum size.
+	 *
+	 * @param chunkSize maximum number of characters of a chunk
+	 */
+	public ChunkedTextStore(int chunkSize) {
+		fChunkSize = Math.max(1, chunkSize);
+	}
+
+	@Override
+	public char get(int offset) {
+		checkRange(offset, 1);
+		long position = fBase + offset;
+		int index = indexOf(position);
+		return fChunks[slot(index)][(int) (position - fStarts[slot(index)])];
+	}
+
+	@Override
+	public String get(int offset, int length) {
+		checkRange(offset, length);
+		if (length == 0) {
+			return ""; //$NON-NLS-1$
+		}
+		char[] result = new char[length];
+		long position = fBase + offset;
+		int index = indexOf(position);
+		int copied = 0;
+		while (copied < length) {
+			int slot = slot(index++);
+			int start = (int) (position + copied - fStarts[slot]);
+			int count = Math.min(fUsed[slot] - start, length - copied);
+			System.arraycopy(fChunks[slot], start, result, copied, count);
+			copied += count;
+		}
+		return new String(result);
+	}
+
+	@Override
+	public int getLength() {
+		return fLength;
+	}
+
+	@Override
+	public void replace(int offset, int length, String text) {
+		checkRange(offset, length);
+		int textLength = text == null ? 0 : text.length();
+		if (offset == 0 && length == fLength) {
+			set(text);
+			return;
+		}
+		if (offset == fLength) {
+			append(text);
+			return;
+		}
+		if (offset == 0) {
+			removeStart(length);
+			if (textLength > 0) {
+				String tail = get(0, fLength);
+				set(text);
+				append(tail);
+			}
+			return;
+		}
+		String tail = get(offset + length, fLength - offset - length);
+		truncate(offset);
+		append(text);
+		append(tail);
+	}
+
+	@Override
+	public void set(String text) {
+		Arrays.fill(fChunks, null);
+		fHead = 0;
+		fCount = 0;
+		fBase = 0;
+		fLength = 0;
+		append(text);
+	}
+
+	/**
+	 * Appends the given text to the end of the store.
+	 */
+	private void append(String text) {
+		if (text == null) {
+			return;
+		}
+		int appended = 0;
+		int textLength = text.length();
+		while (appended < textLength) {
+			int slot;
+			if (fCount == 0 || fUsed[slot(fCount - 1)] == fChunkSize) {
+				slot = addChunk(Math.min(fChunkSize, textLength - appended));
+			} else {
+				slot = slot(fCount - 1);
+				char[] chunk = fChunks[slot];
+				int required = fUsed[slot] + textLength - appended;
+				if (chunk.length < fChunkSize && required > chunk.length) {
+					fChunks[slot] = Arrays.copyOf(chunk, Math.min(fChunkSize, Math.max(required, chunk.length * 2)));
+				}
+			}
+			char[] chunk = fChunks[slot];
+			int count = Math.min(chunk.length - fUsed[slot], textLength - appended);
+			text.getChars(appended, appended + count, chunk, fUsed[slot]);
+			fUsed[slot] += count;
+			fLength += count;
+			appended += count;
+		}
+	}
+
+	/**
+	 * Adds an empty chunk at the end with at least the given capacity.
+	 *
+	 * @return the slot of the new chunk
+	 */
+	private int addChunk(int capacity) {
+		if (fCount == fChunks.length) {
+			grow();
+		}
+		long start = fBase + fLength;
+		int slot = slot(fCount++);
+		fChunks[slot] = new char[Math.min(fChunkSize, Math.max(capacity, 16))];
+		fUsed[slot] = 0;
+		fStarts[slot] = start;
+		return slot;
+	}
+
+	private void grow() {
+		int capacity = fChunks.length * 2;
+		char[][] chunks = new char[capacity][];
+		int[] used = new int[capacity];
+		long[] starts = new long[capacity];
+		for (int i = 0; i < fCount; i++) {
+			int slot = slot(i);
+			chunks[i] = fChunks[slot];
+			used[i] = fUsed[slot];
+			starts[i] = fStarts[slot];
+		}
+		fChunks = chunks;
+		fUsed = used;
+		fStarts = starts;
+		fHead = 0;
+	}
+
+	/**
+	 * Removes the given number of characters from the beginning, dropping the
+	 * chunks that are entirely removed.
+	 */
+	private void removeStart(int length) {
+		fBase += length;
+		fLength -= length;
+		while (fCount > 0 && fStarts[fHead] + fUsed[fHead] <= fBase) {
+			fChunks[fHead] = null;
+			fHead = (fHead + 1) & (fChunks.length - 1);
+			fCount--;
+		}
+		if (fCount == 0) {
+			fHead = 0;
+		}
+	}
+
+	/**
+	 * Removes the text from the given offset to the end.
+	 */
+	private void truncate(int offset) {
+		long position = fBase + offset;
+		int index = indexOf(position);
+		int slot = slot(index);
+		int used = (int) (position - fStarts[slot]);
+		if (used == 0 && index > 0) {
+			index--;
+			slot = slot(index);
+			used = fUsed[slot];
+		}
+		for (int i = index + 1; i < fCount; i++) {
+			fChunks[slot(i)] = null;
+		}
+		fCount = index + 1;
+		// the truncated chunk becomes the last chunk and may be appended to
+		fChunks[slot] = Arrays.copyOf(fChunks[slot], Math.min(fChunkSize, Math.max(used, 16)));
+		fUsed[slot] = used;
+		fLength = offset;
+	}
+
+	/**
+	 * Returns the index of the chunk containing the given position of the
+	 * stream.
+	 */
+	private int indexOf(long position) {
+		int low = 0;
+		int high = fCount - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (fStarts[slot(middle)] <= position) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	private int slot(int index) {
+		return (fHead + index) & (fChunks.length - 1);
+	}
+
+	private void checkRange(int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > fLength) {
+			throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) + ") out of bounds for length " + fLength); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+	}
+}
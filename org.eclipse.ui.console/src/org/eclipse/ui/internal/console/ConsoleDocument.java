@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,6 +24,15 @@ import org.eclipse.jface.text.Position;
  */
 public class ConsoleDocument extends Document {
 
+	/**
+	 * Creates an empty console document, whose text is stored in chunks so
+	 * that appending output and trimming the beginning of the document do not
+	 * move the remaining text.
+	 */
+	public ConsoleDocument() {
+		setTextStore(new ChunkedTextStore());
+	}
+
 	@Override
 	public synchronized String get(int pos, int length) throws BadLocationException {
 		return super.get(pos, length);
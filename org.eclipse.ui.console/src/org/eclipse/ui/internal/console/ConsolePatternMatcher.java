@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -41,6 +41,12 @@ public class ConsolePatternMatcher implements IDocumentListener {
 	 */
 	private ArrayList<CompiledPatternMatchListener> fPatterns = new ArrayList<>();
 
+	/**
+	 * Matcher of the literal qualifiers of {@link #fPatterns}, created on
+	 * demand and discarded when listeners are added or removed
+	 */
+	private QualifierMatcher fQualifiers;
+
 	private TextConsole fConsole;
 
 	private boolean fFinalMatch;
@@ -62,8 +68,6 @@ public class ConsolePatternMatcher implements IDocumentListener {
 		@Override
 		protected IStatus run(IProgressMonitor monitor) {
 			IDocument doc = fConsole.getDocument();
-			String text = null;
-			int prevBaseOffset = -1;
 			if (doc != null && !monitor.isCanceled()) {
 				int endOfSearch = doc.getLength();
 				int indexOfLastChar = endOfSearch;
@@ -79,84 +83,43 @@ public class ConsolePatternMatcher implements IDocumentListener {
 					// perhaps the buffer was re-set
 					return Status.OK_STATUS;
 				}
-				Object[] patterns = null;
+				CompiledPatternMatchListener[] patterns = null;
+				QualifierMatcher qualifiers = null;
 				synchronized (fPatterns) {
-					patterns = fPatterns.toArray();
-				}
-				for (Object pattern : patterns) {
-					if (monitor.isCanceled()) {
-						break;
+					patterns = fPatterns.toArray(new CompiledPatternMatchListener[fPatterns.size()]);
+					if (fQualifiers == null) {
+						String[][] literals = new String[patterns.length][];
+						for (int i = 0; i < patterns.length; i++) {
+							literals[i] = patterns[i].literals;
+						}
+						fQualifiers = new QualifierMatcher(literals);
 					}
-					CompiledPatternMatchListener notifier = (CompiledPatternMatchListener) pattern;
-					int baseOffset = notifier.end;
-					int lengthToSearch = endOfSearch - baseOffset;
-					if (lengthToSearch > 0) {
-						try {
-							if (prevBaseOffset != baseOffset) {
-								// reuse the text string if possible
-								text = doc.get(baseOffset, lengthToSearch);
-							}
-							if(text == null) {
-								continue;
-							}
-							Matcher reg = notifier.pattern.matcher(text);
-							Matcher quick = null;
-							if (notifier.qualifier != null) {
-								quick = notifier.qualifier.matcher(text);
-							}
-							int startOfNextSearch = 0;
-							int endOfLastMatch = -1;
-							int lineOfLastMatch = -1;
-							while ((startOfNextSearch < lengthToSearch) && !monitor.isCanceled()) {
-								if (quick != null) {
-									if (quick.find(startOfNextSearch)) {
-										// start searching on the beginning
-										// of the line where the potential
-										// match was found, or after the
-										// last match on the same line
-										int matchLine = doc.getLineOfOffset(baseOffset + quick.start());
-										if (lineOfLastMatch == matchLine) {
-											startOfNextSearch = endOfLastMatch;
-										} else {
-											startOfNextSearch = doc.getLineOffset(matchLine) - baseOffset;
-										}
-									} else {
-										startOfNextSearch = lengthToSearch;
-									}
-								}
-								if (startOfNextSearch < 0) {
-									startOfNextSearch = 0;
-								}
-								if (startOfNextSearch < lengthToSearch) {
-									if (reg.find(startOfNextSearch)) {
-										endOfLastMatch = reg.end();
-										lineOfLastMatch = doc.getLineOfOffset(baseOffset + endOfLastMatch - 1);
-										int regStart = reg.start();
-										IPatternMatchListener listener = notifier.listener;
-										if (listener != null && !monitor.isCanceled()) {
-											listener.matchFound(new PatternMatchEvent(fConsole, baseOffset + regStart, endOfLastMatch - regStart));
-										}
-										startOfNextSearch = endOfLastMatch;
-									} else {
-										startOfNextSearch = lengthToSearch;
-									}
-								}
-							}
-							// update start of next search to the last line
-							// searched
-							// or the end of the last match if it was on the
-							// line that
-							// was last searched
-							if (lastLineToSearch == lineOfLastMatch) {
-								notifier.end = baseOffset + endOfLastMatch;
-							} else {
-								notifier.end = offsetOfLastLineToSearch;
+					qualifiers = fQualifiers;
+				}
+				// the text not yet searched by any listener is retrieved once
+				// and shared by all listeners
+				int[] baseOffsets = new int[patterns.length];
+				int textOffset = endOfSearch;
+				for (int i = 0; i < patterns.length; i++) {
+					baseOffsets[i] = patterns[i].end;
+					textOffset = Math.min(textOffset, baseOffsets[i]);
+				}
+				if (textOffset < endOfSearch) {
+					try {
+						String text = doc.get(textOffset, endOfSearch - textOffset);
+						int[] from = new int[patterns.length];
+						for (int i = 0; i < patterns.length; i++) {
+							from[i] = baseOffsets[i] - textOffset;
+						}
+						int[][] qualified = qualifiers.findQualifiers(text, from);
+						for (int i = 0; i < patterns.length && !monitor.isCanceled(); i++) {
+							if (baseOffsets[i] < endOfSearch) {
+								match(doc, patterns[i], text, textOffset, from[i], qualified[i], lastLineToSearch, offsetOfLastLineToSearch, monitor);
 							}
-						} catch (BadLocationException e) {
-							ConsolePlugin.log(e);
 						}
+					} catch (BadLocationException e) {
+						ConsolePlugin.log(e);
 					}
-					prevBaseOffset = baseOffset;
 				}
 			}
 
@@ -171,6 +134,101 @@ public class ConsolePatternMatcher implements IDocumentListener {
 			return Status.OK_STATUS;
 		}
 
+		/**
+		 * Notifies the given listener of the matches of its pattern in the
+		 * given text, searching only lines that match its qualifier. The text
+		 * is shared by all listeners, each searching a region of it.
+		 *
+		 * @param doc the document
+		 * @param notifier the listener
+		 * @param text the document text to the end of the search
+		 * @param textOffset document offset of the text
+		 * @param from offset in the text from which the listener searches
+		 * @param qualified offsets relative to <code>from</code> at which the
+		 *            listener's literal qualifier matches, or
+		 *            <code>null</code> if its qualifier is matched as a
+		 *            regular expression
+		 * @param lastLineToSearch last line of the document
+		 * @param offsetOfLastLineToSearch offset of the last line
+		 * @param monitor progress monitor
+		 * @throws BadLocationException if the document changed
+		 */
+		private void match(IDocument doc, CompiledPatternMatchListener notifier, String text, int textOffset, int from, int[] qualified, int lastLineToSearch, int offsetOfLastLineToSearch, IProgressMonitor monitor) throws BadLocationException {
+			Pattern pattern = notifier.pattern;
+			if (pattern == null) {
+				// disposed
+				return;
+			}
+			int lengthToSearch = text.length();
+			// the region of a matcher is set for each search; anchors do not
+			// match at its bounds and lookarounds see beyond them
+			Matcher reg = pattern.matcher(text).useAnchoringBounds(false).useTransparentBounds(true);
+			Matcher quick = null;
+			if (qualified == null && notifier.qualifier != null) {
+				quick = notifier.qualifier.matcher(text).useAnchoringBounds(false).useTransparentBounds(true);
+			}
+			int nextQualified = 0;
+			int startOfNextSearch = from;
+			int endOfLastMatch = -1;
+			int lineOfLastMatch = -1;
+			while ((startOfNextSearch < lengthToSearch) && !monitor.isCanceled()) {
+				int qualifierStart = -1;
+				if (qualified != null) {
+					while (nextQualified < qualified.length && from + qualified[nextQualified] < startOfNextSearch) {
+						nextQualified++;
+					}
+					if (nextQualified < qualified.length) {
+						qualifierStart = from + qualified[nextQualified];
+					}
+				} else if (quick != null && quick.region(startOfNextSearch, lengthToSearch).find()) {
+					qualifierStart = quick.start();
+				}
+				if (qualified != null || quick != null) {
+					if (qualifierStart >= 0) {
+						// start searching on the beginning
+						// of the line where the potential
+						// match was found, or after the
+						// last match on the same line
+						int matchLine = doc.getLineOfOffset(textOffset + qualifierStart);
+						if (lineOfLastMatch == matchLine) {
+							startOfNextSearch = endOfLastMatch;
+						} else {
+							startOfNextSearch = doc.getLineOffset(matchLine) - textOffset;
+						}
+					} else {
+						startOfNextSearch = lengthToSearch;
+					}
+				}
+				if (startOfNextSearch < from) {
+					startOfNextSearch = from;
+				}
+				if (startOfNextSearch < lengthToSearch) {
+					if (reg.region(startOfNextSearch, lengthToSearch).find()) {
+						endOfLastMatch = reg.end();
+						lineOfLastMatch = doc.getLineOfOffset(textOffset + endOfLastMatch - 1);
+						int regStart = reg.start();
+						IPatternMatchListener listener = notifier.listener;
+						if (listener != null && !monitor.isCanceled()) {
+							listener.matchFound(new PatternMatchEvent(fConsole, textOffset + regStart, endOfLastMatch - regStart));
+						}
+						startOfNextSearch = endOfLastMatch;
+					} else {
+						startOfNextSearch = lengthToSearch;
+					}
+				}
+			}
+			// update start of next search to the last line
+			// searched
+			// or the end of the last match if it was on the
+			// line that
+			// was last searched
+			if (lastLineToSearch == lineOfLastMatch) {
+				notifier.end = textOffset + endOfLastMatch;
+			} else {
+				notifier.end = offsetOfLastLineToSearch;
+			}
+		}
+
 		@Override
 		public boolean belongsTo(Object family) {
 			return family == fConsole;
@@ -184,20 +242,28 @@ public class ConsolePatternMatcher implements IDocumentListener {
 
 		Pattern qualifier;
 
+		/**
+		 * Literals matched by the qualifier, or <code>null</code> if it is
+		 * not an alternative of literals
+		 */
+		String[] literals;
+
 		IPatternMatchListener listener;
 
 		int end = 0;
 
-		CompiledPatternMatchListener(Pattern pattern, Pattern qualifier, IPatternMatchListener matchListener) {
+		CompiledPatternMatchListener(Pattern pattern, Pattern qualifier, String[] literals, IPatternMatchListener matchListener) {
 			this.pattern = pattern;
 			this.listener = matchListener;
 			this.qualifier = qualifier;
+			this.literals = literals;
 		}
 
 		public void dispose() {
 			listener.disconnect();
 			pattern = null;
 			qualifier = null;
+			literals = null;
 			listener = null;
 		}
 	}
@@ -224,11 +290,14 @@ public class ConsolePatternMatcher implements IDocumentListener {
 			Pattern pattern = Pattern.compile(matchListener.getPattern(), matchListener.getCompilerFlags());
 			String qualifier = matchListener.getLineQualifier();
 			Pattern qPattern = null;
+			String[] literals = null;
 			if (qualifier != null) {
 				qPattern = Pattern.compile(qualifier, matchListener.getCompilerFlags());
+				literals = QualifierMatcher.getLiterals(qualifier, matchListener.getCompilerFlags());
 			}
-			CompiledPatternMatchListener notifier = new CompiledPatternMatchListener(pattern, qPattern, matchListener);
+			CompiledPatternMatchListener notifier = new CompiledPatternMatchListener(pattern, qPattern, literals, matchListener);
 			fPatterns.add(notifier);
+			fQualifiers = null;
 			matchListener.connect(fConsole);
 			fMatchJob.schedule();
 		}
@@ -247,6 +316,7 @@ public class ConsolePatternMatcher implements IDocumentListener {
 				CompiledPatternMatchListener element = iter.next();
 				if (element.listener == matchListener) {
 					iter.remove();
+					fQualifiers = null;
 					matchListener.disconnect();
 				}
 			}
@@ -260,6 +330,7 @@ public class ConsolePatternMatcher implements IDocumentListener {
 				listener.dispose();
 			}
 			fPatterns.clear();
+			fQualifiers = null;
 		}
 	}
 
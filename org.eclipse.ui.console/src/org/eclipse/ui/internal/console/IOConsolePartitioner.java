@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,14 +22,13 @@
 package org.eclipse.ui.internal.console;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -123,12 +122,36 @@ public class IOConsolePartitioner
 	 */
 	private static final int MAX_BUFFER_BYTES = 16_000_000;
 	/**
-	 * Queue of buffers that have not yet been appended to the document. Every
-	 * buffer will hold up to 8192 byte - but typically a single line output if
-	 * handled fast. The debugged application will block if the limit is exceeded.
+	 * Maximum number of pending characters. The debugged application will block
+	 * if the limit is exceeded.
 	 */
-	private final BlockingQueue<PendingPartition> pendingPartitions = new LinkedBlockingQueue<>(
-			MAX_BUFFER_BYTES / 8192);
+	private static final int MAX_PENDING_CHARS = MAX_BUFFER_BYTES / 2;
+	/**
+	 * Default maximum number of pending characters appended to the document by
+	 * one run of the {@link QueueProcessingJob}.
+	 */
+	public static final int DEFAULT_FRAME_BUDGET = 1 << 20;
+	/**
+	 * Queue of output that has not yet been appended to the document, in order of
+	 * appending. Consecutive output of the same stream is collected in the last
+	 * pending partition, so the queue usually holds few, large partitions even if
+	 * streams write many small strings. Guarded by itself.
+	 */
+	private final ArrayDeque<PendingPartition> pendingPartitions = new ArrayDeque<>();
+	/** Number of characters in {@link #pendingPartitions}. */
+	private int pendingLength;
+	/** Number of times a stream waited for pending output to be processed. */
+	private long producerWaitCount;
+	/** Total time streams waited for pending output to be processed. */
+	private long producerWaitNanos;
+	/** Maximum number of characters pending at once. */
+	private int maxPendingLength;
+	/**
+	 * Maximum number of pending characters appended to the document by one run of
+	 * the {@link QueueProcessingJob}. Consecutive output of a stream is only
+	 * collected in one pending partition up to this size.
+	 */
+	private volatile int frameBudget = DEFAULT_FRAME_BUDGET;
 	/** Job that appends pending partitions to the document. */
 	private final QueueProcessingJob queueJob = new QueueProcessingJob();
 	/** Job that trims console content if it exceeds {@link #highWaterMark}. */
@@ -225,7 +248,8 @@ public class IOConsolePartitioner
 
 	@Override
 	public void disconnect() {
-		pendingPartitions.clear();
+		reportProducerWaits();
+		clearPendingPartitions();
 		synchronized (partitions) {
 			trimJob.cancel();
 			queueJob.cancel();
@@ -290,7 +314,7 @@ public class IOConsolePartitioner
 		if (streamsClosed) {
 			// do not expect new data since all streams are closed
 			// check if pending data is queued
-			final boolean morePending = !pendingPartitions.isEmpty();
+			final boolean morePending = hasPendingPartitions();
 			if (morePending) {
 				queueJob.schedule();
 			} else {
@@ -444,7 +468,7 @@ public class IOConsolePartitioner
 	 * Clears the console content.
 	 */
 	public void clearBuffer() {
-		pendingPartitions.clear();
+		clearPendingPartitions();
 		synchronized (partitions) {
 			if (document != null) {
 				trimJob.setTrimOffset(document.getLength());
@@ -691,27 +715,137 @@ public class IOConsolePartitioner
 		if (s == null) {
 			return;
 		}
-		PendingPartition partition = new PendingPartition(stream, s);
-		while (!offer(partition)) {
-			helpProgress();
+		long waitStart = 0;
+		boolean interrupted = false;
+		while (true) {
+			synchronized (pendingPartitions) {
+				if (pendingLength == 0 || pendingLength + s.length() <= MAX_PENDING_CHARS) {
+					final PendingPartition last = pendingPartitions.peekLast();
+					if (last != null && last.stream == stream && last.text.length() + s.length() <= frameBudget) {
+						last.text.append(s);
+					} else {
+						pendingPartitions.add(new PendingPartition(stream, s));
+					}
+					pendingLength += s.length();
+					maxPendingLength = Math.max(maxPendingLength, pendingLength);
+					if (waitStart != 0) {
+						producerWaitCount++;
+						producerWaitNanos += System.nanoTime() - waitStart;
+					}
+					break;
+				}
+				if (waitStart == 0) {
+					waitStart = System.nanoTime();
+				}
+				if (Display.getCurrent() == null) {
+					try {
+						pendingPartitions.wait(10);
+					} catch (InterruptedException e) {
+						// keep waiting, output must not be lost
+						interrupted = true;
+					}
+					continue;
+				}
+			}
+			// the UI thread cannot wait for the queue job, make room itself
+			queueJob.processPendingPartitions();
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
 		}
 		queueJob.schedule();
 	}
 
-	private void helpProgress() {
-		if (Display.getCurrent() != null) {
-			// make sure pendingPartitions can take
-			queueJob.processPendingPartitions();
-		} else {
-			Thread.yield(); // give UI thread chance to proceed
+	/**
+	 * Returns whether output is pending to be appended to the document.
+	 *
+	 * @return whether output is pending
+	 */
+	private boolean hasPendingPartitions() {
+		synchronized (pendingPartitions) {
+			return !pendingPartitions.isEmpty();
 		}
 	}
 
-	private boolean offer(PendingPartition p) {
-		try {
-			return pendingPartitions.offer(p, 10, TimeUnit.MILLISECONDS);
-		} catch (InterruptedException e) {
-			return false;
+	/**
+	 * Discards all pending output.
+	 */
+	private void clearPendingPartitions() {
+		synchronized (pendingPartitions) {
+			pendingPartitions.clear();
+			pendingLength = 0;
+			pendingPartitions.notifyAll();
+		}
+	}
+
+	/**
+	 * Logs how often and how long streams were blocked because too much output
+	 * was pending, if they were blocked at all.
+	 */
+	private void reportProducerWaits() {
+		synchronized (pendingPartitions) {
+			if (producerWaitCount > 0) {
+				log(IStatus.INFO, "Console output was blocked " + producerWaitCount + " times for " //$NON-NLS-1$ //$NON-NLS-2$
+						+ TimeUnit.NANOSECONDS.toMillis(producerWaitNanos) + " ms in total, up to " //$NON-NLS-1$
+						+ maxPendingLength + " characters were pending."); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Get the maximum number of pending characters appended to the document at
+	 * once. Smaller budgets keep the UI responsive during bursts of output, larger
+	 * budgets reduce the number of document updates.
+	 *
+	 * @return the frame budget in characters
+	 */
+	public int getFrameBudget() {
+		return frameBudget;
+	}
+
+	/**
+	 * Set the maximum number of pending characters appended to the document at
+	 * once.
+	 *
+	 * @param budget the frame budget in characters, at least one
+	 * @see #getFrameBudget()
+	 */
+	public void setFrameBudget(int budget) {
+		frameBudget = Math.max(1, budget);
+	}
+
+	/**
+	 * Get the number of times output streams had to wait because too much output
+	 * was pending.
+	 *
+	 * @return number of waiting appends
+	 */
+	public long getProducerWaitCount() {
+		synchronized (pendingPartitions) {
+			return producerWaitCount;
+		}
+	}
+
+	/**
+	 * Get the total time output streams had to wait because too much output was
+	 * pending.
+	 *
+	 * @return wait time in nanoseconds
+	 */
+	public long getProducerWaitTime() {
+		synchronized (pendingPartitions) {
+			return producerWaitNanos;
+		}
+	}
+
+	/**
+	 * Get the maximum number of characters that were pending at once.
+	 *
+	 * @return maximum pending length
+	 */
+	public int getMaxPendingLength() {
+		synchronized (pendingPartitions) {
+			return maxPendingLength;
 		}
 	}
 
@@ -719,12 +853,12 @@ public class IOConsolePartitioner
 	 * Holds data until updateJob can be run and the document can be updated.
 	 */
 	private class PendingPartition {
-		private final CharSequence text;
+		private final StringBuilder text;
 		private final IOConsoleOutputStream stream;
 
-		PendingPartition(IOConsoleOutputStream stream, CharSequence text) {
+		PendingPartition(IOConsoleOutputStream stream, String text) {
 			this.stream = stream;
-			this.text = text;
+			this.text = new StringBuilder(text);
 		}
 
 		@Override
@@ -771,19 +905,36 @@ public class IOConsolePartitioner
 		 */
 		@Override
 		public boolean shouldRun() {
-			return !pendingPartitions.isEmpty();
+			return hasPendingPartitions();
 		}
 
 		/**
-		 * Process {@link #pendingPartitions}, append their content to document and
-		 * update partitioning.
+		 * Process {@link #pendingPartitions} up to the {@link #frameBudget}, append
+		 * their content to document and update partitioning.
 		 */
 		private void processPendingPartitions() {
 			final List<PendingPartition> pendingCopy = new ArrayList<>();
-			// draining the whole buffer here is important - this way we get as much data as
-			// available and may skip to draw text that exceeds the Console buffer size
-			// anyway (see checkBufferSize()).
-			pendingPartitions.drainTo(pendingCopy);
+			boolean morePending;
+			// taking whole pending partitions up to the frame budget is important - this
+			// way we get much data at once and may skip to draw text that exceeds the
+			// Console buffer size anyway (see checkBufferSize()), but still let the UI
+			// paint between bursts. Only a single write larger than the budget exceeds it.
+			synchronized (pendingPartitions) {
+				final int budget = frameBudget;
+				int taken = 0;
+				while (!pendingPartitions.isEmpty()) {
+					final PendingPartition pending = pendingPartitions.peek();
+					if (taken > 0 && taken + pending.text.length() > budget) {
+						break;
+					}
+					pendingPartitions.poll();
+					taken += pending.text.length();
+					pendingCopy.add(pending);
+				}
+				pendingLength -= taken;
+				morePending = !pendingPartitions.isEmpty();
+				pendingPartitions.notifyAll();
+			}
 			int sizeHint = 0;
 			if (pendingCopy.isEmpty()) {
 				return;
@@ -802,6 +953,9 @@ public class IOConsolePartitioner
 				checkFinished();
 				checkBufferSize(); // needs partitions synchronized
 			}
+			if (morePending) {
+				schedule();
+			}
 		}
 
 		/**
@@ -1212,9 +1366,7 @@ public class IOConsolePartitioner
 
 						// remove partitions and reset Partition offsets
 						int index = partitions.indexOf(partition);
-						for (int i = 0; i < index; i++) {
-							partitions.remove(0);
-						}
+						partitions.subList(0, index).clear();
 
 						int offset = 0;
 						for (IOConsolePartition p : partitions) {
@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.console;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the line qualifiers of several pattern match listeners in one pass
+ * over the text. Qualifiers that are literals, or alternatives of literals,
+ * such as <code>\.java|Exception</code>, are searched for all at once by an
+ * Aho-Corasick automaton. Other qualifiers are not handled by this matcher
+ * and are matched as regular expressions by the caller.
+ */
+final class QualifierMatcher {
+
+	/**
+	 * Compiler flags that do not change how literals match.
+	 */
+	private static final int LITERAL_FLAGS = Pattern.MULTILINE | Pattern.DOTALL | Pattern.UNIX_LINES | Pattern.LITERAL;
+
+	/**
+	 * Characters with special meaning in regular expressions outside of
+	 * character classes, other than <code>|</code> and <code>\</code>.
+	 */
+	private static final String META_CHARACTERS = ".[]{}()*+?^$"; //$NON-NLS-1$
+
+	/**
+	 * A state of the automaton.
+	 */
+	private static final class Node {
+		char[] fChars = new char[0];
+		Node[] fChildren = new Node[0];
+		Node fFail;
+		/**
+		 * Pairs of listener index and literal length of the literals ending
+		 * in this state, including those of its failure states.
+		 */
+		int[] fOutputs = new int[0];
+
+		Node getChild(char c) {
+			int index = Arrays.binarySearch(fChars, c);
+			return index < 0 ? null : fChildren[index];
+		}
+
+		Node addChild(char c) {
+			int index = Arrays.binarySearch(fChars, c);
+			if (index >= 0) {
+				return fChildren[index];
+			}
+			index = -index - 1;
+			char[] chars = new char[fChars.length + 1];
+			Node[] children = new Node[fChildren.length + 1];
+			System.arraycopy(fChars, 0, chars, 0, index);
+			System.arraycopy(fChildren, 0, children, 0, index);
+			System.arraycopy(fChars, index, chars, index + 1, fChars.length - index);
+			System.arraycopy(fChildren, index, children, index + 1, fChildren.length - index);
+			Node child = new Node();
+			chars[index] = c;
+			children[index] = child;
+			fChars = chars;
+			fChildren = children;
+			return child;
+		}
+
+		void addOutputs(int[] outputs) {
+			int length = fOutputs.length;
+			fOutputs = Arrays.copyOf(fOutputs, length + outputs.length);
+			System.arraycopy(outputs, 0, fOutputs, length, outputs.length);
+		}
+	}
+
+	private final Node fRoot = new Node();
+	private final boolean[] fHandled;
+	private final int fListenerCount;
+	private final boolean fEmpty;
+
+	/**
+	 * Creates a matcher of the given literals.
+	 *
+	 * @param literals for each listener, the literals of its qualifier or
+	 *            <code>null</code> if its qualifier is not handled by this
+	 *            matcher
+	 */
+	QualifierMatcher(String[][] literals) {
+		fListenerCount = literals.length;
+		fHandled = new boolean[literals.length];
+		boolean empty = true;
+		for (int i = 0; i < literals.length; i++) {
+			if (literals[i] == null) {
+				continue;
+			}
+			fHandled[i] = true;
+			for (String literal : literals[i]) {
+				Node node = fRoot;
+				for (int j = 0; j < literal.length(); j++) {
+					node = node.addChild(literal.charAt(j));
+				}
+				node.addOutputs(new int[] { i, literal.length() });
+				empty = false;
+			}
+		}
+		fEmpty = empty;
+		computeFailures();
+	}
+
+	private void computeFailures() {
+		Deque<Node> queue = new ArrayDeque<>();
+		for (Node child : fRoot.fChildren) {
+			child.fFail = fRoot;
+			queue.add(child);
+		}
+		while (!queue.isEmpty()) {
+			Node node = queue.remove();
+			for (int i = 0; i < node.fChars.length; i++) {
+				char c = node.fChars[i];
+				Node child = node.fChildren[i];
+				Node fail = node.fFail;
+				while (fail != fRoot && fail.getChild(c) == null) {
+					fail = fail.fFail;
+				}
+				Node target = fail.getChild(c);
+				child.fFail = target == null ? fRoot : target;
+				child.addOutputs(child.fFail.fOutputs);
+				queue.add(child);
+			}
+		}
+	}
+
+	/**
+	 * Returns the start offsets of the qualifier matches of each listener in
+	 * the given text, in ascending order. The text is scanned once from the
+	 * smallest start offset of the listeners with literal qualifiers.
+	 *
+	 * @param text the text to search
+	 * @param from for each listener, the offset in the text from which its
+	 *            qualifier matches are of interest
+	 * @return for each listener, the offsets at which its qualifier matches,
+	 *         relative to its start offset, or <code>null</code> if its
+	 *         qualifier is not handled by this matcher
+	 */
+	int[][] findQualifiers(CharSequence text, int[] from) {
+		int[][] starts = new int[fListenerCount][];
+		if (fEmpty) {
+			return starts;
+		}
+		int[] counts = new int[fListenerCount];
+		int begin = text.length();
+		for (int i = 0; i < fListenerCount; i++) {
+			if (fHandled[i]) {
+				begin = Math.min(begin, from[i]);
+			}
+		}
+		Node node = fRoot;
+		for (int offset = Math.max(0, begin); offset < text.length(); offset++) {
+			char c = text.charAt(offset);
+			Node child = node.getChild(c);
+			while (child == null && node != fRoot) {
+				node = node.fFail;
+				child = node.getChild(c);
+			}
+			node = child == null ? fRoot : child;
+			int[] outputs = node.fOutputs;
+			for (int i = 0; i < outputs.length; i += 2) {
+				int listener = outputs[i];
+				int start = offset - outputs[i + 1] + 1;
+				if (start < from[listener]) {
+					continue;
+				}
+				int[] listenerStarts = starts[listener];
+				int count = counts[listener];
+				if (listenerStarts == null) {
+					listenerStarts = starts[listener] = new int[16];
+				} else if (count == listenerStarts.length) {
+					listenerStarts = starts[listener] = Arrays.copyOf(listenerStarts, count * 2);
+				}
+				listenerStarts[count] = start - from[listener];
+				counts[listener] = count + 1;
+			}
+		}
+		for (int i = 0; i < fListenerCount; i++) {
+			if (starts[i] != null) {
+				// longer literals of a listener end later but may start first
+				Arrays.sort(starts[i], 0, counts[i]);
+				starts[i] = Arrays.copyOf(starts[i], counts[i]);
+			} else if (fHandled[i]) {
+				starts[i] = new int[0];
+			}
+		}
+		return starts;
+	}
+
+	/**
+	 * Returns the literals matched by the given qualifier, or
+	 * <code>null</code> if it is not an alternative of non empty literals.
+	 *
+	 * @param qualifier a regular expression
+	 * @param flags its compiler flags
+	 * @return the literals matched by the qualifier or <code>null</code>
+	 */
+	static String[] getLiterals(String qualifier, int flags) {
+		if ((flags & ~LITERAL_FLAGS) != 0 || qualifier.isEmpty()) {
+			return null;
+		}
+		if ((flags & Pattern.LITERAL) != 0) {
+			return new String[] { qualifier };
+		}
+		List<String> literals = new ArrayList<>();
+		StringBuilder literal = new StringBuilder();
+		for (int i = 0; i < qualifier.length(); i++) {
+			char c = qualifier.charAt(i);
+			if (c == '|') {
+				if (literal.length() == 0) {
+					return null;
+				}
+				literals.add(literal.toString());
+				literal.setLength(0);
+			} else if (c == '\\') {
+				if (++i == qualifier.length()) {
+					return null;
+				}
+				char escaped = unescape(qualifier.charAt(i));
+				if (escaped == 0) {
+					return null;
+				}
+				literal.append(escaped);
+			} else if (META_CHARACTERS.indexOf(c) >= 0) {
+				return null;
+			} else {
+				literal.append(c);
+			}
+		}
+		if (literal.length() == 0) {
+			return null;
+		}
+		literals.add(literal.toString());
+		return literals.toArray(new String[literals.size()]);
+	}
+
+	/**
+	 * Returns the character matched by the given escaped character, or
+	 * <code>0</code> if the escape does not match a single literal character.
+	 */
+	private static char unescape(char c) {
+		switch (c) {
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'f':
+				return '\f';
+			case 'a':
+				return '\u0007';
+			case 'e':
+				return '\u001B';
+			default:
+				if (Character.isLetterOrDigit(c) || c >= 0x80) {
+					return 0;
+				}
+				return c;
+		}
+	}
+}
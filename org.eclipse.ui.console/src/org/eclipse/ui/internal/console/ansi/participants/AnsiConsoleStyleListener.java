@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012-2022 Mihai Nita and others
+ * Copyright (c) 2012-2023 Mihai Nita and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -11,17 +11,11 @@
 package org.eclipse.ui.internal.console.ansi.participants;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
 
-import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.BadPositionCategoryException;
-import org.eclipse.jface.text.DefaultPositionUpdater;
 import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IPositionUpdater;
-import org.eclipse.jface.text.Position;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.LineStyleEvent;
 import org.eclipse.swt.custom.LineStyleListener;
@@ -30,7 +24,6 @@ import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.GlyphMetrics;
-import org.eclipse.ui.internal.console.ansi.AnsiConsoleUtils;
 import org.eclipse.ui.internal.console.ansi.preferences.AnsiConsolePreferenceUtils;
 import org.eclipse.ui.internal.console.ansi.utils.AnsiConsoleAttributes;
 import org.eclipse.ui.internal.console.ansi.utils.AnsiConsoleColorPalette;
@@ -38,26 +31,25 @@ import org.eclipse.ui.internal.console.ansi.utils.AnsiConsoleColorPalette;
 public class AnsiConsoleStyleListener implements LineStyleListener, IPositionUpdater {
 	private static final Font MONO_FONT = new Font(null, "Monospaced", 6, SWT.NORMAL); //$NON-NLS-1$
 
-	private final DefaultPositionUpdater defaultPositionUpdater = new DefaultPositionUpdater(AnsiPosition.POSITION_NAME);
-	private final HashMap<Integer, List<StyleRange>> offsetToStyleRangeCache = new HashMap<>();
+	private final AnsiStyleIndex styleIndex = new AnsiStyleIndex();
 	private IDocument document;
 	private boolean documentEverScanned = false;
 	private boolean isCdtBuildConsole = false;
 	private int oldEventTime;
 
-	private AnsiConsoleAttributes lastVisibleAttribute = new AnsiConsoleAttributes();
-
 	public AnsiConsoleStyleListener(IDocument document) {
 		setDocument(document);
 		AnsiConsoleColorPalette.setPalette(AnsiConsolePreferenceUtils.getPreferredPalette());
 	}
 
 	private void setDocument(IDocument newDocument) {
-		offsetToStyleRangeCache.clear();
+		if (document != null) {
+			document.removePositionUpdater(this);
+		}
+		styleIndex.clear();
 		documentEverScanned = false;
 		document = newDocument;
 		isCdtBuildConsole = document.getClass().getSimpleName().equals("BuildConsoleDocument"); //$NON-NLS-1$
-		document.addPositionCategory(AnsiPosition.POSITION_NAME);
 		if (!hasPositionUpdater(this)) {
 			document.addPositionUpdater(this);
 		}
@@ -117,27 +109,18 @@ public class AnsiConsoleStyleListener implements LineStyleListener, IPositionUpd
 
 		final int eventOffset = event.lineOffset;
 		final int eventLength = event.lineText.length();
-		final List<StyleRange> cachedRanges = offsetToStyleRangeCache.get(eventOffset);
-		if (cachedRanges != null) {
-			event.styles = cachedRanges.toArray(new StyleRange[0]);
-			return;
-		}
 		if (event.styles == null) { // It looks that in some cases this comes in as null
 			event.styles = new StyleRange[0];
 		}
 
 		if (!documentEverScanned) {
-			calculateDocumentAnsiPositions(document, 0, 0, null);
+			// The first time we scan the full document, then only the changes
+			styleIndex.clear();
+			styleIndex.replace(0, 0, document.get(), document.getLength());
+			documentEverScanned = true;
 		}
 
-		Position[] positions;
-		try {
-			positions = document.getPositions(AnsiPosition.POSITION_NAME);
-		} catch (BadPositionCategoryException e) {
-			return;
-		}
-
-		if (positions.length == 0) {
+		if (styleIndex.size() == 0) {
 			return;
 		}
 
@@ -153,26 +136,25 @@ public class AnsiConsoleStyleListener implements LineStyleListener, IPositionUpd
 		}
 
 		final List<StyleRange> ranges = new ArrayList<>();
-		AnsiConsoleAttributes prevAttr = lastVisibleAttribute;
+		// Binary search for the first escape sequence of the line, the index knows the attributes in effect before it
+		int index = styleIndex.find(eventOffset);
+		AnsiConsoleAttributes prevAttr = styleIndex.getAttributesBefore(index);
 		int prevPos = eventOffset;
 
-		for (Position position : positions) {
-			AnsiPosition apos = (AnsiPosition) position;
-			if (apos.getOffset() > eventOffset + eventLength) { // we passed the end of line, stop searching
+		for (; index < styleIndex.size(); index++) {
+			final int offset = styleIndex.getOffset(index);
+			if (offset >= eventOffset + eventLength) { // we passed the end of line, stop searching
 				break;
 			}
-			if (apos.overlapsWith(eventOffset, eventLength)) {
-				if (apos.offset != prevPos) {
-					addRange(ranges, prevPos, apos.offset - prevPos, prevAttr, foregroundColor, false);
-				}
-				addRange(ranges, apos.offset, apos.length, apos.attributes, foregroundColor, true);
-				prevPos = apos.offset + apos.length;
-			}
-			if (apos.attributes != null) {
-				// Attributes can be null for non \e[..m escapes, for example \e[K
-				// Those kind of escape sequences don't affect the attributes.
-				prevAttr = apos.attributes;
+			if (offset != prevPos) {
+				addRange(ranges, prevPos, offset - prevPos, prevAttr, foregroundColor, false);
 			}
+			final int length = styleIndex.getLength(index);
+			// Attributes are null for non \e[..m escapes, for example \e[K
+			// Those kind of escape sequences don't affect the attributes.
+			addRange(ranges, offset, length, styleIndex.getAttributes(index), foregroundColor, true);
+			prevPos = offset + length;
+			prevAttr = styleIndex.getAttributesBefore(index + 1);
 		}
 		addRange(ranges, prevPos, eventOffset + eventLength - prevPos, prevAttr, foregroundColor, false);
 
@@ -189,92 +171,22 @@ public class AnsiConsoleStyleListener implements LineStyleListener, IPositionUpd
 					}
 				}
 			}
-			offsetToStyleRangeCache.put(eventOffset, ranges);
 			event.styles = ranges.toArray(new StyleRange[0]);
 		}
 	}
 
-	private static List<AnsiPosition> findPositions(int offset, String currentText) {
-		final List<AnsiPosition> result = new ArrayList<>();
-		final Matcher matcher = AnsiConsoleUtils.ESCAPE_SEQUENCE_REGEX_TXT.matcher(currentText);
-		while (matcher.find()) {
-			int start = matcher.start();
-			String group = matcher.group();
-			result.add(new AnsiPosition(start + offset, group));
-		}
-		return result;
-	}
-
-	/**
-	 * We scan newly appended text, or the full document the first time.
-	 *
-	 * Although in a general an IDocument can also replace text, or insert text in the middle (or beginning)
-	 * that would complicate things a lot.
-	 * But this is a console output, so I don't expect such a thing to happen.
-	 * We only expect to append (at the end), or remove from the beginning (when the doc size > console buffer size)
-	 *   offset: 0, length: 0, "something" => Appended at beginning of doc (the doc was empty)
-	 *   offset:42, length: 0, "something" => Appended at end of doc. 42 was doc size before append.
-	 *   offset:0, length: 100, ""         => Removed the first 100 characters (replace with "" == remove)
-	 *
-	 * @param eventDocument The document
-	 * @param offset        Where was the text added. 0 => might mean remove, or the first content added
-	 * @param length        The length of the text replaced. 0 if append, != if removed (from the beginning)
-	 * @param text          For insert / append, this is the new text. For delete, empty string.
-	 */
-	private void calculateDocumentAnsiPositions(IDocument eventDocument, int offset, int length, String text) {
-		if (text == null) {
-			text = eventDocument.get();
-		}
-
-		if (length != 0) { // This is the length of the text replaced. If not zero then this is not append, is replace.
-			return;
-		}
-		// First time or the appended text is at the end (so it is not inserted text).
-		if (documentEverScanned && offset + text.length() != eventDocument.getLength()) {
-			return;
-		}
-		documentEverScanned = true;
-		try {
-			List<AnsiPosition> newPos = findPositions(offset, text);
-			for (AnsiPosition apos : newPos) {
-				eventDocument.addPosition(AnsiPosition.POSITION_NAME, apos);
-			}
-		} catch (BadPositionCategoryException | BadLocationException e) {
-			// ignored
-		}
-	}
-
 	@Override
 	public void update(DocumentEvent event) {
 		// Make sure we don't do anything if disabled
 		if (!AnsiConsolePreferenceUtils.isAnsiConsoleEnabled()) {
+			// The index misses the changes, rescan the document once enabled again
+			documentEverScanned = false;
 			return;
 		}
-
-		final IDocument eventDocument = event.getDocument();
-
-		final int offset = event.getOffset();
-		final int length = event.getLength();
-		final String text = event.getText();
-		try {
-			if (offset == 0 && length != 0) { // This removes the beginning. We scan to find and save the last style.
-				for (Position pos : eventDocument.getPositions(AnsiPosition.POSITION_NAME)) {
-					if (pos.offset >= length) {
-						break;
-					}
-					AnsiConsoleAttributes attributes = ((AnsiPosition) pos).attributes;
-					if (attributes != null) {
-						lastVisibleAttribute = attributes;
-					}
-				}
-			}
-			defaultPositionUpdater.update(event);
-			// This will only do something on new text (appended)
-			calculateDocumentAnsiPositions(eventDocument, offset, length, text);
-			// Would probably be possible to re-calculate things. But let's measure first (premature optimization and all that :-)
-			offsetToStyleRangeCache.clear();
-		} catch (BadPositionCategoryException e) {
-			// ignored
+		if (!documentEverScanned) {
+			return;
 		}
+		// This only parses new text (appended), other changes only move or drop escape sequences
+		styleIndex.replace(event.getOffset(), event.getLength(), event.getText(), event.getDocument().getLength());
 	}
 }
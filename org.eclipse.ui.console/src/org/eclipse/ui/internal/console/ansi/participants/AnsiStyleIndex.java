@@ -0,0 +1,516 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2023 Mihai Nita and others
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.ui.internal.console.ansi.participants;
+
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_CONCEAL_OFF;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_CONCEAL_ON;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_CROSSOUT_OFF;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_CROSSOUT_ON;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_FRAMED_OFF;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_FRAMED_ON;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_INTENSITY_BRIGHT;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_INTENSITY_FAINT;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_INTENSITY_NORMAL;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_ITALIC;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_ITALIC_OFF;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_NEGATIVE_OFF;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_NEGATIVE_ON;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_RESET;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_UNDERLINE;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_UNDERLINE_DOUBLE;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_ATTR_UNDERLINE_OFF;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_COLOR_BACKGROUND_FIRST;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_COLOR_BACKGROUND_LAST;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_COLOR_BACKGROUND_RESET;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_COLOR_FOREGROUND_FIRST;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_COLOR_FOREGROUND_LAST;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_COLOR_FOREGROUND_RESET;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_COLOR_INTENSITY_DELTA;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_HICOLOR_BACKGROUND;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_HICOLOR_BACKGROUND_FIRST;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_HICOLOR_BACKGROUND_LAST;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_HICOLOR_FOREGROUND;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_HICOLOR_FOREGROUND_FIRST;
+import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_HICOLOR_FOREGROUND_LAST;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.ui.internal.console.ansi.AnsiConsoleUtils;
+import org.eclipse.ui.internal.console.ansi.utils.AnsiConsoleAttributes;
+import org.eclipse.ui.internal.console.ansi.utils.AnsiConsoleColorPalette;
+
+/**
+ * The escape sequences of a console document and the attributes they select.
+ * <p>
+ * Text is parsed once as it is appended to the document, by a state machine
+ * which keeps its state between appends, so sequences split over several
+ * appends are found too. The sequences matched are the same as those of
+ * {@link AnsiConsoleUtils#ESCAPE_SEQUENCE_REGEX_TXT}.
+ * </p>
+ * <p>
+ * Each sequence is recorded in primitive arrays as its start, length and the
+ * id of the attributes in effect after it. Attributes are interned, so equal
+ * attributes share one id. The interned attributes no longer used by any
+ * sequence are dropped when their number reaches a threshold, at least
+ * {@link #MAX_ATTRIBUTES} and twice the number of attributes kept by the
+ * previous compaction, or when the index is cleared. Sequences are located by a binary search over
+ * their starts. Starts are positions in the stream of all text ever appended,
+ * so removing text from the beginning of the document, as the console does
+ * when trimming, only drops the sequences removed.
+ * </p>
+ */
+public class AnsiStyleIndex {
+
+	/** Parser states */
+	private static final int STATE_TEXT = 0;
+	private static final int STATE_ESCAPE = 1;
+	private static final int STATE_SEQUENCE = 2;
+
+	private static final char ESCAPE = '\u001b';
+	/** Final characters of the matched escape sequences */
+	private static final String FINAL_CHARACTERS = "ABCDEFGHJKSTfimnsu"; //$NON-NLS-1$
+	/** Minimum number of interned attributes above which unused ones are dropped */
+	private static final int MAX_ATTRIBUTES = 1024;
+
+	/** Interned attributes, indexed by id */
+	private final List<AnsiConsoleAttributes> attributes = new ArrayList<>();
+	private final Map<AnsiConsoleAttributes, Integer> attributeIds = new HashMap<>();
+	/**
+	 * Number of interned attributes at which unused ones are dropped, so the
+	 * attributes are compacted at most once per doubling of the live ones
+	 */
+	private int compactThreshold = MAX_ATTRIBUTES;
+
+	/** Stream positions of the sequences, from {@link #head} */
+	private long[] starts = new long[64];
+	private int[] lengths = new int[64];
+	/**
+	 * Id of the attributes in effect after each sequence, shifted left by one.
+	 * The lowest bit is set for Select Graphic Rendition (SGR) sequences.
+	 */
+	private int[] styles = new int[64];
+	private int head;
+	private int count;
+
+	/** Stream position of the first character of the document */
+	private long base;
+	/** Stream position after the last character of the document */
+	private long end;
+	/** Id of the attributes in effect at the beginning of the document */
+	private int initialId;
+
+	/** Attributes selected by the sequences parsed so far */
+	private final AnsiConsoleAttributes current = new AnsiConsoleAttributes();
+	private int currentId;
+
+	private int state = STATE_TEXT;
+	/** Stream position of the sequence being parsed */
+	private long sequenceStart;
+	private final StringBuilder parameters = new StringBuilder();
+
+	public AnsiStyleIndex() {
+		initialId = intern(current);
+		currentId = initialId;
+	}
+
+	/**
+	 * Removes all sequences and resets the attributes.
+	 */
+	public void clear() {
+		head = 0;
+		count = 0;
+		base = 0;
+		end = 0;
+		state = STATE_TEXT;
+		attributes.clear();
+		attributeIds.clear();
+		compactThreshold = MAX_ATTRIBUTES;
+		current.reset();
+		initialId = intern(current);
+		currentId = initialId;
+	}
+
+	/**
+	 * Updates the index for a change of the document.
+	 *
+	 * @param offset         offset of the replaced text
+	 * @param length         length of the replaced text
+	 * @param text           the new text, may be <code>null</code>
+	 * @param documentLength length of the document after the change
+	 */
+	public void replace(int offset, int length, String text, int documentLength) {
+		final int textLength = text == null ? 0 : text.length();
+		if (length == 0 && offset == end - base && offset + textLength == documentLength) {
+			// appended, the common case
+			append(text);
+			return;
+		}
+		// A sequence being parsed is at the end of the document, so it is
+		// broken by any other change. Inserted text is not parsed, unless
+		// it ends the document.
+		state = STATE_TEXT;
+		if (offset == 0 && length > 0) {
+			removeStart(length);
+		} else if (length > 0) {
+			remove(offset, length);
+		}
+		if (textLength == 0) {
+			return;
+		}
+		if (offset + textLength == documentLength) {
+			end = base + offset;
+			append(text);
+		} else {
+			shift(offset, textLength);
+		}
+	}
+
+	/**
+	 * Parses text appended to the document.
+	 */
+	private void append(CharSequence text) {
+		if (text == null) {
+			return;
+		}
+		final int length = text.length();
+		for (int i = 0; i < length; i++) {
+			final char c = text.charAt(i);
+			final long position = end + i;
+			switch (state) {
+				case STATE_ESCAPE:
+					if (c == '[') {
+						parameters.setLength(0);
+						state = STATE_SEQUENCE;
+						continue;
+					}
+					break;
+				case STATE_SEQUENCE:
+					if ((c >= '0' && c <= '9') || c == ';') {
+						parameters.append(c);
+						continue;
+					}
+					if (FINAL_CHARACTERS.indexOf(c) >= 0) {
+						addSequence(sequenceStart, (int) (position + 1 - sequenceStart), c);
+						state = STATE_TEXT;
+						continue;
+					}
+					break;
+				default:
+					break;
+			}
+			if (c == ESCAPE) {
+				sequenceStart = position;
+				state = STATE_ESCAPE;
+			} else {
+				state = STATE_TEXT;
+			}
+		}
+		end += length;
+	}
+
+	private void addSequence(long start, int length, char code) {
+		final boolean sgr = code == AnsiConsoleUtils.ESCAPE_SGR;
+		if (sgr) {
+			interpretCommand(parseSemicolonSeparatedIntList(parameters), current);
+			currentId = intern(current);
+		}
+		if (head + count == starts.length) {
+			if (head > starts.length / 2) {
+				System.arraycopy(starts, head, starts, 0, count);
+				System.arraycopy(lengths, head, lengths, 0, count);
+				System.arraycopy(styles, head, styles, 0, count);
+				head = 0;
+			} else {
+				starts = Arrays.copyOf(starts, starts.length * 2);
+				lengths = Arrays.copyOf(lengths, lengths.length * 2);
+				styles = Arrays.copyOf(styles, styles.length * 2);
+			}
+		}
+		final int slot = head + count++;
+		starts[slot] = start;
+		lengths[slot] = length;
+		styles[slot] = currentId << 1 | (sgr ? 1 : 0);
+	}
+
+	private int intern(AnsiConsoleAttributes attribute) {
+		Integer id = attributeIds.get(attribute);
+		if (id == null && attributes.size() >= compactThreshold) {
+			compact();
+			id = attributeIds.get(attribute);
+		}
+		if (id == null) {
+			final AnsiConsoleAttributes copy = AnsiConsoleAttributes.from(attribute);
+			id = Integer.valueOf(attributes.size());
+			attributes.add(copy);
+			attributeIds.put(copy, id);
+		}
+		return id.intValue();
+	}
+
+	/**
+	 * Drops the interned attributes not used by any sequence, nor in effect at
+	 * the beginning of the document or after the last sequence.
+	 */
+	private void compact() {
+		final List<AnsiConsoleAttributes> used = new ArrayList<>(attributes);
+		final int[] newIds = new int[used.size()];
+		Arrays.fill(newIds, -1);
+		attributes.clear();
+		attributeIds.clear();
+		initialId = reintern(used, newIds, initialId);
+		currentId = reintern(used, newIds, currentId);
+		for (int i = head; i < head + count; i++) {
+			styles[i] = reintern(used, newIds, styles[i] >> 1) << 1 | (styles[i] & 1);
+		}
+		compactThreshold = Math.max(MAX_ATTRIBUTES, 2 * attributes.size());
+	}
+
+	private int reintern(List<AnsiConsoleAttributes> used, int[] newIds, int id) {
+		if (newIds[id] < 0) {
+			final AnsiConsoleAttributes attribute = used.get(id);
+			newIds[id] = attributes.size();
+			attributes.add(attribute);
+			attributeIds.put(attribute, Integer.valueOf(newIds[id]));
+		}
+		return newIds[id];
+	}
+
+	/**
+	 * Removes text from the beginning of the document, dropping the sequences
+	 * removed entirely.
+	 */
+	private void removeStart(int length) {
+		base += length;
+		while (count > 0 && starts[head] + lengths[head] <= base) {
+			initialId = styles[head] >> 1;
+			head++;
+			count--;
+		}
+		if (count == 0) {
+			head = 0;
+		}
+	}
+
+	/**
+	 * Removes text from the middle or the end of the document, dropping the
+	 * sequences it overlaps.
+	 */
+	private void remove(int offset, int length) {
+		final long start = base + offset;
+		final long removedEnd = start + length;
+		int to = head;
+		for (int i = head; i < head + count; i++) {
+			if (starts[i] < removedEnd && start < starts[i] + lengths[i]) {
+				continue;
+			}
+			starts[to] = starts[i] >= removedEnd ? starts[i] - length : starts[i];
+			lengths[to] = lengths[i];
+			styles[to] = styles[i];
+			to++;
+		}
+		count = to - head;
+		end -= length;
+	}
+
+	/**
+	 * Moves the sequences after text inserted into the document and lengthens
+	 * a sequence the text is inserted into.
+	 */
+	private void shift(int offset, int length) {
+		final long start = base + offset;
+		for (int i = findPosition(start); i < count; i++) {
+			if (starts[head + i] >= start) {
+				starts[head + i] += length;
+			} else {
+				lengths[head + i] += length;
+			}
+		}
+		end += length;
+	}
+
+	/**
+	 * Returns the index of the first sequence ending after the given stream
+	 * position.
+	 */
+	private int findPosition(long position) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (starts[head + middle] + lengths[head + middle] <= position) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return the number of sequences
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns the index of the first sequence ending after the given offset of
+	 * the document, or {@link #size()} if none.
+	 *
+	 * @param offset document offset
+	 * @return index of a sequence
+	 */
+	public int find(int offset) {
+		return findPosition(base + offset);
+	}
+
+	/**
+	 * @param index index of a sequence
+	 * @return the document offset of the sequence
+	 */
+	public int getOffset(int index) {
+		return (int) Math.max(0, starts[head + index] - base);
+	}
+
+	/**
+	 * @param index index of a sequence
+	 * @return the length of the sequence in the document
+	 */
+	public int getLength(int index) {
+		final long start = starts[head + index];
+		return (int) (start + lengths[head + index] - Math.max(start, base));
+	}
+
+	/**
+	 * Returns the attributes selected by the sequence, or <code>null</code> for
+	 * sequences other than Select Graphic Rendition, such as <code>\e[K</code>,
+	 * which don't affect the attributes.
+	 *
+	 * @param index index of a sequence
+	 * @return the attributes selected or <code>null</code>
+	 */
+	public AnsiConsoleAttributes getAttributes(int index) {
+		final int style = styles[head + index];
+		return (style & 1) == 0 ? null : attributes.get(style >> 1);
+	}
+
+	/**
+	 * Returns the attributes in effect before the sequence of the given index.
+	 * The attributes must not be modified.
+	 *
+	 * @param index index of a sequence, or {@link #size()} for the attributes in
+	 *              effect after all sequences
+	 * @return the attributes in effect
+	 */
+	public AnsiConsoleAttributes getAttributesBefore(int index) {
+		return attributes.get(index == 0 ? initialId : styles[head + index - 1] >> 1);
+	}
+
+	// Takes a string that looks like this: int [ ';' int] and returns the integers
+	private static int[] parseSemicolonSeparatedIntList(CharSequence text) {
+		int[] result = new int[10];
+		int size = 0;
+		int crtValue = 0;
+		for (int i = 0; i <= text.length(); i++) {
+			char ch = i < text.length() ? text.charAt(i) : ';';
+			if (ch >= '0' && ch <= '9') {
+				crtValue *= 10;
+				crtValue += ch - '0';
+			} else {
+				if (size == result.length) {
+					result = Arrays.copyOf(result, size * 2);
+				}
+				result[size++] = crtValue;
+				crtValue = 0;
+			}
+		}
+		return Arrays.copyOf(result, size);
+	}
+
+	private static void interpretCommand(int[] nCommands, AnsiConsoleAttributes current) {
+
+		int i = 0;
+		while (i < nCommands.length) {
+			int nCmd = nCommands[i++];
+			switch (nCmd) {
+				case COMMAND_ATTR_RESET:             current.reset(); break;
+
+				case COMMAND_ATTR_INTENSITY_BRIGHT:  current.bold = true; break;
+				case COMMAND_ATTR_INTENSITY_FAINT: // Intentional fallthrough
+				case COMMAND_ATTR_INTENSITY_NORMAL:  current.bold = false; break;
+
+				case COMMAND_ATTR_ITALIC:            current.italic = true; break;
+				case COMMAND_ATTR_ITALIC_OFF:        current.italic = false; break;
+
+				case COMMAND_ATTR_UNDERLINE:         current.underline = SWT.UNDERLINE_SINGLE; break;
+				case COMMAND_ATTR_UNDERLINE_DOUBLE:  current.underline = SWT.UNDERLINE_DOUBLE; break;
+				case COMMAND_ATTR_UNDERLINE_OFF:     current.underline = AnsiConsoleAttributes.UNDERLINE_NONE; break;
+
+				case COMMAND_ATTR_CROSSOUT_ON:       current.strike = true; break;
+				case COMMAND_ATTR_CROSSOUT_OFF:      current.strike = false; break;
+
+				case COMMAND_ATTR_NEGATIVE_ON:       current.invert = true; break;
+				case COMMAND_ATTR_NEGATIVE_OFF:      current.invert = false; break;
+
+				case COMMAND_ATTR_CONCEAL_ON:        current.conceal = true; break;
+				case COMMAND_ATTR_CONCEAL_OFF:       current.conceal = false; break;
+
+				case COMMAND_ATTR_FRAMED_ON:         current.framed = true; break;
+				case COMMAND_ATTR_FRAMED_OFF:        current.framed = false; break;
+
+				case COMMAND_COLOR_FOREGROUND_RESET: current.currentFgColor = null; break;
+				case COMMAND_COLOR_BACKGROUND_RESET: current.currentBgColor = null; break;
+
+				case COMMAND_HICOLOR_FOREGROUND:
+				case COMMAND_HICOLOR_BACKGROUND: // {esc}[48;5;{color}m
+					int color = -1;
+					int nMustBe2or5 = i < nCommands.length ? nCommands[i++] : -1;
+					if (nMustBe2or5 == 5) { // 256 colors
+						color = i < nCommands.length ? nCommands[i++] : -1;
+						if (!AnsiConsoleColorPalette.isValidIndex(color)) {
+							color = -1;
+						}
+					} else if (nMustBe2or5 == 2) { // rgb colors
+						int r = i < nCommands.length ? nCommands[i++] : -1;
+						int g = i < nCommands.length ? nCommands[i++] : -1;
+						int b = i < nCommands.length ? nCommands[i++] : -1;
+						color = AnsiConsoleColorPalette.hackRgb(r, g, b);
+					}
+					if (color != -1) {
+						if (nCmd == COMMAND_HICOLOR_FOREGROUND) {
+							current.currentFgColor = color;
+						} else {
+							current.currentBgColor = color;
+						}
+					}
+					break;
+
+				case -1: break; // do nothing
+
+				default:
+					if (nCmd >= COMMAND_COLOR_FOREGROUND_FIRST && nCmd <= COMMAND_COLOR_FOREGROUND_LAST) { // text color
+						current.currentFgColor = nCmd - COMMAND_COLOR_FOREGROUND_FIRST;
+					} else if (nCmd >= COMMAND_COLOR_BACKGROUND_FIRST && nCmd <= COMMAND_COLOR_BACKGROUND_LAST) { // background color
+						current.currentBgColor = nCmd - COMMAND_COLOR_BACKGROUND_FIRST;
+					} else if (nCmd >= COMMAND_HICOLOR_FOREGROUND_FIRST && nCmd <= COMMAND_HICOLOR_FOREGROUND_LAST) { // text color
+						current.currentFgColor = nCmd - COMMAND_HICOLOR_FOREGROUND_FIRST + COMMAND_COLOR_INTENSITY_DELTA;
+					} else if (nCmd >= COMMAND_HICOLOR_BACKGROUND_FIRST && nCmd <= COMMAND_HICOLOR_BACKGROUND_LAST) { // background color
+						current.currentBgColor = nCmd - COMMAND_HICOLOR_BACKGROUND_FIRST + COMMAND_COLOR_INTENSITY_DELTA;
+					}
+			}
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012-2022 Mihai Nita and others
+ * Copyright (c) 2012-2023 Mihai Nita and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -12,6 +12,8 @@ package org.eclipse.ui.internal.console.ansi.utils;
 
 import static org.eclipse.ui.internal.console.ansi.utils.AnsiCommands.COMMAND_COLOR_INTENSITY_DELTA;
 
+import java.util.Objects;
+
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.StyleRange;
 import org.eclipse.swt.graphics.Color;
@@ -64,6 +66,25 @@ public class AnsiConsoleAttributes {
 		return result;
 	}
 
+	@Override
+	public int hashCode() {
+		return Objects.hash(currentBgColor, currentFgColor, underline, bold, italic, invert, conceal, strike, framed);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof AnsiConsoleAttributes)) {
+			return false;
+		}
+		AnsiConsoleAttributes other = (AnsiConsoleAttributes) obj;
+		return Objects.equals(currentBgColor, other.currentBgColor) && Objects.equals(currentFgColor, other.currentFgColor)
+				&& underline == other.underline && bold == other.bold && italic == other.italic && invert == other.invert
+				&& conceal == other.conceal && strike == other.strike && framed == other.framed;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder result = new StringBuilder();